@@ -0,0 +1,41 @@
+package com.eugene_andrienko.telepodcast;
+
+import com.beust.jcommander.JCommander;
+import com.eugene_andrienko.telepodcast.logging.ConsoleConfigurationFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.ConfigurationFactory;
+
+
+/**
+ * Training run for AppCDS archive: loads classes, which are loaded on every start of
+ * application, and exits. Classes loaded here are dumped to archive by
+ * {@code -XX:ArchiveClassesAtExit} and mapped from it by the next starts.
+ *
+ * Used by {@code cds} build profile, no need to run it by hand.
+ */
+public class CdsTraining
+{
+    private static final String TDLIB_API = "org.drinkless.tdlib.TdApi";
+
+    public static void main(String[] args) throws ClassNotFoundException
+    {
+        // Logging is configured like console run of application, so its classes are archived too:
+        ConfigurationFactory.setConfigurationFactory(new ConsoleConfigurationFactory());
+        Logger log = LogManager.getLogger(CdsTraining.class);
+
+        // Classes of arguments parsing and help message:
+        JCommander jCommander = JCommander.newBuilder().addObject(new TelePodcast()).build();
+        jCommander.getUsageFormatter().usage(new StringBuilder());
+
+        // TDLib API is thousands of generated classes — the most of class loading time:
+        Class<?> tdApi = Class.forName(TDLIB_API);
+        int count = 0;
+        for(Class<?> tdClass : tdApi.getDeclaredClasses())
+        {
+            Class.forName(tdClass.getName());
+            count++;
+        }
+        log.info("Loaded {} TDLib classes", count);
+    }
+}
@@ -4,19 +4,33 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import com.beust.jcommander.internal.Console;
+import com.eugene_andrienko.metrics.api.Metrics;
+import com.eugene_andrienko.metrics.api.MetricsExporter;
+import com.eugene_andrienko.metrics.api.TraceExporter;
+import com.eugene_andrienko.metrics.api.Tracing;
+import com.eugene_andrienko.metrics.impl.ChromeTraceExporter;
+import com.eugene_andrienko.metrics.impl.LogExporter;
+import com.eugene_andrienko.metrics.impl.PrometheusExporter;
 import com.eugene_andrienko.telegram.api.TelegramApi;
 import com.eugene_andrienko.telegram.api.TelegramOptions;
+import com.eugene_andrienko.telegram.api.UpdateInterest;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
 import com.eugene_andrienko.telepodcast.cli.CLI;
 import com.eugene_andrienko.telepodcast.gui.GUI;
+import com.eugene_andrienko.telepodcast.helpers.DescriptionFilter;
 import com.eugene_andrienko.telepodcast.logging.ConsoleConfigurationFactory;
 import com.eugene_andrienko.telepodcast.logging.ConsoleDebugConfigurationFactory;
 import com.eugene_andrienko.telepodcast.logging.DebugConfigurationFactory;
 import com.eugene_andrienko.telepodcast.logging.NoneConfigurationFactory;
+import com.eugene_andrienko.telepodcast.subscriptions.SubscriptionOptions;
 import com.eugene_andrienko.telepodcast.tui.TUI;
 import com.eugene_andrienko.telepodcast.tui.TUIException;
+import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import lombok.Cleanup;
 import org.apache.logging.log4j.LogManager;
@@ -46,14 +60,23 @@ public class TelePodcast
     private String tdlibLog = "tdlib.log";
     @Parameter(names = "--tdlib-dir", description = "Path to TDLib data directory", order = 9)
     private String tdlibDir = homeDir + "/.tdlib";
-    @Parameter(names = "--downloader-threads", description = "Count of threads for downloading " +
-                                                             "video from YouTube", order = 7)
+    @Parameter(names = {"--concurrency-limit", "--downloader-threads"},
+               description = "Maximal count of simultaneous downloads from YouTube", order = 7)
     private int downloaderThreads = 3;
+    @Parameter(names = "--download-limit", description = "Total rate of downloads from YouTube " +
+                                                         "in KiB/s, 0 — no limit", order = 15)
+    private long downloadLimit = 0;
+    @Parameter(names = "--upload-limit", description = "Average rate of uploads to Telegram in " +
+                                                       "KiB/s, 0 — no limit", order = 16)
+    private long uploadLimit = 0;
 
     @Parameter(names = {"-g", "--gui"}, description = "Launch GUI", order = 3)
     private boolean launchGui = false;
     @Parameter(names = {"-t", "--tui"}, description = "Launch TUI", order = 4)
     private boolean launchTui = false;
+    @Parameter(names = "--prefetch", description = "In TUI start downloads while videos are " +
+                                                  "still being selected", order = 14)
+    private boolean prefetch = false;
 
     @Parameter(names = "--audio-urls", description = "List of URLs to download and upload as " +
                                                      "audio", variableArity = true, order = 5)
@@ -61,9 +84,47 @@ public class TelePodcast
     @Parameter(names = "--video-urls", description = "List of URLs to download and upload as " +
                                                      "video", variableArity = true, order = 6)
     private List<String> videoUrls = new ArrayList<>();
+    @Parameter(names = "--subscriptions", description = "File with list of YouTube channels to " +
+                                                        "check for new videos", order = 10)
+    private String subscriptions = null;
+    @Parameter(names = "--subscriptions-dir", description = "Path to directory with already " +
+                                                            "delivered videos from channels",
+               order = 11)
+    private String subscriptionsDir = homeDir + "/.telepodcast/subscriptions";
+    @Parameter(names = "--subscriptions-limit", description = "Maximal count of new videos to " +
+                                                              "get from one channel", order = 12)
+    private int subscriptionsLimit = 5;
+    @Parameter(names = "--subscriptions-date-after", description = "Get only videos uploaded on " +
+                                                                   "or after this date " +
+                                                                   "(YYYYMMDD), listing of " +
+                                                                   "channels is slower",
+               order = 13)
+    private String subscriptionsDateAfter = null;
+    @Parameter(names = "--filters", description = "File with rules for removing garbage from " +
+                                                  "video descriptions", order = 17)
+    private String filters = null;
+    @Parameter(names = "--chapters-from-comments", description = "Count of the most popular " +
+                                                                 "comments to search for " +
+                                                                 "chapters, if video has no " +
+                                                                 "chapters, 0 — do not search",
+               order = 18)
+    private int chapterComments = 0;
+    @Parameter(names = "--metrics-port", description = "Local port to serve metrics in " +
+                                                       "Prometheus format, 0 — do not serve",
+               order = 19)
+    private int metricsPort = 0;
+    @Parameter(names = "--metrics-log-interval", description = "Interval in seconds to write " +
+                                                               "metrics to log, 0 — do not write",
+               order = 20)
+    private int metricsLogInterval = 0;
+    @Parameter(names = "--trace-file", description = "File to write trace of jobs in Chrome " +
+                                                     "trace format", order = 21)
+    private String traceFile = null;
 
     private int apiId = 1;
     private String apiHash = "-";
+    // Time from JVM start to start of the program:
+    private long startupMillis = 0;
 
     private static final String PROGRAM_NAME = "telepodcast";
 
@@ -87,6 +148,8 @@ public class TelePodcast
 
         setupLogger();
         log = LogManager.getLogger(TelePodcast.class);
+        startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Started in {} ms", startupMillis);
 
         if(authorize)
         {
@@ -113,8 +176,21 @@ public class TelePodcast
             }
         }
 
-        TelegramOptions telegramOptions = new TelegramOptions(apiId, apiHash, 50, 2, 50,
-                tdlibLog, tdlibDir, debug);
+        TelegramOptions telegramOptions = TelegramOptions.builder()
+                .apiId(apiId)
+                .apiHash(apiHash)
+                .loadingChatsLimit(50)
+                .resendRetries(2)
+                .delaySeconds(50)
+                .tdlibLog(tdlibLog)
+                .tdlibDir(tdlibDir)
+                .debug(debug)
+                .uploadLimit(uploadLimit * 1024)
+                // Authorization needs only chats to find «Saved Messages», nothing is uploaded:
+                .updateInterests(authorize ?
+                                 EnumSet.of(UpdateInterest.CHATS) :
+                                 EnumSet.allOf(UpdateInterest.class))
+                .build();
         log.debug("TelegramOptions:: {}", telegramOptions);
 
         if(authorize)
@@ -136,18 +212,96 @@ public class TelePodcast
             return;
         }
 
-        if(launchGui)
+        TraceExporter traceExporter = startTracing();
+        List<MetricsExporter> exporters = startMetricsExporters();
+        try
         {
-            new GUI();
+            if(launchGui)
+            {
+                new GUI();
+            }
+            else if(launchTui)
+            {
+                startTUI(telegramOptions, getDescriptionFilter());
+            }
+            else
+            {
+                startCLI(telegramOptions, getDescriptionFilter());
+            }
         }
-        else if(launchTui)
+        finally
         {
-            startTUI(telegramOptions);
+            exporters.forEach(MetricsExporter::close);
+            if(traceExporter != null)
+            {
+                Tracing.disable();
+                traceExporter.close();
+            }
         }
-        else
+    }
+
+    /**
+     * Enables tracing of jobs, if trace file is given.
+     *
+     * @return Exporter of trace or {@code null} if tracing is not requested.
+     */
+    private TraceExporter startTracing()
+    {
+        if(traceFile == null)
+        {
+            return null;
+        }
+        try
+        {
+            TraceExporter exporter = new ChromeTraceExporter(new File(traceFile));
+            Tracing.enable(exporter);
+            return exporter;
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to create trace file {}", traceFile);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Enables metrics and starts their exporters, if any exporter is requested.
+     *
+     * @return Started exporters.
+     */
+    private List<MetricsExporter> startMetricsExporters()
+    {
+        List<MetricsExporter> exporters = new ArrayList<>();
+        if(metricsPort > 0)
+        {
+            exporters.add(new PrometheusExporter(metricsPort));
+        }
+        if(metricsLogInterval > 0)
         {
-            startCLI(telegramOptions);
+            exporters.add(new LogExporter(Duration.ofSeconds(metricsLogInterval)));
         }
+        if(exporters.isEmpty())
+        {
+            return exporters;
+        }
+
+        Metrics.enable();
+        Metrics.gauge("telepodcast_startup_milliseconds", "Time from JVM start to start of " +
+                                                          "the program", () -> startupMillis);
+        for(MetricsExporter exporter : exporters)
+        {
+            try
+            {
+                exporter.start();
+            }
+            catch(IOException ex)
+            {
+                log.error("Failed to start metrics exporter: ", ex);
+                exporters.forEach(MetricsExporter::close);
+                throw new RuntimeException(ex);
+            }
+        }
+        return exporters;
     }
 
     private void showHelpMessageAndExit()
@@ -179,17 +333,41 @@ public class TelePodcast
         }
     }
 
+    /**
+     * Loads rules for removing garbage from video descriptions.
+     *
+     * @return Filter from rule file or filter with default rules if no file provided.
+     */
+    private DescriptionFilter getDescriptionFilter()
+    {
+        if(filters == null)
+        {
+            return DescriptionFilter.getDefault();
+        }
+        try
+        {
+            return DescriptionFilter.load(new File(filters));
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to load rules for video descriptions!");
+            throw new RuntimeException(ex);
+        }
+    }
+
     /**
      * Starts simple CLI.
      *
-     * @param telegramOptions Initialized {@code TelegramOptions} class.
+     * @param telegramOptions   Initialized {@code TelegramOptions} class.
+     * @param descriptionFilter Rules for removing garbage from video descriptions.
      */
-    private void startCLI(TelegramOptions telegramOptions)
+    private void startCLI(TelegramOptions telegramOptions, DescriptionFilter descriptionFilter)
     {
         try
         {
             @Cleanup
-            CLI cli = new CLI(telegramOptions, audioUrls, videoUrls, downloaderThreads);
+            CLI cli = new CLI(telegramOptions, audioUrls, videoUrls, getSubscriptionOptions(),
+                    downloaderThreads, downloadLimit * 1024, chapterComments, descriptionFilter);
             cli.start();
         }
         catch(Exception ex)
@@ -199,17 +377,41 @@ public class TelePodcast
         }
     }
 
+    /**
+     * Prepares options for subscription watcher.
+     *
+     * @return Initialized {@code SubscriptionOptions} or null if no subscriptions provided.
+     */
+    private SubscriptionOptions getSubscriptionOptions()
+    {
+        if(subscriptions == null)
+        {
+            return null;
+        }
+        SubscriptionOptions options = SubscriptionOptions.builder()
+                .channelsFile(new File(subscriptions))
+                .storeDirectory(new File(subscriptionsDir))
+                .limit(subscriptionsLimit)
+                .dateAfter(subscriptionsDateAfter)
+                .threads(downloaderThreads)
+                .build();
+        log.debug("SubscriptionOptions:: {}", options);
+        return options;
+    }
+
     /**
      * Starts Terminal User Interface.
      *
-     * @param telegramOptions Initialized {@code TelegramOptions} class.
+     * @param telegramOptions   Initialized {@code TelegramOptions} class.
+     * @param descriptionFilter Rules for removing garbage from video descriptions.
      */
-    private void startTUI(TelegramOptions telegramOptions)
+    private void startTUI(TelegramOptions telegramOptions, DescriptionFilter descriptionFilter)
     {
         try
         {
             @Cleanup
-            TUI tui = new TUI(telegramOptions, downloaderThreads);
+            TUI tui = new TUI(telegramOptions, downloaderThreads, downloadLimit * 1024,
+                    prefetch, chapterComments, descriptionFilter);
             tui.start();
         }
         catch(TUIException ex)
@@ -1,12 +1,18 @@
 package com.eugene_andrienko.telepodcast.cli;
 
+import com.eugene_andrienko.metrics.api.Span;
+import com.eugene_andrienko.metrics.api.Tracing;
 import com.eugene_andrienko.telegram.api.TelegramApi;
 import com.eugene_andrienko.telegram.api.TelegramOptions;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramSendMessageException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramUploadFileException;
+import com.eugene_andrienko.telepodcast.helpers.DescriptionFilter;
 import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover;
 import com.eugene_andrienko.telepodcast.helpers.SimpleTextHelper;
+import com.eugene_andrienko.telepodcast.subscriptions.SubscriptionOptions;
+import com.eugene_andrienko.telepodcast.subscriptions.SubscriptionWatcher;
+import com.eugene_andrienko.telepodcast.subscriptions.SubscriptionWatcher.Episode;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.DownloadState;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData;
@@ -26,30 +32,41 @@ import lombok.extern.log4j.Log4j2;
 public class CLI implements AutoCloseable
 {
     private TelegramApi telegram;
+    // Login result: null — login is not tried yet:
+    private Boolean loggedIn = null;
     private YouTubeDlApi youtube;
     private List<String> audioUrls;
     private List<String> videoUrls;
+    private SubscriptionWatcher subscriptionWatcher;
+    private DescriptionFilter descriptionFilter;
 
     public CLI(TelegramOptions telegramOptions, List<String> audioUrls, List<String> videoUrls,
-            int downloaderThreads)
+            SubscriptionOptions subscriptionOptions, int downloaderThreads, long downloadLimit,
+            int chapterComments, DescriptionFilter descriptionFilter)
     {
-        if(audioUrls.isEmpty() && videoUrls.isEmpty())
+        if(audioUrls.isEmpty() && videoUrls.isEmpty() && subscriptionOptions == null)
         {
             log.error("No one URL is provided!");
             return;
         }
         this.audioUrls = audioUrls;
         this.videoUrls = videoUrls;
+        this.descriptionFilter = descriptionFilter;
 
         try
         {
+            // Login is deferred till the first upload — so downloads start without waiting for
+            // TDLib:
             telegram = new TelegramApi(telegramOptions);
-            telegram.login();
-            youtube = new YouTubeDlApi(downloaderThreads);
+            youtube = new YouTubeDlApi(downloaderThreads, downloadLimit, chapterComments);
+            if(subscriptionOptions != null)
+            {
+                subscriptionWatcher = new SubscriptionWatcher(youtube, subscriptionOptions);
+            }
         }
         catch(TelegramInitException ex)
         {
-            log.error("Failed to login to Telegram");
+            log.error("Failed to initialize Telegram");
         }
         catch(IOException ex)
         {
@@ -57,13 +74,32 @@ public class CLI implements AutoCloseable
         }
     }
 
+    /**
+     * Initializes CLI with already created APIs — for tests and load tests.
+     *
+     * @param telegram          Telegram API, login is deferred till the first upload
+     * @param youtube           YouTube downloader
+     * @param audioUrls         URLs to upload as audio
+     * @param videoUrls         URLs to upload as video
+     * @param descriptionFilter Rules to remove garbage from descriptions
+     */
+    CLI(TelegramApi telegram, YouTubeDlApi youtube, List<String> audioUrls,
+            List<String> videoUrls, DescriptionFilter descriptionFilter)
+    {
+        this.telegram = telegram;
+        this.youtube = youtube;
+        this.audioUrls = audioUrls;
+        this.videoUrls = videoUrls;
+        this.descriptionFilter = descriptionFilter;
+    }
+
     public void start()
     {
         Set<String> audioUrls = new HashSet<>(this.audioUrls);
         Set<String> videoUrls = new HashSet<>(this.videoUrls);
         audioUrls = SimpleTextHelper.removeInvalidUrls(audioUrls);
         videoUrls = SimpleTextHelper.removeInvalidUrls(videoUrls);
-        if(audioUrls.isEmpty() && videoUrls.isEmpty())
+        if(audioUrls.isEmpty() && videoUrls.isEmpty() && subscriptionWatcher == null)
         {
             log.error("No one valid YouTube URL is provided");
         }
@@ -72,26 +108,90 @@ public class CLI implements AutoCloseable
 
         processUrls(audioUrls, ContentType.AUDIO);
         processUrls(videoUrls, ContentType.VIDEO);
+        processSubscriptions();
     }
 
     private void processUrls(Set<String> urls, ContentType contentType)
     {
         for(String url : urls)
         {
-            List<String> splittedTitle = SimpleTextHelper.splitByWords(youtube.getTitle(url), 70);
-            String title;
-            if(splittedTitle != null)
+            processUrl(url, contentType);
+        }
+    }
+
+    private void processSubscriptions()
+    {
+        if(subscriptionWatcher == null)
+        {
+            return;
+        }
+
+        List<Episode> episodes;
+        try
+        {
+            episodes = subscriptionWatcher.poll();
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to read list of subscriptions");
+            return;
+        }
+        for(Episode episode : episodes)
+        {
+            if(!processUrl(episode.getUrl(), episode.getContentType()))
             {
-                title = splittedTitle.get(0);
+                continue;
             }
-            else
+            try
             {
-                log.error("Failed to get title for {}", url);
-                continue;
+                subscriptionWatcher.markDelivered(episode);
+            }
+            catch(IOException ex)
+            {
+                log.error("Failed to mark {} as delivered", episode.getUrl());
             }
+        }
+    }
 
-            // Downloading:
-            log.info("Downloading {}", title);
+    /**
+     * Downloads given URL and uploads it to Telegram.
+     *
+     * @param url         YouTube URL
+     * @param contentType Upload as audio or as video
+     *
+     * @return {@code True} if URL is successfully delivered to Telegram.
+     */
+    private boolean processUrl(String url, ContentType contentType)
+    {
+        try(Span span = Tracing.job(url))
+        {
+            return deliverUrl(url, contentType);
+        }
+    }
+
+    private boolean deliverUrl(String url, ContentType contentType)
+    {
+        List<String> splittedTitle;
+        try(Span span = Tracing.span("title"))
+        {
+            splittedTitle = SimpleTextHelper.splitByWords(youtube.getTitle(url), 70);
+        }
+        String title;
+        if(splittedTitle != null)
+        {
+            title = splittedTitle.get(0);
+        }
+        else
+        {
+            log.error("Failed to get title for {}", url);
+            return false;
+        }
+
+        // Downloading:
+        log.info("Downloading {}", title);
+        DownloadState downloadState;
+        try(Span span = Tracing.span("wait-download"))
+        {
             if(contentType == ContentType.AUDIO)
             {
                 youtube.downloadAudio(url);
@@ -101,7 +201,7 @@ public class CLI implements AutoCloseable
                 youtube.downloadVideo(url);
             }
 
-            DownloadState downloadState = youtube.getDownloadState(url);
+            downloadState = youtube.getDownloadState(url);
             while(downloadState != DownloadState.COMPLETE && downloadState != DownloadState.FAIL)
             {
                 downloadState = youtube.getDownloadState(url);
@@ -116,26 +216,33 @@ public class CLI implements AutoCloseable
                     log.debug("Failed to sleep when getting download state");
                 }
             }
-            if(downloadState == DownloadState.FAIL)
-            {
-                log.error("Failed to download {}", title);
-                continue;
-            }
-            YoutubeData youtubeData;
-            try
-            {
-                youtubeData = youtube.getDownloadedData(url);
-            }
-            catch(YouTubeDownloadException e)
-            {
-                log.error("Failed to download {}", url);
-                continue;
-            }
-            log.info("Downloaded {}", title);
+        }
+        if(downloadState == DownloadState.FAIL)
+        {
+            log.error("Failed to download {}", title);
+            return false;
+        }
+        YoutubeData youtubeData;
+        try
+        {
+            youtubeData = youtube.getDownloadedData(url);
+        }
+        catch(YouTubeDownloadException e)
+        {
+            log.error("Failed to download {}", url);
+            return false;
+        }
+        log.info("Downloaded {}", title);
 
-            // Uploading to Telegram:
-            int localFileId;
-            log.info("Uploading {} to Telegram", title);
+        // Uploading to Telegram:
+        if(!login())
+        {
+            return false;
+        }
+        int localFileId;
+        log.info("Uploading {} to Telegram", title);
+        try(Span span = Tracing.span("upload"))
+        {
             try
             {
                 if(contentType == ContentType.AUDIO)
@@ -149,13 +256,13 @@ public class CLI implements AutoCloseable
                 else
                 {
                     log.error("Provided unknown content type: {}", contentType.toString());
-                    continue;
+                    return false;
                 }
             }
             catch(TelegramUploadFileException e)
             {
                 log.error("Failed to upload {} file", youtubeData.getFile().getAbsolutePath());
-                continue;
+                return false;
             }
             try
             {
@@ -176,50 +283,79 @@ public class CLI implements AutoCloseable
             catch(TelegramUploadFileException ex)
             {
                 log.error("Failed to upload {} to Telegram", title);
-                continue;
+                return false;
             }
-            log.info("Uploaded {} to Telegram", title);
+        }
+        log.info("Uploaded {} to Telegram", title);
 
-            // Sending messages to Telegram:
-            String cleanedText = GarbageTextRemover.removeGarbageText(youtubeData.getDescription());
-            List<String> description = SimpleTextHelper.splitByWords(cleanedText,
-                    TelegramApi.MESSAGE_LENGTH);
-            long messageId = 0;
+        // Sending messages to Telegram:
+        String cleanedText = GarbageTextRemover.prepareDescription(youtubeData.getDescription(),
+                youtubeData.getChapters(), descriptionFilter);
+        // As much description as fits goes to the caption, the rest — to replies to media:
+        List<String> description = SimpleTextHelper.packByWords(cleanedText,
+                TelegramApi.MEDIA_CAPTION_LENGTH, TelegramApi.MESSAGE_LENGTH);
+        long messageId = 0;
 
-            if(description == null)
+        if(description == null)
+        {
+            log.error("Failed to prepare description for Telegram");
+            return false;
+        }
+        String caption = description.isEmpty() ? null : description.get(0);
+        try(Span span = Tracing.span("send"))
+        {
+            if(contentType == ContentType.AUDIO)
             {
-                log.error("Failed to prepare description for Telegram");
-                continue;
+                messageId = telegram.sendAudio(localFileId, caption,
+                        youtubeData.getDurationSeconds(),
+                        0);
             }
-            try
+            else // contentType == ContentType.VIDEO
             {
-                if(contentType == ContentType.AUDIO)
-                {
-                    messageId = telegram.sendAudio(localFileId, null,
-                            youtubeData.getDurationSeconds(),
-                            0);
-                }
-                else // contentType == ContentType.VIDEO
-                {
-                    messageId = telegram.sendVideo(localFileId, null,
-                            youtubeData.getDurationSeconds(),
-                            0);
-                }
-                for(String descr : description)
+                messageId = telegram.sendVideo(localFileId, caption,
+                        youtubeData.getDurationSeconds(),
+                        0);
+            }
+            for(String descr : description.subList(Math.min(1, description.size()),
+                    description.size()))
+            {
+                if(descr.isEmpty())
                 {
-                    if(descr.isEmpty())
-                    {
-                        continue;
-                    }
-                    messageId = telegram.sendMessage(descr, messageId);
+                    continue;
                 }
+                messageId = telegram.sendMessage(descr, messageId);
+            }
+        }
+        catch(TelegramSendMessageException ex)
+        {
+            log.error("Failed to send message to Telegram!");
+            log.debug("Previous message ID = {}", messageId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Logins to Telegram on the first call, the next calls return result of the first one.
+     *
+     * @return {@code True} if logged in to Telegram.
+     */
+    private boolean login()
+    {
+        if(loggedIn == null)
+        {
+            try(Span span = Tracing.span("login"))
+            {
+                telegram.login();
+                loggedIn = true;
             }
-            catch(TelegramSendMessageException ex)
+            catch(TelegramInitException ex)
             {
-                log.error("Failed to send message to Telegram!");
-                log.debug("Previous message ID = {}", messageId);
+                log.error("Failed to login to Telegram");
+                loggedIn = false;
             }
         }
+        return loggedIn;
     }
 
     @Override
@@ -0,0 +1,177 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Filter of garbage paragraphs in video descriptions, configured by rule file.
+ *
+ * Rule file has one {@link FilterRule} per line, empty lines and lines started with {@code #}
+ * are skipped. Rules are compiled to {@link ParagraphClassifier} once. If rule file is changed
+ * while program works, rules are reloaded before the next description is filtered; if new
+ * rules cannot be read, previous rules are kept.
+ */
+@Log4j2
+public class DescriptionFilter
+{
+    private static final String DEFAULT_RULES = "default.rules";
+
+    private final File file;
+    private volatile ParagraphClassifier classifier;
+    private long lastModified;
+    private long length;
+
+    private DescriptionFilter(File file, ParagraphClassifier classifier)
+    {
+        this.file = file;
+        this.classifier = classifier;
+        if(file != null)
+        {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+    }
+
+    /**
+     * Returns filter with default rules.
+     *
+     * @return Filter, shared by all callers.
+     */
+    public static DescriptionFilter getDefault()
+    {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Loads filter from rule file.
+     *
+     * @param file Rule file.
+     *
+     * @return Filter, which reloads rules when file is changed.
+     *
+     * @throws IOException Failed to read rule file.
+     */
+    public static DescriptionFilter load(File file) throws IOException
+    {
+        List<String> lines;
+        try
+        {
+            lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to read rule file {}", file.getAbsolutePath());
+            throw ex;
+        }
+        DescriptionFilter filter = new DescriptionFilter(file,
+                new ParagraphClassifier(parseRules(lines)));
+        log.info("Loaded {} rules from {}", filter.classifier.getRules().size(),
+                file.getAbsolutePath());
+        return filter;
+    }
+
+    /**
+     * Returns compiled rules. Reloads them, if rule file is changed.
+     *
+     * @return Compiled rules.
+     */
+    ParagraphClassifier getClassifier()
+    {
+        if(file != null)
+        {
+            reloadIfChanged();
+        }
+        return classifier;
+    }
+
+    private synchronized void reloadIfChanged()
+    {
+        long modified = file.lastModified();
+        long size = file.length();
+        if(modified == lastModified && size == length)
+        {
+            return;
+        }
+        lastModified = modified;
+        length = size;
+        try
+        {
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            classifier = new ParagraphClassifier(parseRules(lines));
+            log.info("Reloaded {} rules from {}", classifier.getRules().size(),
+                    file.getAbsolutePath());
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to reload rule file {}, keeping previous rules",
+                    file.getAbsolutePath());
+            log.debug("Exception: ", ex);
+        }
+    }
+
+    /**
+     * Parses lines of rule file. Invalid rules are skipped.
+     *
+     * @param lines Lines of rule file.
+     *
+     * @return Rules in order of lines.
+     */
+    static List<FilterRule> parseRules(List<String> lines)
+    {
+        List<FilterRule> rules = new ArrayList<>();
+        for(String line : lines)
+        {
+            line = line.strip();
+            if(line.isEmpty() || line.startsWith("#"))
+            {
+                continue;
+            }
+            try
+            {
+                rules.add(FilterRule.parse(line));
+            }
+            catch(IllegalArgumentException ex)
+            {
+                log.warn("Skipping invalid rule: {} ({})", line, ex.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    private static class DefaultHolder
+    {
+        private static final DescriptionFilter INSTANCE = loadDefault();
+
+        private static DescriptionFilter loadDefault()
+        {
+            try(InputStream stream = DescriptionFilter.class.getResourceAsStream(DEFAULT_RULES))
+            {
+                if(stream == null)
+                {
+                    log.error("Default rules not found");
+                    throw new IllegalStateException("No default rules");
+                }
+                List<String> lines = new BufferedReader(
+                        new InputStreamReader(stream, StandardCharsets.UTF_8))
+                        .lines()
+                        .collect(Collectors.toList());
+                return new DescriptionFilter(null, new ParagraphClassifier(parseRules(lines)));
+            }
+            catch(IOException ex)
+            {
+                log.error("Failed to read default rules");
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover.ParType;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import lombok.Value;
+
+
+/**
+ * Rule for removing garbage paragraphs from video description.
+ *
+ * Rule is written as one line of rule file: {@code <type> <kind> <argument>}, for example
+ * {@code marketing regex [Пп]ромокод}. Type is a type of garbage paragraph, kind is one of:
+ * <ul>
+ * <li>{@code literal} — paragraph contains argument as is;</li>
+ * <li>{@code regex} — paragraph contains match of regular expression;</li>
+ * <li>{@code emoji-density} — share of paragraph characters in emojis is more than argument;</li>
+ * <li>{@code link-density} — share of paragraph characters in links is more than argument.</li>
+ * </ul>
+ */
+@Value
+class FilterRule
+{
+    /**
+     * Regular expressions work with Unicode: {@code \w} matches Cyrillic letters, {@code (?i)}
+     * ignores case of them.
+     */
+    static final int REGEX_FLAGS = Pattern.UNICODE_CHARACTER_CLASS;
+
+    enum Kind
+    {
+        LITERAL,
+        REGEX,
+        EMOJI_DENSITY,
+        LINK_DENSITY
+    }
+
+    ParType type;
+    Kind kind;
+    String argument;
+
+    /**
+     * Parses line of rule file.
+     *
+     * @param line Line of rule file.
+     *
+     * @return Rule.
+     *
+     * @throws IllegalArgumentException Line is not a valid rule.
+     */
+    static FilterRule parse(String line)
+    {
+        String[] fields = line.strip().split("\\s+", 3);
+        if(fields.length != 3)
+        {
+            throw new IllegalArgumentException("Rule should have type, kind and argument");
+        }
+
+        ParType type = ParType.valueOf(fields[0].toUpperCase(Locale.ROOT));
+        if(type == ParType.NORMAL_TEXT || type == ParType.TIMECODES)
+        {
+            throw new IllegalArgumentException("Paragraphs of " + fields[0] + " type are kept");
+        }
+        Kind kind = Kind.valueOf(fields[1].toUpperCase(Locale.ROOT).replace('-', '_'));
+        String argument = fields[2];
+        switch(kind)
+        {
+            case REGEX:
+                try
+                {
+                    Pattern.compile(argument, REGEX_FLAGS);
+                }
+                catch(PatternSyntaxException ex)
+                {
+                    throw new IllegalArgumentException("Invalid regular expression", ex);
+                }
+                break;
+            case EMOJI_DENSITY:
+            case LINK_DENSITY:
+                double density = Double.parseDouble(argument);
+                if(density < 0 || density >= 1)
+                {
+                    throw new IllegalArgumentException("Density should be in [0, 1) range");
+                }
+                break;
+            default:
+                break;
+        }
+        return new FilterRule(type, kind, argument);
+    }
+}
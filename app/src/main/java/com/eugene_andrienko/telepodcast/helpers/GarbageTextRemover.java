@@ -1,21 +1,23 @@
 package com.eugene_andrienko.telepodcast.helpers;
 
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.Chapter;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.Value;
 import lombok.extern.log4j.Log4j2;
-import net.fellbaum.jemoji.EmojiManager;
 
 
 /**
  * Removes garbage text from YouTube video description.
+ *
+ * Garbage paragraphs are found by rules of {@link DescriptionFilter}.
  */
 @Log4j2
 public class GarbageTextRemover
 {
     /**
-     * Removes garbage text from given string with description from YouTube.
+     * Removes garbage text from given string with description from YouTube by default rules.
      *
      * @param text Original text.
      *
@@ -23,7 +25,47 @@ public class GarbageTextRemover
      */
     public static String removeGarbageText(String text)
     {
-        return String.join("\n", filterParagraphs(parseParagraphs(splitToParagraphs(text))));
+        return removeGarbageText(text, DescriptionFilter.getDefault());
+    }
+
+    /**
+     * Removes garbage text from given string with description from YouTube.
+     *
+     * @param text   Original text.
+     * @param filter Rules for garbage paragraphs.
+     *
+     * @return Cleaned text.
+     */
+    public static String removeGarbageText(String text, DescriptionFilter filter)
+    {
+        return String.join("\n", filterParagraphs(
+                parseParagraphs(splitToParagraphs(text), filter.getClassifier())));
+    }
+
+    /**
+     * Prepares description of downloaded video for Telegram: list of chapters, then description
+     * without garbage.
+     *
+     * If video has chapters, time codes are removed from description too — chapters replace
+     * them.
+     *
+     * @param description Description of video.
+     * @param chapters    Chapters of video, can be empty.
+     * @param filter      Rules for garbage paragraphs.
+     *
+     * @return Text for Telegram.
+     */
+    public static String prepareDescription(String description, List<Chapter> chapters,
+            DescriptionFilter filter)
+    {
+        if(chapters.isEmpty())
+        {
+            return removeGarbageText(description, filter);
+        }
+        List<String> paragraphs = filterParagraphs(
+                parseParagraphs(splitToParagraphs(description), filter.getClassifier()), false);
+        paragraphs.add(0, SimpleTextHelper.formatChapters(chapters));
+        return String.join("\n", paragraphs);
     }
 
     /**
@@ -45,7 +87,7 @@ public class GarbageTextRemover
     }
 
     /**
-     * Types of parsed paragraphs.
+     * Types of parsed paragraphs. Types of garbage are checked in order of declaration.
      */
     enum ParType
     {
@@ -61,124 +103,58 @@ public class GarbageTextRemover
      * Parse paragraphs to get its type.
      *
      * @param paragraphs List of paragraphs.
+     * @param classifier Compiled rules for garbage paragraphs.
      *
-     * @return Map with paragraph's text as key and type of paragraph as value.
+     * @return Stream of paragraphs with their types, in order of the original list. Paragraphs
+     * are classified as stream is consumed.
      */
-    static LinkedHashMap<String, ParType> parseParagraphs(List<String> paragraphs)
+    static Stream<Paragraph> parseParagraphs(List<String> paragraphs,
+            ParagraphClassifier classifier)
     {
-        LinkedHashMap<String, ParType> result = new LinkedHashMap<>();
-        for(String par : paragraphs)
-        {
-            if(SimpleTextHelper.containsTimeCode(par))
-            {
-                result.put(par, ParType.TIMECODES);
-            }
-            else if(containsEmojis(par))
-            {
-                result.put(par, ParType.EMOJIS);
-            }
-            else if(containsShit(par))
-            {
-                result.put(par, ParType.ROSKOM_SHIT);
-            }
-            else if(containsHashtag(par))
-            {
-                result.put(par, ParType.HASHTAGS);
-            }
-            else if(containsMarketing(par))
-            {
-                result.put(par, ParType.MARKETING);
-            }
-            else
-            {
-                result.put(par, ParType.NORMAL_TEXT);
-            }
-        }
-        return result;
+        return paragraphs.stream().map(par -> new Paragraph(par, classifier.classify(par)));
     }
 
     /**
-     * Is given string contains emojis.
+     * Filter given stream of parsed paragraphs.
      *
-     * @param string String to check.
-     *
-     * @return {@code True} if contains, otherwise {@code false}.
-     */
-    static boolean containsEmojis(String string)
-    {
-        return EmojiManager.containsEmoji(string);
-    }
-
-    /**
-     * Is given string contains some shit.
-     *
-     * @param string String to check.
-     *
-     * @return {@code True} if contains, otherwise {@code false}.
-     */
-    static boolean containsShit(String string)
-    {
-        return string.contains("ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО");
-    }
-
-    /**
-     * Is given string contains hashtag(s).
+     * Removes any paragraphs, expect of {@code ParType.NORMAL_TEXT} and {@code ParType
+     * .TIMECODES} types. Repeated paragraphs are kept.
      *
-     * @param string String to check.
+     * @param parsedParagraphs Stream of parsed paragraphs.
      *
-     * @return {@code True} if contains, otherwise {@code false}.
+     * @return List of filtered paragraphs.
      */
-    static boolean containsHashtag(String string)
+    static List<String> filterParagraphs(Stream<Paragraph> parsedParagraphs)
     {
-        return string.contains("#");
+        return filterParagraphs(parsedParagraphs, true);
     }
 
     /**
-     * Is given string contains some marketing bullshit.
+     * Filter given stream of parsed paragraphs.
      *
-     * @param string String to check.
+     * @param parsedParagraphs Stream of parsed paragraphs.
+     * @param keepTimeCodes    If {@code false} — {@code ParType.TIMECODES} paragraphs are
+     *                         removed too.
      *
-     * @return {@code True} if contains, otherwise {@code false}.
+     * @return List of filtered paragraphs.
      */
-    static boolean containsMarketing(String string)
+    static List<String> filterParagraphs(Stream<Paragraph> parsedParagraphs,
+            boolean keepTimeCodes)
     {
-        boolean containsLink = string.contains("https://") || string.contains("http://");
-
-        String[] marketingRegexes = new String[]{"[Сс]кидо?к",
-                                                 "[Пп]ромокод"};
-        for(String regex : marketingRegexes)
-        {
-            Pattern pattern = Pattern.compile(".*" + regex + ".*");
-            Matcher matcher = pattern.matcher(string);
-            if(matcher.matches())
-            {
-                return true;
-            }
-        }
-
-        return containsLink;
+        return parsedParagraphs
+                .filter(par -> par.getType() == ParType.NORMAL_TEXT ||
+                               (keepTimeCodes && par.getType() == ParType.TIMECODES))
+                .map(Paragraph::getText)
+                .collect(Collectors.toCollection(ArrayList::new));
     }
 
     /**
-     * Filter given map with parsed paragraphs.
-     *
-     * Removes any paragraphs, expect of {@code ParType.NORMAL_TEXT} and {@code ParType
-     * .TIMECODES} types.
-     *
-     * @param parsedParagraphs Map with parsed paragraphs.
-     *
-     * @return List of filtered paragraphs.
+     * Paragraph of description with its type.
      */
-    static List<String> filterParagraphs(LinkedHashMap<String, ParType> parsedParagraphs)
+    @Value
+    static class Paragraph
     {
-        List<String> result = new LinkedList<>();
-        for(Map.Entry<String, ParType> parsed : parsedParagraphs.entrySet())
-        {
-            if(parsed.getValue() == ParType.NORMAL_TEXT || parsed.getValue() == ParType.TIMECODES)
-            {
-                result.add(parsed.getKey());
-            }
-        }
-        return result;
+        String text;
+        ParType type;
     }
 }
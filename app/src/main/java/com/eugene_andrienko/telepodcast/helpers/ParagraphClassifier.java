@@ -0,0 +1,366 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover.ParType;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import net.fellbaum.jemoji.Emoji;
+import net.fellbaum.jemoji.EmojiManager;
+
+
+/**
+ * Classifies paragraphs of video description in one pass over their characters.
+ *
+ * Rules are compiled once: all literals are searched by one Aho-Corasick automaton, regular
+ * expressions of every paragraph type are joined to one pattern. Time codes, links and
+ * characters, which may belong to emoji, are checked in the same pass. Only paragraphs with
+ * such characters are checked by {@link EmojiManager}, which is much slower.
+ */
+final class ParagraphClassifier
+{
+    static final int EMOJI_CANDIDATE = 1 << 8;
+    static final int LINK = 1 << 9;
+
+    private static final ParType[] TYPES = ParType.values();
+    private static final String[] LINK_PREFIXES = new String[]{"http://", "https://"};
+
+    private final List<FilterRule> rules;
+    /**
+     * Index of character in alphabet of automaton, {@code 0} — character is not in literals.
+     */
+    private final short[] charIndex;
+    private final int alphabetSize;
+    /**
+     * Transitions of automaton: {@code state * alphabetSize + character index}.
+     */
+    private final int[] transitions;
+    /**
+     * Flags of literals, found when automaton comes to state.
+     */
+    private final int[] outputs;
+    /**
+     * Length of link prefix, found when automaton comes to state.
+     */
+    private final int[] linkPrefixLengths;
+    private final Pattern[] patterns = new Pattern[TYPES.length];
+    private final double[] emojiDensities = new double[TYPES.length];
+    private final double[] linkDensities = new double[TYPES.length];
+
+    /**
+     * Compiles rules.
+     *
+     * @param rules Rules, checked in order of their paragraph types.
+     */
+    ParagraphClassifier(List<FilterRule> rules)
+    {
+        this.rules = List.copyOf(rules);
+        Arrays.fill(emojiDensities, Double.NaN);
+        Arrays.fill(linkDensities, Double.NaN);
+
+        Map<String, Integer> literals = new LinkedHashMap<>();
+        Map<ParType, List<String>> regexes = new EnumMap<>(ParType.class);
+        for(FilterRule rule : rules)
+        {
+            int type = rule.getType().ordinal();
+            switch(rule.getKind())
+            {
+                case LITERAL:
+                    literals.merge(rule.getArgument(), typeFlag(rule.getType()), (a, b) -> a | b);
+                    break;
+                case REGEX:
+                    regexes.computeIfAbsent(rule.getType(), t -> new ArrayList<>())
+                           .add(rule.getArgument());
+                    break;
+                case EMOJI_DENSITY:
+                    emojiDensities[type] = minDensity(emojiDensities[type], rule.getArgument());
+                    break;
+                case LINK_DENSITY:
+                    linkDensities[type] = minDensity(linkDensities[type], rule.getArgument());
+                    break;
+            }
+        }
+        for(Map.Entry<ParType, List<String>> entry : regexes.entrySet())
+        {
+            patterns[entry.getKey().ordinal()] = Pattern.compile(entry.getValue().stream()
+                    .map(regex -> "(?:" + regex + ")")
+                    .collect(Collectors.joining("|")), FilterRule.REGEX_FLAGS);
+        }
+        for(String prefix : LINK_PREFIXES)
+        {
+            literals.merge(prefix, LINK, (a, b) -> a | b);
+        }
+
+        // Alphabet of automaton — only characters of literals:
+        char maxChar = 0;
+        for(String literal : literals.keySet())
+        {
+            for(char c : literal.toCharArray())
+            {
+                maxChar = (char)Math.max(maxChar, c);
+            }
+        }
+        charIndex = new short[maxChar + 1];
+        int size = 1;
+        for(String literal : literals.keySet())
+        {
+            for(char c : literal.toCharArray())
+            {
+                if(charIndex[c] == 0)
+                {
+                    charIndex[c] = (short)size++;
+                }
+            }
+        }
+        alphabetSize = size;
+
+        // Trie of literals, -1 — no transition:
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> trieOutputs = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        trie.add(newState());
+        trieOutputs.add(0);
+        depths.add(0);
+        for(Map.Entry<String, Integer> literal : literals.entrySet())
+        {
+            int state = 0;
+            for(char c : literal.getKey().toCharArray())
+            {
+                int next = trie.get(state)[charIndex[c]];
+                if(next < 0)
+                {
+                    next = trie.size();
+                    trie.get(state)[charIndex[c]] = next;
+                    trie.add(newState());
+                    trieOutputs.add(0);
+                    depths.add(depths.get(state) + 1);
+                }
+                state = next;
+            }
+            trieOutputs.set(state, trieOutputs.get(state) | literal.getValue());
+        }
+
+        // Failure links turn trie to automaton, states are visited in order of their depth:
+        transitions = new int[trie.size() * alphabetSize];
+        outputs = new int[trie.size()];
+        linkPrefixLengths = new int[trie.size()];
+        int[] failure = new int[trie.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while(!queue.isEmpty())
+        {
+            int state = queue.remove();
+            outputs[state] = trieOutputs.get(state);
+            if((outputs[state] & LINK) != 0)
+            {
+                linkPrefixLengths[state] = depths.get(state);
+            }
+            if(state != 0)
+            {
+                outputs[state] |= outputs[failure[state]];
+                linkPrefixLengths[state] = Math.max(linkPrefixLengths[state],
+                        linkPrefixLengths[failure[state]]);
+            }
+            for(int c = 0; c < alphabetSize; c++)
+            {
+                int next = trie.get(state)[c];
+                int fallback = state == 0 ? 0 : transitions[failure[state] * alphabetSize + c];
+                if(next < 0)
+                {
+                    transitions[state * alphabetSize + c] = fallback;
+                }
+                else
+                {
+                    transitions[state * alphabetSize + c] = next;
+                    failure[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    List<FilterRule> getRules()
+    {
+        return rules;
+    }
+
+    static int typeFlag(ParType type)
+    {
+        return 1 << type.ordinal();
+    }
+
+    private static double minDensity(double current, String argument)
+    {
+        double density = Double.parseDouble(argument);
+        return Double.isNaN(current) ? density : Math.min(current, density);
+    }
+
+    private int[] newState()
+    {
+        int[] state = new int[alphabetSize];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /**
+     * Returns type of paragraph.
+     *
+     * Paragraph with time codes is never removed. Other types are checked in order of their
+     * declaration in {@link ParType}.
+     *
+     * @param paragraph Paragraph of description.
+     *
+     * @return Type of paragraph.
+     */
+    ParType classify(String paragraph)
+    {
+        long scan = scan(paragraph);
+        int flags = (int)scan;
+        if((flags & typeFlag(ParType.TIMECODES)) != 0)
+        {
+            return ParType.TIMECODES;
+        }
+
+        double linkDensity = paragraph.isEmpty() ? 0 :
+                (double)(scan >>> 32) / paragraph.length();
+        for(ParType type : TYPES)
+        {
+            int i = type.ordinal();
+            if((flags & typeFlag(type)) != 0)
+            {
+                return type;
+            }
+            if(!Double.isNaN(emojiDensities[i]) && (flags & EMOJI_CANDIDATE) != 0 &&
+               (emojiDensities[i] == 0 ? EmojiManager.containsEmoji(paragraph) :
+                emojiDensity(paragraph) > emojiDensities[i]))
+            {
+                return type;
+            }
+            if(!Double.isNaN(linkDensities[i]) && linkDensity > linkDensities[i])
+            {
+                return type;
+            }
+            if(patterns[i] != null && patterns[i].matcher(paragraph).find())
+            {
+                return type;
+            }
+        }
+        return ParType.NORMAL_TEXT;
+    }
+
+    /**
+     * Scans string once.
+     *
+     * String has time codes if it has two digits, colon and two digits and has no three digits
+     * before colon — the same rules as {@link SimpleTextHelper#containsTimeCode}.
+     *
+     * @param string String to scan.
+     *
+     * @return Flags in the lower half: types of found literals, {@link #EMOJI_CANDIDATE},
+     * {@link #LINK} and flag of {@link ParType#TIMECODES} type. Count of characters in links in
+     * the upper half.
+     */
+    long scan(String string)
+    {
+        int flags = 0;
+        int state = 0;
+        int digits = 0;
+        int linkChars = 0;
+        boolean isInLink = false;
+        boolean hasTimeCode = false;
+        boolean hasWrongTimeCode = false;
+        int length = string.length();
+        for(int i = 0; i < length; i++)
+        {
+            char c = string.charAt(i);
+            int index = c < charIndex.length ? charIndex[c] : 0;
+            state = transitions[state * alphabetSize + index];
+            flags |= outputs[state];
+
+            if(isInLink)
+            {
+                if(Character.isWhitespace(c))
+                {
+                    isInLink = false;
+                }
+                else
+                {
+                    linkChars++;
+                }
+            }
+            else if(linkPrefixLengths[state] > 0)
+            {
+                isInLink = true;
+                linkChars += linkPrefixLengths[state];
+            }
+
+            if(isDigit(c))
+            {
+                digits++;
+                continue;
+            }
+            if(c == ':' && digits >= 2 && i + 2 < length && isDigit(string.charAt(i + 1)) &&
+               isDigit(string.charAt(i + 2)))
+            {
+                if(digits > 2)
+                {
+                    hasWrongTimeCode = true;
+                }
+                else
+                {
+                    hasTimeCode = true;
+                }
+            }
+            digits = 0;
+            if(isEmojiCandidate(c))
+            {
+                flags |= EMOJI_CANDIDATE;
+            }
+        }
+        if(hasTimeCode && !hasWrongTimeCode)
+        {
+            flags |= typeFlag(ParType.TIMECODES);
+        }
+        return ((long)linkChars << 32) | (flags & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns share of string characters in emojis.
+     *
+     * @param string String to check.
+     *
+     * @return Share from {@code 0} to {@code 1}.
+     */
+    static double emojiDensity(String string)
+    {
+        if(string.isEmpty())
+        {
+            return 0;
+        }
+        int emojiChars = 0;
+        for(Emoji emoji : EmojiManager.extractEmojisInOrder(string))
+        {
+            emojiChars += emoji.getEmoji().length();
+        }
+        return (double)emojiChars / string.length();
+    }
+
+    /**
+     * Checks what character may belong to emoji: every emoji has copyright or registered sign,
+     * character from General Punctuation to CJK Compatibility blocks (arrows, symbols,
+     * dingbats, keycap) or surrogate.
+     *
+     * @param c Character to check.
+     *
+     * @return {@code True} if character may belong to emoji.
+     */
+    static boolean isEmojiCandidate(char c)
+    {
+        return c == '\u00A9' || c == '\u00AE' || (c >= '\u2000' && c <= '\u33FF') ||
+               Character.isSurrogate(c);
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,5 +1,6 @@
 package com.eugene_andrienko.telepodcast.helpers;
 
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.Chapter;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -9,17 +10,49 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class SimpleTextHelper
 {
+    /**
+     * Time code: minutes or hours, then minutes or seconds.
+     */
+    private static final Pattern TIME_CODE = Pattern.compile("\\d{2}:\\d{2}");
+    /**
+     * Three or more digits before colon — not a time code (for example, a price or a ratio).
+     */
+    private static final Pattern WRONG_TIME_CODE = Pattern.compile("\\d{3}:\\d{2}");
+
     /**
      * Split given string to {@code subStringSize} sized chunks taking words to account.
      *
      * @param string        String to split
-     * @param subStringSize Size of chunk
+     * @param subStringSize Size of chunk in UTF-16 characters
      *
      * @return List of substrings, split by words. Substring can be less than {@code
      * subStringSize}. If string cannot be splitted by words — it will be simply splitted by
      * given {@code subStringSize}.
+     *
+     * @see #packByWords(String, int, int)
      */
     public static List<String> splitByWords(String string, int subStringSize)
+    {
+        return packByWords(string, subStringSize, subStringSize);
+    }
+
+    /**
+     * Split given string to chunks taking words to account, the first chunk has its own size.
+     *
+     * Used to fill media caption first and then messages in reply to it. Works in one pass over
+     * UTF-16 characters of string, chunks are substrings of it. Chunk is ended before the last
+     * whitespace in it (whitespace itself is dropped), so every chunk is filled as much as
+     * possible and count of chunks is minimal. If chunk has no whitespace (except the first
+     * character) — it is ended by size, but surrogate pair is not split.
+     *
+     * @param string        String to split
+     * @param firstSize     Size of the first chunk in UTF-16 characters
+     * @param subStringSize Size of other chunks in UTF-16 characters
+     *
+     * @return List of substrings, split by words. Substring can be less than its size. If
+     * string cannot be splitted by words — it will be simply splitted by size.
+     */
+    public static List<String> packByWords(String string, int firstSize, int subStringSize)
     {
         if(string == null)
         {
@@ -27,79 +60,73 @@ public class SimpleTextHelper
             return null;
         }
 
-        List<String> result = new LinkedList<>();
+        List<String> result = new ArrayList<>();
 
-        if(subStringSize <= 0)
+        if(firstSize <= 0 || subStringSize <= 0)
         {
-            log.error("Got {} as substring size - returning empty list", subStringSize);
+            log.error("Got {} and {} as substring sizes - returning empty list", firstSize,
+                    subStringSize);
             return result;
         }
 
-        if(string.length() <= subStringSize)
+        int length = string.length();
+        if(length <= firstSize)
         {
             log.warn("Nothing to split. String length: {}, substring size: {}",
-                    string.length(), subStringSize);
-            if(string.length() > 0)
+                    length, firstSize);
+            if(length > 0)
             {
                 result.add(string);
             }
             return result;
         }
 
-        int[] codePoints = string.codePoints().toArray();
-        StringBuilder sb = new StringBuilder();
-        int previousSpaceIndex = 0;
-        List<Integer> spaceCodePoints = Arrays.asList(
-                " ".codePointAt(0), "\t".codePointAt(0), "\n".codePointAt(0));
-
-        for(int i = 0; i < codePoints.length; i++)
+        int start = 0;
+        int lastSpace = -1;
+        int i = 0;
+        int size = firstSize;
+        while(length - start >= size)
         {
-            int codePoint = codePoints[i];
-            boolean spaceAtIndex = spaceCodePoints.contains(codePoint);
-            if(spaceAtIndex)
+            // Find the last whitespace in the chunk, characters are checked only once:
+            int end = start + size;
+            if(i > end)
             {
-                previousSpaceIndex = i;
+                // Previous chunk was longer — whitespace should be found in this one again:
+                i = start;
+                lastSpace = -1;
             }
-
-            sb.appendCodePoint(codePoint);
-
-            if(sb.length() >= subStringSize)
+            for(; i < end; i++)
             {
-                int lastFoundSpaceIndex;
-                if(spaceAtIndex)
-                {
-                    lastFoundSpaceIndex = sb.length() - 1;
-                }
-                else
-                {
-                    // Space index inside sb:
-                    lastFoundSpaceIndex = sb.length() - i + previousSpaceIndex - 1;
-                }
-                if(lastFoundSpaceIndex > 0)
-                {
-                    sb.delete(lastFoundSpaceIndex, sb.length());
-                    i = previousSpaceIndex;
-                }
-                else
-                {
-                    log.warn("Fail to split string by words — no previous space character in " +
-                             "buffer — splitting by size");
-                    log.debug("Substring size: {}, last character: {}, previous space index " +
-                              "in string: {}", sb.length(), Character.toChars(codePoint),
-                            previousSpaceIndex);
-                }
-                if(sb.length() > 0)
+                if(Character.isWhitespace(string.charAt(i)))
                 {
-                    result.add(sb.toString());
+                    lastSpace = i;
                 }
-                sb.setLength(0);
             }
+            size = subStringSize;
+
+            if(lastSpace > start)
+            {
+                result.add(string.substring(start, lastSpace));
+                start = lastSpace + 1;
+                continue;
+            }
+
+            log.warn("Fail to split string by words — no previous space character in " +
+                     "buffer — splitting by size");
+            if(end < length && end - 1 > start && Character.isHighSurrogate(string.charAt(end - 1))
+               && Character.isLowSurrogate(string.charAt(end)))
+            {
+                end--;
+            }
+            result.add(string.substring(start, end));
+            start = end;
+            i = Math.max(i, start);
         }
 
-        // Something left in buffer after splitting:
-        if(sb.length() > 0)
+        // Something left after splitting:
+        if(start < length)
         {
-            result.add(sb.toString());
+            result.add(string.substring(start));
         }
 
         return result;
@@ -137,6 +164,53 @@ public class SimpleTextHelper
         return result;
     }
 
+    /**
+     * Formats chapters of video as compact list: time code and title of chapter per line.
+     *
+     * Telegram makes time codes in reply to audio or video clickable.
+     *
+     * @param chapters Chapters of video.
+     *
+     * @return List of chapters, empty string if video has no chapters.
+     */
+    public static String formatChapters(List<Chapter> chapters)
+    {
+        StringBuilder sb = new StringBuilder();
+        for(Chapter chapter : chapters)
+        {
+            if(sb.length() > 0)
+            {
+                sb.append('\n');
+            }
+            int start = chapter.getStartSeconds();
+            if(start >= 3600)
+            {
+                sb.append(start / 3600).append(':');
+                appendTwoDigits(sb, start / 60 % 60);
+            }
+            else
+            {
+                appendTwoDigits(sb, start / 60);
+            }
+            sb.append(':');
+            appendTwoDigits(sb, start % 60);
+            if(!chapter.getTitle().isBlank())
+            {
+                sb.append(' ').append(chapter.getTitle().strip());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendTwoDigits(StringBuilder sb, int value)
+    {
+        if(value < 10)
+        {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+
     /**
      * Is given string contains time code.
      *
@@ -146,22 +220,10 @@ public class SimpleTextHelper
      */
     public static boolean containsTimeCode(String string)
     {
-        Pattern wrongPattern = Pattern.compile(".*\\d{3}+:\\d{2} ?[-—]?.*", Pattern.DOTALL);
-        Matcher matcher = wrongPattern.matcher(string);
-        if(matcher.matches())
+        if(WRONG_TIME_CODE.matcher(string).find())
         {
             return false;
         }
-
-        wrongPattern = Pattern.compile(".*\\d{3}+:\\d{2}:\\d{2} ?[-—]?.*", Pattern.DOTALL);
-        matcher = wrongPattern.matcher(string);
-        if(matcher.matches())
-        {
-            return false;
-        }
-
-        Pattern pattern = Pattern.compile(".*\\d{2}:\\d{2} ?[-—]?.*", Pattern.DOTALL);
-        matcher = pattern.matcher(string);
-        return matcher.matches();
+        return TIME_CODE.matcher(string).find();
     }
 }
@@ -0,0 +1,31 @@
+package com.eugene_andrienko.telepodcast.subscriptions;
+
+import java.io.File;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SubscriptionOptions
+{
+    /**
+     * File with list of channels — one channel per line, {@code audio|video <channel URL>}.
+     */
+    private File channelsFile;
+    /**
+     * Directory with archives of delivered videos.
+     */
+    private File storeDirectory;
+    /**
+     * Maximal count of new videos to get from one channel per poll.
+     */
+    private int limit;
+    /**
+     * Get only videos uploaded on or after this date. Can be {@code null}.
+     */
+    private String dateAfter;
+    /**
+     * Count of channels to poll simultaneously.
+     */
+    private int threads;
+}
@@ -0,0 +1,143 @@
+package com.eugene_andrienko.telepodcast.subscriptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Stores IDs of already delivered videos for every subscribed channel.
+ *
+ * Every channel has its own file with sorted list of delivered videos. The file has yt-dlp
+ * download archive format ({@code youtube <video ID>} per line), so it can be passed to yt-dlp
+ * as {@code --download-archive} as is. In memory, IDs are stored in a hash set to check them
+ * without touching the disk.
+ */
+@Log4j2
+public class SubscriptionStore
+{
+    private static final String ARCHIVE_PREFIX = "youtube ";
+    private static final String ARCHIVE_EXTENSION = ".archive";
+
+    private final File directory;
+    private final Map<String, Set<String>> deliveredIds = new HashMap<>();
+
+    /**
+     * Initializes store of delivered videos.
+     *
+     * @param directory Directory with archive files. Will be created if not exists.
+     *
+     * @throws IOException Fail to create directory.
+     */
+    public SubscriptionStore(File directory) throws IOException
+    {
+        if(!directory.isDirectory() && !directory.mkdirs())
+        {
+            log.error("Failed to create {} directory for subscriptions",
+                    directory.getAbsolutePath());
+            throw new IOException("Failed to create subscriptions directory");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Returns archive file for given channel.
+     *
+     * File may not exist, if no one video from the channel was delivered.
+     *
+     * @param channelUrl URL of channel
+     *
+     * @return Archive file in yt-dlp download archive format.
+     */
+    public File getArchiveFile(String channelUrl)
+    {
+        return new File(directory, channelFileName(channelUrl) + ARCHIVE_EXTENSION);
+    }
+
+    /**
+     * Is video from given channel already delivered.
+     *
+     * @param channelUrl URL of channel
+     * @param videoId    Video ID
+     *
+     * @return {@code True} if delivered, otherwise {@code false}.
+     *
+     * @throws IOException Fail to read archive file.
+     */
+    public synchronized boolean isDelivered(String channelUrl, String videoId) throws IOException
+    {
+        return getDeliveredIds(channelUrl).contains(videoId);
+    }
+
+    /**
+     * Marks video from given channel as delivered and saves it to the archive file.
+     *
+     * @param channelUrl URL of channel
+     * @param videoId    Video ID
+     *
+     * @throws IOException Fail to write archive file.
+     */
+    public synchronized void markDelivered(String channelUrl, String videoId) throws IOException
+    {
+        Set<String> ids = getDeliveredIds(channelUrl);
+        if(!ids.add(videoId))
+        {
+            return;
+        }
+
+        Path archive = getArchiveFile(channelUrl).toPath();
+        Path tempArchive = archive.resolveSibling(archive.getFileName() + ".tmp");
+        List<String> lines = new ArrayList<>(ids.size());
+        for(String id : new TreeSet<>(ids))
+        {
+            lines.add(ARCHIVE_PREFIX + id);
+        }
+        Files.write(tempArchive, lines, StandardCharsets.UTF_8);
+        Files.move(tempArchive, archive, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Video {} from {} marked as delivered", videoId, channelUrl);
+    }
+
+    private Set<String> getDeliveredIds(String channelUrl) throws IOException
+    {
+        Set<String> ids = deliveredIds.get(channelUrl);
+        if(ids != null)
+        {
+            return ids;
+        }
+
+        ids = new HashSet<>();
+        File archive = getArchiveFile(channelUrl);
+        if(archive.exists())
+        {
+            for(String line : Files.readAllLines(archive.toPath(), StandardCharsets.UTF_8))
+            {
+                if(line.startsWith(ARCHIVE_PREFIX))
+                {
+                    ids.add(line.substring(ARCHIVE_PREFIX.length()).strip());
+                }
+            }
+            log.debug("Loaded {} delivered videos for {}", ids.size(), channelUrl);
+        }
+        deliveredIds.put(channelUrl, ids);
+        return ids;
+    }
+
+    /**
+     * Converts channel URL to the safe file name.
+     *
+     * @param channelUrl URL of channel
+     *
+     * @return File name without extension.
+     */
+    static String channelFileName(String channelUrl)
+    {
+        String name = channelUrl.replaceFirst("^https?://(www\\.)?", "");
+        return name.replaceAll("[^\\w.@-]", "_");
+    }
+}
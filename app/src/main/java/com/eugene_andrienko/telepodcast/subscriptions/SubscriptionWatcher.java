@@ -0,0 +1,168 @@
+package com.eugene_andrienko.telepodcast.subscriptions;
+
+import com.eugene_andrienko.common.ExecutorFactory;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.ContentType;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Polls subscribed YouTube channels for new videos.
+ *
+ * Only videos which are not delivered yet are returned. yt-dlp stops listing of channel on the
+ * first already delivered video, so poll does not enumerate full history of channel.
+ */
+@Log4j2
+public class SubscriptionWatcher
+{
+    private static final String VIDEO_URL_PREFIX = "https://www.youtube.com/watch?v=";
+
+    private final YouTubeDlApi youtube;
+    private final SubscriptionStore store;
+    private final SubscriptionOptions options;
+
+    /**
+     * Initializes subscription watcher.
+     *
+     * @param youtube Initialized YouTube downloader
+     * @param options Subscription options
+     *
+     * @throws IOException Failed to initialize store of delivered videos.
+     */
+    public SubscriptionWatcher(YouTubeDlApi youtube, SubscriptionOptions options)
+            throws IOException
+    {
+        this.youtube = youtube;
+        this.options = options;
+        this.store = new SubscriptionStore(options.getStoreDirectory());
+    }
+
+    /**
+     * Gets new videos from all subscribed channels.
+     *
+     * Channels are polled in parallel.
+     *
+     * @return List of new videos, from the oldest one to the newest one for every channel.
+     *
+     * @throws IOException Failed to read list of channels.
+     */
+    public List<Episode> poll() throws IOException
+    {
+        Map<String, ContentType> channels = readChannels();
+        log.info("Polling {} channels for new videos", channels.size());
+
+        ExecutorService executor = ExecutorFactory.newLimitedExecutor("subscriptions",
+                Math.max(1, Math.min(options.getThreads(), channels.size())));
+        try
+        {
+            Map<String, Future<List<String>>> futures = new LinkedHashMap<>();
+            for(String channelUrl : channels.keySet())
+            {
+                futures.put(channelUrl, executor.submit(() -> youtube.getNewVideoIds(channelUrl,
+                        store.getArchiveFile(channelUrl), options.getLimit(),
+                        options.getDateAfter())));
+            }
+
+            List<Episode> episodes = new ArrayList<>();
+            for(Map.Entry<String, Future<List<String>>> entry : futures.entrySet())
+            {
+                String channelUrl = entry.getKey();
+                List<String> videoIds;
+                try
+                {
+                    videoIds = entry.getValue().get();
+                }
+                catch(InterruptedException | ExecutionException ex)
+                {
+                    log.error("Failed to poll {} channel", channelUrl);
+                    log.debug("Exception: ", ex);
+                    continue;
+                }
+                if(videoIds == null)
+                {
+                    log.error("Failed to get new videos from {} channel", channelUrl);
+                    continue;
+                }
+
+                // yt-dlp lists videos from the newest one and skips delivered ones:
+                for(int i = videoIds.size() - 1; i >= 0; i--)
+                {
+                    String videoId = videoIds.get(i);
+                    episodes.add(new Episode(channelUrl, videoId, VIDEO_URL_PREFIX + videoId,
+                            channels.get(channelUrl)));
+                }
+                log.debug("Got {} new videos from {}", videoIds.size(), channelUrl);
+            }
+            log.info("Got {} new videos", episodes.size());
+            return episodes;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Marks video as delivered — it will not be returned by next polls.
+     *
+     * @param episode Delivered video
+     *
+     * @throws IOException Failed to save delivered video.
+     */
+    public void markDelivered(Episode episode) throws IOException
+    {
+        store.markDelivered(episode.getChannelUrl(), episode.getVideoId());
+    }
+
+    private Map<String, ContentType> readChannels() throws IOException
+    {
+        Map<String, ContentType> channels = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(options.getChannelsFile().toPath(),
+                StandardCharsets.UTF_8);
+        for(String line : lines)
+        {
+            line = line.strip();
+            if(line.isEmpty() || line.startsWith("#"))
+            {
+                continue;
+            }
+
+            String[] fields = line.split("\\s+", 2);
+            if(fields.length != 2)
+            {
+                log.warn("Skipping invalid subscription line: {}", line);
+                continue;
+            }
+            ContentType contentType;
+            try
+            {
+                contentType = ContentType.valueOf(fields[0].toUpperCase(Locale.ROOT));
+            }
+            catch(IllegalArgumentException ex)
+            {
+                log.warn("Skipping subscription with unknown content type: {}", line);
+                continue;
+            }
+            channels.put(fields[1], contentType);
+        }
+        return channels;
+    }
+
+    /**
+     * New video from subscribed channel.
+     */
+    @Value
+    public static class Episode
+    {
+        String channelUrl;
+        String videoId;
+        String url;
+        ContentType contentType;
+    }
+}
@@ -0,0 +1,121 @@
+package com.eugene_andrienko.telepodcast.tui;
+
+import com.googlecode.lanterna.TextColor;
+import lombok.Getter;
+
+
+/**
+ * State of one download in the job table.
+ *
+ * Job should be changed only through the job table, on the UI thread, so the table can keep
+ * its counters and filters up to date.
+ */
+@Getter
+public class DownloadJob
+{
+    private final String title;
+    private State state = State.QUEUED;
+    /**
+     * Progress in percents, used only in states with progress.
+     */
+    private int progress = 0;
+
+    public DownloadJob(String title)
+    {
+        this.title = title;
+    }
+
+    /**
+     * Changes state of job.
+     *
+     * @param state    New state
+     * @param progress New progress in percents
+     *
+     * @return {@code True} if something is changed.
+     */
+    public boolean update(State state, int progress)
+    {
+        int newProgress = state.isWithProgress() ? Math.max(0, Math.min(100, progress)) : 0;
+        if(this.state == state && this.progress == newProgress)
+        {
+            return false;
+        }
+        this.state = state;
+        this.progress = newProgress;
+        return true;
+    }
+
+    public enum State
+    {
+        QUEUED("QUEUED", Progress.NONE),
+        DOWNLOADING("DOWNLOADING", Progress.VALUE),
+        PAUSED("PAUSED", Progress.VALUE),
+        VOLUME_INCREASE("VOLUME_INCREASE", Progress.BUSY),
+        AUDIO_ENCODING("AUDIO_ENCODING", Progress.BUSY),
+        VIDEO_ENCODING("VIDEO_ENCODING", Progress.BUSY),
+        DOWNLOADED("COMPLETE", Progress.NONE),
+        UPLOADING("UPLOADING", Progress.VALUE),
+        SENDING("SENDING", Progress.BUSY),
+        SENT("SENT", Progress.NONE),
+        DOWNLOAD_FAIL("FAIL", Progress.NONE),
+        UPLOAD_FAIL("UPLOAD FAIL", Progress.NONE),
+        SEND_FAIL("FAIL", Progress.NONE),
+        CANCELLED("CANCELLED", Progress.NONE);
+
+        private final String text;
+        private final Progress progress;
+
+        State(String text, Progress progress)
+        {
+            this.text = text;
+            this.progress = progress;
+        }
+
+        public String getText()
+        {
+            return text;
+        }
+
+        public boolean isBusy()
+        {
+            return progress == Progress.BUSY;
+        }
+
+        public boolean isWithProgress()
+        {
+            return progress == Progress.VALUE;
+        }
+
+        public boolean isFailed()
+        {
+            return this == DOWNLOAD_FAIL || this == UPLOAD_FAIL || this == SEND_FAIL;
+        }
+
+        /**
+         * Returns color of state text.
+         *
+         * @return Color of state or {@code null} for default color.
+         */
+        public TextColor getColor()
+        {
+            if(isFailed())
+            {
+                return TextColor.ANSI.RED;
+            }
+            if(this == DOWNLOADED || this == SENT)
+            {
+                return TextColor.ANSI.GREEN;
+            }
+            if(this == PAUSED || this == CANCELLED)
+            {
+                return TextColor.ANSI.YELLOW;
+            }
+            return null;
+        }
+
+        private enum Progress
+        {
+            NONE, VALUE, BUSY
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.eugene_andrienko.telepodcast.tui;
+
+import com.eugene_andrienko.telepodcast.tui.DownloadOptions.DownloadType;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Starts downloads speculatively, while user is still selecting what to download.
+ *
+ * Download is started as soon as video is selected, restarted if user changes its type, and
+ * cancelled if user deselects video. So when user confirms the selection, most of downloads
+ * are already in progress or completed.
+ *
+ * Should be used only from the GUI thread.
+ */
+@Log4j2
+public class Prefetcher
+{
+    private final YouTubeDlApi youtube;
+    private final boolean isEnabled;
+    private final Map<String, DownloadType> started = new HashMap<>();
+
+    /**
+     * Initializes prefetcher.
+     *
+     * @param youtube   YouTube downloader, shared with the download window
+     * @param isEnabled If {@code false} — nothing is downloaded before user confirms selection
+     */
+    public Prefetcher(YouTubeDlApi youtube, boolean isEnabled)
+    {
+        this.youtube = youtube;
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Starts, restarts or cancels download according to the current selection.
+     *
+     * @param option Download options, selected by user
+     */
+    public void update(DownloadOptions option)
+    {
+        if(!isEnabled)
+        {
+            return;
+        }
+
+        String url = option.getUrl();
+        DownloadType startedType = started.get(url);
+        if(!option.isDownload())
+        {
+            if(startedType != null)
+            {
+                log.debug("Cancelling prefetch of {}", url);
+                youtube.cancelDownload(url);
+                started.remove(url);
+            }
+            return;
+        }
+        if(startedType == option.getDownloadType())
+        {
+            return;
+        }
+
+        // Download of other type is cancelled by the new download:
+        log.debug("Prefetching {} as {}", url, option.getDownloadType());
+        if(option.getDownloadType() == DownloadType.AUDIO)
+        {
+            youtube.downloadAudio(url);
+        }
+        else if(option.getDownloadType() == DownloadType.VIDEO)
+        {
+            youtube.downloadVideo(url);
+        }
+        started.put(url, option.getDownloadType());
+    }
+}
@@ -0,0 +1,170 @@
+package com.eugene_andrienko.telepodcast.tui;
+
+import com.eugene_andrienko.telepodcast.tui.components.AnimationTicker;
+import com.googlecode.lanterna.gui2.MultiWindowTextGUI;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Applies changes of TUI components from worker threads on the UI thread.
+ *
+ * Workers do not touch components directly — they post updates to the lock-free queue. The UI
+ * thread calls {@link #runFrame()} in a loop: it applies all posted updates in one batch (only
+ * the latest update for every key), so only changed components are invalidated. Screen is
+ * redrawn only if something was invalidated, and only changed cells are sent to the terminal.
+ *
+ * Frame interval adapts to the time of the screen redraw: on slow terminals (for example, via
+ * SSH) frames are drawn more rarely, so the terminal is not flooded with updates.
+ */
+@Log4j2
+public class RenderScheduler
+{
+    static final long MIN_FRAME_INTERVAL = TimeUnit.MILLISECONDS.toNanos(50);
+    static final long MAX_FRAME_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1000);
+    /**
+     * Redraw should take not more than 1/4 of frame interval.
+     */
+    private static final int FRAME_TO_RENDER_RATIO = 4;
+
+    private final MultiWindowTextGUI tui;
+    private final AnimationTicker ticker;
+    private final Queue<Update> updates = new ConcurrentLinkedQueue<>();
+    private long frameInterval = MIN_FRAME_INTERVAL;
+
+    public RenderScheduler(MultiWindowTextGUI tui, AnimationTicker ticker)
+    {
+        this.tui = tui;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Posts update of the component. Can be called from any thread.
+     *
+     * If several updates with the same key are posted between frames — only the latest one
+     * will be applied.
+     *
+     * @param key    Key of update, usually the updated component
+     * @param update Update to run on the UI thread
+     */
+    public void post(Object key, Runnable update)
+    {
+        updates.offer(new Update(key, update));
+    }
+
+    /**
+     * Draws one frame. Should be called from the UI thread.
+     *
+     * Processes user input, applies posted updates, advances animation, redraws screen if needed
+     * and waits until the next frame.
+     *
+     * @throws TUIException Failed to update screen.
+     */
+    public void runFrame() throws TUIException
+    {
+        long frameStart = System.nanoTime();
+        try
+        {
+            tui.processInput();
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to process input: ", ex);
+            throw new TUIException(ex);
+        }
+        applyUpdates();
+        ticker.tick();
+
+        if(tui.isPendingUpdate())
+        {
+            long renderStart = System.nanoTime();
+            try
+            {
+                tui.updateScreen();
+            }
+            catch(IOException ex)
+            {
+                log.error("Failed to update screen: ", ex);
+                throw new TUIException(ex);
+            }
+            adaptFrameInterval(System.nanoTime() - renderStart);
+        }
+
+        long sleep = frameInterval - (System.nanoTime() - frameStart);
+        if(sleep > 0)
+        {
+            try
+            {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            catch(InterruptedException ex)
+            {
+                log.debug("Frame wait interrupted");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Applies all posted updates — only the latest one for every key.
+     *
+     * @return Count of applied updates.
+     */
+    int applyUpdates()
+    {
+        Map<Object, Runnable> latest = new LinkedHashMap<>();
+        Update update;
+        while((update = updates.poll()) != null)
+        {
+            // Keep order of the first update for key, but the latest action:
+            latest.put(update.key, update.action);
+        }
+        for(Runnable action : latest.values())
+        {
+            try
+            {
+                action.run();
+            }
+            catch(RuntimeException ex)
+            {
+                log.error("Failed to apply TUI update: ", ex);
+            }
+        }
+        return latest.size();
+    }
+
+    /**
+     * Recalculates frame interval from the time of the last redraw.
+     *
+     * @param renderTime Time of the last redraw in nanoseconds
+     */
+    void adaptFrameInterval(long renderTime)
+    {
+        long target = renderTime * FRAME_TO_RENDER_RATIO;
+        // Smooth changes, so single slow redraw does not slow down animation:
+        long interval = (frameInterval * 3 + target) / 4;
+        frameInterval = Math.max(MIN_FRAME_INTERVAL, Math.min(MAX_FRAME_INTERVAL, interval));
+    }
+
+    long getFrameInterval()
+    {
+        return frameInterval;
+    }
+
+    private static class Update
+    {
+        final Object key;
+        final Runnable action;
+
+        Update(Object key, Runnable action)
+        {
+            this.key = key;
+            this.action = action;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.eugene_andrienko.telepodcast.tui;
 
 import com.eugene_andrienko.telegram.api.TelegramOptions;
+import com.eugene_andrienko.telepodcast.helpers.DescriptionFilter;
 import com.eugene_andrienko.telepodcast.tui.windows.DownloadWindow;
 import com.eugene_andrienko.telepodcast.tui.windows.EnterLinksWindow;
 import com.eugene_andrienko.telepodcast.tui.windows.LoadingTitlesWindow;
 import com.eugene_andrienko.telepodcast.tui.windows.SelectDownloadsWindow;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
 import com.googlecode.lanterna.TextColor;
 import com.googlecode.lanterna.gui2.*;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
 import com.googlecode.lanterna.screen.Screen;
 import com.googlecode.lanterna.screen.TerminalScreen;
 import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
@@ -16,22 +20,35 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.log4j.Log4j2;
 
 
+@Log4j2
 public class TUI implements AutoCloseable
 {
     private final TelegramOptions telegramOptions;
     private final int downloaderThreads;
+    private final long downloadLimit;
+    private final boolean prefetch;
+    private final int chapterComments;
+    private final DescriptionFilter descriptionFilter;
     private final Screen screen;
     private final MultiWindowTextGUI tui;
 
     private final static String title = TUI.class.getPackage().getImplementationTitle();
     private final static String version = TUI.class.getPackage().getImplementationVersion();
 
-    public TUI(TelegramOptions telegramOptions, int downloaderThreads) throws IOException
+    public TUI(TelegramOptions telegramOptions, int downloaderThreads, long downloadLimit,
+            boolean prefetch, int chapterComments, DescriptionFilter descriptionFilter)
+            throws IOException
     {
         this.telegramOptions = telegramOptions;
         this.downloaderThreads = downloaderThreads;
+        this.downloadLimit = downloadLimit;
+        this.prefetch = prefetch;
+        this.chapterComments = chapterComments;
+        this.descriptionFilter = descriptionFilter;
 
         Terminal terminal = new DefaultTerminalFactory().createTerminal();
         screen = new TerminalScreen(terminal);
@@ -58,13 +75,65 @@ public class TUI implements AutoCloseable
             return;
         }
 
-        Map<String, String> urlTitleMap = new LoadingTitlesWindow(tui, downloaderThreads)
-                .start(urls);
-        List<DownloadOptions> downloadOptions = new SelectDownloadsWindow(tui)
-                .start(urlTitleMap);
+        // Downloads can be started before the download window, so downloader is shared:
+        YouTubeDlApi youtube = openYouTubeDownloader();
+        try
+        {
+            List<DownloadOptions> downloadOptions;
+            Prefetcher prefetcher = new Prefetcher(youtube, prefetch);
+            // Titles are loaded in background, while user selects downloads:
+            try(LoadingTitlesWindow loadingTitles = new LoadingTitlesWindow(tui, youtube,
+                    downloaderThreads))
+            {
+                Map<String, CompletableFuture<String>> urlTitleMap = loadingTitles.start(urls);
+                downloadOptions = new SelectDownloadsWindow(tui, prefetcher).start(urlTitleMap);
+            }
+
+            new DownloadWindow(tui, telegramOptions, youtube, descriptionFilter)
+                    .start(downloadOptions);
+        }
+        finally
+        {
+            closeYouTubeDownloader(youtube);
+        }
+    }
+
+    private YouTubeDlApi openYouTubeDownloader() throws TUIException
+    {
+        try
+        {
+            return new YouTubeDlApi(downloaderThreads, downloadLimit, chapterComments);
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to instantiate youtubedl library", ex);
+            new MessageDialogBuilder()
+                    .setTitle("YouTube downloader error")
+                    .setText("Failed to start YouTube downloader")
+                    .addButton(MessageDialogButton.OK)
+                    .build()
+                    .showDialog(tui);
+            throw new TUIException(ex);
+        }
+    }
 
-        new DownloadWindow(tui, telegramOptions, downloaderThreads)
-                .start(downloadOptions);
+    private void closeYouTubeDownloader(YouTubeDlApi youtube) throws TUIException
+    {
+        try
+        {
+            youtube.close();
+        }
+        catch(Exception ex)
+        {
+            log.error("Failed to properly close youtubedl library", ex);
+            new MessageDialogBuilder()
+                    .setTitle("YouTube downloader error")
+                    .setText("Failed to properly close resources for YouTube downloader")
+                    .addButton(MessageDialogButton.OK)
+                    .build()
+                    .showDialog(tui);
+            throw new TUIException(ex);
+        }
     }
 
     @Override
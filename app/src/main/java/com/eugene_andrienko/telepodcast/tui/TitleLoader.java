@@ -0,0 +1,78 @@
+package com.eugene_andrienko.telepodcast.tui;
+
+import com.eugene_andrienko.common.ExecutorFactory;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Loads titles of YouTube videos in background.
+ *
+ * Titles are requested concurrently, but not more than given count at once. Every request is
+ * limited in time — yt-dlp which hangs on one URL does not hold the others.
+ */
+@Log4j2
+public class TitleLoader implements AutoCloseable
+{
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final YouTubeDlApi youtube;
+    private final ExecutorService executorService;
+    private final Duration timeout;
+
+    /**
+     * Initializes title loader.
+     *
+     * @param youtube         Initialized YouTube downloader
+     * @param numberOfThreads Maximal count of simultaneous requests to YouTube
+     */
+    public TitleLoader(YouTubeDlApi youtube, int numberOfThreads)
+    {
+        this(youtube, numberOfThreads, DEFAULT_TIMEOUT);
+    }
+
+    TitleLoader(YouTubeDlApi youtube, int numberOfThreads, Duration timeout)
+    {
+        this.youtube = youtube;
+        this.executorService = ExecutorFactory.newLimitedExecutor("titles", numberOfThreads);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Starts loading of titles.
+     *
+     * @param urls URLs to YouTube videos
+     *
+     * @return Map from URL to its title, in order of given URLs. Title is {@code null} if it
+     * cannot be loaded.
+     */
+    public Map<String, CompletableFuture<String>> load(Collection<String> urls)
+    {
+        Map<String, CompletableFuture<String>> result = new LinkedHashMap<>();
+        for(String url : urls)
+        {
+            result.put(url, CompletableFuture.supplyAsync(() -> {
+                String title = youtube.getTitle(url, timeout);
+                log.debug("Processing {}, got {} title", url, title);
+                return title;
+            }, executorService).exceptionally(ex -> {
+                log.error("Failed to load title for {}", url);
+                log.debug("Exception: ", ex);
+                return null;
+            }));
+        }
+        return result;
+    }
+
+    @Override
+    public void close()
+    {
+        executorService.shutdownNow();
+    }
+}
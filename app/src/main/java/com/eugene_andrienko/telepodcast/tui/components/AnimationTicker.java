@@ -0,0 +1,96 @@
+package com.eugene_andrienko.telepodcast.tui.components;
+
+import com.googlecode.lanterna.gui2.Component;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Shared clock for animated components.
+ *
+ * Components in "busy waiting" mode register themselves here and draw their animation
+ * from the one shared frame counter. Ticker has no own thread: {@link #tick()} should be
+ * called from the screen refresh loop, so all animations are advanced together with the
+ * screen update, regardless of the count of animated components.
+ */
+public class AnimationTicker
+{
+    private static AnimationTicker INSTANCE;
+
+    private static final long DEFAULT_FRAME_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Set<Component> animated = ConcurrentHashMap.newKeySet();
+    private final long frameInterval;
+    private final long startTime;
+    private volatile long frame = 0;
+
+    AnimationTicker(long frameInterval)
+    {
+        this.frameInterval = frameInterval;
+        this.startTime = System.nanoTime();
+    }
+
+    public static synchronized AnimationTicker getInstance()
+    {
+        if(INSTANCE == null)
+        {
+            INSTANCE = new AnimationTicker(DEFAULT_FRAME_INTERVAL);
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Starts animation of the component.
+     *
+     * @param component Component to animate
+     */
+    public void register(Component component)
+    {
+        animated.add(component);
+    }
+
+    /**
+     * Stops animation of the component.
+     *
+     * @param component Animated component
+     */
+    public void unregister(Component component)
+    {
+        animated.remove(component);
+    }
+
+    /**
+     * Returns current frame of animation.
+     *
+     * @return Frame number, which is increased once per frame interval.
+     */
+    public long getFrame()
+    {
+        return frame;
+    }
+
+    /**
+     * Advances animation.
+     *
+     * Should be called from the screen refresh loop. If frame is changed since previous call —
+     * all animated components are invalidated to be redrawn with the next screen update.
+     *
+     * @return {@code True} if some components were invalidated.
+     */
+    public boolean tick()
+    {
+        long currentFrame = (System.nanoTime() - startTime) / frameInterval;
+        if(currentFrame == frame || animated.isEmpty())
+        {
+            frame = currentFrame;
+            return false;
+        }
+        frame = currentFrame;
+        for(Component component : animated)
+        {
+            component.invalidate();
+        }
+        return true;
+    }
+}
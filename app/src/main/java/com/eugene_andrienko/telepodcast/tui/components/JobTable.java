@@ -0,0 +1,514 @@
+package com.eugene_andrienko.telepodcast.tui.components;
+
+import com.eugene_andrienko.telepodcast.tui.DownloadJob;
+import com.eugene_andrienko.telepodcast.tui.DownloadJob.State;
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TerminalTextUtils;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.graphics.ThemeDefinition;
+import com.googlecode.lanterna.gui2.AbstractInteractableComponent;
+import com.googlecode.lanterna.gui2.InteractableRenderer;
+import com.googlecode.lanterna.gui2.ProgressBar;
+import com.googlecode.lanterna.gui2.TextGUIGraphics;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Table of download jobs.
+ *
+ * Table draws only rows which are visible on the screen, so layout and render time do not
+ * depend on the count of jobs. Row is selected with arrows, Page Up/Page Down and Home/End
+ * keys (table scrolls to keep it visible), rows are filtered by state with the "f" key. Selected
+ * job can be cancelled with the "c" key and paused or resumed with the "p" key — table only
+ * notifies its listeners about it. The last line shows counters of jobs.
+ *
+ * All methods should be called from the UI thread.
+ */
+public class JobTable extends AbstractInteractableComponent<JobTable>
+{
+    static final int TITLE_WIDTH = 40;
+    static final int PROGRESS_WIDTH = 10;
+    static final int STATE_WIDTH = 15;
+    private static final int CURSOR_POSITIONS = 101;
+    /**
+     * Heading and summary lines.
+     */
+    private static final int EXTRA_ROWS = 2;
+
+    private final AnimationTicker ticker;
+    private final int pageSize;
+    private final List<DownloadJob> jobs = new ArrayList<>();
+    private final Map<State, Integer> counters = new EnumMap<>(State.class);
+    private int busyJobs = 0;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private List<DownloadJob> filtered = jobs;
+    private boolean isFilterOutdated = false;
+    private Filter filter = Filter.ALL;
+    private int scrollOffset = 0;
+    private int selectedRow = 0;
+    private int visibleRows;
+
+    /**
+     * Creates job table.
+     *
+     * @param pageSize Count of rows with jobs, visible at once
+     * @param ticker   Ticker to animate busy jobs
+     */
+    public JobTable(int pageSize, AnimationTicker ticker)
+    {
+        this.pageSize = Math.max(1, pageSize);
+        this.visibleRows = this.pageSize;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Adds job to the end of table.
+     *
+     * @param job New job
+     */
+    public void addJob(DownloadJob job)
+    {
+        jobs.add(job);
+        changeCounter(job.getState(), 1);
+        isFilterOutdated = filter != Filter.ALL;
+        invalidate();
+    }
+
+    /**
+     * Changes state of job. Table is redrawn only if job is visible or counters are changed.
+     *
+     * @param job      Job from this table
+     * @param state    New state of job
+     * @param progress New progress of job in percents
+     */
+    public void update(DownloadJob job, State state, int progress)
+    {
+        State oldState = job.getState();
+        if(!job.update(state, progress))
+        {
+            return;
+        }
+        if(oldState == state)
+        {
+            if(isVisible(job))
+            {
+                invalidate();
+            }
+            return;
+        }
+
+        changeCounter(oldState, -1);
+        changeCounter(state, 1);
+        if(filter.matches(oldState) != filter.matches(state))
+        {
+            isFilterOutdated = true;
+        }
+        invalidate();
+    }
+
+    /**
+     * Returns count of jobs in given state.
+     *
+     * @param state State of jobs
+     *
+     * @return Count of jobs.
+     */
+    public int getCount(State state)
+    {
+        return counters.getOrDefault(state, 0);
+    }
+
+    public int getJobsCount()
+    {
+        return jobs.size();
+    }
+
+    public int getFailedCount()
+    {
+        return getCount(State.DOWNLOAD_FAIL) + getCount(State.UPLOAD_FAIL)
+                + getCount(State.SEND_FAIL);
+    }
+
+    /**
+     * Adds listener of actions with jobs.
+     *
+     * @param listener Listener
+     */
+    public void addListener(Listener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public Filter getFilter()
+    {
+        return filter;
+    }
+
+    public void setFilter(Filter filter)
+    {
+        if(this.filter != filter)
+        {
+            this.filter = filter;
+            isFilterOutdated = true;
+            scrollOffset = 0;
+            selectedRow = 0;
+            invalidate();
+        }
+    }
+
+    public int getScrollOffset()
+    {
+        return scrollOffset;
+    }
+
+    /**
+     * Scrolls table.
+     *
+     * @param rows Count of rows to scroll, negative to scroll up
+     */
+    public void scroll(int rows)
+    {
+        int newOffset = limitScrollOffset(scrollOffset + rows);
+        if(newOffset != scrollOffset)
+        {
+            scrollOffset = newOffset;
+            invalidate();
+        }
+    }
+
+    /**
+     * Selects row, scrolling table to make it visible.
+     *
+     * @param row Row in the list of filtered jobs, limited by count of filtered jobs
+     */
+    public void select(int row)
+    {
+        int jobsCount = getFilteredJobs().size();
+        int newRow = Math.max(0, Math.min(jobsCount - 1, row));
+        if(newRow != selectedRow)
+        {
+            selectedRow = newRow;
+            invalidate();
+        }
+        if(selectedRow < scrollOffset)
+        {
+            scroll(selectedRow - scrollOffset);
+        }
+        else if(selectedRow >= scrollOffset + visibleRows)
+        {
+            scroll(selectedRow - scrollOffset - visibleRows + 1);
+        }
+    }
+
+    /**
+     * Returns selected job.
+     *
+     * @return Selected job or {@code null} if no jobs are shown.
+     */
+    public DownloadJob getSelectedJob()
+    {
+        List<DownloadJob> rows = getFilteredJobs();
+        if(rows.isEmpty())
+        {
+            return null;
+        }
+        return rows.get(Math.min(selectedRow, rows.size() - 1));
+    }
+
+    /**
+     * Returns jobs, which are shown with current filter.
+     *
+     * @return Unmodifiable list of filtered jobs.
+     */
+    public List<DownloadJob> getFilteredJobs()
+    {
+        if(filter == Filter.ALL)
+        {
+            filtered = jobs;
+        }
+        else if(isFilterOutdated || filtered == jobs)
+        {
+            filtered = new ArrayList<>();
+            for(DownloadJob job : jobs)
+            {
+                if(filter.matches(job.getState()))
+                {
+                    filtered.add(job);
+                }
+            }
+        }
+        isFilterOutdated = false;
+        return Collections.unmodifiableList(filtered);
+    }
+
+    @Override
+    protected Result handleKeyStroke(KeyStroke keyStroke)
+    {
+        KeyType keyType = keyStroke.getKeyType();
+        switch(keyType)
+        {
+            case ArrowUp:
+                select(selectedRow - 1);
+                return Result.HANDLED;
+            case ArrowDown:
+                select(selectedRow + 1);
+                return Result.HANDLED;
+            case PageUp:
+                select(selectedRow - visibleRows);
+                return Result.HANDLED;
+            case PageDown:
+                select(selectedRow + visibleRows);
+                return Result.HANDLED;
+            case Home:
+                select(0);
+                return Result.HANDLED;
+            case End:
+                select(jobs.size());
+                return Result.HANDLED;
+            case Character:
+                switch(Character.toLowerCase(keyStroke.getCharacter()))
+                {
+                    case 'f':
+                        setFilter(filter.next());
+                        return Result.HANDLED;
+                    case 'c':
+                        notifyListeners(true);
+                        return Result.HANDLED;
+                    case 'p':
+                        notifyListeners(false);
+                        return Result.HANDLED;
+                }
+                break;
+        }
+        return super.handleKeyStroke(keyStroke);
+    }
+
+    @Override
+    protected InteractableRenderer<JobTable> createDefaultRenderer()
+    {
+        return new JobTableRenderer();
+    }
+
+    private void notifyListeners(boolean isCancel)
+    {
+        DownloadJob job = getSelectedJob();
+        if(job == null)
+        {
+            return;
+        }
+        for(Listener listener : listeners)
+        {
+            if(isCancel)
+            {
+                listener.onCancel(job);
+            }
+            else
+            {
+                listener.onPauseResume(job);
+            }
+        }
+    }
+
+    private int limitScrollOffset(int offset)
+    {
+        int maxOffset = Math.max(0, getFilteredJobs().size() - visibleRows);
+        return Math.max(0, Math.min(maxOffset, offset));
+    }
+
+    private boolean isVisible(DownloadJob job)
+    {
+        if(filter != Filter.ALL)
+        {
+            return true;
+        }
+        int lastRow = Math.min(jobs.size(), scrollOffset + visibleRows);
+        for(int i = scrollOffset; i < lastRow; i++)
+        {
+            if(jobs.get(i) == job)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void changeCounter(State state, int delta)
+    {
+        counters.merge(state, delta, Integer::sum);
+        if(!state.isBusy())
+        {
+            return;
+        }
+        // Table is animated while it has busy jobs:
+        boolean wasBusy = busyJobs > 0;
+        busyJobs += delta;
+        if(!wasBusy && busyJobs > 0)
+        {
+            ticker.register(this);
+        }
+        else if(wasBusy && busyJobs == 0)
+        {
+            ticker.unregister(this);
+        }
+    }
+
+    /**
+     * Listener of actions with selected job.
+     */
+    public interface Listener
+    {
+        /**
+         * Called when user asks to cancel job.
+         *
+         * @param job Selected job
+         */
+        void onCancel(DownloadJob job);
+
+        /**
+         * Called when user asks to pause or resume job.
+         *
+         * @param job Selected job
+         */
+        void onPauseResume(DownloadJob job);
+    }
+
+    /**
+     * Filter of jobs by state.
+     */
+    public enum Filter
+    {
+        ALL, FAIL, UPLOADING, SENT;
+
+        public boolean matches(State state)
+        {
+            switch(this)
+            {
+                case FAIL:
+                    return state.isFailed();
+                case UPLOADING:
+                    return state == State.UPLOADING || state == State.SENDING;
+                case SENT:
+                    return state == State.SENT;
+                default:
+                    return true;
+            }
+        }
+
+        Filter next()
+        {
+            Filter[] filters = values();
+            return filters[(ordinal() + 1) % filters.length];
+        }
+    }
+
+    private class JobTableRenderer implements InteractableRenderer<JobTable>
+    {
+        @Override
+        public TerminalPosition getCursorLocation(JobTable component)
+        {
+            return null;
+        }
+
+        @Override
+        public TerminalSize getPreferredSize(JobTable component)
+        {
+            return new TerminalSize(TITLE_WIDTH + PROGRESS_WIDTH + STATE_WIDTH + 2,
+                    pageSize + EXTRA_ROWS);
+        }
+
+        @Override
+        public void drawComponent(TextGUIGraphics graphics, JobTable component)
+        {
+            TerminalSize size = graphics.getSize();
+            ThemeDefinition theme = component.getThemeDefinition();
+            visibleRows = Math.max(1, size.getRows() - EXTRA_ROWS);
+            List<DownloadJob> rows = getFilteredJobs();
+            // Terminal may be resized, or jobs may be filtered out:
+            scrollOffset = limitScrollOffset(scrollOffset);
+            selectedRow = Math.max(0, Math.min(rows.size() - 1, selectedRow));
+
+            graphics.applyThemeStyle(theme.getNormal());
+            graphics.fill(' ');
+
+            graphics.enableModifiers(SGR.BOLD);
+            graphics.putString(0, 0, "YouTube video");
+            graphics.putString(TITLE_WIDTH + 1, 0, "Progress");
+            graphics.putString(TITLE_WIDTH + PROGRESS_WIDTH + 2, 0, "State");
+            graphics.disableModifiers(SGR.BOLD);
+
+            int lastRow = Math.min(rows.size(), scrollOffset + visibleRows);
+            for(int i = scrollOffset; i < lastRow; i++)
+            {
+                drawJob(graphics, theme, rows.get(i), i - scrollOffset + 1,
+                        i == selectedRow && component.isFocused());
+            }
+
+            graphics.applyThemeStyle(theme.getNormal());
+            String summary = String.format("%d-%d of %d | Sent: %d | Failed: %d | [F]ilter: %s" +
+                                           " | [C]ancel | [P]ause",
+                    rows.isEmpty() ? 0 : scrollOffset + 1, lastRow, rows.size(),
+                    getCount(State.SENT), getFailedCount(), filter);
+            graphics.putString(0, size.getRows() - 1,
+                    TerminalTextUtils.fitString(summary, size.getColumns()));
+        }
+
+        private void drawJob(TextGUIGraphics graphics, ThemeDefinition theme, DownloadJob job,
+                int row, boolean isSelected)
+        {
+            State state = job.getState();
+            graphics.applyThemeStyle(isSelected ? theme.getSelected() : theme.getNormal());
+            graphics.putString(0, row, TerminalTextUtils.fitString(job.getTitle(), TITLE_WIDTH));
+
+            int column = TITLE_WIDTH + 1;
+            if(state.isWithProgress())
+            {
+                int filled = job.getProgress() * PROGRESS_WIDTH / 100;
+                drawProgress(graphics, row, column, filled, -1);
+            }
+            else if(state.isBusy())
+            {
+                int cursor = (int)((ticker.getFrame() % CURSOR_POSITIONS)
+                        * PROGRESS_WIDTH / CURSOR_POSITIONS);
+                drawProgress(graphics, row, column, 0, cursor);
+            }
+
+            graphics.applyThemeStyle(theme.getNormal());
+            TextColor color = state.getColor();
+            if(color != null)
+            {
+                graphics.setForegroundColor(color);
+            }
+            graphics.putString(TITLE_WIDTH + PROGRESS_WIDTH + 2, row,
+                    TerminalTextUtils.fitString(state.getText(), STATE_WIDTH));
+        }
+
+        private void drawProgress(TextGUIGraphics graphics, int row, int column, int filled,
+                int cursor)
+        {
+            // Draw progress the same way as progress bars are drawn:
+            ThemeDefinition theme = getTheme().getDefinition(ProgressBar.class);
+            char filler = theme.getCharacter("FILLER", ' ');
+            for(int i = 0; i < PROGRESS_WIDTH; i++)
+            {
+                if(i < filled || i == cursor)
+                {
+                    graphics.applyThemeStyle(theme.getActive());
+                }
+                else
+                {
+                    graphics.applyThemeStyle(theme.getNormal());
+                }
+                graphics.setCharacter(column + i, row, filler);
+            }
+        }
+    }
+}
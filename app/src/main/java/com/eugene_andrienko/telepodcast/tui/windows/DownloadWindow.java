@@ -1,34 +1,39 @@
 package com.eugene_andrienko.telepodcast.tui.windows;
 
+import com.eugene_andrienko.common.ExecutorFactory;
+import com.eugene_andrienko.metrics.api.Span;
+import com.eugene_andrienko.metrics.api.Tracing;
 import com.eugene_andrienko.telegram.api.TelegramApi;
 import com.eugene_andrienko.telegram.api.TelegramOptions;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramSendMessageException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramUploadFileException;
+import com.eugene_andrienko.telepodcast.helpers.DescriptionFilter;
 import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover;
 import com.eugene_andrienko.telepodcast.helpers.SimpleTextHelper;
+import com.eugene_andrienko.telepodcast.tui.DownloadJob;
+import com.eugene_andrienko.telepodcast.tui.DownloadJob.State;
 import com.eugene_andrienko.telepodcast.tui.DownloadOptions;
 import com.eugene_andrienko.telepodcast.tui.DownloadOptions.DownloadType;
+import com.eugene_andrienko.telepodcast.tui.RenderScheduler;
 import com.eugene_andrienko.telepodcast.tui.TUIException;
+import com.eugene_andrienko.telepodcast.tui.components.AnimationTicker;
 import com.eugene_andrienko.telepodcast.tui.components.CenteredWaitingDialog;
-import com.eugene_andrienko.telepodcast.tui.components.ImprovedProgressBar;
+import com.eugene_andrienko.telepodcast.tui.components.JobTable;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.DownloadState;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.ContentType;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeDownloadException;
-import com.googlecode.lanterna.SGR;
-import com.googlecode.lanterna.TerminalSize;
-import com.googlecode.lanterna.TextColor;
 import com.googlecode.lanterna.gui2.*;
-import com.googlecode.lanterna.gui2.GridLayout.Alignment;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Cleanup;
 import lombok.NonNull;
@@ -40,47 +45,46 @@ public class DownloadWindow extends AbstractWindow
 {
     private final MultiWindowTextGUI tui;
     private final TelegramOptions options;
-    private final int threads;
-    private final TextColor LABEL_DEFAULT_COLOR;
+    private final YouTubeDlApi youtube;
+    private final DescriptionFilter descriptionFilter;
     private final AtomicInteger countOfProcessedFiles;
     private final ExecutorService executorService;
+    private final AnimationTicker ticker = AnimationTicker.getInstance();
+    private final RenderScheduler renderScheduler;
+    private final Map<DownloadJob, JobHandle> handles = new HashMap<>();
+    private JobTable jobTable;
+    private static final long PROGRESS_POLL_INTERVAL = 100;
+    /**
+     * Rows of terminal, used by window borders, table heading and summary.
+     */
+    private static final int WINDOW_EXTRA_ROWS = 8;
 
-    public DownloadWindow(MultiWindowTextGUI tui, TelegramOptions options, int threads)
+    public DownloadWindow(MultiWindowTextGUI tui, TelegramOptions options, YouTubeDlApi youtube,
+            DescriptionFilter descriptionFilter)
     {
         super();
         this.tui = tui;
         this.options = options;
-        this.threads = threads;
-        this.LABEL_DEFAULT_COLOR = new Label("").getForegroundColor();
+        this.youtube = youtube;
+        this.descriptionFilter = descriptionFilter;
         this.countOfProcessedFiles = new AtomicInteger(0);
-        this.executorService = Executors.newCachedThreadPool();
+        this.executorService = ExecutorFactory.newUnboundedExecutor("download-job");
+        this.renderScheduler = new RenderScheduler(tui, ticker);
     }
 
     public void start(List<DownloadOptions> downloads) throws TUIException
     {
-        Panel panel = new Panel();
-        panel.setLayoutManager(new GridLayout(3).setLeftMarginSize(1).setRightMarginSize(1))
-             .setLayoutData(GridLayout.createLayoutData(
-                     Alignment.FILL, Alignment.FILL, true, true));
+        // Table draws only visible rows, so it should fit into the terminal:
+        int terminalRows = tui.getScreen().getTerminalSize().getRows();
+        jobTable = new JobTable(
+                Math.min(downloads.size(), terminalRows - WINDOW_EXTRA_ROWS), ticker);
 
         BasicWindow window = createCenteredWindow("Processing");
-        window.setComponent(panel);
-
-        // Add table heading:
-        panel.addComponent(new EmptySpace(TerminalSize.ONE))
-             .addComponent(new EmptySpace(TerminalSize.ONE))
-             .addComponent(new EmptySpace(TerminalSize.ONE))
-             .addComponent(new Label("YouTube video").addStyle(SGR.BOLD))
-             .addComponent(new Label("Progress").addStyle(SGR.BOLD))
-             .addComponent(new Label("State").addStyle(SGR.BOLD))
-             .addComponent(new EmptySpace(TerminalSize.ONE))
-             .addComponent(new EmptySpace(TerminalSize.ONE))
-             .addComponent(new EmptySpace(TerminalSize.ONE));
+        window.setComponent(Panels.vertical(new EmptySpace(), jobTable, new EmptySpace()));
+        window.setFocusedInteractable(jobTable);
 
         try
         {
-            @Cleanup
-            YouTubeDlApi youtube = new YouTubeDlApi(threads);
             @Cleanup
             TelegramApi telegram = new TelegramApi(options);
 
@@ -95,34 +99,35 @@ public class DownloadWindow extends AbstractWindow
             // Add table elements:
             for(DownloadOptions option : downloads)
             {
-                Label title = new Label(formatTitle(option.getTitle()));
-                ImprovedProgressBar progressBar = new ImprovedProgressBar(0, 100, 10);
-                Label status = new Label("");
-                panel.addComponent(title).addComponent(progressBar).addComponent(status);
-                processData(youtube, telegram, option, progressBar, status);
+                DownloadJob job = new DownloadJob(option.getTitle());
+                JobHandle handle = new JobHandle(option.getUrl());
+                handles.put(job, handle);
+                jobTable.addJob(job);
+                processData(youtube, telegram, option, job, handle);
             }
-
-            // Add extra space:
-            panel.addComponent(new EmptySpace(TerminalSize.ONE))
-                 .addComponent(new EmptySpace(TerminalSize.ONE))
-                 .addComponent(new EmptySpace(TerminalSize.ONE));
-
-            tui.addWindow(window);
-            while(countOfProcessedFiles.get() < downloads.size())
+            jobTable.addListener(new JobTable.Listener()
             {
-                updateScreen(tui, log);
-                try
+                @Override
+                public void onCancel(DownloadJob job)
                 {
-                    //noinspection BusyWait
-                    Thread.sleep(100);
+                    cancelJob(telegram, handles.get(job));
                 }
-                catch(InterruptedException ex)
+
+                @Override
+                public void onPauseResume(DownloadJob job)
                 {
-                    log.error("Sleep interrupted");
-                    continue;
+                    pauseResumeJob(job, handles.get(job));
                 }
-                Thread.yield();
+            });
+
+            tui.addWindow(window);
+            while(countOfProcessedFiles.get() < downloads.size())
+            {
+                // Jobs only post changes of components, they are applied here in one batch:
+                renderScheduler.runFrame();
             }
+            // Apply the last posted changes:
+            renderScheduler.runFrame();
             new MessageDialogBuilder().setTitle("Information")
                                       .setText("All files processed")
                                       .addButton(MessageDialogButton.Close)
@@ -155,79 +160,128 @@ public class DownloadWindow extends AbstractWindow
     }
 
     private void processData(@NonNull YouTubeDlApi youtube, @NonNull TelegramApi telegram,
-            DownloadOptions download, ImprovedProgressBar progressBar, Label status)
-            throws IOException
+            DownloadOptions download, DownloadJob job, JobHandle handle) throws IOException
     {
         executorService.execute(() -> {
-            YoutubeData youtubeData = downloadFileStage(youtube, download, progressBar, status);
-            int localFileId = uploadFileStage(telegram, youtubeData, progressBar, status);
-            sendMessageStage(telegram, youtubeData, localFileId, progressBar, status);
+            try(Span span = Tracing.job(download.getUrl()))
+            {
+                YoutubeData youtubeData;
+                try(Span stage = Tracing.span("wait-download"))
+                {
+                    youtubeData = downloadFileStage(youtube, download, job);
+                }
+                int localFileId;
+                try(Span stage = Tracing.span("upload"))
+                {
+                    localFileId = uploadFileStage(telegram, youtubeData, job, handle);
+                }
+                try(Span stage = Tracing.span("send"))
+                {
+                    sendMessageStage(telegram, youtubeData, localFileId, job, handle);
+                }
+            }
             int countOfProcessed = countOfProcessedFiles.incrementAndGet();
             log.debug("{} links processed", countOfProcessed);
         });
     }
 
     private YoutubeData downloadFileStage(@NonNull YouTubeDlApi youtube, DownloadOptions download,
-            ImprovedProgressBar progressBar, Label status)
+            DownloadJob job)
     {
         String url = download.getUrl();
-        DownloadType downloadType = download.getDownloadType();
-        if(downloadType == DownloadType.AUDIO)
+        DownloadState state = youtube.getDownloadState(url);
+        if(state == DownloadState.NO_DATA || state == DownloadState.FAIL
+                || state == DownloadState.CANCELLED)
         {
-            youtube.downloadAudio(url);
+            DownloadType downloadType = download.getDownloadType();
+            if(downloadType == DownloadType.AUDIO)
+            {
+                youtube.downloadAudio(url);
+            }
+            else if(downloadType == DownloadType.VIDEO)
+            {
+                youtube.downloadVideo(url);
+            }
         }
-        else if(downloadType == DownloadType.VIDEO)
+        else
         {
-            youtube.downloadVideo(url);
+            // Prefetched while user selected downloads:
+            log.debug("Download of {} is already started", url);
         }
 
-        DownloadState state = youtube.getDownloadState(url);
-        while(state != DownloadState.COMPLETE && state != DownloadState.FAIL)
+        while(true)
         {
             state = youtube.getDownloadState(url);
             float progress = youtube.getDownloadProgress(url);
-            status.setForegroundColor(LABEL_DEFAULT_COLOR).setText(state.toString());
             switch(state)
             {
                 case DOWNLOADING:
-                    progressBar.setValue((int)progress);
+                    showJob(job, State.DOWNLOADING, (int)progress);
+                    break;
+                case PAUSED:
+                    showJob(job, State.PAUSED, (int)progress);
                     break;
                 case VOLUME_INCREASE:
                 case AUDIO_ENCODING:
                 case VIDEO_ENCODING:
-                    progressBar.busyWaiting();
+                    showJob(job, State.valueOf(state.name()), 0);
                     break;
                 case COMPLETE:
-                    status.setForegroundColor(TextColor.ANSI.GREEN);
-                    progressBar.hide();
                     try
                     {
-                        return youtube.getDownloadedData(url);
+                        YoutubeData data = youtube.getDownloadedData(url);
+                        showJob(job, State.DOWNLOADED, 0);
+                        return data;
                     }
                     catch(YouTubeDownloadException e)
                     {
-                        status.setForegroundColor(TextColor.ANSI.RED)
-                              .setText(DownloadState.FAIL.toString());
+                        showJob(job, State.DOWNLOAD_FAIL, 0);
                         log.error("Failed to download {}", url);
                         return null;
                     }
                 case FAIL:
-                    status.setForegroundColor(TextColor.ANSI.RED);
-                    progressBar.hide();
+                    showJob(job, State.DOWNLOAD_FAIL, 0);
                     log.error("Fail when downloading {}", url);
                     return null;
+                case CANCELLED:
+                    showJob(job, State.CANCELLED, 0);
+                    log.info("Download of {} is cancelled", url);
+                    return null;
             }
+            waitForProgress();
+        }
+    }
+
+    /**
+     * Pauses job between polls of download or upload progress.
+     *
+     * Job runs in its own (virtual, if available) thread, so sleep does not hold other jobs.
+     */
+    private void waitForProgress()
+    {
+        try
+        {
+            Thread.sleep(PROGRESS_POLL_INTERVAL);
+        }
+        catch(InterruptedException ex)
+        {
+            log.debug("Waiting for progress interrupted");
+            Thread.currentThread().interrupt();
         }
-        return null;
     }
 
     private int uploadFileStage(@NonNull TelegramApi telegram, YoutubeData youtubeData,
-            ImprovedProgressBar progressBar, Label status)
+            DownloadJob job, JobHandle handle)
     {
         if(youtubeData == null)
         {
             return -1;
         }
+        if(handle.isCancelled)
+        {
+            showJob(job, State.CANCELLED, 0);
+            return -1;
+        }
 
         ContentType contentType = youtubeData.getContentType();
         File file = youtubeData.getFile();
@@ -244,41 +298,61 @@ public class DownloadWindow extends AbstractWindow
                     fileId = telegram.uploadVideo(file);
                     break;
             }
+            handle.uploadFileId.set(fileId);
+            // Job may be cancelled while upload was starting:
+            if(handle.isCancelled)
+            {
+                cancelUpload(telegram, handle);
+                showJob(job, State.CANCELLED, 0);
+                return -1;
+            }
 
-            progressBar.setValue(0);
-            status.setForegroundColor(LABEL_DEFAULT_COLOR).setText("UPLOADING");
+            showJob(job, State.UPLOADING, 0);
 
             float progress = telegram.getUploadingProgress(fileId);
             while(progress <= 99.9f)
             {
+                waitForProgress();
                 progress = telegram.getUploadingProgress(fileId);
-                progressBar.setValue((int)progress);
+                showJob(job, State.UPLOADING, (int)progress);
             }
-            progressBar.setValue(100);
-            status.setForegroundColor(TextColor.ANSI.GREEN).setText("UPLOADED");
+            showJob(job, State.UPLOADING, 100);
         }
         catch(TelegramUploadFileException ex)
         {
+            if(handle.isCancelled)
+            {
+                log.info("Upload of {} is cancelled", file.getAbsolutePath());
+                showJob(job, State.CANCELLED, 0);
+                return -1;
+            }
             log.error("Failed to upload file {}", file.getAbsolutePath());
-            progressBar.hide();
-            status.setForegroundColor(TextColor.ANSI.RED).setText("UPLOAD FAIL");
+            showJob(job, State.UPLOAD_FAIL, 0);
         }
         return fileId;
     }
 
     private void sendMessageStage(@NonNull TelegramApi telegram, YoutubeData data, int localFileId,
-            ImprovedProgressBar progressBar, Label status)
+            DownloadJob job, JobHandle handle)
     {
         if(localFileId < 0 || data == null)
         {
             return;
         }
+        // Sending cannot be cancelled, so it is the last chance:
+        if(handle.isCancelled)
+        {
+            showJob(job, State.CANCELLED, 0);
+            return;
+        }
 
-        String cleanedText = GarbageTextRemover.removeGarbageText(data.getDescription());
+        String cleanedText = GarbageTextRemover.prepareDescription(data.getDescription(),
+                data.getChapters(), descriptionFilter);
         List<String> description = prepareDescription4Telegram(cleanedText);
+        String caption = description.isEmpty() ? null : description.remove(0);
         ContentType contentType = data.getContentType();
 
-        progressBar.busyWaiting();
+        showJob(job, State.SENDING, 0);
 
         try
         {
@@ -286,11 +360,11 @@ public class DownloadWindow extends AbstractWindow
             switch(contentType)
             {
                 case AUDIO:
-                    messageId = telegram.sendAudio(localFileId, null, data.getDurationSeconds(),
+                    messageId = telegram.sendAudio(localFileId, caption, data.getDurationSeconds(),
                             messageId);
                     break;
                 case VIDEO:
-                    messageId = telegram.sendVideo(localFileId, null, data.getDurationSeconds(),
+                    messageId = telegram.sendVideo(localFileId, caption, data.getDurationSeconds(),
                             messageId);
                     break;
             }
@@ -301,14 +375,105 @@ public class DownloadWindow extends AbstractWindow
                 messageId = telegram.sendMessage(s, messageId);
                 log.debug("Sent text message {}", messageId);
             }
-            status.setForegroundColor(TextColor.ANSI.GREEN).setText("SENT");
-            progressBar.hide();
+            showJob(job, State.SENT, 0);
         }
         catch(TelegramSendMessageException ex)
         {
             log.error("Failed to send telegram message", ex);
-            status.setForegroundColor(TextColor.ANSI.RED).setText("FAIL");
-            progressBar.hide();
+            showJob(job, State.SEND_FAIL, 0);
+        }
+    }
+
+    /**
+     * Cancels job on user request.
+     *
+     * Download is cancelled at once, upload is cancelled in background — TDLib answer is not
+     * awaited in the UI thread. Job thread notices cancellation on its next step.
+     *
+     * @param telegram Telegram API
+     * @param handle   Handle of selected job
+     */
+    private void cancelJob(TelegramApi telegram, JobHandle handle)
+    {
+        if(handle.isCancelled)
+        {
+            return;
+        }
+        log.info("Cancelling job for {}", handle.url);
+        handle.isCancelled = true;
+        executorService.execute(() -> {
+            // Upload is cancelled first — cancelled download removes the file being uploaded:
+            cancelUpload(telegram, handle);
+            youtube.cancelDownload(handle.url);
+        });
+    }
+
+    /**
+     * Cancels upload of job, if it is started. Upload is cancelled only once.
+     *
+     * @param telegram Telegram API
+     * @param handle   Handle of job
+     */
+    private void cancelUpload(TelegramApi telegram, JobHandle handle)
+    {
+        int fileId = handle.uploadFileId.getAndSet(-1);
+        if(fileId < 0)
+        {
+            return;
+        }
+        try
+        {
+            telegram.cancelUpload(fileId);
+        }
+        catch(TelegramUploadFileException ex)
+        {
+            log.error("Failed to cancel upload for {}", handle.url);
+            log.debug("Exception: ", ex);
+        }
+    }
+
+    /**
+     * Pauses or resumes download of job on user request. Uploads cannot be paused.
+     *
+     * @param job    Selected job
+     * @param handle Handle of selected job
+     */
+    private void pauseResumeJob(DownloadJob job, JobHandle handle)
+    {
+        if(job.getState() == State.PAUSED)
+        {
+            youtube.resumeDownload(handle.url);
+        }
+        else if(!youtube.pauseDownload(handle.url))
+        {
+            log.debug("Cannot pause {} now", handle.url);
+        }
+    }
+
+    /**
+     * Shows new state of job in the table.
+     *
+     * @param job      Job
+     * @param state    New state of job
+     * @param progress New progress of job in percents
+     */
+    private void showJob(DownloadJob job, State state, int progress)
+    {
+        renderScheduler.post(job, () -> jobTable.update(job, state, progress));
+    }
+
+    /**
+     * Control of job from the UI thread.
+     */
+    private static class JobHandle
+    {
+        private final String url;
+        private final AtomicInteger uploadFileId = new AtomicInteger(-1);
+        private volatile boolean isCancelled = false;
+
+        private JobHandle(String url)
+        {
+            this.url = url;
         }
     }
 
@@ -317,10 +482,12 @@ public class DownloadWindow extends AbstractWindow
      *
      * @param string YouTube video description
      *
-     * @return List of string to send to Telegram.
+     * @return List of string to send to Telegram. The first one fits into the media caption,
+     * others are sent as messages in reply to media.
      */
     private List<String> prepareDescription4Telegram(String string)
     {
-        return SimpleTextHelper.splitByWords(string, TelegramApi.MESSAGE_LENGTH);
+        return SimpleTextHelper.packByWords(string, TelegramApi.MEDIA_CAPTION_LENGTH,
+                TelegramApi.MESSAGE_LENGTH);
     }
 }
@@ -1,6 +1,7 @@
 package com.eugene_andrienko.telepodcast.tui.windows;
 
 import com.eugene_andrienko.telepodcast.tui.TUIException;
+import com.eugene_andrienko.telepodcast.tui.TitleLoader;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeCannotRunException;
 import com.googlecode.lanterna.TerminalSize;
@@ -8,35 +9,58 @@ import com.googlecode.lanterna.gui2.*;
 import com.googlecode.lanterna.gui2.GridLayout.Alignment;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogBuilder;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
-import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import lombok.Cleanup;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.extern.log4j.Log4j2;
 
 
+/**
+ * Starts loading of video titles and shows its progress until the first title is loaded.
+ *
+ * The rest of titles are loaded in background, so the window should be closed only after
+ * loaded titles are not needed anymore.
+ */
 @Log4j2
-public class LoadingTitlesWindow extends AbstractWindow
+public class LoadingTitlesWindow extends AbstractWindow implements AutoCloseable
 {
+    private static final long PROGRESS_POLL_INTERVAL = 100;
+
     private final MultiWindowTextGUI tui;
+    private final YouTubeDlApi youtube;
     private final int numberOfThreads;
+    private TitleLoader titleLoader;
 
-    public LoadingTitlesWindow(MultiWindowTextGUI tui, int numberOfThreads)
+    public LoadingTitlesWindow(MultiWindowTextGUI tui, YouTubeDlApi youtube, int numberOfThreads)
     {
         this.tui = tui;
+        this.youtube = youtube;
         this.numberOfThreads = numberOfThreads;
     }
 
-    public Map<String, String> start(Set<String> urls) throws TUIException
+    /**
+     * Starts loading of titles.
+     *
+     * @param urls URLs to YouTube videos
+     *
+     * @return Map from URL to its title, at least one title is loaded. Title is {@code null} if
+     * it cannot be loaded.
+     *
+     * @throws TUIException YouTube downloader cannot be executed.
+     */
+    public Map<String, CompletableFuture<String>> start(Set<String> urls) throws TUIException
     {
-        ProgressBar progressBar = new ProgressBar(0, urls.size(), 40);
         Panel panel = new Panel();
         panel.setLayoutManager(new GridLayout(1).setLeftMarginSize(1).setRightMarginSize(1))
              .setLayoutData(GridLayout.createLayoutData(
                      Alignment.BEGINNING, Alignment.FILL, true, true));
         panel.addComponent(new EmptySpace(TerminalSize.ONE))
-             .addComponent(progressBar)
+             .addComponent(Panels.horizontal(
+                     new Label(String.format("Loading titles for %d videos", urls.size())),
+                     AnimatedLabel.createClassicSpinningLine()))
              .addComponent(new EmptySpace(TerminalSize.ONE));
 
         BasicWindow loadingTitlesWindow = createCenteredWindow("Loading YouTube video titles");
@@ -45,54 +69,53 @@ public class LoadingTitlesWindow extends AbstractWindow
         tui.addWindow(loadingTitlesWindow);
         updateScreen(tui, log);
 
-        Map<String, String> result = new HashMap<>();
-        try
-        {
-            @Cleanup
-            YouTubeDlApi youtube = new YouTubeDlApi(numberOfThreads);
-            checkYouTubeDownloader(youtube);
+        checkYouTubeDownloader(youtube);
 
-            for(String url : urls)
+        titleLoader = new TitleLoader(youtube, numberOfThreads);
+        Map<String, CompletableFuture<String>> result = titleLoader.load(urls);
+        CompletableFuture<Object> firstTitle = CompletableFuture.anyOf(
+                result.values().toArray(new CompletableFuture[0]));
+        while(!firstTitle.isDone())
+        {
+            updateScreen(tui, log);
+            try
             {
-                String title = youtube.getTitle(url);
-                result.put(url, title);
-                log.debug("Processing {}, got {} title", url, title);
-                progressBar.setValue(progressBar.getValue() + 1);
-                tui.updateScreen();
+                firstTitle.get(PROGRESS_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+            catch(TimeoutException ex)
+            {
+                continue;
+            }
+            catch(InterruptedException ex)
+            {
+                log.error("Waiting for titles interrupted");
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch(ExecutionException ex)
+            {
+                log.debug("Failed to load title: ", ex.getCause());
             }
         }
-        catch(IOException ex)
-        {
-            log.error("Failed to instantiate youtubedl library", ex);
-            new MessageDialogBuilder()
-                    .setTitle("YouTube downloader error")
-                    .setText("Failed to get video titles")
-                    .addButton(MessageDialogButton.OK)
-                    .build()
-                    .showDialog(tui);
-            throw new TUIException(ex);
-        }
-        catch(TUIException ex)
-        {
-            throw ex;
-        }
-        catch(Exception ex)
-        {
-            log.error("Failed to properly close youtubedl library", ex);
-            new MessageDialogBuilder()
-                    .setTitle("YouTube downloader error")
-                    .setText("Failed to properly close resources for YouTube downloader")
-                    .addButton(MessageDialogButton.OK)
-                    .build()
-                    .showDialog(tui);
-            throw new TUIException(ex);
-        }
+        log.debug("Got first title, the rest will be loaded in background");
 
         tui.removeWindow(loadingTitlesWindow);
         updateScreen(tui, log);
         return result;
     }
 
+    /**
+     * Stops loading of titles.
+     */
+    @Override
+    public void close()
+    {
+        if(titleLoader != null)
+        {
+            titleLoader.close();
+        }
+    }
+
     /**
      * Checks what YouTube downloader can be executed on this system.
      *
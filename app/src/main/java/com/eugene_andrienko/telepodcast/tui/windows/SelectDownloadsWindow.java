@@ -2,6 +2,7 @@ package com.eugene_andrienko.telepodcast.tui.windows;
 
 import com.eugene_andrienko.telepodcast.tui.DownloadOptions;
 import com.eugene_andrienko.telepodcast.tui.DownloadOptions.DownloadType;
+import com.eugene_andrienko.telepodcast.tui.Prefetcher;
 import com.googlecode.lanterna.SGR;
 import com.googlecode.lanterna.TerminalSize;
 import com.googlecode.lanterna.gui2.*;
@@ -9,6 +10,7 @@ import com.googlecode.lanterna.gui2.GridLayout.Alignment;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.log4j.Log4j2;
 
 
@@ -16,14 +18,27 @@ import lombok.extern.log4j.Log4j2;
 public class SelectDownloadsWindow extends AbstractWindow
 {
     private final MultiWindowTextGUI tui;
+    private final Prefetcher prefetcher;
 
-    public SelectDownloadsWindow(MultiWindowTextGUI tui)
+    public SelectDownloadsWindow(MultiWindowTextGUI tui, Prefetcher prefetcher)
     {
         super();
         this.tui = tui;
+        this.prefetcher = prefetcher;
     }
 
-    public List<DownloadOptions> start(Map<String, String> videoTitles)
+    /**
+     * Shows window to select videos to download.
+     *
+     * Titles which are not loaded yet are shown as URLs and replaced with real titles as soon as
+     * they are loaded. Downloads of videos with loaded titles can be started by prefetcher, while
+     * user selects downloads.
+     *
+     * @param videoTitles Map from URL to its title, which is loaded in background
+     *
+     * @return Options of selected videos.
+     */
+    public List<DownloadOptions> start(Map<String, CompletableFuture<String>> videoTitles)
     {
         List<DownloadOptions> result = new LinkedList<>();
 
@@ -47,11 +62,13 @@ public class SelectDownloadsWindow extends AbstractWindow
                  .addComponent(new EmptySpace(TerminalSize.ONE));
 
         // Add elements - video title and controls:
-        for(Map.Entry<String, String> title : videoTitles.entrySet())
+        for(Map.Entry<String, CompletableFuture<String>> title : videoTitles.entrySet())
         {
+            String url = title.getKey();
+            String loadedTitle = title.getValue().getNow(null);
             DownloadOptions option = DownloadOptions.builder()
-                                                    .url(title.getKey())
-                                                    .title(title.getValue())
+                                                    .url(url)
+                                                    .title(loadedTitle == null ? url : loadedTitle)
                                                     .downloadType(DownloadType.AUDIO)
                                                     .isDownload(true)
                                                     .build();
@@ -59,7 +76,10 @@ public class SelectDownloadsWindow extends AbstractWindow
 
             CheckBox checkBox = new CheckBox();
             checkBox.setChecked(option.isDownload())
-                    .addListener(option::setDownload);
+                    .addListener(checked -> {
+                        option.setDownload(checked);
+                        prefetcher.update(option);
+                    });
 
             ComboBox<String> comboBoxList = new ComboBox<String>();
             for(DownloadType downloadType : DownloadType.values())
@@ -68,12 +88,30 @@ public class SelectDownloadsWindow extends AbstractWindow
             }
             comboBoxList.addListener((selectedIndex, previousSelection, changedByUser) -> {
                             option.setDownloadType(DownloadType.get(selectedIndex));
+                            prefetcher.update(option);
                         })
                         .setSelectedIndex(option.getDownloadType().ordinal());
 
+            Label titleLabel = new Label(formatTitle(option.getTitle()));
             dataPanel.addComponent(checkBox)
-                     .addComponent(new Label(formatTitle(title.getValue())))
+                     .addComponent(titleLabel)
                      .addComponent(comboBoxList);
+            if(loadedTitle != null)
+            {
+                prefetcher.update(option);
+            }
+            else if(!title.getValue().isDone())
+            {
+                // Title is changed on the GUI thread, while window waits for user:
+                title.getValue().thenAccept(videoTitle -> tui.getGUIThread().invokeLater(() -> {
+                    option.setTitle(videoTitle == null ? url : videoTitle);
+                    titleLabel.setText(formatTitle(option.getTitle()));
+                    if(videoTitle != null)
+                    {
+                        prefetcher.update(option);
+                    }
+                }));
+            }
         }
 
         // Add action button:
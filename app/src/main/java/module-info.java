@@ -7,4 +7,6 @@ module telepodcast.app {
     requires lombok;
     requires transitive telepodcast.telegram;
     requires transitive telepodcast.youtubedl;
+    requires telepodcast.common;
+    requires telepodcast.metrics;
 }
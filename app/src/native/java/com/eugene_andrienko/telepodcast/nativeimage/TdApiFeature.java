@@ -0,0 +1,60 @@
+package com.eugene_andrienko.telepodcast.nativeimage;
+
+import com.oracle.svm.core.jdk.NativeLibrarySupport;
+import com.oracle.svm.core.jdk.PlatformNativeLibrarySupport;
+import java.lang.reflect.Method;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeJNIAccess;
+
+
+/**
+ * Build-time configuration of native image for TDLib.
+ *
+ * TDLib creates and reads {@code TdApi} objects from native code via JNI, so every class of
+ * {@code TdApi} with its constructors and fields must be registered for JNI access. There are
+ * thousands of them and they are regenerated with TDLib — so they are registered here, by
+ * walking {@code TdApi}, instead of listing them in {@code jni-config.json}.
+ *
+ * If image is built with {@code -Dtelepodcast.tdjniStatic=true}, tdjni is linked into image:
+ * {@code System.loadLibrary("tdjni")} finds it inside the binary and calls its
+ * {@code JNI_OnLoad_tdjni}. Otherwise library is loaded at runtime, like in JVM.
+ */
+public class TdApiFeature implements Feature
+{
+    private static final String TDLIB_PACKAGE = "org.drinkless.tdlib";
+    private static final String STATIC_PROPERTY = "telepodcast.tdjniStatic";
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access)
+    {
+        Class<?> tdApi = access.findClassByName(TDLIB_PACKAGE + ".TdApi");
+        for(Class<?> tdClass : tdApi.getDeclaredClasses())
+        {
+            RuntimeJNIAccess.register(tdClass);
+            RuntimeJNIAccess.register(tdClass.getDeclaredConstructors());
+            RuntimeJNIAccess.register(tdClass.getDeclaredFields());
+            for(Method method : tdClass.getDeclaredMethods())
+            {
+                // TDLib asks objects for their constructor ID to convert them to native:
+                if(method.getName().equals("getConstructor"))
+                {
+                    RuntimeJNIAccess.register(method);
+                }
+            }
+        }
+        // Classes of arrays and strings, which TDLib finds by name:
+        RuntimeJNIAccess.register(String.class, String[].class, byte[].class, int[].class,
+                long[].class, double[].class);
+
+        Class<?> client = access.findClassByName(TDLIB_PACKAGE + ".Client");
+        RuntimeJNIAccess.register(client);
+        RuntimeJNIAccess.register(client.getDeclaredMethods());
+
+        if(Boolean.getBoolean(STATIC_PROPERTY))
+        {
+            NativeLibrarySupport.singleton().preregisterUninitializedBuiltinLibrary("tdjni");
+            PlatformNativeLibrarySupport.singleton().addBuiltinPkgNativePrefix(
+                    TDLIB_PACKAGE.replace('.', '_'));
+        }
+    }
+}
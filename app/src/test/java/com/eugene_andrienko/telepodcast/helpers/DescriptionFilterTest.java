@@ -0,0 +1,64 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import com.eugene_andrienko.telepodcast.helpers.FilterRule.Kind;
+import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover.ParType;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class DescriptionFilterTest
+{
+    @Test
+    @DisplayName("Parse rules test")
+    void parseRulesTest()
+    {
+        List<FilterRule> rules = DescriptionFilter.parseRules(List.of(
+                "# Comment",
+                "",
+                "  marketing   literal  Реклама от партнёра  ",
+                "emojis emoji-density 0.5",
+                "hashtags regex #\\w+",
+                "normal_text literal text",
+                "timecodes literal 00:00",
+                "unknown literal text",
+                "marketing unknown text",
+                "marketing regex [",
+                "marketing link-density 1.5",
+                "marketing link-density many",
+                "marketing literal"));
+        assertEquals(List.of(
+                new FilterRule(ParType.MARKETING, Kind.LITERAL, "Реклама от партнёра"),
+                new FilterRule(ParType.EMOJIS, Kind.EMOJI_DENSITY, "0.5"),
+                new FilterRule(ParType.HASHTAGS, Kind.REGEX, "#\\w+")), rules);
+    }
+
+    @Test
+    @DisplayName("Reload changed rule file test")
+    @SneakyThrows
+    void reloadTest(@TempDir File tempDirectory)
+    {
+        File file = new File(tempDirectory, "filters.rules");
+        Files.writeString(file.toPath(), "marketing literal Реклама\n", StandardCharsets.UTF_8);
+        DescriptionFilter filter = DescriptionFilter.load(file);
+        String text = "Текст\nРеклама\nПромокод";
+        assertEquals("Текст\nПромокод", GarbageTextRemover.removeGarbageText(text, filter));
+
+        ParagraphClassifier classifier = filter.getClassifier();
+        assertSame(classifier, filter.getClassifier(), "Not changed rules are reloaded");
+
+        Files.writeString(file.toPath(), "marketing literal Промокод\n", StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        assertEquals("Текст\nРеклама", GarbageTextRemover.removeGarbageText(text, filter));
+
+        // Previous rules are kept, if rule file cannot be read:
+        assertTrue(file.delete());
+        assertEquals("Текст\nРеклама", GarbageTextRemover.removeGarbageText(text, filter));
+    }
+}
@@ -1,7 +1,11 @@
 package com.eugene_andrienko.telepodcast.helpers;
 
 import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover.ParType;
+import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover.Paragraph;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.Chapter;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -9,6 +13,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public class GarbageTextRemoverTest
 {
+    private final ParagraphClassifier classifier = DescriptionFilter.getDefault().getClassifier();
+
     @Test
     @DisplayName("Spit to paragraphs test")
     void splitToParagraphsTest()
@@ -48,12 +54,13 @@ public class GarbageTextRemoverTest
     {
         List<String> testParagraphs = Arrays.asList("Text", "01:00 - timecode", "😀😚😴",
                 "ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО", "#hashtag", "http://marketing.bullshit");
-        LinkedHashMap<String, ParType> result = GarbageTextRemover.parseParagraphs(testParagraphs);
-        assertEquals(6, testParagraphs.size());
-        for(Map.Entry<String, ParType> i : result.entrySet())
+        List<Paragraph> result = GarbageTextRemover.parseParagraphs(testParagraphs, classifier)
+                .collect(Collectors.toList());
+        assertEquals(6, result.size());
+        for(Paragraph i : result)
         {
             ParType expectedParType;
-            switch(i.getKey())
+            switch(i.getText())
             {
                 case "Text":
                     expectedParType = ParType.NORMAL_TEXT;
@@ -78,7 +85,7 @@ public class GarbageTextRemoverTest
                     // For compiler, never reach this:
                     return;
             }
-            assertEquals(expectedParType, i.getValue());
+            assertEquals(expectedParType, i.getType());
         }
     }
 
@@ -95,10 +102,10 @@ public class GarbageTextRemoverTest
 
         for(String s : emojis)
         {
-            result = GarbageTextRemover.containsEmojis(s);
+            result = classifier.classify(s) == ParType.EMOJIS;
             assertTrue(result, "String should contain emoji(s)");
         }
-        result = GarbageTextRemover.containsEmojis(plainText);
+        result = classifier.classify(plainText) == ParType.EMOJIS;
         assertFalse(result, "String should not contain emojis");
     }
 
@@ -112,9 +119,9 @@ public class GarbageTextRemoverTest
                     "(ИЛИ) РОССИЙСКИМ ЮРИДИЧЕСКИМ ЛИЦОМ, ВЫПОЛНЯЮЩИМ ФУНКЦИИ ИНОСТРАННОГО АГЕНТА." +
                     "\nNormal text #2.";
         String s2 = "Usual text";
-        boolean result = GarbageTextRemover.containsShit(s1);
+        boolean result = classifier.classify(s1) == ParType.ROSKOM_SHIT;
         assertTrue(result, "This text should contains shit");
-        result = GarbageTextRemover.containsShit(s2);
+        result = classifier.classify(s2) == ParType.ROSKOM_SHIT;
         assertFalse(result, "This text should not contains shit");
     }
 
@@ -127,13 +134,13 @@ public class GarbageTextRemoverTest
         String moreHashTags = "\n######\n####\n";
         String noHashTags = "\nTest\nTest\n";
 
-        boolean result = GarbageTextRemover.containsHashtag(oneHashTag);
+        boolean result = classifier.classify(oneHashTag) == ParType.HASHTAGS;
         assertTrue(result, "Hashtag should be found");
-        result = GarbageTextRemover.containsHashtag(twoHashTags);
+        result = classifier.classify(twoHashTags) == ParType.HASHTAGS;
         assertTrue(result, "Hashtags should be found");
-        result = GarbageTextRemover.containsHashtag(moreHashTags);
+        result = classifier.classify(moreHashTags) == ParType.HASHTAGS;
         assertTrue(result, "Hashtags should be found");
-        result = GarbageTextRemover.containsHashtag(noHashTags);
+        result = classifier.classify(noHashTags) == ParType.HASHTAGS;
         assertFalse(result, "Hashtags should not be found");
     }
 
@@ -152,10 +159,10 @@ public class GarbageTextRemoverTest
 
         for(String s : marketingShit)
         {
-            result = GarbageTextRemover.containsMarketing(s);
+            result = classifier.classify(s) == ParType.MARKETING;
             assertTrue(result, String.format("Text \"%s\" should filtered as marketing text", s));
         }
-        result = GarbageTextRemover.containsMarketing(usualText);
+        result = classifier.classify(usualText) == ParType.MARKETING;
         assertFalse(result, "Text should not filtered as marketing text");
     }
 
@@ -163,13 +170,13 @@ public class GarbageTextRemoverTest
     @DisplayName("Test filtering paragraphs")
     void filterParagraphsTest()
     {
-        LinkedHashMap<String, ParType> paragraphsForTest = new LinkedHashMap<>();
-        paragraphsForTest.put("Text", ParType.NORMAL_TEXT);
-        paragraphsForTest.put("01:00 - timecode", ParType.TIMECODES);
-        paragraphsForTest.put("😀😚😴", ParType.EMOJIS);
-        paragraphsForTest.put("ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО", ParType.ROSKOM_SHIT);
-        paragraphsForTest.put("#hashtag", ParType.HASHTAGS);
-        paragraphsForTest.put("http://marketing.bullshit", ParType.MARKETING);
+        Stream<Paragraph> paragraphsForTest = Stream.of(
+                new Paragraph("Text", ParType.NORMAL_TEXT),
+                new Paragraph("01:00 - timecode", ParType.TIMECODES),
+                new Paragraph("😀😚😴", ParType.EMOJIS),
+                new Paragraph("ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО", ParType.ROSKOM_SHIT),
+                new Paragraph("#hashtag", ParType.HASHTAGS),
+                new Paragraph("http://marketing.bullshit", ParType.MARKETING));
 
         List<String> result = GarbageTextRemover.filterParagraphs(paragraphsForTest);
         assertEquals(2, result.size(), "Should have 2 resulting paragraphs");
@@ -177,4 +184,28 @@ public class GarbageTextRemoverTest
         assertEquals("01:00 - timecode", result.get(1), "Second paragraph should contains " +
                                                         "timecodes");
     }
+
+    @Test
+    @DisplayName("Repeated paragraphs test")
+    void repeatedParagraphsTest()
+    {
+        String text = "Text\n#hashtag\n----\nSecond text\n#hashtag\n----";
+        assertEquals("Text\n----\nSecond text\n----", GarbageTextRemover.removeGarbageText(text),
+                "Repeated paragraphs should be kept in order");
+    }
+
+    @Test
+    @DisplayName("Prepare description test")
+    void prepareDescriptionTest()
+    {
+        String description = "Выпуск о новостях\n00:00 Начало\n05:00 Новости\n#новости";
+        DescriptionFilter filter = DescriptionFilter.getDefault();
+        assertEquals("Выпуск о новостях\n00:00 Начало\n05:00 Новости",
+                GarbageTextRemover.prepareDescription(description, List.of(), filter));
+        // Chapters replace time codes of description:
+        assertEquals("00:00 Начало\n05:00 Новости\nВыпуск о новостях",
+                GarbageTextRemover.prepareDescription(description,
+                        List.of(new Chapter(0, "Начало"), new Chapter(300, "Новости")),
+                        filter));
+    }
 }
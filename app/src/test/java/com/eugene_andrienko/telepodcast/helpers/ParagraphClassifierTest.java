@@ -0,0 +1,139 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover.ParType;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import net.fellbaum.jemoji.Emoji;
+import net.fellbaum.jemoji.EmojiManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ParagraphClassifierTest
+{
+    private final ParagraphClassifier classifier = DescriptionFilter.getDefault().getClassifier();
+
+    @Test
+    @DisplayName("Classify paragraphs test")
+    void classifyTest()
+    {
+        assertEquals(ParType.NORMAL_TEXT, classifier.classify("Обычный текст"));
+        assertEquals(ParType.TIMECODES, classifier.classify("01:00 — #вступление"));
+        assertEquals(ParType.NORMAL_TEXT, classifier.classify("Счёт 100:00"));
+        assertEquals(ParType.EMOJIS, classifier.classify("Подписывайтесь 👍 #канал"));
+        assertEquals(ParType.ROSKOM_SHIT, classifier.classify(
+                "ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО И (ИЛИ) РАСПРОСТРАНЕНО #иноагент"));
+        assertEquals(ParType.HASHTAGS, classifier.classify("#hashtag http://test"));
+        // Literals overlap with their prefixes:
+        assertEquals(ParType.MARKETING, classifier.classify("ссскидкиии"));
+        assertEquals(ParType.MARKETING, classifier.classify("hthttps://test"));
+        assertEquals(ParType.MARKETING, classifier.classify("ППромокоды"));
+        assertEquals(ParType.NORMAL_TEXT, classifier.classify("Скидо http:/ Промо"));
+    }
+
+    @Test
+    @DisplayName("Every emoji is an emoji candidate test")
+    void emojiCandidatesTest()
+    {
+        for(Emoji emoji : EmojiManager.getAllEmojis())
+        {
+            assertTrue(emoji.getEmoji().chars().anyMatch(c ->
+                            ParagraphClassifier.isEmojiCandidate((char)c)),
+                    String.format("Emoji %s is not detected", emoji.getUnicode()));
+        }
+    }
+
+    @Test
+    @DisplayName("Time codes are found as by regular expressions test")
+    void timeCodePropertyTest()
+    {
+        Random random = new Random(42);
+        char[] alphabet = "0123456789:: -".toCharArray();
+        for(int i = 0; i < 10000; i++)
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(16);
+            for(int j = 0; j < length; j++)
+            {
+                sb.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String string = sb.toString();
+            boolean found = (classifier.scan(string) &
+                             ParagraphClassifier.typeFlag(ParType.TIMECODES)) != 0;
+            assertEquals(SimpleTextHelper.containsTimeCode(string), found,
+                    String.format("Wrong time code detection in \"%s\"", string));
+        }
+    }
+
+    @Test
+    @DisplayName("Classification is the same as with separate checks test")
+    void classifyPropertyTest()
+    {
+        Random random = new Random(42);
+        String[] fragments = new String[]{"Текст", "text", " ", "12", "3", ":", "—", "#",
+                                          "http", "s", "://", "Ск", "ск", "ид", "о", "к",
+                                          "Про", "про", "мокод", "ДАННОЕ СООБЩЕНИЕ ",
+                                          "(МАТЕРИАЛ) СОЗДАНО", "😀", "©", "8⃣", "№"};
+        for(int i = 0; i < 10000; i++)
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for(int j = 0; j < length; j++)
+            {
+                sb.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String paragraph = sb.toString();
+            assertEquals(legacyClassify(paragraph), classifier.classify(paragraph),
+                    String.format("Wrong type of \"%s\"", paragraph));
+        }
+    }
+
+    @Test
+    @DisplayName("Regular expression and density rules test")
+    void customRulesTest()
+    {
+        ParagraphClassifier custom = new ParagraphClassifier(DescriptionFilter.parseRules(
+                List.of("marketing regex (?i)спонсор\\w* выпуска",
+                        "marketing link-density 0.5",
+                        "emojis emoji-density 0.3",
+                        "hashtags literal #")));
+        assertEquals(ParType.MARKETING, custom.classify("Спонсоры выпуска: магазин"));
+        assertEquals(ParType.MARKETING, custom.classify("Сайт: https://example.com/page"));
+        assertEquals(ParType.NORMAL_TEXT, custom.classify(
+                "Подробный рассказ о проекте есть на сайте https://example.com"));
+        assertEquals(ParType.EMOJIS, custom.classify("👍👍 ок"));
+        assertEquals(ParType.NORMAL_TEXT, custom.classify("Длинный текст с одним эмодзи 👍"));
+        // Emojis are checked before hashtags:
+        assertEquals(ParType.EMOJIS, custom.classify("#👍👍"));
+        assertEquals(ParType.HASHTAGS, custom.classify("#тег 👍 и длинный текст"));
+    }
+
+    private static ParType legacyClassify(String paragraph)
+    {
+        if(SimpleTextHelper.containsTimeCode(paragraph))
+        {
+            return ParType.TIMECODES;
+        }
+        if(EmojiManager.containsEmoji(paragraph))
+        {
+            return ParType.EMOJIS;
+        }
+        if(paragraph.contains("ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО"))
+        {
+            return ParType.ROSKOM_SHIT;
+        }
+        if(paragraph.contains("#"))
+        {
+            return ParType.HASHTAGS;
+        }
+        if(paragraph.contains("http://") || paragraph.contains("https://") ||
+           Pattern.compile(".*[Сс]кидо?к.*").matcher(paragraph).matches() ||
+           Pattern.compile(".*[Пп]ромокод.*").matcher(paragraph).matches())
+        {
+            return ParType.MARKETING;
+        }
+        return ParType.NORMAL_TEXT;
+    }
+}
@@ -1,8 +1,11 @@
 package com.eugene_andrienko.telepodcast.helpers;
 
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.Chapter;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -55,6 +58,199 @@ public class SimpleTextHelperTest
         assertLinesMatch(expectedResultWholeString, result, "Split result unexpected");
     }
 
+    @Test
+    @DisplayName("Test packing to caption and messages")
+    void packByWordsTest()
+    {
+        assertEquals(List.of("aaa", "bbb ccc", "ddd eee", "fff"),
+                SimpleTextHelper.packByWords("aaa bbb ccc ddd eee fff", 5, 8));
+        assertEquals(List.of("aaa bbb", "ccc", "ddd"),
+                SimpleTextHelper.packByWords("aaa bbb ccc ddd", 8, 4));
+        assertEquals(List.of("aaa"), SimpleTextHelper.packByWords("aaa", 3, 1));
+        assertEquals(List.of(), SimpleTextHelper.packByWords("", 3, 5));
+        assertEquals(List.of(), SimpleTextHelper.packByWords("aaa", 0, 5));
+        assertNull(SimpleTextHelper.packByWords(null, 3, 5));
+
+        Random random = new Random(42);
+        char[] alphabet = "abc  \n".toCharArray();
+        for(int i = 0; i < 1000; i++)
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(100);
+            for(int j = 0; j < length; j++)
+            {
+                sb.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            int firstSize = 1 + random.nextInt(20);
+            int size = 1 + random.nextInt(20);
+            List<String> result = SimpleTextHelper.packByWords(sb.toString(), firstSize, size);
+            for(int j = 0; j < result.size(); j++)
+            {
+                assertTrue(result.get(j).length() <= (j == 0 ? firstSize : size),
+                        String.format("Too long chunk %d of \"%s\"", j, sb));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test splitting of non-ASCII text")
+    void splitByWordsUnicodeTest()
+    {
+        assertEquals(List.of("Привет", "мир"), SimpleTextHelper.splitByWords("Привет мир", 7));
+        // No-break space is not a whitespace:
+        assertEquals(List.of("a\u00A0b", "c"), SimpleTextHelper.splitByWords("a\u00A0b\tc", 4));
+        // Surrogate pairs are not split:
+        assertEquals(List.of("😀", "😀", "😀"), SimpleTextHelper.splitByWords("😀😀😀", 3));
+        assertEquals(List.of("a😀", "b"), SimpleTextHelper.splitByWords("a😀 b", 4));
+    }
+
+    @Test
+    @DisplayName("Splitting by words gives the same result as the previous implementation")
+    void splitByWordsLegacyPropertyTest()
+    {
+        // Previous implementation treated only these characters as whitespaces and mixed code
+        // point and char indices, so it is correct only for text without surrogate pairs:
+        char[] alphabet = "abcxyzабвэюя ЁЁ\t\n".toCharArray();
+        Random random = new Random(42);
+        for(int test = 0; test < 2000; test++)
+        {
+            String string = randomString(random, alphabet, random.nextInt(300));
+            int size = 1 + random.nextInt(50);
+            assertEquals(legacySplitByWords(string, size),
+                    SimpleTextHelper.splitByWords(string, size),
+                    String.format("Split of \"%s\" by %d", string, size));
+        }
+    }
+
+    @Test
+    @DisplayName("Chunks are not longer than limit and keep all text except split whitespaces")
+    void splitByWordsInvariantsPropertyTest()
+    {
+        char[] alphabet = "abcабв   \t\n\r\u2003".toCharArray();
+        String[] emoji = {"😀", "👍🏽", "🇷🇺", "\uD83E\uDDD1\u200D\uD83D\uDCBB"};
+        Random random = new Random(4242);
+        for(int test = 0; test < 2000; test++)
+        {
+            StringBuilder sb = new StringBuilder(randomString(random, alphabet, 20));
+            while(sb.length() < 400)
+            {
+                sb.append(random.nextInt(4) == 0
+                        ? emoji[random.nextInt(emoji.length)]
+                        : randomString(random, alphabet, 1 + random.nextInt(10)));
+            }
+            String string = sb.toString();
+            int size = 2 + random.nextInt(60);
+            String message = String.format("Split of \"%s\" by %d", string, size);
+
+            List<String> chunks = SimpleTextHelper.splitByWords(string, size);
+            // Possible ends of the previous chunk in the text — whitespace before chunk can be
+            // dropped or kept:
+            Set<Integer> positions = Set.of(0);
+            for(String chunk : chunks)
+            {
+                assertTrue(chunk.length() <= size, message);
+                assertFalse(chunk.isEmpty(), message);
+                assertFalse(Character.isLowSurrogate(chunk.charAt(0)), message);
+                assertFalse(Character.isHighSurrogate(chunk.charAt(chunk.length() - 1)),
+                        message);
+                Set<Integer> next = new HashSet<>();
+                for(int position : positions)
+                {
+                    if(string.startsWith(chunk, position))
+                    {
+                        next.add(position + chunk.length());
+                    }
+                    if(position < string.length()
+                       && Character.isWhitespace(string.charAt(position))
+                       && string.startsWith(chunk, position + 1))
+                    {
+                        next.add(position + 1 + chunk.length());
+                    }
+                }
+                assertFalse(next.isEmpty(), message);
+                positions = next;
+            }
+            // Text can be ended by dropped whitespace:
+            int length = string.length();
+            boolean isWhitespaceEnd = Character.isWhitespace(string.charAt(length - 1));
+            assertTrue(positions.contains(length)
+                       || isWhitespaceEnd && positions.contains(length - 1), message);
+        }
+    }
+
+    private static String randomString(Random random, char[] alphabet, int length)
+    {
+        char[] result = new char[length];
+        for(int i = 0; i < length; i++)
+        {
+            result[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(result);
+    }
+
+    /**
+     * Previous implementation of {@link SimpleTextHelper#splitByWords(String, int)}.
+     */
+    private static List<String> legacySplitByWords(String string, int subStringSize)
+    {
+        List<String> result = new LinkedList<>();
+        if(string.length() <= subStringSize)
+        {
+            if(string.length() > 0)
+            {
+                result.add(string);
+            }
+            return result;
+        }
+
+        int[] codePoints = string.codePoints().toArray();
+        StringBuilder sb = new StringBuilder();
+        int previousSpaceIndex = 0;
+        List<Integer> spaceCodePoints = Arrays.asList(
+                " ".codePointAt(0), "\t".codePointAt(0), "\n".codePointAt(0));
+
+        for(int i = 0; i < codePoints.length; i++)
+        {
+            int codePoint = codePoints[i];
+            boolean spaceAtIndex = spaceCodePoints.contains(codePoint);
+            if(spaceAtIndex)
+            {
+                previousSpaceIndex = i;
+            }
+
+            sb.appendCodePoint(codePoint);
+
+            if(sb.length() >= subStringSize)
+            {
+                int lastFoundSpaceIndex;
+                if(spaceAtIndex)
+                {
+                    lastFoundSpaceIndex = sb.length() - 1;
+                }
+                else
+                {
+                    lastFoundSpaceIndex = sb.length() - i + previousSpaceIndex - 1;
+                }
+                if(lastFoundSpaceIndex > 0)
+                {
+                    sb.delete(lastFoundSpaceIndex, sb.length());
+                    i = previousSpaceIndex;
+                }
+                if(sb.length() > 0)
+                {
+                    result.add(sb.toString());
+                }
+                sb.setLength(0);
+            }
+        }
+
+        if(sb.length() > 0)
+        {
+            result.add(sb.toString());
+        }
+        return result;
+    }
+
     @Test
     @DisplayName("Test removing invalid YouTube URLs")
     void removeInvalidUrlsTest()
@@ -108,4 +304,20 @@ public class SimpleTextHelperTest
             assertFalse(result, String.format("Time code should not be found in %s", s));
         }
     }
+
+    @Test
+    @DisplayName("Format chapters test")
+    void formatChaptersTest()
+    {
+        assertEquals("", SimpleTextHelper.formatChapters(List.of()));
+        assertEquals("00:00 Начало\n" +
+                     "01:15 Новости\n" +
+                     "59:59\n" +
+                     "1:02:03 Вопросы слушателей",
+                SimpleTextHelper.formatChapters(List.of(
+                        new Chapter(0, "Начало"),
+                        new Chapter(75, " Новости "),
+                        new Chapter(3599, ""),
+                        new Chapter(3723, "Вопросы слушателей"))));
+    }
 }
@@ -0,0 +1,73 @@
+package com.eugene_andrienko.telepodcast.subscriptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class SubscriptionStoreTest
+{
+    private static final String CHANNEL = "https://www.youtube.com/@channel/videos";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test marking videos as delivered")
+    void markDeliveredTest() throws IOException
+    {
+        SubscriptionStore store = new SubscriptionStore(tempDir.toFile());
+        assertFalse(store.isDelivered(CHANNEL, "bbb"), "Video should not be delivered");
+        assertFalse(store.getArchiveFile(CHANNEL).exists(), "Archive should not exist");
+
+        store.markDelivered(CHANNEL, "bbb");
+        store.markDelivered(CHANNEL, "aaa");
+        store.markDelivered(CHANNEL, "bbb");
+        assertTrue(store.isDelivered(CHANNEL, "aaa"), "Video should be delivered");
+        assertTrue(store.isDelivered(CHANNEL, "bbb"), "Video should be delivered");
+        assertFalse(store.isDelivered("https://www.youtube.com/@other", "aaa"),
+                "Video from other channel should not be delivered");
+
+        List<String> lines = Files.readAllLines(store.getArchiveFile(CHANNEL).toPath(),
+                StandardCharsets.UTF_8);
+        assertLinesMatch(List.of("youtube aaa", "youtube bbb"), lines,
+                "Archive should be sorted and in yt-dlp format");
+    }
+
+    @Test
+    @DisplayName("Test loading delivered videos from archive")
+    void loadArchiveTest() throws IOException
+    {
+        new SubscriptionStore(tempDir.toFile()).markDelivered(CHANNEL, "aaa");
+
+        SubscriptionStore store = new SubscriptionStore(tempDir.toFile());
+        assertTrue(store.isDelivered(CHANNEL, "aaa"), "Video should be loaded from archive");
+        assertFalse(store.isDelivered(CHANNEL, "bbb"), "Video should not be delivered");
+    }
+
+    @Test
+    @DisplayName("Test creating of store directory")
+    void createDirectoryTest() throws IOException
+    {
+        File directory = tempDir.resolve("a").resolve("b").toFile();
+        new SubscriptionStore(directory);
+        assertTrue(directory.isDirectory(), "Directory should be created");
+    }
+
+    @Test
+    @DisplayName("Test converting channel URL to file name")
+    void channelFileNameTest()
+    {
+        assertEquals("youtube.com_@channel_videos",
+                SubscriptionStore.channelFileName(CHANNEL));
+        assertEquals("youtube.com_channel_UC123",
+                SubscriptionStore.channelFileName("http://youtube.com/channel/UC123"));
+    }
+}
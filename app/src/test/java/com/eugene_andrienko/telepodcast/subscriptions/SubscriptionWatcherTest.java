@@ -0,0 +1,89 @@
+package com.eugene_andrienko.telepodcast.subscriptions;
+
+import com.eugene_andrienko.telepodcast.subscriptions.SubscriptionWatcher.Episode;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.ContentType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+
+public class SubscriptionWatcherTest
+{
+    private static final String AUDIO_CHANNEL = "https://www.youtube.com/@audio/videos";
+    private static final String VIDEO_CHANNEL = "https://www.youtube.com/@video/videos";
+    private static final String BROKEN_CHANNEL = "https://www.youtube.com/@broken/videos";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Poll channels")
+    void pollTest() throws IOException
+    {
+        YouTubeDlApi youtube = mock(YouTubeDlApi.class);
+        when(youtube.getNewVideoIds(eq(AUDIO_CHANNEL), any(File.class), eq(5), eq("20240101")))
+                .thenReturn(List.of("a3", "a2", "a1"));
+        when(youtube.getNewVideoIds(eq(VIDEO_CHANNEL), any(File.class), eq(5), eq("20240101")))
+                .thenReturn(List.of());
+        // Failed yt-dlp:
+        when(youtube.getNewVideoIds(eq(BROKEN_CHANNEL), any(File.class), eq(5),
+                eq("20240101"))).thenReturn(null);
+
+        SubscriptionWatcher watcher = new SubscriptionWatcher(youtube, options(String.join("\n",
+                "# Comment",
+                "audio " + AUDIO_CHANNEL,
+                "video " + VIDEO_CHANNEL,
+                "podcast https://www.youtube.com/@unknown/videos",
+                "audio " + BROKEN_CHANNEL)));
+        List<Episode> episodes = watcher.poll();
+
+        // From the oldest video to the newest one:
+        assertEquals(List.of("a1", "a2", "a3"),
+                episodes.stream().map(Episode::getVideoId).toList());
+        Episode first = episodes.get(0);
+        assertEquals(AUDIO_CHANNEL, first.getChannelUrl());
+        assertEquals("https://www.youtube.com/watch?v=a1", first.getUrl());
+        assertEquals(ContentType.AUDIO, first.getContentType());
+        verify(youtube, never()).getNewVideoIds(eq("https://www.youtube.com/@unknown/videos"),
+                any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Delivered video is recorded in archive for yt-dlp")
+    void markDeliveredTest() throws IOException
+    {
+        YouTubeDlApi youtube = mock(YouTubeDlApi.class);
+        when(youtube.getNewVideoIds(eq(AUDIO_CHANNEL), any(File.class), anyInt(), any()))
+                .thenReturn(List.of("a1"));
+        SubscriptionWatcher watcher = new SubscriptionWatcher(youtube,
+                options("audio " + AUDIO_CHANNEL));
+
+        watcher.markDelivered(watcher.poll().get(0));
+
+        SubscriptionStore store = new SubscriptionStore(tempDir.resolve("store").toFile());
+        assertTrue(store.isDelivered(AUDIO_CHANNEL, "a1"));
+    }
+
+    private SubscriptionOptions options(String channels) throws IOException
+    {
+        Path channelsFile = tempDir.resolve("channels.txt");
+        Files.writeString(channelsFile, channels, StandardCharsets.UTF_8);
+        return SubscriptionOptions.builder()
+                .channelsFile(channelsFile.toFile())
+                .storeDirectory(tempDir.resolve("store").toFile())
+                .limit(5)
+                .dateAfter("20240101")
+                .threads(2)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.eugene_andrienko.telepodcast.tui;
+
+import com.eugene_andrienko.telepodcast.tui.DownloadOptions.DownloadType;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.*;
+
+
+public class PrefetcherTest
+{
+    private static final String TEST_URL = "TEST URL";
+
+    @Test
+    @DisplayName("Download follows the selection of user")
+    void followSelectionTest()
+    {
+        YouTubeDlApi youtube = mock(YouTubeDlApi.class);
+        Prefetcher prefetcher = new Prefetcher(youtube, true);
+        DownloadOptions option = DownloadOptions.builder()
+                                                .url(TEST_URL)
+                                                .downloadType(DownloadType.AUDIO)
+                                                .isDownload(true)
+                                                .build();
+
+        prefetcher.update(option);
+        prefetcher.update(option);
+        verify(youtube, times(1)).downloadAudio(TEST_URL);
+
+        // Download of other type replaces the started one:
+        option.setDownloadType(DownloadType.VIDEO);
+        prefetcher.update(option);
+        verify(youtube, times(1)).downloadVideo(TEST_URL);
+
+        option.setDownload(false);
+        prefetcher.update(option);
+        prefetcher.update(option);
+        verify(youtube, times(1)).cancelDownload(TEST_URL);
+
+        option.setDownload(true);
+        prefetcher.update(option);
+        verify(youtube, times(2)).downloadVideo(TEST_URL);
+    }
+
+    @Test
+    @DisplayName("Disabled prefetcher does not download anything")
+    void disabledTest()
+    {
+        YouTubeDlApi youtube = mock(YouTubeDlApi.class);
+        Prefetcher prefetcher = new Prefetcher(youtube, false);
+        DownloadOptions option = DownloadOptions.builder()
+                                                .url(TEST_URL)
+                                                .downloadType(DownloadType.AUDIO)
+                                                .isDownload(true)
+                                                .build();
+
+        prefetcher.update(option);
+        option.setDownload(false);
+        prefetcher.update(option);
+        verifyNoInteractions(youtube);
+    }
+}
@@ -0,0 +1,70 @@
+package com.eugene_andrienko.telepodcast.tui;
+
+import com.eugene_andrienko.telepodcast.tui.components.AnimationTicker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class RenderSchedulerTest
+{
+    @Test
+    @DisplayName("Only the latest update for every key is applied")
+    void coalesceUpdatesTest()
+    {
+        RenderScheduler scheduler = new RenderScheduler(null, AnimationTicker.getInstance());
+        Object first = new Object();
+        Object second = new Object();
+        List<String> applied = new ArrayList<>();
+
+        scheduler.post(first, () -> applied.add("first 1"));
+        scheduler.post(second, () -> applied.add("second 1"));
+        scheduler.post(first, () -> applied.add("first 2"));
+        scheduler.post(first, () -> applied.add("first 3"));
+
+        assertEquals(2, scheduler.applyUpdates());
+        assertEquals(List.of("first 3", "second 1"), applied);
+        assertEquals(0, scheduler.applyUpdates());
+    }
+
+    @Test
+    @DisplayName("Failed update does not break other updates")
+    void failedUpdateTest()
+    {
+        RenderScheduler scheduler = new RenderScheduler(null, AnimationTicker.getInstance());
+        List<String> applied = new ArrayList<>();
+
+        scheduler.post("fail", () -> {
+            throw new IllegalStateException("Test");
+        });
+        scheduler.post("ok", () -> applied.add("ok"));
+
+        assertEquals(2, scheduler.applyUpdates());
+        assertEquals(List.of("ok"), applied);
+    }
+
+    @Test
+    @DisplayName("Frame interval adapts to the redraw time")
+    void adaptFrameIntervalTest()
+    {
+        RenderScheduler scheduler = new RenderScheduler(null, AnimationTicker.getInstance());
+        assertEquals(RenderScheduler.MIN_FRAME_INTERVAL, scheduler.getFrameInterval());
+
+        // Fast terminal:
+        scheduler.adaptFrameInterval(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(RenderScheduler.MIN_FRAME_INTERVAL, scheduler.getFrameInterval());
+
+        // Slow terminal:
+        long previous = scheduler.getFrameInterval();
+        scheduler.adaptFrameInterval(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(scheduler.getFrameInterval() > previous);
+        for(int i = 0; i < 100; i++)
+        {
+            scheduler.adaptFrameInterval(TimeUnit.SECONDS.toNanos(10));
+        }
+        assertEquals(RenderScheduler.MAX_FRAME_INTERVAL, scheduler.getFrameInterval());
+    }
+}
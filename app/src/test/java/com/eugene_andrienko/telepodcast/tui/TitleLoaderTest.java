@@ -0,0 +1,89 @@
+package com.eugene_andrienko.telepodcast.tui;
+
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class TitleLoaderTest
+{
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    @Test
+    @DisplayName("Titles are loaded concurrently, within the limit")
+    @SneakyThrows
+    void concurrentLoadTest()
+    {
+        final int THREADS = 3;
+        final int URLS = 12;
+        YouTubeDlApi youtube = mock(YouTubeDlApi.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(youtube.getTitle(anyString(), eq(TIMEOUT))).thenAnswer(invocation -> {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return "Title of " + invocation.getArgument(0);
+        });
+
+        @Cleanup
+        TitleLoader loader = new TitleLoader(youtube, THREADS, TIMEOUT);
+        List<String> urls = new ArrayList<>();
+        for(int i = 0; i < URLS; i++)
+        {
+            urls.add("url" + i);
+        }
+        Map<String, CompletableFuture<String>> titles = loader.load(urls);
+
+        assertEquals(urls, List.copyOf(titles.keySet()), "Order of URLs is not kept");
+        for(String url : urls)
+        {
+            assertEquals("Title of " + url, titles.get(url).get(10, TimeUnit.SECONDS));
+        }
+        assertTrue(maxRunning.get() <= THREADS, "Concurrency limit exceeded");
+        assertTrue(maxRunning.get() > 1, "Titles are loaded serially");
+    }
+
+    @Test
+    @DisplayName("Slow and failed titles do not hold other titles")
+    @SneakyThrows
+    void slowTitleTest()
+    {
+        YouTubeDlApi youtube = mock(YouTubeDlApi.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(youtube.getTitle(eq("slow"), any())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+        when(youtube.getTitle(eq("fail"), any())).thenThrow(new IllegalStateException("Test"));
+        when(youtube.getTitle(eq("fast"), any())).thenReturn("Fast");
+
+        @Cleanup
+        TitleLoader loader = new TitleLoader(youtube, 3, TIMEOUT);
+        Map<String, CompletableFuture<String>> titles = loader.load(
+                List.of("slow", "fail", "fast"));
+
+        assertEquals("Fast", titles.get("fast").get(10, TimeUnit.SECONDS));
+        assertNull(titles.get("fail").get(10, TimeUnit.SECONDS));
+        assertFalse(titles.get("slow").isDone());
+        release.countDown();
+        assertNull(titles.get("slow").get(10, TimeUnit.SECONDS));
+    }
+}
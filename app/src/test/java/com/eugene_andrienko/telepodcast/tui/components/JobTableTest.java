@@ -0,0 +1,151 @@
+package com.eugene_andrienko.telepodcast.tui.components;
+
+import com.eugene_andrienko.telepodcast.tui.DownloadJob;
+import com.eugene_andrienko.telepodcast.tui.DownloadJob.State;
+import com.eugene_andrienko.telepodcast.tui.components.JobTable.Filter;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+public class JobTableTest
+{
+    private static final int JOBS = 100;
+    private static final int PAGE_SIZE = 10;
+
+    private JobTable table;
+    private List<DownloadJob> jobs;
+
+    @BeforeEach
+    void setUp()
+    {
+        table = new JobTable(PAGE_SIZE, new AnimationTicker(1));
+        jobs = new ArrayList<>();
+        for(int i = 0; i < JOBS; i++)
+        {
+            DownloadJob job = new DownloadJob("Video " + i);
+            jobs.add(job);
+            table.addJob(job);
+        }
+    }
+
+    @Test
+    @DisplayName("Counters follow the state of jobs")
+    void countersTest()
+    {
+        assertEquals(JOBS, table.getJobsCount());
+        assertEquals(JOBS, table.getCount(State.QUEUED));
+
+        table.update(jobs.get(0), State.DOWNLOADING, 50);
+        table.update(jobs.get(0), State.DOWNLOADING, 60);
+        table.update(jobs.get(1), State.SENT, 0);
+        table.update(jobs.get(2), State.UPLOAD_FAIL, 0);
+        table.update(jobs.get(3), State.SEND_FAIL, 0);
+
+        assertEquals(JOBS - 4, table.getCount(State.QUEUED));
+        assertEquals(1, table.getCount(State.DOWNLOADING));
+        assertEquals(60, jobs.get(0).getProgress());
+        assertEquals(1, table.getCount(State.SENT));
+        assertEquals(2, table.getFailedCount());
+    }
+
+    @Test
+    @DisplayName("Table is animated only while it has busy jobs")
+    void animationTest()
+    {
+        AnimationTicker ticker = mock(AnimationTicker.class);
+        JobTable animated = new JobTable(PAGE_SIZE, ticker);
+        DownloadJob first = new DownloadJob("First");
+        DownloadJob second = new DownloadJob("Second");
+        animated.addJob(first);
+        animated.addJob(second);
+
+        animated.update(first, State.AUDIO_ENCODING, 0);
+        animated.update(second, State.SENDING, 0);
+        animated.update(first, State.UPLOADING, 10);
+        verify(ticker, times(1)).register(animated);
+        verify(ticker, never()).unregister(animated);
+
+        animated.update(second, State.SENT, 0);
+        verify(ticker, times(1)).unregister(animated);
+    }
+
+    @Test
+    @DisplayName("Filter shows only jobs in matching states")
+    void filterTest()
+    {
+        table.update(jobs.get(10), State.DOWNLOAD_FAIL, 0);
+        table.update(jobs.get(20), State.UPLOADING, 30);
+        table.update(jobs.get(30), State.SENDING, 0);
+        table.update(jobs.get(40), State.SENT, 0);
+
+        table.setFilter(Filter.FAIL);
+        assertEquals(List.of(jobs.get(10)), table.getFilteredJobs());
+        table.setFilter(Filter.UPLOADING);
+        assertEquals(List.of(jobs.get(20), jobs.get(30)), table.getFilteredJobs());
+        table.setFilter(Filter.SENT);
+        assertEquals(List.of(jobs.get(40)), table.getFilteredJobs());
+
+        // Filter is updated after change of state:
+        table.update(jobs.get(50), State.SENT, 0);
+        assertEquals(List.of(jobs.get(40), jobs.get(50)), table.getFilteredJobs());
+
+        table.setFilter(Filter.ALL);
+        assertEquals(JOBS, table.getFilteredJobs().size());
+    }
+
+    @Test
+    @DisplayName("Scroll is limited by the count of filtered jobs")
+    void scrollTest()
+    {
+        table.scroll(-1);
+        assertEquals(0, table.getScrollOffset());
+        table.scroll(5);
+        assertEquals(5, table.getScrollOffset());
+        table.scroll(JOBS * 2);
+        assertEquals(JOBS - PAGE_SIZE, table.getScrollOffset());
+
+        table.setFilter(Filter.SENT);
+        assertEquals(0, table.getScrollOffset());
+        table.scroll(1);
+        assertEquals(0, table.getScrollOffset());
+    }
+
+    @Test
+    @DisplayName("Keys select job and notify listeners about actions with it")
+    void selectionTest()
+    {
+        JobTable.Listener listener = mock(JobTable.Listener.class);
+        table.addListener(listener);
+        assertEquals(jobs.get(0), table.getSelectedJob());
+
+        table.handleKeyStroke(new KeyStroke(KeyType.ArrowUp));
+        assertEquals(jobs.get(0), table.getSelectedJob());
+        table.handleKeyStroke(new KeyStroke(KeyType.PageDown));
+        table.handleKeyStroke(new KeyStroke(KeyType.ArrowDown));
+        assertEquals(jobs.get(PAGE_SIZE + 1), table.getSelectedJob());
+        assertEquals(2, table.getScrollOffset(), "Selected job is not visible");
+        table.handleKeyStroke(new KeyStroke(KeyType.End));
+        assertEquals(jobs.get(JOBS - 1), table.getSelectedJob());
+        table.handleKeyStroke(new KeyStroke(KeyType.Home));
+        assertEquals(0, table.getScrollOffset());
+
+        table.handleKeyStroke(new KeyStroke(KeyType.ArrowDown));
+        table.handleKeyStroke(new KeyStroke('c', false, false));
+        verify(listener, times(1)).onCancel(jobs.get(1));
+        table.handleKeyStroke(new KeyStroke('P', false, false));
+        verify(listener, times(1)).onPauseResume(jobs.get(1));
+
+        // Nothing to select:
+        table.setFilter(Filter.SENT);
+        assertNull(table.getSelectedJob());
+        table.handleKeyStroke(new KeyStroke('c', false, false));
+        verifyNoMoreInteractions(listener);
+    }
+}
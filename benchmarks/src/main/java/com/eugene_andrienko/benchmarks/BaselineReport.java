@@ -0,0 +1,156 @@
+package com.eugene_andrienko.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Compares results of benchmarks with stored baseline.
+ *
+ * Both files are JMH results in JSON ({@code -rf json}). Benchmark is a regression if it became
+ * slower by more than threshold and the difference is bigger than errors of both results.
+ * Exit code is {@code 1} if there are regressions.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar -rf json -rff benchmarks/target/jmh-result.json
+ * java -cp benchmarks/target/benchmarks.jar com.eugene_andrienko.benchmarks.BaselineReport \
+ *     benchmarks/target/jmh-result.json benchmarks/baseline.json [THRESHOLD_PERCENTS]
+ * </pre>
+ */
+public final class BaselineReport
+{
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    private BaselineReport()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 2)
+        {
+            System.err.println("Usage: BaselineReport <result.json> <baseline.json> " +
+                               "[threshold in percents]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        Map<String, Result> current = read(Paths.get(args[0]));
+        Map<String, Result> baseline = read(Paths.get(args[1]));
+        int regressions = 0;
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Current",
+                "Change");
+        for(Map.Entry<String, Result> entry : current.entrySet())
+        {
+            Result result = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if(base == null)
+            {
+                System.out.printf("%-80s %14s %14s %9s%n", entry.getKey(), "-",
+                        result.format(), "new");
+                continue;
+            }
+            double change = (result.score - base.score) / base.score * 100;
+            String verdict = "";
+            if(result.isWorseThan(base, threshold))
+            {
+                verdict = "  REGRESSION";
+                regressions++;
+            }
+            System.out.printf("%-80s %14s %14s %+8.1f%%%s%n", entry.getKey(), base.format(),
+                    result.format(), change, verdict);
+        }
+        for(String missing : baseline.keySet())
+        {
+            if(!current.containsKey(missing))
+            {
+                System.out.printf("%-80s %14s %14s %9s%n", missing, baseline.get(missing).format(),
+                        "-", "not run");
+            }
+        }
+
+        System.out.printf("%d regression(s), threshold %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Reads JMH results.
+     *
+     * @param path Path to JSON file.
+     *
+     * @return Results by benchmark name with parameters.
+     *
+     * @throws IOException Failed to read file.
+     */
+    static Map<String, Result> read(Path path) throws IOException
+    {
+        Map<String, Result> results = new LinkedHashMap<>();
+        try(Reader reader = Files.newBufferedReader(path))
+        {
+            for(JsonElement element : JsonParser.parseReader(reader).getAsJsonArray())
+            {
+                JsonObject benchmark = element.getAsJsonObject();
+                JsonObject metric = benchmark.getAsJsonObject("primaryMetric");
+                double error = metric.get("scoreError").isJsonPrimitive() ?
+                               metric.get("scoreError").getAsDouble() : 0;
+                results.put(name(benchmark), new Result(metric.get("score").getAsDouble(),
+                        Double.isNaN(error) ? 0 : error, metric.get("scoreUnit").getAsString(),
+                        benchmark.get("mode").getAsString().equals("thrpt")));
+            }
+        }
+        return results;
+    }
+
+    private static String name(JsonObject benchmark)
+    {
+        StringBuilder name = new StringBuilder(benchmark.get("benchmark").getAsString()
+                .replaceFirst("^com\\.eugene_andrienko\\.", ""));
+        if(benchmark.has("params"))
+        {
+            Map<String, String> params = new TreeMap<>();
+            benchmark.getAsJsonObject("params").entrySet()
+                    .forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+            name.append(params);
+        }
+        return name.toString();
+    }
+
+    /**
+     * Score of benchmark.
+     */
+    static final class Result
+    {
+        final double score;
+        final double error;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Result(double score, double error, String unit, boolean higherIsBetter)
+        {
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        boolean isWorseThan(Result baseline, double threshold)
+        {
+            double difference = higherIsBetter ? baseline.score - score : score - baseline.score;
+            return difference > baseline.score * threshold / 100 &&
+                   difference > error + baseline.error;
+        }
+
+        String format()
+        {
+            return String.format("%.3f %s", score, unit);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.eugene_andrienko.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+
+/**
+ * Fixtures of benchmarks from {@code src/main/resources/fixtures}: descriptions of videos,
+ * yt-dlp output and updates from TDLib.
+ */
+public final class Fixtures
+{
+    private Fixtures()
+    {
+    }
+
+    /**
+     * Reads fixture.
+     *
+     * @param path Path to fixture relative to {@code fixtures} directory.
+     *
+     * @return Text of fixture.
+     */
+    public static String read(String path)
+    {
+        try(InputStream is = Fixtures.class.getResourceAsStream("/fixtures/" + path))
+        {
+            if(is == null)
+            {
+                throw new IllegalArgumentException("No fixture " + path);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads fixture by lines, without empty lines and comments ({@code #} at the start of line).
+     *
+     * @param path Path to fixture relative to {@code fixtures} directory.
+     *
+     * @return Lines of fixture.
+     */
+    public static List<String> readLines(String path)
+    {
+        return read(path).lines()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .toList();
+    }
+}
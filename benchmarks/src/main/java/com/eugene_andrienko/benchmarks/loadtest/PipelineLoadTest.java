@@ -0,0 +1,357 @@
+package com.eugene_andrienko.benchmarks.loadtest;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.eugene_andrienko.benchmarks.Fixtures;
+import com.eugene_andrienko.metrics.api.Tracing;
+import com.eugene_andrienko.metrics.impl.ChromeTraceExporter;
+import com.eugene_andrienko.telegram.api.FakeTelegramApi;
+import com.eugene_andrienko.telegram.api.TelegramApi;
+import com.eugene_andrienko.telegram.api.TelegramOptions;
+import com.eugene_andrienko.telegram.impl.FakeTDLibConnector;
+import com.eugene_andrienko.telepodcast.cli.CliPipeline;
+import com.eugene_andrienko.telepodcast.helpers.DescriptionFilter;
+import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover;
+import com.eugene_andrienko.telepodcast.helpers.SimpleTextHelper;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import com.google.gson.JsonObject;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+
+/**
+ * End-to-end load test of the whole pipeline: from yt-dlp to sent messages in Telegram.
+ *
+ * yt-dlp, lame and ffmpeg are replaced by the fake script, which prints progress and creates
+ * files at the configured speed. TDLib is replaced by {@link FakeTDLibConnector} with request
+ * latency, shared upload link and flood waits. Jobs are run through CLI — one after another,
+ * and through pipeline of TUI download window — all at once. For each pipeline throughput,
+ * latency of jobs from the start of run, threads and CPU time of JVM are reported.
+ *
+ * Fake tools should be found by program in {@code PATH}, so the test is restarted in the child
+ * JVM with directory of fake tools at the start of {@code PATH}.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar \
+ *     com.eugene_andrienko.benchmarks.loadtest.PipelineLoadTest --jobs 20
+ * </pre>
+ */
+@Parameters(separators = "=")
+public final class PipelineLoadTest
+{
+    private static final String FAKE_TOOLS_ENV = "TELEPODCAST_FAKE_TOOLS";
+    private static final String[] FAKE_TOOLS = {"yt-dlp", "lame", "ffmpeg"};
+    private static final String DESCRIPTION = "descriptions/podcast-ru.txt";
+
+    enum Pipeline
+    {
+        CLI, WINDOW, BOTH
+    }
+
+    @Parameter(names = {"-h", "--help"}, description = "This help message", help = true)
+    private boolean help = false;
+    @Parameter(names = "--jobs", description = "Count of jobs in each pipeline")
+    private int jobs = 20;
+    @Parameter(names = "--pipeline", description = "Pipeline to test: CLI, WINDOW or BOTH")
+    private Pipeline pipeline = Pipeline.BOTH;
+    @Parameter(names = "--video-percent", description = "Percent of jobs uploaded as video")
+    private int videoPercent = 0;
+    @Parameter(names = "--concurrency-limit", description = "Maximal count of downloads")
+    private int concurrencyLimit = 3;
+    @Parameter(names = "--download-limit", description = "Total rate of downloads in KiB/s")
+    private long downloadLimit = 0;
+    @Parameter(names = "--upload-limit", description = "Average rate of uploads in KiB/s")
+    private long uploadLimit = 0;
+    @Parameter(names = "--title-seconds", description = "Time to get title of video")
+    private String titleSeconds = "0.3";
+    @Parameter(names = "--audio-size", description = "Size of audio in KiB")
+    private long audioSize = 20480;
+    @Parameter(names = "--video-size", description = "Size of video in KiB")
+    private long videoSize = 102400;
+    @Parameter(names = "--download-speed", description = "Speed of one download in KiB/s")
+    private long downloadSpeed = 4096;
+    @Parameter(names = "--encode-seconds", description = "Post-processing time of yt-dlp")
+    private String encodeSeconds = "0.5";
+    @Parameter(names = "--lame-seconds", description = "Time to increase volume of audio")
+    private String lameSeconds = "1";
+    @Parameter(names = "--fail-percent", description = "Percent of failed downloads")
+    private int failPercent = 0;
+    @Parameter(names = "--upload-speed", description = "Speed of all uploads in KiB/s")
+    private long uploadSpeed = 8192;
+    @Parameter(names = "--latency", description = "Latency of Telegram requests in ms")
+    private long latency = 50;
+    @Parameter(names = "--flood-wait-percent", description = "Percent of messages with flood " +
+                                                             "wait")
+    private int floodWaitPercent = 5;
+    @Parameter(names = "--flood-wait", description = "Duration of flood wait in ms")
+    private long floodWait = 2000;
+    @Parameter(names = "--trace-file", description = "File to write trace of jobs")
+    private String traceFile = null;
+
+    private PipelineLoadTest()
+    {
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        PipelineLoadTest test = new PipelineLoadTest();
+        JCommander jCommander = JCommander.newBuilder().addObject(test).build();
+        jCommander.setProgramName(PipelineLoadTest.class.getName());
+        jCommander.parse(args);
+        if(test.help)
+        {
+            jCommander.usage();
+            return;
+        }
+
+        if(System.getenv(FAKE_TOOLS_ENV) == null)
+        {
+            System.exit(test.restartWithFakeTools(args));
+        }
+        ChromeTraceExporter trace = null;
+        if(test.traceFile != null)
+        {
+            trace = new ChromeTraceExporter(new File(test.traceFile));
+            Tracing.enable(trace);
+        }
+        try
+        {
+            if(test.pipeline != Pipeline.WINDOW)
+            {
+                test.run(Pipeline.CLI).print();
+            }
+            if(test.pipeline != Pipeline.CLI)
+            {
+                test.run(Pipeline.WINDOW).print();
+            }
+        }
+        finally
+        {
+            if(trace != null)
+            {
+                Tracing.disable();
+                trace.close();
+            }
+        }
+    }
+
+    /**
+     * Installs fake tools into the temporary directory and runs the test in the child JVM with
+     * them in {@code PATH}.
+     *
+     * @param args Arguments of the test
+     *
+     * @return Exit code of the child JVM.
+     */
+    private int restartWithFakeTools(String[] args) throws IOException, InterruptedException
+    {
+        Path directory = Files.createTempDirectory("telepodcast-fake-tools");
+        try
+        {
+            installFakeTools(directory);
+            List<String> command = new ArrayList<>();
+            command.add(ProcessHandle.current().info().command().orElse(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(PipelineLoadTest.class.getName());
+            Collections.addAll(command, args);
+
+            ProcessBuilder processBuilder = new ProcessBuilder(command).inheritIO();
+            processBuilder.environment().put(FAKE_TOOLS_ENV, directory.toString());
+            processBuilder.environment().merge("PATH", directory.toString(),
+                    (path, fake) -> fake + ":" + path);
+            return processBuilder.start().waitFor();
+        }
+        finally
+        {
+            try(Stream<Path> files = Files.list(directory))
+            {
+                for(Path file : (Iterable<Path>)files::iterator)
+                {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private void installFakeTools(Path directory) throws IOException
+    {
+        byte[] script;
+        try(InputStream is = PipelineLoadTest.class.getResourceAsStream("/loadtest/fake-tool.sh"))
+        {
+            if(is == null)
+            {
+                throw new IOException("No fake tool script in JAR");
+            }
+            script = is.readAllBytes();
+        }
+        for(String tool : FAKE_TOOLS)
+        {
+            Path file = directory.resolve(tool);
+            Files.write(file, script);
+            if(!file.toFile().setExecutable(true))
+            {
+                throw new IOException("Cannot make " + file + " executable");
+            }
+        }
+
+        Files.writeString(directory.resolve("fake-tools.conf"), String.join("\n",
+                "TITLE_SECONDS=" + titleSeconds,
+                "AUDIO_KIB=" + audioSize,
+                "VIDEO_KIB=" + videoSize,
+                "SPEED_KIB=" + downloadSpeed,
+                "ENCODE_SECONDS=" + encodeSeconds,
+                "LAME_SECONDS=" + lameSeconds,
+                "FAIL_PERCENT=" + failPercent,
+                ""));
+
+        JsonObject info = new JsonObject();
+        info.addProperty("description", Fixtures.read(DESCRIPTION));
+        info.addProperty("duration", 3600);
+        Files.writeString(directory.resolve("info.json"), info.toString(),
+                StandardCharsets.UTF_8);
+    }
+
+    private Report run(Pipeline pipeline) throws Exception
+    {
+        List<String> audioUrls = new ArrayList<>();
+        List<String> videoUrls = new ArrayList<>();
+        for(int i = 0; i < jobs; i++)
+        {
+            String url = String.format("https://www.youtube.com/watch?v=%s%04d",
+                    pipeline.name().toLowerCase(), i);
+            (i * 100 < videoPercent * jobs ? videoUrls : audioUrls).add(url);
+        }
+
+        TelegramOptions options = TelegramOptions.builder()
+                .apiId(1)
+                .apiHash("load-test")
+                .tdlibLog("tdlib.log")
+                .tdlibDir("tdlib")
+                .resendRetries(2)
+                .delaySeconds(60)
+                .uploadLimit(uploadLimit * 1024)
+                .build();
+        FakeTDLibConnector connector = new FakeTDLibConnector(options, uploadSpeed * 1024,
+                latency, floodWaitPercent, floodWait);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean)ManagementFactory
+                        .getOperatingSystemMXBean();
+
+        threads.resetPeakThreadCount();
+        long startedThreads = threads.getTotalStartedThreadCount();
+        long cpuTime = os.getProcessCpuTime();
+        DescriptionFilter filter = DescriptionFilter.getDefault();
+        long start = System.nanoTime();
+        try(TelegramApi telegram = FakeTelegramApi.create(connector, options);
+            YouTubeDlApi youtube = new YouTubeDlApi(concurrencyLimit, downloadLimit * 1024, 0))
+        {
+            if(pipeline == Pipeline.CLI)
+            {
+                CliPipeline.run(telegram, youtube, audioUrls, videoUrls, filter);
+            }
+            else
+            {
+                new WindowPipeline(telegram, youtube, filter).run(audioUrls, videoUrls);
+            }
+        }
+        long end = System.nanoTime();
+
+        // Job is delivered, if media and all replies with the rest of description are sent:
+        int messages = Math.max(1, SimpleTextHelper.packByWords(
+                GarbageTextRemover.prepareDescription(Fixtures.read(DESCRIPTION), List.of(),
+                        filter), TelegramApi.MEDIA_CAPTION_LENGTH, TelegramApi.MESSAGE_LENGTH)
+                .size());
+        Map<String, Integer> sentMessages = connector.getDeliveredMessages();
+        List<Long> latencies = new ArrayList<>();
+        connector.getDeliveredAt().forEach((job, time) -> {
+            if(sentMessages.get(job) == messages)
+            {
+                latencies.add(time - start);
+            }
+        });
+
+        return new Report(pipeline, jobs, end - start, latencies, connector.getFloodWaits(), threads.getPeakThreadCount(),
+                threads.getTotalStartedThreadCount() - startedThreads,
+                os.getProcessCpuTime() - cpuTime);
+    }
+
+    /**
+     * Results of one pipeline.
+     */
+    private static final class Report
+    {
+        private final Pipeline pipeline;
+        private final int jobs;
+        private final long duration;
+        private final List<Long> latencies;
+        private final int floodWaits;
+        private final int peakThreads;
+        private final long startedThreads;
+        private final long cpuTime;
+
+        private Report(Pipeline pipeline, int jobs, long duration, List<Long> latencies,
+                int floodWaits, int peakThreads, long startedThreads, long cpuTime)
+        {
+            this.pipeline = pipeline;
+            this.jobs = jobs;
+            this.duration = duration;
+            this.latencies = latencies;
+            this.latencies.sort(Comparator.naturalOrder());
+            this.floodWaits = floodWaits;
+            this.peakThreads = peakThreads;
+            this.startedThreads = startedThreads;
+            this.cpuTime = cpuTime;
+        }
+
+        private void print()
+        {
+            double seconds = duration / 1e9;
+            System.out.printf("%s pipeline%n", pipeline);
+            System.out.printf("  delivered:   %d of %d jobs in %.1f s%n", latencies.size(), jobs,
+                    seconds);
+            System.out.printf("  throughput:  %.0f episodes/hour%n",
+                    latencies.size() / seconds * 3600);
+            System.out.printf("  latency:     p50 %.1f s, p99 %.1f s%n", percentile(50),
+                    percentile(99));
+            System.out.printf("  flood waits: %d%n", floodWaits);
+            System.out.printf("  threads:     peak %d, started %d%n", peakThreads,
+                    startedThreads);
+            System.out.printf("  JVM CPU:     %.1f s (%.0f%% of one core)%n", cpuTime / 1e9,
+                    cpuTime * 100.0 / duration);
+        }
+
+        /**
+         * Returns latency of job by nearest rank.
+         *
+         * @param percent Percentile
+         *
+         * @return Latency in seconds, {@code NaN} if no job is delivered.
+         */
+        private double percentile(int percent)
+        {
+            if(latencies.isEmpty())
+            {
+                return Double.NaN;
+            }
+            int rank = (int)Math.ceil(percent / 100.0 * latencies.size());
+            return latencies.get(Math.max(0, rank - 1)) / 1e9;
+        }
+    }
+}
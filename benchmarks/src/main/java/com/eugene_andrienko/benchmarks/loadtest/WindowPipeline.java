@@ -0,0 +1,172 @@
+package com.eugene_andrienko.benchmarks.loadtest;
+
+import com.eugene_andrienko.common.ExecutorFactory;
+import com.eugene_andrienko.metrics.api.Span;
+import com.eugene_andrienko.metrics.api.Tracing;
+import com.eugene_andrienko.telegram.api.TelegramApi;
+import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
+import com.eugene_andrienko.telegram.api.exceptions.TelegramSendMessageException;
+import com.eugene_andrienko.telegram.api.exceptions.TelegramUploadFileException;
+import com.eugene_andrienko.telepodcast.helpers.DescriptionFilter;
+import com.eugene_andrienko.telepodcast.helpers.GarbageTextRemover;
+import com.eugene_andrienko.telepodcast.helpers.SimpleTextHelper;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.DownloadState;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.ContentType;
+import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeDownloadException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Pipeline of TUI {@code DownloadWindow} without terminal: every job is downloaded, uploaded
+ * and sent in its own thread, progress is polled as the window polls it.
+ */
+@Log4j2
+final class WindowPipeline
+{
+    private static final long PROGRESS_POLL_INTERVAL = 100;
+
+    private final TelegramApi telegram;
+    private final YouTubeDlApi youtube;
+    private final DescriptionFilter descriptionFilter;
+
+    WindowPipeline(TelegramApi telegram, YouTubeDlApi youtube,
+            DescriptionFilter descriptionFilter)
+    {
+        this.telegram = telegram;
+        this.youtube = youtube;
+        this.descriptionFilter = descriptionFilter;
+    }
+
+    /**
+     * Runs all jobs at once and waits for them.
+     *
+     * @param audioUrls URLs to upload as audio
+     * @param videoUrls URLs to upload as video
+     *
+     * @throws TelegramInitException Failed to login.
+     * @throws InterruptedException  Waiting for jobs is interrupted.
+     */
+    void run(List<String> audioUrls, List<String> videoUrls)
+            throws TelegramInitException, InterruptedException
+    {
+        telegram.login();
+        ExecutorService executorService = ExecutorFactory.newUnboundedExecutor("download-job");
+        for(String url : audioUrls)
+        {
+            executorService.execute(() -> process(url, ContentType.AUDIO));
+        }
+        for(String url : videoUrls)
+        {
+            executorService.execute(() -> process(url, ContentType.VIDEO));
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(1, TimeUnit.DAYS);
+    }
+
+    private void process(String url, ContentType contentType)
+    {
+        try(Span span = Tracing.job(url))
+        {
+            YoutubeData data;
+            try(Span stage = Tracing.span("wait-download"))
+            {
+                data = download(url, contentType);
+            }
+            if(data == null)
+            {
+                return;
+            }
+            int fileId;
+            try(Span stage = Tracing.span("upload"))
+            {
+                fileId = upload(data);
+            }
+            try(Span stage = Tracing.span("send"))
+            {
+                send(data, fileId);
+            }
+        }
+        catch(TelegramUploadFileException | TelegramSendMessageException ex)
+        {
+            log.error("Failed to deliver {} to Telegram", url);
+        }
+        catch(InterruptedException ex)
+        {
+            log.debug("Job of {} is interrupted", url);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private YoutubeData download(String url, ContentType contentType) throws InterruptedException
+    {
+        if(contentType == ContentType.AUDIO)
+        {
+            youtube.downloadAudio(url);
+        }
+        else
+        {
+            youtube.downloadVideo(url);
+        }
+
+        while(true)
+        {
+            DownloadState state = youtube.getDownloadState(url);
+            youtube.getDownloadProgress(url);
+            switch(state)
+            {
+                case COMPLETE:
+                    try
+                    {
+                        return youtube.getDownloadedData(url);
+                    }
+                    catch(YouTubeDownloadException e)
+                    {
+                        log.error("Failed to download {}", url);
+                        return null;
+                    }
+                case FAIL:
+                case CANCELLED:
+                    log.error("Fail when downloading {}", url);
+                    return null;
+                default:
+                    Thread.sleep(PROGRESS_POLL_INTERVAL);
+            }
+        }
+    }
+
+    private int upload(YoutubeData data) throws TelegramUploadFileException, InterruptedException
+    {
+        int fileId = data.getContentType() == ContentType.AUDIO ?
+                     telegram.uploadAudio(data.getFile()) :
+                     telegram.uploadVideo(data.getFile());
+        float progress = telegram.getUploadingProgress(fileId);
+        while(progress <= 99.9f)
+        {
+            Thread.sleep(PROGRESS_POLL_INTERVAL);
+            progress = telegram.getUploadingProgress(fileId);
+        }
+        return fileId;
+    }
+
+    private void send(YoutubeData data, int fileId) throws TelegramSendMessageException
+    {
+        String cleanedText = GarbageTextRemover.prepareDescription(data.getDescription(),
+                data.getChapters(), descriptionFilter);
+        List<String> description = SimpleTextHelper.packByWords(cleanedText,
+                TelegramApi.MEDIA_CAPTION_LENGTH, TelegramApi.MESSAGE_LENGTH);
+        String caption = description.isEmpty() ? null : description.remove(0);
+
+        long messageId = data.getContentType() == ContentType.AUDIO ?
+                         telegram.sendAudio(fileId, caption, data.getDurationSeconds(), 0) :
+                         telegram.sendVideo(fileId, caption, data.getDurationSeconds(), 0);
+        for(String s : description)
+        {
+            messageId = telegram.sendMessage(s, messageId);
+        }
+    }
+}
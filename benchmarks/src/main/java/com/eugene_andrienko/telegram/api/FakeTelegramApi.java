@@ -0,0 +1,32 @@
+package com.eugene_andrienko.telegram.api;
+
+import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
+import com.eugene_andrienko.telegram.impl.FakeTDLibConnector;
+
+
+/**
+ * Creates {@code TelegramApi} working through {@link FakeTDLibConnector} — for load tests.
+ */
+public final class FakeTelegramApi
+{
+    private FakeTelegramApi()
+    {
+    }
+
+    /**
+     * Creates Telegram API.
+     *
+     * @param connector Fake connector to Telegram
+     * @param options   Options of API: count of resend retries, delay of calls and upload limit
+     *
+     * @return New {@code TelegramApi}.
+     *
+     * @throws TelegramInitException Wrong options.
+     */
+    public static TelegramApi create(FakeTDLibConnector connector, TelegramOptions options)
+            throws TelegramInitException
+    {
+        return new TelegramApi(connector.newTelegram(options.getResendRetries()),
+                options.getDelaySeconds(), new UploadScheduler(options.getUploadLimit()));
+    }
+}
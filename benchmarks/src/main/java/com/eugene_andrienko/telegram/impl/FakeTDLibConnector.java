@@ -0,0 +1,285 @@
+package com.eugene_andrienko.telegram.impl;
+
+import com.eugene_andrienko.telegram.api.TelegramOptions;
+import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
+import com.eugene_andrienko.telegram.api.exceptions.TelegramUploadFileException;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+
+/**
+ * Connector to Telegram without TDLib — for load tests.
+ *
+ * Answers of Telegram are delayed by the request latency, like answers of TDLib client. Uploads
+ * share one link of the given speed, their progress is updated every 100 ms. Sending of message
+ * fails with flood wait with the given probability, then {@code Telegram} resends it after the
+ * wait. Server ID of message is known after one more latency, as after
+ * {@code UpdateMessageSendSucceeded}.
+ *
+ * Every sent message is attributed to the job — name of uploaded file without extension, text
+ * messages belong to the job of message they reply to. Time of the last sent message of job is
+ * the time when job is delivered, if all messages of job are sent.
+ */
+@Log4j2
+public class FakeTDLibConnector extends TelegramTDLibConnector
+{
+    private static final long PROGRESS_INTERVAL = 100;
+
+    private final long uploadSpeed;
+    private final long latency;
+    private final int floodWaitPercent;
+    private final long floodWait;
+    private final ScheduledExecutorService client = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "fake-tdlib");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final AtomicInteger lastFileId = new AtomicInteger();
+    private final AtomicLong lastMessageId = new AtomicLong();
+    private final AtomicInteger floodWaits = new AtomicInteger();
+    // Changed only by the client thread:
+    private final Map<Integer, Upload> uploads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> fileJobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> messageJobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, CompletableFuture<Long>> serverIds =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> deliveredAt = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> deliveredMessages = new ConcurrentHashMap<>();
+
+    /**
+     * Creates connector.
+     *
+     * @param options          Telegram options, only API ID and hash should be set
+     * @param uploadSpeed      Speed of all uploads in bytes per second
+     * @param latency          Latency of requests in milliseconds
+     * @param floodWaitPercent Probability of flood wait when sending message, in percents
+     * @param floodWait        Duration of flood wait in milliseconds
+     *
+     * @throws TelegramInitException API ID or hash is not set.
+     */
+    public FakeTDLibConnector(TelegramOptions options, long uploadSpeed, long latency,
+            int floodWaitPercent, long floodWait) throws TelegramInitException
+    {
+        super(options);
+        this.uploadSpeed = uploadSpeed;
+        this.latency = latency;
+        this.floodWaitPercent = floodWaitPercent;
+        this.floodWait = floodWait;
+        client.scheduleAtFixedRate(this::updateUploads, PROGRESS_INTERVAL, PROGRESS_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates {@code Telegram} working through this connector.
+     *
+     * @param resendRetries Count of resend retries after flood waits
+     *
+     * @return New {@code Telegram}.
+     *
+     * @throws TelegramInitException Wrong count of resend retries.
+     */
+    public Telegram newTelegram(int resendRetries) throws TelegramInitException
+    {
+        return new Telegram(this, 1, resendRetries);
+    }
+
+    /**
+     * Returns times of delivery of jobs.
+     *
+     * @return Time from {@link System#nanoTime()} of the last sent message by job.
+     */
+    public Map<String, Long> getDeliveredAt()
+    {
+        return Map.copyOf(deliveredAt);
+    }
+
+    /**
+     * Returns counts of sent messages of jobs.
+     *
+     * @return Count of sent messages by job.
+     */
+    public Map<String, Integer> getDeliveredMessages()
+    {
+        return Map.copyOf(deliveredMessages);
+    }
+
+    /**
+     * Returns count of flood waits.
+     *
+     * @return Count of messages, which sending failed with flood wait.
+     */
+    public int getFloodWaits()
+    {
+        return floodWaits.get();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> init()
+    {
+        return answer(true);
+    }
+
+    @Override
+    public void loadChatList(int limit)
+    {
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isChatListLoaded(int limit)
+    {
+        return answer(true);
+    }
+
+    @Override
+    public CompletableFuture<String> getSavedMessagesChatName()
+    {
+        return answer("Load Test");
+    }
+
+    @Override
+    public CompletableFuture<Long> getSavedMessagesChatId(String chatName)
+    {
+        return CompletableFuture.completedFuture(1L);
+    }
+
+    @Override
+    public CompletableFuture<Integer> uploadFile(File file, MessageType messageType)
+    {
+        int fileId = lastFileId.incrementAndGet();
+        String name = file.getName();
+        int extension = name.lastIndexOf('.');
+        fileJobs.put(fileId, extension < 0 ? name : name.substring(0, extension));
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        client.schedule(() -> {
+            uploads.put(fileId, new Upload(Math.max(1, file.length())));
+            result.complete(fileId);
+        }, latency, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelUploadFile(int localFileId)
+    {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        client.schedule(() -> result.complete(uploads.remove(localFileId) != null), latency,
+                TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @Override
+    public float getUploadFileProgress(int localFileId) throws TelegramUploadFileException
+    {
+        Upload upload = uploads.get(localFileId);
+        if(upload == null)
+        {
+            log.error("No upload with local ID = {}", localFileId);
+            throw new TelegramUploadFileException("No progress info about given file");
+        }
+        return upload.progress;
+    }
+
+    @Override
+    public CompletableFuture<ImmutablePair<MessageSenderState, Long>> sendMessage(long chatId,
+            MessageType messageType, Object message, long replyToId,
+            ImmutablePair<String, Integer> additionalData)
+    {
+        String job = messageType == MessageType.TEXT ? messageJobs.get(replyToId) :
+                     fileJobs.get((Integer)message);
+        long messageId = lastMessageId.incrementAndGet();
+        CompletableFuture<ImmutablePair<MessageSenderState, Long>> result =
+                new CompletableFuture<>();
+
+        if(ThreadLocalRandom.current().nextInt(100) < floodWaitPercent)
+        {
+            floodWaits.incrementAndGet();
+            client.schedule(() -> result.complete(ImmutablePair.of(MessageSenderState.RETRY,
+                    messageId)), latency + floodWait, TimeUnit.MILLISECONDS);
+            return result;
+        }
+
+        CompletableFuture<Long> serverId = new CompletableFuture<>();
+        serverIds.put(messageId, serverId);
+        if(job != null)
+        {
+            messageJobs.put(messageId, job);
+        }
+        client.schedule(() -> {
+            result.complete(ImmutablePair.of(MessageSenderState.OK, messageId));
+            client.schedule(() -> {
+                if(job != null)
+                {
+                    deliveredAt.put(job, System.nanoTime());
+                    deliveredMessages.merge(job, 1, Integer::sum);
+                }
+                serverId.complete(messageId);
+            }, latency, TimeUnit.MILLISECONDS);
+        }, latency, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Long> getServerMessageId(long localMessageId)
+    {
+        return serverIds.getOrDefault(localMessageId, new CompletableFuture<>());
+    }
+
+    @Override
+    public void close()
+    {
+        client.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> answer(T value)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        client.schedule(() -> result.complete(value), latency, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    /**
+     * Shares upload speed between active uploads.
+     */
+    private void updateUploads()
+    {
+        long active = uploads.values().stream().filter(upload -> upload.uploaded < upload.size)
+                             .count();
+        if(active == 0)
+        {
+            return;
+        }
+        long share = uploadSpeed * PROGRESS_INTERVAL / 1000 / active;
+        for(Upload upload : uploads.values())
+        {
+            if(upload.uploaded < upload.size)
+            {
+                upload.uploaded = Math.min(upload.size, upload.uploaded + share);
+                upload.progress = upload.uploaded * 100.0f / upload.size;
+            }
+        }
+    }
+
+    private static final class Upload
+    {
+        private final long size;
+        private long uploaded;
+        private volatile float progress;
+
+        private Upload(long size)
+        {
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.eugene_andrienko.telegram.impl;
+
+import com.eugene_andrienko.telegram.api.TelegramOptions;
+import com.eugene_andrienko.telegram.api.UpdateInterest;
+import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.drinkless.tdlib.TdApi;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Handling of TDLib updates by {@code TelegramTDLibConnector}: dispatching by constructor ID
+ * and work of handlers — chat list and upload progress.
+ *
+ * Updates are taken from {@code fixtures/tdlib/updates.txt}: loading of chat list after
+ * authorization and uploading of two files, with updates of other chats between them. Most of
+ * updates are not needed by the program. TDLib native library is not needed — updates are
+ * passed to the connector directly.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar UpdateDispatchBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UpdateDispatchBenchmark
+{
+    /**
+     * Updates needed by the program: all — as in TUI, files — as in CLI without chat list.
+     */
+    public enum Interests
+    {
+        ALL(EnumSet.allOf(UpdateInterest.class)),
+        FILES(EnumSet.of(UpdateInterest.FILES));
+
+        private final EnumSet<UpdateInterest> interests;
+
+        Interests(EnumSet<UpdateInterest> interests)
+        {
+            this.interests = interests;
+        }
+    }
+
+    @Param
+    public Interests interests;
+
+    private TelegramTDLibConnector connector;
+    private List<TdApi.Update> updates;
+
+    @Setup
+    public void setup() throws TelegramInitException
+    {
+        TelegramOptions options = TelegramOptions.builder()
+                .apiId(1)
+                .apiHash("benchmark")
+                .tdlibLog("tdlib.log")
+                .tdlibDir("tdlib")
+                .updateInterests(interests.interests)
+                .build();
+        connector = new TelegramTDLibConnector(options);
+        updates = UpdateFixtures.read("tdlib/updates.txt");
+    }
+
+    @Benchmark
+    public int dispatch()
+    {
+        for(TdApi.Update update : updates)
+        {
+            connector.onUpdate(update);
+        }
+        return updates.size();
+    }
+}
@@ -0,0 +1,130 @@
+package com.eugene_andrienko.telegram.impl;
+
+import com.eugene_andrienko.benchmarks.Fixtures;
+import java.util.ArrayList;
+import java.util.List;
+import org.drinkless.tdlib.TdApi;
+
+
+/**
+ * Reader of sequences of TDLib updates from {@code fixtures/tdlib}.
+ *
+ * One update per line: name of update and its arguments, separated by spaces. Only fields,
+ * which matter for handlers, are filled:
+ * <pre>
+ * option NAME VALUE           — UpdateOption with string value
+ * user ID                     — UpdateUser
+ * userStatus ID               — UpdateUserStatus, user is online
+ * connectionState             — UpdateConnectionState, connection is ready
+ * newChat ID ORDER TITLE      — UpdateNewChat, ORDER 0 — chat is out of the main list
+ * chatTitle ID TITLE          — UpdateChatTitle
+ * chatPosition ID ORDER       — UpdateChatPosition in the main list
+ * chatLastMessage ID ORDER    — UpdateChatLastMessage with position in the main list
+ * chatReadInbox ID            — UpdateChatReadInbox
+ * chatAction ID               — UpdateChatAction, somebody is typing
+ * supergroup ID               — UpdateSupergroup
+ * unreadChatCount             — UpdateUnreadChatCount of the main list
+ * file ID UPLOADED EXPECTED   — UpdateFile with uploaded and expected sizes in bytes
+ * </pre>
+ */
+final class UpdateFixtures
+{
+    private UpdateFixtures()
+    {
+    }
+
+    /**
+     * Reads sequence of updates.
+     *
+     * @param path Path to fixture relative to {@code fixtures} directory.
+     *
+     * @return Updates in order of fixture.
+     */
+    static List<TdApi.Update> read(String path)
+    {
+        List<TdApi.Update> updates = new ArrayList<>();
+        for(String line : Fixtures.readLines(path))
+        {
+            updates.add(parse(line.split(" ", 4)));
+        }
+        return updates;
+    }
+
+    private static TdApi.Update parse(String[] args)
+    {
+        switch(args[0])
+        {
+            case "option":
+                return new TdApi.UpdateOption(args[1], new TdApi.OptionValueString(args[2]));
+            case "user":
+                TdApi.User user = new TdApi.User();
+                user.id = Long.parseLong(args[1]);
+                return new TdApi.UpdateUser(user);
+            case "userStatus":
+                TdApi.UpdateUserStatus userStatus = new TdApi.UpdateUserStatus();
+                userStatus.userId = Long.parseLong(args[1]);
+                userStatus.status = new TdApi.UserStatusOnline();
+                return userStatus;
+            case "connectionState":
+                return new TdApi.UpdateConnectionState(new TdApi.ConnectionStateReady());
+            case "newChat":
+                TdApi.Chat chat = new TdApi.Chat();
+                chat.id = Long.parseLong(args[1]);
+                long order = Long.parseLong(args[2]);
+                chat.positions = order == 0 ?
+                                 new TdApi.ChatPosition[0] :
+                                 new TdApi.ChatPosition[]{position(order)};
+                chat.title = args[3];
+                return new TdApi.UpdateNewChat(chat);
+            case "chatTitle":
+                TdApi.UpdateChatTitle chatTitle = new TdApi.UpdateChatTitle();
+                chatTitle.chatId = Long.parseLong(args[1]);
+                chatTitle.title = args[2] + (args.length > 3 ? " " + args[3] : "");
+                return chatTitle;
+            case "chatPosition":
+                TdApi.UpdateChatPosition chatPosition = new TdApi.UpdateChatPosition();
+                chatPosition.chatId = Long.parseLong(args[1]);
+                chatPosition.position = position(Long.parseLong(args[2]));
+                return chatPosition;
+            case "chatLastMessage":
+                TdApi.UpdateChatLastMessage lastMessage = new TdApi.UpdateChatLastMessage();
+                lastMessage.chatId = Long.parseLong(args[1]);
+                lastMessage.positions =
+                        new TdApi.ChatPosition[]{position(Long.parseLong(args[2]))};
+                return lastMessage;
+            case "chatReadInbox":
+                TdApi.UpdateChatReadInbox readInbox = new TdApi.UpdateChatReadInbox();
+                readInbox.chatId = Long.parseLong(args[1]);
+                return readInbox;
+            case "chatAction":
+                TdApi.UpdateChatAction chatAction = new TdApi.UpdateChatAction();
+                chatAction.chatId = Long.parseLong(args[1]);
+                chatAction.action = new TdApi.ChatActionTyping();
+                return chatAction;
+            case "supergroup":
+                TdApi.Supergroup supergroup = new TdApi.Supergroup();
+                supergroup.id = Long.parseLong(args[1]);
+                return new TdApi.UpdateSupergroup(supergroup);
+            case "unreadChatCount":
+                TdApi.UpdateUnreadChatCount unreadChatCount = new TdApi.UpdateUnreadChatCount();
+                unreadChatCount.chatList = new TdApi.ChatListMain();
+                return unreadChatCount;
+            case "file":
+                TdApi.File file = new TdApi.File();
+                file.id = Integer.parseInt(args[1]);
+                file.expectedSize = Integer.parseInt(args[3]);
+                file.remote = new TdApi.RemoteFile();
+                file.remote.uploadedSize = Integer.parseInt(args[2]);
+                file.remote.isUploadingActive = file.remote.uploadedSize < file.expectedSize;
+                file.remote.isUploadingCompleted = !file.remote.isUploadingActive;
+                return new TdApi.UpdateFile(file);
+            default:
+                throw new IllegalArgumentException("Unknown update in fixture: " + args[0]);
+        }
+    }
+
+    private static TdApi.ChatPosition position(long order)
+    {
+        return new TdApi.ChatPosition(new TdApi.ChatListMain(), order, false, null);
+    }
+}
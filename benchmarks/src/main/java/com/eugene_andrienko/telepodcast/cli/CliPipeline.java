@@ -0,0 +1,32 @@
+package com.eugene_andrienko.telepodcast.cli;
+
+import com.eugene_andrienko.telegram.api.TelegramApi;
+import com.eugene_andrienko.telepodcast.helpers.DescriptionFilter;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi;
+import java.util.List;
+
+
+/**
+ * Runs jobs through {@code CLI} — for load tests.
+ */
+public final class CliPipeline
+{
+    private CliPipeline()
+    {
+    }
+
+    /**
+     * Downloads and uploads URLs one after another, as CLI mode does.
+     *
+     * @param telegram          Telegram API
+     * @param youtube           YouTube downloader
+     * @param audioUrls         URLs to upload as audio
+     * @param videoUrls         URLs to upload as video
+     * @param descriptionFilter Rules to remove garbage from descriptions
+     */
+    public static void run(TelegramApi telegram, YouTubeDlApi youtube, List<String> audioUrls,
+            List<String> videoUrls, DescriptionFilter descriptionFilter)
+    {
+        new CLI(telegram, youtube, audioUrls, videoUrls, descriptionFilter).start();
+    }
+}
@@ -0,0 +1,75 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import com.eugene_andrienko.benchmarks.Fixtures;
+import com.eugene_andrienko.telegram.api.TelegramApi;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Preparing of real-like video descriptions for Telegram: removal of garbage text and packing
+ * to media caption and messages.
+ *
+ * Descriptions are taken from {@code fixtures/descriptions}: a long podcast description in
+ * Russian, a conference talk in English and a short news episode.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar DescriptionCorpusBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DescriptionCorpusBenchmark
+{
+    /**
+     * Name of description in {@code fixtures/descriptions}.
+     */
+    @Param({"podcast-ru", "talk-en", "short-ru"})
+    public String fixture;
+
+    private String description;
+    private String cleanedText;
+    private DescriptionFilter filter;
+
+    @Setup
+    public void setup()
+    {
+        description = Fixtures.read("descriptions/" + fixture + ".txt");
+        filter = DescriptionFilter.getDefault();
+        cleanedText = GarbageTextRemover.prepareDescription(description, List.of(), filter);
+    }
+
+    /**
+     * Removal of garbage paragraphs with default rules.
+     */
+    @Benchmark
+    public String removeGarbage()
+    {
+        return GarbageTextRemover.prepareDescription(description, List.of(), filter);
+    }
+
+    /**
+     * Packing of cleaned description to media caption and replies.
+     */
+    @Benchmark
+    public List<String> packByWords()
+    {
+        return SimpleTextHelper.packByWords(cleanedText, TelegramApi.MEDIA_CAPTION_LENGTH,
+                TelegramApi.MESSAGE_LENGTH);
+    }
+
+    /**
+     * Whole preparing of description, as CLI and TUI do it before sending.
+     */
+    @Benchmark
+    public List<String> prepareAndPack()
+    {
+        return SimpleTextHelper.packByWords(
+                GarbageTextRemover.prepareDescription(description, List.of(), filter),
+                TelegramApi.MEDIA_CAPTION_LENGTH, TelegramApi.MESSAGE_LENGTH);
+    }
+}
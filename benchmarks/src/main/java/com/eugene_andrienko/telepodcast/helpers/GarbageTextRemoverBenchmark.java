@@ -0,0 +1,165 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.fellbaum.jemoji.EmojiManager;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Compares old and new removal of garbage text from video descriptions.
+ *
+ * Descriptions look like descriptions of Russian podcasts: text, time codes, links, promo
+ * codes, hashtags, emojis and text about foreign agents. Run with {@code -prof gc} to see
+ * allocation rate:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar GarbageTextRemoverBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GarbageTextRemoverBenchmark
+{
+    private static final String[] PARAGRAPHS = new String[]{
+            "В этом выпуске обсуждаем новости недели и отвечаем на вопросы слушателей.",
+            "%02d:%02d — вопросы слушателей",
+            "Поддержать подкаст: https://boosty.to/podcast",
+            "Промокод PODCAST даёт скидку 10%% на первый заказ",
+            "#подкаст #новости #технологии",
+            "Подписывайтесь на канал 👍 и ставьте колокольчик 🔔",
+            "ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО И (ИЛИ) РАСПРОСТРАНЕНО ИНОСТРАННЫМ СРЕДСТВОМ " +
+            "МАССОВОЙ ИНФОРМАЦИИ, ВЫПОЛНЯЮЩИМ ФУНКЦИИ ИНОСТРАННОГО АГЕНТА",
+            "Ведущие рассказывают, как прошёл год, и что будет дальше с проектом.",
+            "Музыка: Kevin MacLeod, лицензия CC BY 4.0"};
+
+    /**
+     * Count of paragraphs in description.
+     */
+    @Param({"10", "100"})
+    public int paragraphs;
+
+    private String description;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < paragraphs; i++)
+        {
+            sb.append(String.format(PARAGRAPHS[random.nextInt(PARAGRAPHS.length)],
+                    random.nextInt(60), random.nextInt(60)));
+            sb.append(random.nextInt(4) == 0 ? "\n\n" : "\n");
+        }
+        description = sb.toString();
+    }
+
+    /**
+     * Removal as it was: separate checks and regular expressions, compiled for every paragraph.
+     */
+    @Benchmark
+    public String legacyRemove()
+    {
+        List<String> result = new LinkedList<>();
+        for(Map.Entry<String, GarbageTextRemover.ParType> parsed : legacyParseParagraphs(
+                GarbageTextRemover.splitToParagraphs(description)).entrySet())
+        {
+            if(parsed.getValue() == GarbageTextRemover.ParType.NORMAL_TEXT ||
+               parsed.getValue() == GarbageTextRemover.ParType.TIMECODES)
+            {
+                result.add(parsed.getKey());
+            }
+        }
+        return String.join("\n", result);
+    }
+
+    /**
+     * Current removal: one pass of {@link ParagraphClassifier} with default rules over every
+     * paragraph.
+     */
+    @Benchmark
+    public String currentRemove()
+    {
+        return GarbageTextRemover.removeGarbageText(description);
+    }
+
+    private static LinkedHashMap<String, GarbageTextRemover.ParType> legacyParseParagraphs(
+            List<String> paragraphs)
+    {
+        LinkedHashMap<String, GarbageTextRemover.ParType> result = new LinkedHashMap<>();
+        for(String par : paragraphs)
+        {
+            if(legacyContainsTimeCode(par))
+            {
+                result.put(par, GarbageTextRemover.ParType.TIMECODES);
+            }
+            else if(EmojiManager.containsEmoji(par))
+            {
+                result.put(par, GarbageTextRemover.ParType.EMOJIS);
+            }
+            else if(par.contains("ДАННОЕ СООБЩЕНИЕ (МАТЕРИАЛ) СОЗДАНО"))
+            {
+                result.put(par, GarbageTextRemover.ParType.ROSKOM_SHIT);
+            }
+            else if(par.contains("#"))
+            {
+                result.put(par, GarbageTextRemover.ParType.HASHTAGS);
+            }
+            else if(legacyContainsMarketing(par))
+            {
+                result.put(par, GarbageTextRemover.ParType.MARKETING);
+            }
+            else
+            {
+                result.put(par, GarbageTextRemover.ParType.NORMAL_TEXT);
+            }
+        }
+        return result;
+    }
+
+    private static boolean legacyContainsTimeCode(String string)
+    {
+        Pattern wrongPattern = Pattern.compile(".*\\d{3}+:\\d{2} ?[-—]?.*", Pattern.DOTALL);
+        Matcher matcher = wrongPattern.matcher(string);
+        if(matcher.matches())
+        {
+            return false;
+        }
+
+        wrongPattern = Pattern.compile(".*\\d{3}+:\\d{2}:\\d{2} ?[-—]?.*", Pattern.DOTALL);
+        matcher = wrongPattern.matcher(string);
+        if(matcher.matches())
+        {
+            return false;
+        }
+
+        Pattern pattern = Pattern.compile(".*\\d{2}:\\d{2} ?[-—]?.*", Pattern.DOTALL);
+        matcher = pattern.matcher(string);
+        return matcher.matches();
+    }
+
+    private static boolean legacyContainsMarketing(String string)
+    {
+        boolean containsLink = string.contains("https://") || string.contains("http://");
+
+        String[] marketingRegexes = new String[]{"[Сс]кидо?к",
+                                                 "[Пп]ромокод"};
+        for(String regex : marketingRegexes)
+        {
+            Pattern pattern = Pattern.compile(".*" + regex + ".*");
+            Matcher matcher = pattern.matcher(string);
+            if(matcher.matches())
+            {
+                return true;
+            }
+        }
+
+        return containsLink;
+    }
+}
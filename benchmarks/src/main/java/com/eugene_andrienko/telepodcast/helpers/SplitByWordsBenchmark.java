@@ -0,0 +1,163 @@
+package com.eugene_andrienko.telepodcast.helpers;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Compares old and new splitting of video descriptions to Telegram messages.
+ *
+ * Descriptions are 5000 characters long, like long descriptions of YouTube videos: words,
+ * line breaks, time codes and links. Run with {@code -prof gc} to see allocation rate:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar SplitByWordsBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SplitByWordsBenchmark
+{
+    static final int DESCRIPTION_LENGTH = 5000;
+
+    /**
+     * Letters of words in description.
+     */
+    public enum Text
+    {
+        LATIN("abcdefghijklmnopqrstuvwxyz"),
+        CYRILLIC("абвгдеёжзийклмнопрстуфхцчшщъыьэюя"),
+        EMOJI("abcабв😀👍🔥🎧📌");
+
+        private final int[] codePoints;
+
+        Text(String letters)
+        {
+            this.codePoints = letters.codePoints().toArray();
+        }
+    }
+
+    @Param
+    public Text text;
+    /**
+     * Limits of media caption and text message in Telegram.
+     */
+    @Param({"1024", "4096"})
+    public int chunkSize;
+
+    private String description;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(DESCRIPTION_LENGTH + 64);
+        while(sb.length() < DESCRIPTION_LENGTH)
+        {
+            switch(random.nextInt(20))
+            {
+                case 0 -> sb.append(String.format("\n%02d:%02d ", random.nextInt(60),
+                        random.nextInt(60)));
+                case 1 -> sb.append("https://www.youtube.com/watch?v=dQw4w9WgXcQ ");
+                default ->
+                {
+                    int wordLength = 2 + random.nextInt(10);
+                    for(int i = 0; i < wordLength; i++)
+                    {
+                        sb.appendCodePoint(
+                                text.codePoints[random.nextInt(text.codePoints.length)]);
+                    }
+                    sb.append(random.nextInt(12) == 0 ? '\n' : ' ');
+                }
+            }
+        }
+        sb.setLength(DESCRIPTION_LENGTH);
+        if(Character.isHighSurrogate(sb.charAt(DESCRIPTION_LENGTH - 1)))
+        {
+            sb.setCharAt(DESCRIPTION_LENGTH - 1, '.');
+        }
+        description = sb.toString();
+    }
+
+    /**
+     * Splitting as it was: array of code points, boxed whitespace checks and rescans.
+     */
+    @Benchmark
+    public List<String> legacySplit()
+    {
+        return legacySplitByWords(description, chunkSize);
+    }
+
+    /**
+     * Current splitting: one pass over characters and substrings.
+     */
+    @Benchmark
+    public List<String> currentSplit()
+    {
+        return SimpleTextHelper.splitByWords(description, chunkSize);
+    }
+
+    private static List<String> legacySplitByWords(String string, int subStringSize)
+    {
+        List<String> result = new LinkedList<>();
+        if(string.length() <= subStringSize)
+        {
+            result.add(string);
+            return result;
+        }
+
+        int[] codePoints = string.codePoints().toArray();
+        StringBuilder sb = new StringBuilder();
+        int previousSpaceIndex = 0;
+        List<Integer> spaceCodePoints = Arrays.asList(
+                " ".codePointAt(0), "\t".codePointAt(0), "\n".codePointAt(0));
+
+        for(int i = 0; i < codePoints.length; i++)
+        {
+            int codePoint = codePoints[i];
+            boolean spaceAtIndex = spaceCodePoints.contains(codePoint);
+            if(spaceAtIndex)
+            {
+                previousSpaceIndex = i;
+            }
+
+            sb.appendCodePoint(codePoint);
+
+            if(sb.length() >= subStringSize)
+            {
+                int lastFoundSpaceIndex;
+                if(spaceAtIndex)
+                {
+                    lastFoundSpaceIndex = sb.length() - 1;
+                }
+                else
+                {
+                    lastFoundSpaceIndex = sb.length() - i + previousSpaceIndex - 1;
+                }
+                if(lastFoundSpaceIndex > 0)
+                {
+                    sb.delete(lastFoundSpaceIndex, sb.length());
+                    i = previousSpaceIndex;
+                }
+                if(sb.length() > 0)
+                {
+                    result.add(sb.toString());
+                }
+                sb.setLength(0);
+            }
+        }
+
+        if(sb.length() > 0)
+        {
+            result.add(sb.toString());
+        }
+        return result;
+    }
+}
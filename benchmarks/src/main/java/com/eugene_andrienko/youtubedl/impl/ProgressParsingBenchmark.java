@@ -0,0 +1,142 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Compares old and new consumers of yt-dlp output.
+ *
+ * Output contains progress of one download with {@code --newline} (one line per 0.1%) and path
+ * to the downloaded file. Results are normalized per line. Run with {@code -prof gc} to see
+ * allocation rate:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar ProgressParsingBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ProgressParsingBenchmark.LINES)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProgressParsingBenchmark
+{
+    static final int LINES = 1001;
+    private static final String URL = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+
+    private String output;
+    private RewindableReader rewindableReader;
+    private LineReader lineReader;
+    private final AtomicInteger progressHolder = new AtomicInteger();
+    private final ConcurrentMap<String, Float> legacyProgressTable = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setup()
+    {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 1; i < LINES; i++)
+        {
+            sb.append(String.format("%5.1f%%", i / 10.0f)).append('\n');
+        }
+        sb.append("/tmp/telepodcast1234567890/Some video title.mp3").append('\n');
+        output = sb.toString();
+        rewindableReader = new RewindableReader(output.toCharArray());
+        lineReader = new LineReader(rewindableReader);
+    }
+
+    /**
+     * Consumer as it was: regular expression compiled for every line and boxed progress.
+     */
+    @Benchmark
+    public String legacyConsumer() throws IOException
+    {
+        BufferedReader br = new BufferedReader(new StringReader(output));
+        String downloadedFilePath = "";
+        String line;
+        while((line = br.readLine()) != null)
+        {
+            Pattern progressPattern = Pattern.compile("\\s*(\\d+\\.?\\d+)%");
+            Matcher matcher = progressPattern.matcher(line);
+            if(matcher.matches())
+            {
+                float progress = Float.parseFloat(matcher.group(1));
+                legacyProgressTable.put(URL, progress);
+            }
+            else
+            {
+                downloadedFilePath = line;
+            }
+        }
+        return downloadedFilePath;
+    }
+
+    /**
+     * Current consumer: reused line buffer, hand-written parser and primitive progress.
+     */
+    @Benchmark
+    public String currentConsumer() throws IOException
+    {
+        rewindableReader.rewind();
+        String downloadedFilePath = "";
+        int lineLength;
+        while((lineLength = lineReader.readLine()) >= 0)
+        {
+            int progress = ProgressParser.parseBasisPoints(lineReader.getLine(), lineLength);
+            if(progress == ProgressParser.NOT_PROGRESS)
+            {
+                downloadedFilePath = lineReader.getLineAsString();
+                continue;
+            }
+            progressHolder.setRelease(progress);
+        }
+        return downloadedFilePath;
+    }
+
+    /**
+     * Reader over characters array, which can be read again without new allocations.
+     */
+    private static final class RewindableReader extends Reader
+    {
+        private final char[] data;
+        private int position = 0;
+
+        RewindableReader(char[] data)
+        {
+            this.data = data;
+        }
+
+        void rewind()
+        {
+            position = 0;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length)
+        {
+            if(position >= data.length)
+            {
+                return -1;
+            }
+            int count = Math.min(length, data.length - position);
+            System.arraycopy(data, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import com.eugene_andrienko.benchmarks.Fixtures;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Consuming of whole yt-dlp output of one download by {@link DownloadOutput}, as
+ * {@code YtDlp} does it: lines of progress with throttled publishing and path to the
+ * downloaded file.
+ *
+ * Outputs are taken from {@code fixtures/ytdlp}: download of audio and download of video with
+ * separate audio track (two passes from 0% to 100%). Progress lines follow block sizes of
+ * yt-dlp: small blocks at the start, then growing and shrinking with speed.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar RecordedProgressBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordedProgressBenchmark
+{
+    /**
+     * Name of output in {@code fixtures/ytdlp}.
+     */
+    @Param({"audio", "video"})
+    public String fixture;
+
+    private String output;
+    private final AtomicInteger progressHolder = new AtomicInteger();
+
+    @Setup
+    public void setup()
+    {
+        output = Fixtures.read("ytdlp/" + fixture + ".txt");
+    }
+
+    @Benchmark
+    public String consume() throws IOException
+    {
+        DownloadOutput downloadOutput = new DownloadOutput(new StringReader(output),
+                progressHolder);
+        if(downloadOutput.readTillEncoding())
+        {
+            downloadOutput.readTillEnd();
+        }
+        return downloadOutput.getDownloadedFilePath();
+    }
+}
@@ -0,0 +1,114 @@
+#!/bin/bash
+# Fake yt-dlp, lame and ffmpeg for load tests of telepodcast.
+#
+# Script is installed under names of real tools into one directory, tool is selected by the
+# name it is called with. Settings are read from fake-tools.conf in the same directory,
+# description of video — from info.json there. Downloads print progress lines, as yt-dlp does
+# with progress template of telepodcast, and create sparse files of configured size.
+
+dir=$(dirname "$0")
+tool=$(basename "$0")
+
+# Defaults, overridden by fake-tools.conf:
+TITLE_SECONDS=0.3       # extraction of title
+AUDIO_KIB=20480         # size of downloaded audio
+VIDEO_KIB=102400        # size of downloaded video (two passes: video and audio tracks)
+SPEED_KIB=4096          # speed of one download, if --limit-rate is not lower
+PROGRESS_LINES=100      # progress lines per pass
+ENCODE_SECONDS=0.5      # post-processing by yt-dlp after download
+LAME_SECONDS=1          # increasing of volume by lame
+FAIL_PERCENT=0          # downloads failing after progress
+[ -f "$dir/fake-tools.conf" ] && . "$dir/fake-tools.conf"
+
+has()
+{
+    local arg
+    for arg in "${args[@]}"
+    do
+        [ "$arg" = "$1" ] && return 0
+    done
+    return 1
+}
+
+# Prints progress of one pass from 0% to 100% at given rate:
+progress()
+{
+    local size=$1 rate=$2 step i tenths
+    step=$(awk -v size="$size" -v rate="$rate" -v lines="$PROGRESS_LINES" \
+               'BEGIN { printf "%.3f", size / rate / lines }')
+    printf '  0.0%%\n'
+    for((i = 1; i <= PROGRESS_LINES; i++))
+    do
+        sleep "$step"
+        tenths=$((i * 1000 / PROGRESS_LINES))
+        printf '%3d.%d%%\n' $((tenths / 10)) $((tenths % 10))
+    done
+}
+
+download()
+{
+    local url=${args[-1]} rate=$((SPEED_KIB * 1024)) kib=$AUDIO_KIB ext=mp3 passes=1 i
+    for((i = 0; i < ${#args[@]} - 1; i++))
+    do
+        if [ "${args[i]}" = "--limit-rate" ] && [ "${args[i + 1]}" -lt "$rate" ]
+        then
+            rate=${args[i + 1]}
+        fi
+    done
+    if ! has --extract-audio
+    then
+        kib=$VIDEO_KIB
+        ext=mp4
+        passes=2
+    fi
+
+    for((i = 0; i < passes; i++))
+    do
+        progress $((kib * 1024 / passes)) "$rate"
+    done
+    if [ $((RANDOM % 100)) -lt "$FAIL_PERCENT" ]
+    then
+        echo "ERROR: fake failure of $url" >&2
+        exit 1
+    fi
+    sleep "$ENCODE_SECONDS"
+
+    local title="Episode ${url##*=}"
+    truncate -s $((kib * 1024)) "$title.$ext"
+    cp "$dir/info.json" "$title.info.json"
+    echo "$PWD/$title.$ext"
+}
+
+args=("$@")
+case "$tool" in
+    yt-dlp)
+        if has --help
+        then
+            exit 0
+        elif has --get-comments
+        then
+            echo "[]"
+        elif has --flat-playlist
+        then
+            exit 0
+        elif has --simulate
+        then
+            sleep "$TITLE_SECONDS"
+            echo "Episode ${args[-1]##*=}"
+        else
+            download
+        fi
+        ;;
+    lame)
+        has --help && exit 0
+        sleep "$LAME_SECONDS"
+        cp "${args[-1]}" "${args[-1]}.mp3"
+        ;;
+    ffmpeg)
+        exit 0
+        ;;
+    *)
+        echo "Unknown fake tool: $tool" >&2
+        exit 127
+        ;;
+esac
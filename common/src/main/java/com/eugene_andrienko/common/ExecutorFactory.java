@@ -0,0 +1,219 @@
+package com.eugene_andrienko.common;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Creates executors for blocking tasks: supervision of external processes, waiting for
+ * progress, calls to Telegram.
+ *
+ * If program runs on Java 21 or newer — every task is executed in its own virtual thread, so
+ * blocked tasks do not hold platform threads. On older Java, platform threads are used.
+ * Virtual threads can be disabled with {@code -Dtelepodcast.virtualThreads=false}.
+ */
+@Log4j2
+public final class ExecutorFactory
+{
+    private static final String VIRTUAL_THREADS_PROPERTY = "telepodcast.virtualThreads";
+    private static final Method OF_VIRTUAL = findVirtualThreadsSupport();
+
+    private ExecutorFactory()
+    {
+    }
+
+    /**
+     * Are virtual threads used for new executors.
+     *
+     * @return {@code True} if virtual threads are used.
+     */
+    public static boolean isVirtualThreadsUsed()
+    {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates executor without limit of simultaneously running tasks.
+     *
+     * @param name Prefix for names of threads
+     *
+     * @return Executor with new virtual thread for every task or with cached pool of platform
+     * threads.
+     */
+    public static ExecutorService newUnboundedExecutor(String name)
+    {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor(name);
+        if(executor != null)
+        {
+            return executor;
+        }
+        return Executors.newCachedThreadPool(new PlatformThreadFactory(name));
+    }
+
+    /**
+     * Creates executor with limit of simultaneously running tasks.
+     *
+     * Tasks over limit wait for their turn. For virtual threads — limit is applied by
+     * semaphore, so waiting tasks do not hold platform threads.
+     *
+     * @param name  Prefix for names of threads
+     * @param limit Maximal count of simultaneously running tasks
+     *
+     * @return Executor with limited concurrency.
+     */
+    public static ExecutorService newLimitedExecutor(String name, int limit)
+    {
+        if(limit < 1)
+        {
+            log.error("Got {} as concurrency limit", limit);
+            throw new IllegalArgumentException("Concurrency limit < 1");
+        }
+        ExecutorService executor = newVirtualThreadPerTaskExecutor(name);
+        if(executor != null)
+        {
+            return new LimitedExecutorService(executor, limit);
+        }
+        return Executors.newFixedThreadPool(limit, new PlatformThreadFactory(name));
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String name)
+    {
+        if(OF_VIRTUAL == null)
+        {
+            return null;
+        }
+        try
+        {
+            // Thread.ofVirtual().name(name + "-", 1).factory():
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class)
+                                  .invoke(builder, name + "-", 1L);
+            ThreadFactory factory = (ThreadFactory)builderClass.getMethod("factory")
+                                                               .invoke(builder);
+            return (ExecutorService)Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        }
+        catch(ReflectiveOperationException ex)
+        {
+            log.error("Failed to create executor with virtual threads");
+            log.debug("Exception: ", ex);
+            return null;
+        }
+    }
+
+    private static Method findVirtualThreadsSupport()
+    {
+        if(!Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS_PROPERTY, "true")))
+        {
+            log.debug("Virtual threads are disabled");
+            return null;
+        }
+        try
+        {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            log.debug("Virtual threads are available");
+            return ofVirtual;
+        }
+        catch(NoSuchMethodException ex)
+        {
+            log.debug("Virtual threads are not available — using platform threads");
+            return null;
+        }
+    }
+
+    /**
+     * Creates named daemon platform threads.
+     */
+    private static class PlatformThreadFactory implements ThreadFactory
+    {
+        private final String name;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        PlatformThreadFactory(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Executor which runs not more than given count of tasks simultaneously.
+     */
+    private static class LimitedExecutorService extends AbstractExecutorService
+    {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+
+        LimitedExecutorService(ExecutorService executor, int limit)
+        {
+            this.executor = executor;
+            this.permits = new Semaphore(limit, true);
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            executor.execute(() -> {
+                try
+                {
+                    permits.acquire();
+                }
+                catch(InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try
+                {
+                    command.run();
+                }
+                finally
+                {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown()
+        {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow()
+        {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown()
+        {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated()
+        {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+        {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+module telepodcast.common {
+    exports com.eugene_andrienko.common;
+    requires org.apache.logging.log4j;
+    requires lombok;
+}
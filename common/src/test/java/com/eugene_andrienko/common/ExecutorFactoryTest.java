@@ -0,0 +1,58 @@
+package com.eugene_andrienko.common;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ExecutorFactoryTest
+{
+    @Test
+    @DisplayName("Limited executor does not exceed concurrency limit")
+    @SneakyThrows
+    void limitedExecutorTest()
+    {
+        final int LIMIT = 2;
+        final int TASKS = 20;
+        ExecutorService executor = ExecutorFactory.newLimitedExecutor("test", LIMIT);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(TASKS);
+
+        for(int i = 0; i < TASKS; i++)
+        {
+            executor.execute(() -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                try
+                {
+                    Thread.sleep(10);
+                }
+                catch(InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Not all tasks are completed");
+        assertTrue(maxRunning.get() <= LIMIT, "Concurrency limit exceeded");
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Wrong concurrency limit")
+    void wrongLimitTest()
+    {
+        assertThrows(IllegalArgumentException.class,
+                () -> ExecutorFactory.newLimitedExecutor("test", 0));
+    }
+}
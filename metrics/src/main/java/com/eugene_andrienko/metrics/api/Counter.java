@@ -0,0 +1,49 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Monotonic counter: count of events or bytes.
+ */
+public final class Counter extends Metric
+{
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String help, String[] labels)
+    {
+        super(name, help, labels);
+    }
+
+    @Override
+    public Type getType()
+    {
+        return Type.COUNTER;
+    }
+
+    /**
+     * Counts one event.
+     */
+    public void inc()
+    {
+        add(1);
+    }
+
+    /**
+     * Adds value to counter.
+     *
+     * @param delta Non-negative value
+     */
+    public void add(long delta)
+    {
+        if(Metrics.isEnabled())
+        {
+            value.add(delta);
+        }
+    }
+
+    public long getValue()
+    {
+        return value.sum();
+    }
+}
@@ -0,0 +1,43 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Current value: depth of queue, count of running jobs.
+ *
+ * Gauge either is changed by the program, or reads value from the program on export.
+ */
+public final class Gauge extends Metric
+{
+    private final LongAdder value = new LongAdder();
+    private final LongSupplier supplier;
+
+    Gauge(String name, String help, LongSupplier supplier, String[] labels)
+    {
+        super(name, help, labels);
+        this.supplier = supplier;
+    }
+
+    @Override
+    public Type getType()
+    {
+        return Type.GAUGE;
+    }
+
+    public void inc()
+    {
+        value.increment();
+    }
+
+    public void dec()
+    {
+        value.decrement();
+    }
+
+    public long getValue()
+    {
+        return supplier == null ? value.sum() : supplier.getAsLong();
+    }
+}
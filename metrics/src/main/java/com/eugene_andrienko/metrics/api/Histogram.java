@@ -0,0 +1,83 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Distribution of values by fixed buckets, as Prometheus histogram.
+ */
+public class Histogram extends Metric
+{
+    private final double[] buckets;
+    // The last one — for values over the last bucket:
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram(String name, String help, double[] buckets, String[] labels)
+    {
+        super(name, help, labels);
+        this.buckets = buckets.clone();
+        this.counts = new LongAdder[buckets.length + 1];
+        for(int i = 0; i < counts.length; i++)
+        {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public Type getType()
+    {
+        return Type.HISTOGRAM;
+    }
+
+    /**
+     * Records value.
+     *
+     * @param value Value
+     */
+    public void observe(double value)
+    {
+        if(!Metrics.isEnabled())
+        {
+            return;
+        }
+        int bucket = Arrays.binarySearch(buckets, value);
+        counts[bucket >= 0 ? bucket : -bucket - 1].increment();
+        sum.add(value);
+    }
+
+    /**
+     * Returns upper bounds of buckets.
+     *
+     * @return Bounds, ascending. Implicit {@code +Inf} bucket is not included.
+     */
+    public double[] getBuckets()
+    {
+        return buckets.clone();
+    }
+
+    /**
+     * Returns cumulative counts of buckets.
+     *
+     * @return Count of values not greater than bound of bucket, the last element — count of all
+     * values ({@code +Inf} bucket).
+     */
+    public long[] getCumulativeCounts()
+    {
+        long[] result = new long[counts.length];
+        long total = 0;
+        for(int i = 0; i < counts.length; i++)
+        {
+            total += counts[i].sum();
+            result[i] = total;
+        }
+        return result;
+    }
+
+    public double getSum()
+    {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,61 @@
+package com.eugene_andrienko.metrics.api;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Common part of metrics: name, description and labels.
+ */
+@Getter
+@Log4j2
+public abstract class Metric
+{
+    /**
+     * Type of metric, as in Prometheus.
+     */
+    public enum Type
+    {
+        COUNTER, GAUGE, HISTOGRAM
+    }
+
+    private final String name;
+    private final String help;
+    /**
+     * Labels in Prometheus format without braces: {@code stage="download"}. Empty if no labels.
+     */
+    private final String labels;
+
+    Metric(String name, String help, String[] labels)
+    {
+        if(labels.length % 2 != 0)
+        {
+            log.error("Odd count of labels of metric {}", name);
+            throw new IllegalArgumentException("Labels should be pairs of name and value");
+        }
+        this.name = name;
+        this.help = help;
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < labels.length; i += 2)
+        {
+            if(i > 0)
+            {
+                builder.append(',');
+            }
+            builder.append(labels[i]).append("=\"").append(labels[i + 1]).append('"');
+        }
+        this.labels = builder.toString();
+    }
+
+    public abstract Type getType();
+
+    /**
+     * Returns name with labels, as it is shown in exports.
+     *
+     * @return Name and labels in braces, if there are labels.
+     */
+    public String getKey()
+    {
+        return labels.isEmpty() ? name : name + "{" + labels + "}";
+    }
+}
@@ -0,0 +1,161 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Registry of metrics of the program.
+ *
+ * Metrics are created once — usually in static fields of instrumented classes, and then
+ * recorded without locks. Recording of counters and histograms is skipped until metrics are
+ * enabled, so instrumented code costs one read of flag if no exporter is configured. Gauges
+ * are always tracked: they are changed in pairs (queued — started) and must not skip half of
+ * pair.
+ *
+ * Metric is identified by name and labels. Metrics with the same name and different labels
+ * are one metric family, for example durations of stages:
+ * {@code Metrics.timer("telepodcast_stage_seconds", "...", "stage", "download")}.
+ */
+@Log4j2
+public final class Metrics
+{
+    private static volatile boolean enabled = false;
+    // Sorted by names, so metrics of one family are adjacent:
+    private static final ConcurrentNavigableMap<String, Metric> METRICS =
+            new ConcurrentSkipListMap<>();
+
+    private Metrics()
+    {
+    }
+
+    /**
+     * Enables recording of metrics.
+     */
+    public static void enable()
+    {
+        log.debug("Metrics are enabled");
+        enabled = true;
+    }
+
+    /**
+     * Disables recording of metrics. For tests.
+     */
+    static void disable()
+    {
+        enabled = false;
+    }
+
+    /**
+     * Checks what metrics are recorded.
+     *
+     * @return {@code True} if metrics are enabled.
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Returns counter, creates it on the first call.
+     *
+     * @param name   Name of metric, should end with {@code _total}
+     * @param help   Description of metric
+     * @param labels Pairs of label name and value
+     *
+     * @return Counter.
+     */
+    public static Counter counter(String name, String help, String... labels)
+    {
+        return register(new Counter(name, help, labels), Counter.class);
+    }
+
+    /**
+     * Returns gauge, changed by the program, creates it on the first call.
+     *
+     * @param name   Name of metric
+     * @param help   Description of metric
+     * @param labels Pairs of label name and value
+     *
+     * @return Gauge.
+     */
+    public static Gauge gauge(String name, String help, String... labels)
+    {
+        return register(new Gauge(name, help, null, labels), Gauge.class);
+    }
+
+    /**
+     * Registers gauge, which value is read from the program on export. Replaces gauge with the
+     * same name and labels — the last created object is watched.
+     *
+     * @param name   Name of metric
+     * @param help   Description of metric
+     * @param value  Source of value
+     * @param labels Pairs of label name and value
+     */
+    public static void gauge(String name, String help, LongSupplier value, String... labels)
+    {
+        Gauge gauge = new Gauge(name, help, value, labels);
+        METRICS.put(gauge.getKey(), gauge);
+    }
+
+    /**
+     * Returns histogram, creates it on the first call.
+     *
+     * @param name    Name of metric
+     * @param help    Description of metric
+     * @param buckets Upper bounds of buckets, ascending
+     * @param labels  Pairs of label name and value
+     *
+     * @return Histogram.
+     */
+    public static Histogram histogram(String name, String help, double[] buckets,
+            String... labels)
+    {
+        return register(new Histogram(name, help, buckets, labels), Histogram.class);
+    }
+
+    /**
+     * Returns histogram of durations in seconds, creates it on the first call.
+     *
+     * @param name   Name of metric, should end with {@code _seconds}
+     * @param help   Description of metric
+     * @param labels Pairs of label name and value
+     *
+     * @return Timer.
+     */
+    public static Timer timer(String name, String help, String... labels)
+    {
+        return register(new Timer(name, help, labels), Timer.class);
+    }
+
+    /**
+     * Returns all metrics.
+     *
+     * @return Metrics sorted by names.
+     */
+    public static List<Metric> getMetrics()
+    {
+        return new ArrayList<>(METRICS.values());
+    }
+
+    private static <T extends Metric> T register(T metric, Class<T> type)
+    {
+        Metric registered = METRICS.putIfAbsent(metric.getKey(), metric);
+        if(registered == null)
+        {
+            return metric;
+        }
+        if(!type.isInstance(registered))
+        {
+            log.error("Metric {} is already registered as {}", metric.getKey(),
+                    registered.getType());
+            throw new IllegalArgumentException("Metric type mismatch: " + metric.getKey());
+        }
+        return type.cast(registered);
+    }
+}
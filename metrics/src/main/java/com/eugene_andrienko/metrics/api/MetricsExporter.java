@@ -0,0 +1,23 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.io.IOException;
+
+
+/**
+ * Exporter of metrics from {@link Metrics}. Closing stops export.
+ */
+public interface MetricsExporter extends AutoCloseable
+{
+    /**
+     * Starts export.
+     *
+     * @throws IOException Failed to start export.
+     */
+    void start() throws IOException;
+
+    /**
+     * Stops export.
+     */
+    @Override
+    void close();
+}
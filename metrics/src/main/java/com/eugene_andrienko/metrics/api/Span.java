@@ -0,0 +1,77 @@
+package com.eugene_andrienko.metrics.api;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+
+/**
+ * Stage of job: name, job and time from creation till closing.
+ * <pre>
+ * try(Span span = Tracing.span(url, "download"))
+ * {
+ *     ...
+ * }
+ * </pre>
+ * Span is closed once, the next calls of {@link #close()} are ignored. So span can be closed
+ * early, inside of {@code try} block.
+ */
+@Getter
+public final class Span implements AutoCloseable
+{
+    /**
+     * Span returned while tracing is disabled — records nothing.
+     */
+    static final Span NOOP = new Span(null, null, 0, false, null);
+
+    private final String name;
+    /**
+     * Job key — URL of video, {@code null} if span is not related to any job.
+     */
+    private final String job;
+    /**
+     * Number of job in trace, {@code 0} if span is not related to any job.
+     */
+    private final int jobId;
+    private final long threadId;
+    private final String threadName;
+    /**
+     * Start and end of span, in terms of {@link System#nanoTime()}.
+     */
+    private final long start;
+    private long end = 0;
+    @Getter(AccessLevel.NONE)
+    private final boolean scope;
+    @Getter(AccessLevel.NONE)
+    private final String previousJob;
+
+    Span(String name, String job, int jobId, boolean scope, String previousJob)
+    {
+        Thread thread = Thread.currentThread();
+        this.name = name;
+        this.job = job;
+        this.jobId = jobId;
+        this.threadId = thread.getId();
+        this.threadName = thread.getName();
+        this.scope = scope;
+        this.previousJob = previousJob;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Ends span and exports it.
+     */
+    @Override
+    public void close()
+    {
+        if(this == NOOP || end != 0)
+        {
+            return;
+        }
+        end = System.nanoTime();
+        if(scope)
+        {
+            Tracing.setCurrentJob(previousJob);
+        }
+        Tracing.finish(this);
+    }
+}
@@ -0,0 +1,56 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Histogram of durations in seconds — from tenth of second till an hour.
+ * <pre>
+ * long start = TIMER.start();
+ * ...
+ * TIMER.record(start);
+ * </pre>
+ */
+public final class Timer extends Histogram
+{
+    private static final double[] BUCKETS =
+            {0.1, 0.5, 1, 5, 15, 30, 60, 120, 300, 600, 1200, 1800, 3600};
+
+    Timer(String name, String help, String[] labels)
+    {
+        super(name, help, BUCKETS, labels);
+    }
+
+    /**
+     * Starts measurement.
+     *
+     * @return Start time for {@link #record(long)}, {@code 0} if metrics are disabled.
+     */
+    public long start()
+    {
+        return Metrics.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records duration from the start.
+     *
+     * @param start Result of {@link #start()}
+     */
+    public void record(long start)
+    {
+        if(start != 0)
+        {
+            recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records duration.
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void recordNanos(long nanos)
+    {
+        observe((double)nanos / TimeUnit.SECONDS.toNanos(1));
+    }
+}
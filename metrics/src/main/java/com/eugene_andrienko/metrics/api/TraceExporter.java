@@ -0,0 +1,21 @@
+package com.eugene_andrienko.metrics.api;
+
+
+/**
+ * Receiver of finished spans from {@link Tracing}. Closing stops export.
+ */
+public interface TraceExporter extends AutoCloseable
+{
+    /**
+     * Exports finished span. Called from threads of jobs, so should be fast.
+     *
+     * @param span Finished span
+     */
+    void export(Span span);
+
+    /**
+     * Stops export.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,142 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Per-job tracing of the program.
+ *
+ * Job is identified by URL of video and gets a number on the first span. Job span, opened by
+ * {@link #job(String)}, makes job current for its thread — spans opened in this thread by
+ * {@link #span(String)} belong to the job. Threads, which serve many jobs (downloaders), pass
+ * job explicitly to {@link #span(String, String)}.
+ *
+ * Until tracing is enabled, spans are not created and instrumented code costs one read of
+ * exporter.
+ */
+@Log4j2
+public final class Tracing
+{
+    private static volatile TraceExporter exporter = null;
+    private static final ConcurrentMap<String, Integer> JOB_IDS = new ConcurrentHashMap<>();
+    private static final AtomicInteger lastJobId = new AtomicInteger(0);
+    private static final ThreadLocal<String> currentJob = new ThreadLocal<>();
+
+    private Tracing()
+    {
+    }
+
+    /**
+     * Enables tracing.
+     *
+     * @param exporter Receiver of finished spans
+     */
+    public static void enable(TraceExporter exporter)
+    {
+        log.debug("Tracing is enabled");
+        Tracing.exporter = exporter;
+    }
+
+    /**
+     * Disables tracing. Exporter is not closed.
+     */
+    public static void disable()
+    {
+        exporter = null;
+    }
+
+    /**
+     * Checks what spans are recorded.
+     *
+     * @return {@code True} if tracing is enabled.
+     */
+    public static boolean isEnabled()
+    {
+        return exporter != null;
+    }
+
+    /**
+     * Opens span of the whole job and makes job current for the thread till span is closed.
+     *
+     * @param job URL of video
+     *
+     * @return Span named {@code job}.
+     */
+    public static Span job(String job)
+    {
+        if(exporter == null)
+        {
+            return Span.NOOP;
+        }
+        Span span = new Span("job", job, getJobId(job), true, currentJob.get());
+        currentJob.set(job);
+        return span;
+    }
+
+    /**
+     * Opens span of the current job of the thread.
+     *
+     * @param name Name of stage
+     *
+     * @return Span, not related to any job if thread has no current job.
+     */
+    public static Span span(String name)
+    {
+        if(exporter == null)
+        {
+            return Span.NOOP;
+        }
+        String job = currentJob.get();
+        return new Span(name, job, getJobId(job), false, null);
+    }
+
+    /**
+     * Opens span of given job.
+     *
+     * @param job  URL of video
+     * @param name Name of stage
+     *
+     * @return Span.
+     */
+    public static Span span(String job, String name)
+    {
+        if(exporter == null)
+        {
+            return Span.NOOP;
+        }
+        return new Span(name, job, getJobId(job), false, null);
+    }
+
+    static void setCurrentJob(String job)
+    {
+        if(job == null)
+        {
+            currentJob.remove();
+        }
+        else
+        {
+            currentJob.set(job);
+        }
+    }
+
+    static void finish(Span span)
+    {
+        TraceExporter current = exporter;
+        if(current != null)
+        {
+            current.export(span);
+        }
+    }
+
+    private static int getJobId(String job)
+    {
+        if(job == null)
+        {
+            return 0;
+        }
+        return JOB_IDS.computeIfAbsent(job, key -> lastJobId.incrementAndGet());
+    }
+}
@@ -0,0 +1,143 @@
+package com.eugene_andrienko.metrics.impl;
+
+import com.eugene_andrienko.metrics.api.Span;
+import com.eugene_andrienko.metrics.api.TraceExporter;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Writes spans to file in Chrome trace event format.
+ *
+ * File can be opened in {@code https://ui.perfetto.dev} or {@code chrome://tracing}: every job
+ * is shown as a process named by its URL, with one row per thread, which worked on the job.
+ * Spans are written as they finish, so the trace of a crashed run is readable too — the
+ * closing bracket of the event array is optional in this format.
+ */
+@Log4j2
+public class ChromeTraceExporter implements TraceExporter
+{
+    private final BufferedWriter writer;
+    private final long origin = System.nanoTime();
+    private final Set<Integer> namedJobs = new HashSet<>();
+    private final Set<String> namedThreads = new HashSet<>();
+    private boolean first = true;
+    private boolean failed = false;
+
+    /**
+     * Creates exporter.
+     *
+     * @param file File for trace, overwritten if exists
+     *
+     * @throws IOException Failed to create file.
+     */
+    public ChromeTraceExporter(File file) throws IOException
+    {
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        writer.write("[");
+    }
+
+    @Override
+    public synchronized void export(Span span)
+    {
+        if(failed)
+        {
+            return;
+        }
+        try
+        {
+            int jobId = span.getJobId();
+            if(namedJobs.add(jobId))
+            {
+                write(metadata("process_name", jobId, 0,
+                        jobId == 0 ? "No job" : jobId + " " + span.getJob()));
+            }
+            if(namedThreads.add(jobId + ":" + span.getThreadId()))
+            {
+                write(metadata("thread_name", jobId, span.getThreadId(), span.getThreadName()));
+            }
+            write(event(span));
+            writer.flush();
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to write trace, tracing is stopped: ", ex);
+            failed = true;
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        try(writer)
+        {
+            writer.write("\n]\n");
+        }
+        catch(IOException ex)
+        {
+            log.error("Failed to close trace: ", ex);
+        }
+    }
+
+    private void write(String event) throws IOException
+    {
+        writer.write(first ? "\n" : ",\n");
+        writer.write(event);
+        first = false;
+    }
+
+    /**
+     * Formats span as complete event.
+     *
+     * @param span Finished span
+     *
+     * @return JSON object of event, times are in microseconds from creation of exporter.
+     */
+    String event(Span span)
+    {
+        return String.format("{\"name\":%s,\"ph\":\"X\",\"ts\":%d,\"dur\":%d,\"pid\":%d," +
+                             "\"tid\":%d}", quote(span.getName()),
+                (span.getStart() - origin) / 1000, (span.getEnd() - span.getStart()) / 1000,
+                span.getJobId(), span.getThreadId());
+    }
+
+    private static String metadata(String type, int pid, long tid, String name)
+    {
+        return String.format("{\"name\":\"%s\",\"ph\":\"M\",\"pid\":%d,\"tid\":%d," +
+                             "\"args\":{\"name\":%s}}", type, pid, tid, quote(name));
+    }
+
+    /**
+     * Quotes string for JSON.
+     *
+     * @param string String
+     *
+     * @return String in quotes with escaped quotes, backslashes and control characters.
+     */
+    static String quote(String string)
+    {
+        StringBuilder builder = new StringBuilder(string.length() + 2).append('"');
+        for(char c : string.toCharArray())
+        {
+            if(c == '"' || c == '\\')
+            {
+                builder.append('\\').append(c);
+            }
+            else if(c < 0x20)
+            {
+                builder.append(String.format("\\u%04x", (int)c));
+            }
+            else
+            {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
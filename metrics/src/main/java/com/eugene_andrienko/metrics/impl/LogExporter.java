@@ -0,0 +1,104 @@
+package com.eugene_andrienko.metrics.impl;
+
+import com.eugene_andrienko.metrics.api.Counter;
+import com.eugene_andrienko.metrics.api.Gauge;
+import com.eugene_andrienko.metrics.api.Histogram;
+import com.eugene_andrienko.metrics.api.Metric;
+import com.eugene_andrienko.metrics.api.Metrics;
+import com.eugene_andrienko.metrics.api.MetricsExporter;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Writes metrics to the log periodically and once more on close.
+ *
+ * One line per metric: value of counter or gauge, count, sum and average of histogram. Metrics
+ * without values are skipped.
+ */
+@Log4j2
+public class LogExporter implements MetricsExporter
+{
+    private final Duration interval;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "metrics-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Creates exporter.
+     *
+     * @param interval Interval between writes
+     */
+    public LogExporter(Duration interval)
+    {
+        this.interval = interval;
+    }
+
+    @Override
+    public void start()
+    {
+        executor.scheduleAtFixedRate(this::dump, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+        dump();
+    }
+
+    private void dump()
+    {
+        List<String> lines = format(Metrics.getMetrics());
+        if(lines.isEmpty())
+        {
+            return;
+        }
+        log.info("Metrics:\n{}", String.join("\n", lines));
+    }
+
+    /**
+     * Formats metrics for log.
+     *
+     * @param metrics Metrics
+     *
+     * @return Lines with metrics, which have values.
+     */
+    static List<String> format(List<Metric> metrics)
+    {
+        return metrics.stream().map(LogExporter::format).filter(line -> !line.isEmpty())
+                      .toList();
+    }
+
+    private static String format(Metric metric)
+    {
+        switch(metric.getType())
+        {
+            case COUNTER:
+                long count = ((Counter)metric).getValue();
+                return count == 0 ? "" : metric.getKey() + " " + count;
+            case GAUGE:
+                return metric.getKey() + " " + ((Gauge)metric).getValue();
+            case HISTOGRAM:
+                Histogram histogram = (Histogram)metric;
+                long[] counts = histogram.getCumulativeCounts();
+                long total = counts[counts.length - 1];
+                if(total == 0)
+                {
+                    return "";
+                }
+                return String.format("%s count=%d sum=%.3f avg=%.3f", metric.getKey(), total,
+                        histogram.getSum(), histogram.getSum() / total);
+            default:
+                return "";
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.eugene_andrienko.metrics.impl;
+
+import com.eugene_andrienko.metrics.api.Metrics;
+import com.eugene_andrienko.metrics.api.MetricsExporter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Serves metrics in Prometheus text format at {@code http://127.0.0.1:PORT/metrics}.
+ *
+ * Server listens only on loopback interface — metrics are for local Prometheus or curl.
+ */
+@Log4j2
+public class PrometheusExporter implements MetricsExporter
+{
+    private final int port;
+    private HttpServer server;
+
+    /**
+     * Creates exporter.
+     *
+     * @param port Local port, {@code 0} — any free port.
+     */
+    public PrometheusExporter(int port)
+    {
+        this.port = port;
+    }
+
+    @Override
+    public void start() throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                0);
+        server.createContext("/metrics", this::handle);
+        // One request at a time is enough, metrics are formatted fast:
+        server.setExecutor(null);
+        server.start();
+        log.info("Metrics are served at http://127.0.0.1:{}/metrics", getPort());
+    }
+
+    /**
+     * Returns port of server.
+     *
+     * @return Port, which server listens.
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        try(exchange)
+        {
+            if(!"GET".equals(exchange.getRequestMethod()))
+            {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = PrometheusFormat.format(Metrics.getMetrics())
+                                          .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusFormat.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try(OutputStream os = exchange.getResponseBody())
+            {
+                os.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if(server != null)
+        {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.eugene_andrienko.metrics.impl;
+
+import com.eugene_andrienko.metrics.api.Counter;
+import com.eugene_andrienko.metrics.api.Gauge;
+import com.eugene_andrienko.metrics.api.Histogram;
+import com.eugene_andrienko.metrics.api.Metric;
+import java.util.List;
+
+
+/**
+ * Writer of metrics in Prometheus text format (version 0.0.4).
+ */
+final class PrometheusFormat
+{
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusFormat()
+    {
+    }
+
+    /**
+     * Formats metrics.
+     *
+     * @param metrics Metrics sorted by names
+     *
+     * @return Text for Prometheus.
+     */
+    static String format(List<Metric> metrics)
+    {
+        StringBuilder builder = new StringBuilder();
+        String family = null;
+        for(Metric metric : metrics)
+        {
+            if(!metric.getName().equals(family))
+            {
+                family = metric.getName();
+                builder.append("# HELP ").append(family).append(' ').append(metric.getHelp())
+                       .append('\n');
+                builder.append("# TYPE ").append(family).append(' ')
+                       .append(metric.getType().name().toLowerCase()).append('\n');
+            }
+            switch(metric.getType())
+            {
+                case COUNTER -> sample(builder, family, metric.getLabels(),
+                        ((Counter)metric).getValue());
+                case GAUGE -> sample(builder, family, metric.getLabels(),
+                        ((Gauge)metric).getValue());
+                case HISTOGRAM -> histogram(builder, (Histogram)metric);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void histogram(StringBuilder builder, Histogram histogram)
+    {
+        String name = histogram.getName();
+        String labels = histogram.getLabels();
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        double[] buckets = histogram.getBuckets();
+        long[] counts = histogram.getCumulativeCounts();
+        for(int i = 0; i < buckets.length; i++)
+        {
+            sample(builder, name + "_bucket", prefix + "le=\"" + buckets[i] + "\"", counts[i]);
+        }
+        sample(builder, name + "_bucket", prefix + "le=\"+Inf\"", counts[buckets.length]);
+        builder.append(name).append("_sum");
+        appendLabels(builder, labels);
+        builder.append(' ').append(histogram.getSum()).append('\n');
+        sample(builder, name + "_count", labels, counts[buckets.length]);
+    }
+
+    private static void sample(StringBuilder builder, String name, String labels, long value)
+    {
+        builder.append(name);
+        appendLabels(builder, labels);
+        builder.append(' ').append(value).append('\n');
+    }
+
+    private static void appendLabels(StringBuilder builder, String labels)
+    {
+        if(!labels.isEmpty())
+        {
+            builder.append('{').append(labels).append('}');
+        }
+    }
+}
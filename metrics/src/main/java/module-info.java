@@ -0,0 +1,7 @@
+module telepodcast.metrics {
+    exports com.eugene_andrienko.metrics.api;
+    exports com.eugene_andrienko.metrics.impl;
+    requires org.apache.logging.log4j;
+    requires lombok;
+    requires jdk.httpserver;
+}
@@ -0,0 +1,96 @@
+package com.eugene_andrienko.metrics.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class MetricsTest
+{
+    @AfterEach
+    void disableMetrics()
+    {
+        Metrics.disable();
+    }
+
+    @Test
+    @DisplayName("Counter is not changed while metrics are disabled")
+    void disabledCounterTest()
+    {
+        Counter counter = Metrics.counter("test_disabled_total", "Test");
+        counter.inc();
+        counter.add(10);
+        assertEquals(0, counter.getValue());
+
+        Metrics.enable();
+        counter.inc();
+        counter.add(10);
+        assertEquals(11, counter.getValue());
+    }
+
+    @Test
+    @DisplayName("Gauge is tracked while metrics are disabled")
+    void disabledGaugeTest()
+    {
+        Gauge gauge = Metrics.gauge("test_disabled_gauge", "Test");
+        gauge.inc();
+        gauge.inc();
+        gauge.dec();
+        assertEquals(1, gauge.getValue());
+    }
+
+    @Test
+    @DisplayName("Same metric is returned for same name and labels")
+    void sameMetricTest()
+    {
+        Counter first = Metrics.counter("test_same_total", "Test", "stage", "download");
+        assertSame(first, Metrics.counter("test_same_total", "Test", "stage", "download"));
+        assertNotSame(first, Metrics.counter("test_same_total", "Test", "stage", "upload"));
+        assertEquals("test_same_total{stage=\"download\"}", first.getKey());
+    }
+
+    @Test
+    @DisplayName("Different types with same name")
+    void typeMismatchTest()
+    {
+        Metrics.counter("test_mismatch", "Test");
+        assertThrows(IllegalArgumentException.class, () -> Metrics.gauge("test_mismatch", "Test"));
+    }
+
+    @Test
+    @DisplayName("Odd count of labels")
+    void oddLabelsTest()
+    {
+        assertThrows(IllegalArgumentException.class,
+                () -> Metrics.counter("test_odd_total", "Test", "stage"));
+    }
+
+    @Test
+    @DisplayName("Histogram buckets")
+    void histogramTest()
+    {
+        Metrics.enable();
+        Histogram histogram = Metrics.histogram("test_histogram", "Test", new double[]{1, 5});
+        histogram.observe(0.5);
+        histogram.observe(1);
+        histogram.observe(3);
+        histogram.observe(10);
+        assertArrayEquals(new long[]{2, 3, 4}, histogram.getCumulativeCounts());
+        assertEquals(14.5, histogram.getSum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Timer records nothing if started while disabled")
+    void timerTest()
+    {
+        Timer timer = Metrics.timer("test_timer_seconds", "Test");
+        long start = timer.start();
+        Metrics.enable();
+        timer.record(start);
+        assertEquals(0, timer.getCumulativeCounts()[timer.getBuckets().length]);
+
+        timer.record(timer.start());
+        assertEquals(1, timer.getCumulativeCounts()[0]);
+    }
+}
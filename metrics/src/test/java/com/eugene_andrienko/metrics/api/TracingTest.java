@@ -0,0 +1,90 @@
+package com.eugene_andrienko.metrics.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class TracingTest
+{
+    private final List<Span> spans = new ArrayList<>();
+
+    @AfterEach
+    void disableTracing()
+    {
+        Tracing.disable();
+    }
+
+    @Test
+    @DisplayName("Nothing is recorded while tracing is disabled")
+    void disabledTest()
+    {
+        try(Span span = Tracing.job("url"))
+        {
+            assertSame(Span.NOOP, span);
+            assertSame(Span.NOOP, Tracing.span("stage"));
+        }
+    }
+
+    @Test
+    @DisplayName("Spans inherit job of thread")
+    void jobTest()
+    {
+        Tracing.enable(new ListExporter());
+        try(Span job = Tracing.job("first"))
+        {
+            try(Span stage = Tracing.span("download"))
+            {
+                assertEquals("first", stage.getJob());
+                assertEquals(job.getJobId(), stage.getJobId());
+            }
+        }
+        Span other = Tracing.span("stage");
+        assertNull(other.getJob());
+        assertEquals(0, other.getJobId());
+
+        assertEquals(List.of("download", "job"), spans.stream().map(Span::getName).toList());
+        assertTrue(spans.get(1).getEnd() >= spans.get(0).getEnd());
+    }
+
+    @Test
+    @DisplayName("Job ID is the same for the same URL")
+    void jobIdTest()
+    {
+        Tracing.enable(new ListExporter());
+        Span first = Tracing.span("url-1", "download");
+        Span second = Tracing.span("url-2", "download");
+        assertNotEquals(first.getJobId(), second.getJobId());
+        assertEquals(first.getJobId(), Tracing.span("url-1", "encode").getJobId());
+    }
+
+    @Test
+    @DisplayName("Span is exported once")
+    void closeTwiceTest()
+    {
+        Tracing.enable(new ListExporter());
+        Span span = Tracing.span("url", "download");
+        span.close();
+        long end = span.getEnd();
+        span.close();
+        assertEquals(1, spans.size());
+        assertEquals(end, span.getEnd());
+    }
+
+    private class ListExporter implements TraceExporter
+    {
+        @Override
+        public void export(Span span)
+        {
+            spans.add(span);
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.eugene_andrienko.metrics.impl;
+
+import com.eugene_andrienko.metrics.api.Span;
+import com.eugene_andrienko.metrics.api.Tracing;
+import java.io.File;
+import java.nio.file.Files;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ChromeTraceExporterTest
+{
+    @Test
+    @DisplayName("Write trace")
+    @SneakyThrows
+    void writeTest(@TempDir File directory)
+    {
+        File file = new File(directory, "trace.json");
+        ChromeTraceExporter exporter = new ChromeTraceExporter(file);
+        Tracing.enable(exporter);
+        try(Span job = Tracing.job("https://youtu.be/\"id\""))
+        {
+            Tracing.span("upload").close();
+        }
+        finally
+        {
+            Tracing.disable();
+            exporter.close();
+        }
+
+        String trace = Files.readString(file.toPath());
+        assertTrue(trace.startsWith("[\n{\"name\":\"process_name\",\"ph\":\"M\""));
+        assertTrue(trace.contains(" https://youtu.be/\\\"id\\\"\"}"));
+        assertTrue(trace.contains("{\"name\":\"upload\",\"ph\":\"X\""));
+        assertTrue(trace.contains("{\"name\":\"job\",\"ph\":\"X\""));
+        assertTrue(trace.endsWith("}\n]\n"));
+    }
+
+    @Test
+    @DisplayName("Quote strings")
+    void quoteTest()
+    {
+        assertEquals("\"a\\\"b\\\\c\\u000a\"", ChromeTraceExporter.quote("a\"b\\c\n"));
+    }
+}
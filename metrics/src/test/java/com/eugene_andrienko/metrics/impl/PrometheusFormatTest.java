@@ -0,0 +1,54 @@
+package com.eugene_andrienko.metrics.impl;
+
+import com.eugene_andrienko.metrics.api.Counter;
+import com.eugene_andrienko.metrics.api.Histogram;
+import com.eugene_andrienko.metrics.api.Metrics;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class PrometheusFormatTest
+{
+    @Test
+    @DisplayName("Format counters and histogram")
+    void formatTest()
+    {
+        Metrics.enable();
+        Counter download = Metrics.counter("format_bytes_total", "Bytes", "stage", "download");
+        Counter upload = Metrics.counter("format_bytes_total", "Bytes", "stage", "upload");
+        Histogram histogram = Metrics.histogram("format_seconds", "Seconds", new double[]{1, 10});
+        download.add(100);
+        upload.add(50);
+        histogram.observe(2);
+
+        assertEquals("""
+                # HELP format_bytes_total Bytes
+                # TYPE format_bytes_total counter
+                format_bytes_total{stage="download"} 100
+                format_bytes_total{stage="upload"} 50
+                # HELP format_seconds Seconds
+                # TYPE format_seconds histogram
+                format_seconds_bucket{le="1.0"} 0
+                format_seconds_bucket{le="10.0"} 1
+                format_seconds_bucket{le="+Inf"} 1
+                format_seconds_sum 2.0
+                format_seconds_count 1
+                """, PrometheusFormat.format(List.of(download, upload, histogram)));
+    }
+
+    @Test
+    @DisplayName("Log skips empty metrics")
+    void logFormatTest()
+    {
+        Metrics.enable();
+        Counter empty = Metrics.counter("log_empty_total", "Empty");
+        Histogram histogram = Metrics.histogram("log_seconds", "Seconds", new double[]{1});
+        histogram.observe(1);
+        histogram.observe(3);
+
+        assertEquals(List.of("log_seconds count=2 sum=4.000 avg=2.000"),
+                LogExporter.format(List.of(empty, histogram)));
+    }
+}
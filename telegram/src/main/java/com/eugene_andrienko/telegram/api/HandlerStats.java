@@ -0,0 +1,28 @@
+package com.eugene_andrienko.telegram.api;
+
+import lombok.Value;
+
+
+/**
+ * Statistics of handlers of one type of TDLib objects: updates or answers to requests.
+ */
+@Value
+public class HandlerStats
+{
+    /**
+     * Count of handled objects.
+     */
+    long count;
+    /**
+     * Total time of handlers execution in nanoseconds.
+     */
+    long totalNanos;
+    /**
+     * Maximal time of one handler execution in nanoseconds.
+     */
+    long maxNanos;
+    /**
+     * Total time of objects waiting for handler thread in nanoseconds.
+     */
+    long totalQueueNanos;
+}
@@ -1,10 +1,16 @@
 package com.eugene_andrienko.telegram.api;
 
+import com.eugene_andrienko.metrics.api.Metrics;
+import com.eugene_andrienko.metrics.api.Span;
+import com.eugene_andrienko.metrics.api.Timer;
+import com.eugene_andrienko.metrics.api.Tracing;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramSendMessageException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramUploadFileException;
+import com.eugene_andrienko.telegram.impl.HandlerMetrics;
 import com.eugene_andrienko.telegram.impl.Telegram;
 import java.io.File;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -21,10 +27,14 @@ public class TelegramApi implements AutoCloseable
 {
     private final Telegram telegram;
     private final int delaySeconds;
+    private final UploadScheduler uploadScheduler;
 
     public static final int MEDIA_CAPTION_LENGTH = 1024;
     public static final int MESSAGE_LENGTH = 4096;
 
+    private static final Timer SEND_TIME = Metrics.timer("telepodcast_stage_seconds",
+            "Duration of stages of jobs", "stage", "send");
+
     /**
      * Initializes Telegram library.
      *
@@ -36,6 +46,7 @@ public class TelegramApi implements AutoCloseable
     {
         telegram = new Telegram(options);
         this.delaySeconds = options.getDelaySeconds();
+        this.uploadScheduler = new UploadScheduler(options.getUploadLimit());
     }
 
     /**
@@ -45,9 +56,22 @@ public class TelegramApi implements AutoCloseable
      * @param delaySeconds Delay in seconds to complete any library call.
      */
     TelegramApi(Telegram telegram, int delaySeconds)
+    {
+        this(telegram, delaySeconds, new UploadScheduler(0));
+    }
+
+    /**
+     * Initializes Telegram library (for test).
+     *
+     * @param telegram        Initialized {@code Telegram} object.
+     * @param delaySeconds    Delay in seconds to complete any library call.
+     * @param uploadScheduler Scheduler of uploads.
+     */
+    TelegramApi(Telegram telegram, int delaySeconds, UploadScheduler uploadScheduler)
     {
         this.telegram = telegram;
         this.delaySeconds = delaySeconds;
+        this.uploadScheduler = uploadScheduler;
     }
 
     /**
@@ -76,6 +100,9 @@ public class TelegramApi implements AutoCloseable
     /**
      * Send a message to "Saved Messages" chat.
      *
+     * Links and time codes in message become clickable, time codes rewind media in reply to
+     * which message is sent.
+     *
      * @param message   Message to send.
      * @param replyToId Message ID to reply to. Can be 0 to send message not as reply.
      *
@@ -96,19 +123,27 @@ public class TelegramApi implements AutoCloseable
             log.warn("Cannot send message — it's empty");
             throw new TelegramSendMessageException("Message empty");
         }
-        CompletableFuture<ImmutablePair<Boolean, Long>> result = telegram.sendMessage(message,
-                replyToId);
-        if(isTelegramMethodFailed(result))
+        long start = SEND_TIME.start();
+        try(Span span = Tracing.span("send-message"))
         {
-            throw new TelegramSendMessageException("Failed to send message to Telegram");
+            CompletableFuture<ImmutablePair<Boolean, Long>> result = telegram.sendMessage(message,
+                    replyToId);
+            if(isTelegramMethodFailed(result))
+            {
+                throw new TelegramSendMessageException("Failed to send message to Telegram");
+            }
+            long localMessageId = getLocalMessageId(result);
+            long messageId = getServerMessageId(telegram.getServerMessageId(localMessageId));
+            SEND_TIME.record(start);
+            return messageId;
         }
-        long localMessageId = getLocalMessageId(result);
-        return getServerMessageId(telegram.getServerMessageId(localMessageId));
     }
 
     /**
      * Uploads audio file to Telegram.
      *
+     * If upload rate is limited — waits until the upload fits into the limit.
+     *
      * @param audio Audio file to upload
      *
      * @return Local file ID.
@@ -117,6 +152,7 @@ public class TelegramApi implements AutoCloseable
      */
     public int uploadAudio(File audio) throws TelegramUploadFileException
     {
+        waitForUploadSlot(audio);
         CompletableFuture<Integer> result = telegram.uploadAudio(audio);
         Integer localId;
         try
@@ -133,6 +169,8 @@ public class TelegramApi implements AutoCloseable
     /**
      * Send audio file to Telegram.
      *
+     * Links and time codes in description become clickable, as in {@link #sendMessage}.
+     *
      * @param localId     Local ID of audio file.
      * @param description Description of audio file or {@code null} if no description.
      * @param duration    Duration of audio in seconds or 0 if no duration.
@@ -152,19 +190,27 @@ public class TelegramApi implements AutoCloseable
             throw new TelegramSendMessageException("Too long audio description");
         }
 
-        CompletableFuture<ImmutablePair<Boolean, Long>> result = telegram.sendAudio(localId,
-                description, duration, replyToId);
-        if(isTelegramMethodFailed(result))
+        long start = SEND_TIME.start();
+        try(Span span = Tracing.span("send-audio"))
         {
-            throw new TelegramSendMessageException("Failed to send audio to Telegram");
+            CompletableFuture<ImmutablePair<Boolean, Long>> result = telegram.sendAudio(localId,
+                    description, duration, replyToId);
+            if(isTelegramMethodFailed(result))
+            {
+                throw new TelegramSendMessageException("Failed to send audio to Telegram");
+            }
+            long localMessageId = getLocalMessageId(result);
+            long messageId = getServerMessageId(telegram.getServerMessageId(localMessageId));
+            SEND_TIME.record(start);
+            return messageId;
         }
-        long localMessageId = getLocalMessageId(result);
-        return getServerMessageId(telegram.getServerMessageId(localMessageId));
     }
 
     /**
      * Uploads a video file to Telegram.
      *
+     * If upload rate is limited — waits until the upload fits into the limit.
+     *
      * @param video The video file to upload
      *
      * @return Local file ID.
@@ -173,6 +219,7 @@ public class TelegramApi implements AutoCloseable
      */
     public int uploadVideo(File video) throws TelegramUploadFileException
     {
+        waitForUploadSlot(video);
         CompletableFuture<Integer> result = telegram.uploadVideo(video);
         Integer localId;
         try
@@ -189,6 +236,8 @@ public class TelegramApi implements AutoCloseable
     /**
      * Send a video file to Telegram.
      *
+     * Links and time codes in description become clickable, as in {@link #sendMessage}.
+     *
      * @param localId     Local ID of video file.
      * @param description Description of video file or {@code null} if no description.
      * @param replyToId   Message ID to reply to. Can be 0 to send message not as reply.
@@ -207,14 +256,20 @@ public class TelegramApi implements AutoCloseable
             throw new TelegramSendMessageException("Too long video description");
         }
 
-        CompletableFuture<ImmutablePair<Boolean, Long>> result = telegram.sendVideo(localId,
-                description, duration, replyToId);
-        if(isTelegramMethodFailed(result))
+        long start = SEND_TIME.start();
+        try(Span span = Tracing.span("send-video"))
         {
-            throw new TelegramSendMessageException("Failed to send video to Telegram");
+            CompletableFuture<ImmutablePair<Boolean, Long>> result = telegram.sendVideo(localId,
+                    description, duration, replyToId);
+            if(isTelegramMethodFailed(result))
+            {
+                throw new TelegramSendMessageException("Failed to send video to Telegram");
+            }
+            long localMessageId = getLocalMessageId(result);
+            long messageId = getServerMessageId(telegram.getServerMessageId(localMessageId));
+            SEND_TIME.record(start);
+            return messageId;
         }
-        long localMessageId = getLocalMessageId(result);
-        return getServerMessageId(telegram.getServerMessageId(localMessageId));
     }
 
     /**
@@ -231,6 +286,62 @@ public class TelegramApi implements AutoCloseable
         return telegram.getUploadingProgress(localId);
     }
 
+    /**
+     * Waits until upload of the file fits into the upload rate limit.
+     *
+     * @param file File to upload
+     *
+     * @throws TelegramUploadFileException Waiting is interrupted.
+     */
+    private void waitForUploadSlot(File file) throws TelegramUploadFileException
+    {
+        try(Span span = Tracing.span("upload-slot"))
+        {
+            uploadScheduler.acquire(file.length());
+        }
+        catch(InterruptedException e)
+        {
+            log.error("Interrupted while waiting for upload of {}", file.getAbsolutePath());
+            Thread.currentThread().interrupt();
+            throw new TelegramUploadFileException(e);
+        }
+    }
+
+    /**
+     * Cancels uploading of given file.
+     *
+     * Uploaded part of file is dropped by Telegram library, so file cannot be sent after this.
+     *
+     * @param localId Local file ID.
+     *
+     * @throws TelegramUploadFileException Fail to cancel uploading.
+     */
+    public void cancelUpload(int localId) throws TelegramUploadFileException
+    {
+        CompletableFuture<Boolean> result = telegram.cancelUpload(localId);
+        try
+        {
+            if(!result.get(delaySeconds, TimeUnit.SECONDS))
+            {
+                throw new TelegramUploadFileException("Failed to cancel uploading");
+            }
+        }
+        catch(InterruptedException | ExecutionException | TimeoutException e)
+        {
+            throw new TelegramUploadFileException(e);
+        }
+    }
+
+    /**
+     * Returns latency statistics of handlers of TDLib updates and answers.
+     *
+     * @return Statistics by types of TDLib objects.
+     */
+    public static Map<String, HandlerStats> getHandlerStats()
+    {
+        return HandlerMetrics.getStats();
+    }
+
     /**
      * Logout from Telegram and free acquired resources.
      *
@@ -239,6 +350,7 @@ public class TelegramApi implements AutoCloseable
     @Override
     public void close() throws Exception
     {
+        log.debug("TDLib handlers: {}", getHandlerStats());
         telegram.close();
     }
 
@@ -280,7 +392,8 @@ public class TelegramApi implements AutoCloseable
 
     private long getServerMessageId(CompletableFuture<Long> completable)
     {
-        try
+        // Waiting for sending of message to server:
+        try(Span span = Tracing.span("wait-sent"))
         {
             return completable.get(delaySeconds, TimeUnit.SECONDS);
         }
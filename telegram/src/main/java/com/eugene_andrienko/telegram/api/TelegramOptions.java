@@ -1,12 +1,16 @@
 package com.eugene_andrienko.telegram.api;
 
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
 
 
 @ToString
+@Builder
 @AllArgsConstructor
 public class TelegramOptions
 {
@@ -62,4 +66,18 @@ public class TelegramOptions
      */
     @Getter
     private final boolean debug;
+
+    /**
+     * Upload rate in bytes per second, {@code 0} for no limit.
+     */
+    @Getter
+    private final long uploadLimit;
+
+    /**
+     * Groups of TDLib updates to handle, other updates are dropped. Default: all groups.
+     */
+    @Getter
+    @NonNull
+    @Builder.Default
+    private final Set<UpdateInterest> updateInterests = EnumSet.allOf(UpdateInterest.class);
 }
@@ -0,0 +1,24 @@
+package com.eugene_andrienko.telegram.api;
+
+
+/**
+ * Groups of TDLib updates, which are handled. Other updates are dropped as soon as received.
+ *
+ * Updates of authorization state are handled always.
+ */
+public enum UpdateInterest
+{
+    /**
+     * New chats, titles of chats and their order in the main chat list — to find the chat to
+     * send to.
+     */
+    CHATS,
+    /**
+     * Progress of file uploads.
+     */
+    FILES,
+    /**
+     * Results of message sending — server IDs of sent messages.
+     */
+    MESSAGES
+}
@@ -0,0 +1,105 @@
+package com.eugene_andrienko.telegram.api;
+
+import com.eugene_andrienko.metrics.api.Gauge;
+import com.eugene_andrienko.metrics.api.Metrics;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Paces uploads to Telegram to keep the average upload rate under the limit.
+ *
+ * TDLib has no control over rate of the upload, so only starts of uploads are scheduled. It is
+ * the token bucket, where the whole file is taken at the start of upload: the next upload
+ * waits until the bytes of previous uploads are paid back at the limited rate. Bucket holds not
+ * more than one second of traffic, so idle time does not allow a burst of uploads.
+ */
+@Log4j2
+final class UploadScheduler
+{
+    private static final Gauge WAITING = Metrics.gauge("telepodcast_upload_queue_depth",
+            "Uploads waiting for upload rate limit");
+
+    private final long limit;
+    private final LongSupplier clock;
+    private double tokens;
+    private long updatedAt;
+
+    /**
+     * Creates scheduler.
+     *
+     * @param limit Upload rate in bytes per second, {@code 0} for no limit.
+     */
+    UploadScheduler(long limit)
+    {
+        this(limit, System::nanoTime);
+    }
+
+    /**
+     * Creates scheduler — for tests.
+     *
+     * @param limit Upload rate in bytes per second, {@code 0} for no limit.
+     * @param clock Source of time in nanoseconds
+     */
+    UploadScheduler(long limit, LongSupplier clock)
+    {
+        this.limit = Math.max(0, limit);
+        this.clock = clock;
+        this.tokens = this.limit;
+        this.updatedAt = clock.getAsLong();
+    }
+
+    /**
+     * Waits until upload of file with given size can be started.
+     *
+     * @param bytes Size of file
+     *
+     * @throws InterruptedException Waiting is interrupted.
+     */
+    void acquire(long bytes) throws InterruptedException
+    {
+        long delay = reserve(bytes);
+        if(delay > 0)
+        {
+            log.debug("Upload of {} bytes is delayed for {} ms", bytes,
+                    TimeUnit.NANOSECONDS.toMillis(delay));
+            WAITING.inc();
+            try
+            {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            finally
+            {
+                WAITING.dec();
+            }
+        }
+    }
+
+    /**
+     * Reserves bytes for upload.
+     *
+     * @param bytes Size of file
+     *
+     * @return Time in nanoseconds to wait before the start of upload.
+     */
+    synchronized long reserve(long bytes)
+    {
+        if(limit == 0)
+        {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        tokens = Math.min(limit, tokens + (now - updatedAt) * (double)limit
+                                          / TimeUnit.SECONDS.toNanos(1));
+        updatedAt = now;
+
+        long delay = 0;
+        if(tokens < 0)
+        {
+            delay = (long)Math.ceil(-tokens * TimeUnit.SECONDS.toNanos(1) / limit);
+        }
+        tokens -= bytes;
+        return delay;
+    }
+}
@@ -0,0 +1,340 @@
+package com.eugene_andrienko.telegram.impl;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.Value;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.drinkless.tdlib.TdApi;
+
+
+/**
+ * Chats and main chat list, received from TDLib updates.
+ *
+ * Only private chats can be the chat to send to — «Saved Messages» is the private chat with
+ * yourself. So title and order in the main chat list are kept only for private chats. Other
+ * chats (groups, channels, secret chats) are only counted by their IDs while they are in the main
+ * chat list — count is needed to know is the main chat list loaded enough. Other data of chats
+ * (last messages, drafts, photos) is not kept.
+ *
+ * State has the single writer — main handler lane of TDLib client, which handles chat updates
+ * and answers to requests one after another (see {@code Client.orderingKey}). Only it changes
+ * chats and the main chat list, so there are no locks. After every change of the main chat list
+ * or titles of chats in it the writer publishes new immutable {@link Snapshot}. Other threads
+ * read only snapshots and never block the main handler lane.
+ */
+final class ChatStore
+{
+    // Owned by the main handler lane:
+    private final Map<Long, ChatState> chats = new HashMap<>();
+    private final NavigableSet<OrderedChat> mainChatList = new TreeSet<>();
+    // IDs of not kept chats in the main chat list:
+    private final Set<Long> otherMainChats = new HashSet<>();
+    private boolean haveFullMainChatList = false;
+
+    private volatile Snapshot snapshot = new Snapshot(0, List.of(), 0, false);
+    // Waiters for loading of main chat list:
+    private final Queue<ImmutablePair<Integer, CompletableFuture<Boolean>>> waiters =
+            new ConcurrentLinkedQueue<>();
+
+    /**
+     * Immutable state of the main chat list.
+     */
+    @Value
+    static class Snapshot
+    {
+        /**
+         * Number of snapshot, grows with every published change.
+         */
+        long version;
+        /**
+         * Kept chats of the main chat list in order of Telegram.
+         */
+        List<ChatEntry> chats;
+        /**
+         * Count of all chats in the main chat list, including not kept chats.
+         */
+        int size;
+        /**
+         * All chats of the main chat list are received.
+         */
+        boolean full;
+
+        /**
+         * Is main chat list loaded enough.
+         *
+         * @param limit Count of chats which should be received.
+         *
+         * @return {@code True} if list has {@code limit} chats or all chats are received.
+         */
+        boolean isLoaded(int limit)
+        {
+            return full || size >= limit;
+        }
+    }
+
+    @Value
+    static class ChatEntry
+    {
+        long id;
+        String title;
+    }
+
+    /**
+     * Returns the last published state of the main chat list. Can be called from any thread.
+     *
+     * @return Snapshot of the main chat list.
+     */
+    Snapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Waits for loading of main chat list. Can be called from any thread.
+     *
+     * @param limit Count of chats which should be received.
+     *
+     * @return {@code CompletableFuture} completed with {@code true} when list is loaded.
+     */
+    CompletableFuture<Boolean> awaitLoaded(int limit)
+    {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if(snapshot.isLoaded(limit))
+        {
+            result.complete(true);
+            return result;
+        }
+        waiters.add(ImmutablePair.of(limit, result));
+        // Snapshot can be published between the check and adding of the waiter:
+        if(snapshot.isLoaded(limit))
+        {
+            result.complete(true);
+        }
+        return result;
+    }
+
+    /**
+     * Adds new chat. Only for the main handler lane.
+     *
+     * @param chat New chat.
+     */
+    void addChat(TdApi.Chat chat)
+    {
+        if(chat.type.getConstructor() != TdApi.ChatTypePrivate.CONSTRUCTOR)
+        {
+            setOtherMainChatOrder(chat.id, getMainOrder(chat.positions));
+            return;
+        }
+        ChatState state = new ChatState(chat.title);
+        ChatState previous = chats.put(chat.id, state);
+        if(previous != null && previous.order != 0)
+        {
+            mainChatList.remove(new OrderedChat(chat.id, previous.order));
+        }
+        setMainChatOrder(chat.id, state, getMainOrder(chat.positions));
+    }
+
+    /**
+     * Changes title of chat. Only for the main handler lane.
+     *
+     * @param chatId Chat ID.
+     * @param title  New title.
+     */
+    void setChatTitle(long chatId, String title)
+    {
+        ChatState state = chats.get(chatId);
+        if(state == null)
+        {
+            return;
+        }
+        state.title = title;
+        if(state.order != 0)
+        {
+            publish();
+        }
+    }
+
+    /**
+     * Changes positions of chat in chat lists. Only for the main handler lane.
+     *
+     * @param chatId    Chat ID.
+     * @param positions New positions of chat.
+     */
+    void setChatPositions(long chatId, TdApi.ChatPosition[] positions)
+    {
+        ChatState state = chats.get(chatId);
+        if(state != null)
+        {
+            setMainChatOrder(chatId, state, getMainOrder(positions));
+        }
+        else
+        {
+            setOtherMainChatOrder(chatId, getMainOrder(positions));
+        }
+    }
+
+    /**
+     * Changes position of chat in the main chat list. Only for the main handler lane.
+     *
+     * @param chatId   Chat ID.
+     * @param position New position of chat in the main chat list, order 0 removes chat from it.
+     */
+    void setMainChatPosition(long chatId, TdApi.ChatPosition position)
+    {
+        ChatState state = chats.get(chatId);
+        if(state != null)
+        {
+            setMainChatOrder(chatId, state, position.order);
+        }
+        else
+        {
+            setOtherMainChatOrder(chatId, position.order);
+        }
+    }
+
+    /**
+     * Marks that all chats of the main chat list are received. Only for the main handler lane.
+     */
+    void setFullMainChatList()
+    {
+        haveFullMainChatList = true;
+        publish();
+    }
+
+    /**
+     * Does main chat list need more chats. Can be called from any thread.
+     *
+     * @param limit Count of chats which should be received.
+     *
+     * @return Count of chats to load, 0 if enough chats are received.
+     */
+    int countToLoad(int limit)
+    {
+        Snapshot current = snapshot;
+        return current.isFull() ? 0 : Math.max(0, limit - current.getSize());
+    }
+
+    private void setMainChatOrder(long chatId, ChatState state, long order)
+    {
+        if(state.order == order)
+        {
+            return;
+        }
+        if(state.order != 0)
+        {
+            boolean isRemoved = mainChatList.remove(new OrderedChat(chatId, state.order));
+            assert isRemoved;
+        }
+        state.order = order;
+        if(order != 0)
+        {
+            boolean isAdded = mainChatList.add(new OrderedChat(chatId, order));
+            assert isAdded;
+        }
+        publish();
+    }
+
+    private void setOtherMainChatOrder(long chatId, long order)
+    {
+        boolean isChanged = order != 0 ? otherMainChats.add(chatId) : otherMainChats.remove(chatId);
+        if(isChanged)
+        {
+            publish();
+        }
+    }
+
+    private static long getMainOrder(TdApi.ChatPosition[] positions)
+    {
+        for(TdApi.ChatPosition position : positions)
+        {
+            if(position.list.getConstructor() == TdApi.ChatListMain.CONSTRUCTOR)
+            {
+                return position.order;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Publishes new snapshot and completes waiters, which got enough chats.
+     */
+    private void publish()
+    {
+        List<ChatEntry> entries = new ArrayList<>(mainChatList.size());
+        for(OrderedChat orderedChat : mainChatList)
+        {
+            entries.add(new ChatEntry(orderedChat.chatId, chats.get(orderedChat.chatId).title));
+        }
+        Snapshot published = new Snapshot(snapshot.getVersion() + 1,
+                Collections.unmodifiableList(entries), mainChatList.size() + otherMainChats.size(),
+                haveFullMainChatList);
+        snapshot = published;
+
+        for(ImmutablePair<Integer, CompletableFuture<Boolean>> waiter : waiters)
+        {
+            if(published.isLoaded(waiter.getLeft()))
+            {
+                waiter.getRight().complete(true);
+                waiters.remove(waiter);
+            }
+        }
+    }
+
+    /**
+     * Kept data of chat.
+     */
+    private static class ChatState
+    {
+        String title;
+        // Order in the main chat list, 0 if chat is not in it:
+        long order = 0;
+
+        ChatState(String title)
+        {
+            this.title = title;
+        }
+    }
+
+    private static class OrderedChat implements Comparable<OrderedChat>
+    {
+        final long chatId;
+        final long order;
+
+        OrderedChat(long chatId, long order)
+        {
+            this.chatId = chatId;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(OrderedChat o)
+        {
+            if(this.order != o.order)
+            {
+                return o.order < this.order ? -1 : 1;
+            }
+            if(this.chatId != o.chatId)
+            {
+                return o.chatId < this.chatId ? -1 : 1;
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(!(obj instanceof OrderedChat o))
+            {
+                return false;
+            }
+            return this.chatId == o.chatId && this.order == o.order;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(chatId, order);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.eugene_andrienko.telegram.impl;
+
+import com.eugene_andrienko.telegram.api.HandlerStats;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Latency of TDLib handlers by types of handled objects.
+ *
+ * Recorded by handler threads of TDLib client, read by anyone. Recording does not take locks.
+ */
+public final class HandlerMetrics
+{
+    private static final ConcurrentMap<Class<?>, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+    private HandlerMetrics()
+    {
+    }
+
+    /**
+     * Records execution of handler.
+     *
+     * @param type       Type of handled object.
+     * @param queueNanos Time of waiting for handler thread in nanoseconds.
+     * @param runNanos   Time of handler execution in nanoseconds.
+     */
+    public static void record(Class<?> type, long queueNanos, long runNanos)
+    {
+        Counters counters = COUNTERS.get(type);
+        if(counters == null)
+        {
+            counters = COUNTERS.computeIfAbsent(type, key -> new Counters());
+        }
+        counters.count.increment();
+        counters.totalNanos.add(runNanos);
+        counters.maxNanos.accumulate(runNanos);
+        counters.totalQueueNanos.add(queueNanos);
+    }
+
+    /**
+     * Returns statistics of handlers.
+     *
+     * @return Statistics by simple names of types of handled objects, sorted by names.
+     */
+    public static Map<String, HandlerStats> getStats()
+    {
+        Map<String, HandlerStats> result = new TreeMap<>();
+        COUNTERS.forEach((type, counters) -> result.put(type.getSimpleName(),
+                new HandlerStats(counters.count.sum(), counters.totalNanos.sum(),
+                        counters.maxNanos.get(), counters.totalQueueNanos.sum())));
+        return result;
+    }
+
+    private static class Counters
+    {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder totalQueueNanos = new LongAdder();
+    }
+}
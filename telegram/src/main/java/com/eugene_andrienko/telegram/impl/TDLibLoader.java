@@ -0,0 +1,137 @@
+package com.eugene_andrienko.telegram.impl;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.*;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import lombok.Cleanup;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Loader of TDLib native library.
+ *
+ * Library is loaded once, on the first Telegram operation — not on loading of classes. If there
+ * is no tdjni in {@code java.library.path}, library is extracted from JAR to cache directory
+ * ({@code $XDG_CACHE_HOME/telepodcast} or {@code ~/.cache/telepodcast}) under name with its
+ * checksum. The next runs with the same library reuse extracted file instead of copying it
+ * again.
+ */
+@Log4j2
+final class TDLibLoader
+{
+    private static final String LIBRARY_NAME = "libtdjni.so";
+    private static final String LIBRARY_JAR_PATH = "/lib/" + LIBRARY_NAME;
+
+    private static boolean loaded = false;
+
+    private TDLibLoader()
+    {
+    }
+
+    /**
+     * Loads TDLib native library if it is not loaded yet.
+     *
+     * @throws IOException Failed to find or extract library.
+     */
+    static synchronized void load() throws IOException
+    {
+        if(loaded)
+        {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try
+        {
+            System.loadLibrary("tdjni");
+        }
+        catch(UnsatisfiedLinkError e)
+        {
+            System.load(extract(getCacheDirectory()).toAbsolutePath().toString());
+        }
+        loaded = true;
+        log.debug("TDLib loaded in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    /**
+     * Extracts library from JAR to given directory, if it is not extracted yet.
+     *
+     * @param directory Cache directory.
+     *
+     * @return Path to extracted library.
+     *
+     * @throws IOException Failed to find or extract library.
+     */
+    static Path extract(Path directory) throws IOException
+    {
+        URL library = TDLibLoader.class.getResource(LIBRARY_JAR_PATH);
+        if(library == null)
+        {
+            log.error("Library {} not found in JAR!", LIBRARY_JAR_PATH);
+            throw new FileNotFoundException("Library " + LIBRARY_JAR_PATH + " not found in JAR!");
+        }
+
+        Path cached = directory.resolve(
+                String.format("libtdjni-%08x.so", checksum(library.openConnection())));
+        if(Files.isRegularFile(cached))
+        {
+            log.debug("Using cached TDLib {}", cached);
+            return cached;
+        }
+
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, "libtdjni", ".tmp");
+        try
+        {
+            @Cleanup
+            InputStream is = library.openStream();
+            Files.copy(is, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            // Other running instance may extract the same library at the same time — so file
+            // appears only complete:
+            Files.move(tempFile, cached, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(tempFile);
+        }
+        log.debug("Extracted TDLib to {}", cached);
+        return cached;
+    }
+
+    /**
+     * Returns CRC32 of library. For library in JAR it is taken from JAR directory without
+     * reading of library itself.
+     */
+    private static long checksum(URLConnection connection) throws IOException
+    {
+        if(connection instanceof JarURLConnection)
+        {
+            JarEntry entry = ((JarURLConnection)connection).getJarEntry();
+            if(entry.getCrc() != -1)
+            {
+                return entry.getCrc();
+            }
+        }
+
+        @Cleanup
+        CheckedInputStream is = new CheckedInputStream(connection.getInputStream(), new CRC32());
+        is.transferTo(OutputStream.nullOutputStream());
+        return is.getChecksum().getValue();
+    }
+
+    private static Path getCacheDirectory()
+    {
+        String cacheHome = System.getenv("XDG_CACHE_HOME");
+        if(cacheHome == null || cacheHome.isBlank())
+        {
+            cacheHome = Paths.get(System.getProperty("user.home"), ".cache").toString();
+        }
+        return Paths.get(cacheHome, "telepodcast");
+    }
+}
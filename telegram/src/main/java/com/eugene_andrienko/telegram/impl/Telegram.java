@@ -1,5 +1,7 @@
 package com.eugene_andrienko.telegram.impl;
 
+import com.eugene_andrienko.metrics.api.Counter;
+import com.eugene_andrienko.metrics.api.Metrics;
 import com.eugene_andrienko.telegram.api.TelegramOptions;
 import com.eugene_andrienko.telegram.api.exceptions.*;
 import com.eugene_andrienko.telegram.impl.TelegramTDLibConnector.MessageSenderState;
@@ -24,8 +26,11 @@ public class Telegram implements AutoCloseable
 
     private final int loadingChatsLimit;
     private final AtomicLong savedMessagesId = new AtomicLong(0);
+    private final CompletableFuture<Boolean> ready = new CompletableFuture<>();
     private final static int DEFAULT_RESEND_RETRIES = 2;
     private final int resendRetries;
+    private static final Counter SEND_RETRIES = Metrics.counter("telepodcast_send_retries_total",
+            "Resends of messages to Telegram");
 
     /**
      * Initializes Telegram library.
@@ -159,6 +164,7 @@ public class Telegram implements AutoCloseable
         }).thenAccept(id -> {
             this.savedMessagesId.set(id);
             log.info("Loaded \"Saved Messages\" chat: {}", this.savedMessagesId);
+            ready.complete(true);
         });
     }
 
@@ -168,17 +174,14 @@ public class Telegram implements AutoCloseable
      * Method should be used, like this:
      * {@code if(telegram.isReady().get(30, TimeUnit.SECONDS)) ...}
      *
+     * Returned {@code CompletableFuture} is completed by login chain itself, so nobody spins
+     * while waiting for it.
+     *
      * @return {@code CompletableFuture} with {@code TelegramApi} status.
      */
     public CompletableFuture<Boolean> isReady()
     {
-        return CompletableFuture.supplyAsync(() -> {
-            while(this.savedMessagesId.get() == 0)
-            {
-                Thread.yield();
-            }
-            return true;
-        });
+        return ready;
     }
 
     /**
@@ -218,6 +221,19 @@ public class Telegram implements AutoCloseable
         return telegramConnector.uploadFile(file, MessageType.VIDEO);
     }
 
+    /**
+     * Asynchronously cancels uploading of file.
+     *
+     * @param localId Local file ID.
+     *
+     * @return {@code CompletableFuture} with {@code true} if uploading is cancelled.
+     */
+    public CompletableFuture<Boolean> cancelUpload(int localId)
+    {
+        log.info("Cancelling upload of file with local ID = {}", localId);
+        return telegramConnector.cancelUploadFile(localId);
+    }
+
     /**
      * Returns uploading progress (in percents) of file.
      *
@@ -380,6 +396,7 @@ public class Telegram implements AutoCloseable
                 case RETRY ->
                 {
                     log.debug("Resending message: try #{}", resendRetries - resendTry + 1);
+                    SEND_RETRIES.inc();
                     return sendMessage(message, messageType, replyToId, --resendTry, additional);
                 }
             }
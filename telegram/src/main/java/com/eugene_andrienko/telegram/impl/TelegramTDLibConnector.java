@@ -8,23 +8,21 @@
 
 package com.eugene_andrienko.telegram.impl;
 
+import com.eugene_andrienko.metrics.api.Counter;
+import com.eugene_andrienko.metrics.api.Histogram;
+import com.eugene_andrienko.metrics.api.Metrics;
+import com.eugene_andrienko.metrics.api.Timer;
 import com.eugene_andrienko.telegram.api.TelegramOptions;
+import com.eugene_andrienko.telegram.api.UpdateInterest;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramInitException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramSendMessageException;
 import com.eugene_andrienko.telegram.api.exceptions.TelegramUploadFileException;
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
-import java.util.NavigableSet;
-import java.util.TreeSet;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-import lombok.Cleanup;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.drinkless.tdlib.Client;
@@ -34,7 +32,6 @@ import org.drinkless.tdlib.TdApi;
 /**
  * Example class for TDLib usage from Java.
  */
-@SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
 @Log4j2
 public class TelegramTDLibConnector implements AutoCloseable
 {
@@ -43,6 +40,7 @@ public class TelegramTDLibConnector implements AutoCloseable
     private final boolean debug;
     private final String tdlibLog;
     private final String tdlibDir;
+    private final UpdateDispatcher updateDispatcher;
 
     private static Client client = null;
 
@@ -50,26 +48,37 @@ public class TelegramTDLibConnector implements AutoCloseable
     private static volatile boolean haveAuthorization = false;
     private static volatile boolean needQuit = false;
 
-    private static final Lock authorizationLock = new ReentrantLock();
-    private static final Condition gotAuthorization = authorizationLock.newCondition();
+    private static volatile CompletableFuture<Boolean> authorized = new CompletableFuture<>();
 
-    private static final ConcurrentMap<Long, TdApi.User> users = new ConcurrentHashMap<>();
-
-    private static final ConcurrentMap<Long, TdApi.Chat> chats = new ConcurrentHashMap<>();
-    private static final NavigableSet<OrderedChat> mainChatList = new TreeSet<>();
-    private static boolean haveFullMainChatList = false;
+    // Changed only by the main handler lane of TDLib client, others read its snapshots:
+    private static final ChatStore chatStore = new ChatStore();
 
     // key: local file ID
     // value: upload progress in percents
     private static final ConcurrentMap<Integer, Float> fileUploadProgress =
             new ConcurrentHashMap<>();
+    // Local IDs of files, which uploading is cancelled — late updates of them are ignored:
+    private static final Set<Integer> cancelledUploads = ConcurrentHashMap.newKeySet();
     // key: temporary message ID
     // value: server message ID
     private static final ConcurrentMap<Long, CompletableFuture<Long>> sentMessageIds =
             new ConcurrentHashMap<>();
+    // key: local file ID
+    // value: start of upload, only if metrics are enabled
+    private static final ConcurrentMap<Integer, Long> uploadStarts = new ConcurrentHashMap<>();
+
+    private static final Timer UPLOAD_TIME = Metrics.timer("telepodcast_stage_seconds",
+            "Duration of stages of jobs", "stage", "upload");
+    private static final Counter UPLOADED_BYTES = Metrics.counter(
+            "telepodcast_uploaded_bytes_total", "Size of files uploaded to Telegram");
+    private static final Histogram FLOOD_WAIT = Metrics.histogram(
+            "telepodcast_flood_wait_seconds", "Waits before resending of messages",
+            new double[]{1, 5, 15, 30, 60, 300, 900, 3600});
 
     private static final String TDLIB_VERSION = "1.8.0";
     private static final String SAVED_MESSAGES_CHAT = "Saved Messages";
+    // Authorization state, chats, files and messages:
+    private static final int UPDATE_HANDLERS_COUNT = 10;
 
     public enum MessageSenderState
     {
@@ -81,70 +90,6 @@ public class TelegramTDLibConnector implements AutoCloseable
         TEXT, AUDIO, VIDEO
     }
 
-    static
-    {
-        try
-        {
-            System.loadLibrary("tdjni");
-        }
-        catch(UnsatisfiedLinkError e)
-        {
-            loadTDLibFromJar();
-        }
-    }
-
-    private static void loadTDLibFromJar()
-    {
-        String tmpDir = System.getProperty("java.io.tmpdir");
-        File tempDirectory = new File(tmpDir, "telegram" + System.nanoTime());
-        if(!tempDirectory.mkdir())
-        {
-            throw new IOError(
-                    new IOException(
-                            "Failed to create temporary directory " + tmpDir + " for tdjni!"));
-        }
-        tempDirectory.deleteOnExit();
-
-        final String libraryName = "libtdjni.so";
-        final String libraryJarPath = "/lib/" + libraryName;
-        File tempLibrary = new File(tempDirectory, libraryName);
-        try
-        {
-            @Cleanup
-            InputStream is = TelegramTDLibConnector.class.getResourceAsStream(libraryJarPath);
-            if(is == null)
-            {
-                //noinspection ResultOfMethodCallIgnored
-                tempLibrary.delete();
-                throw new IOError(new FileNotFoundException("Library " + libraryJarPath +
-                                                            " not found in JAR!"));
-            }
-            Files.copy(is, tempLibrary.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        }
-        catch(NullPointerException npe)
-        {
-            //noinspection ResultOfMethodCallIgnored
-            tempLibrary.delete();
-            throw new IOError(new FileNotFoundException("Library " + libraryJarPath +
-                                                        " not found in JAR!"));
-        }
-        catch(IOException ex)
-        {
-            //noinspection ResultOfMethodCallIgnored
-            tempLibrary.delete();
-            throw new IOError(ex);
-        }
-
-        try
-        {
-            System.load(tempLibrary.getAbsolutePath());
-        }
-        finally
-        {
-            tempLibrary.deleteOnExit();
-        }
-    }
-
     public TelegramTDLibConnector(TelegramOptions options) throws TelegramInitException
     {
         if(options.getApiId() == 0 || options.getApiHash().isBlank())
@@ -158,10 +103,21 @@ public class TelegramTDLibConnector implements AutoCloseable
         this.tdlibLog = options.getTdlibLog();
         this.tdlibDir = options.getTdlibDir();
         this.debug = options.isDebug();
+        this.updateDispatcher = createUpdateDispatcher(options.getUpdateInterests());
     }
 
     public CompletableFuture<Boolean> init() throws TelegramInitException
     {
+        try
+        {
+            TDLibLoader.load();
+        }
+        catch(IOException | UnsatisfiedLinkError e)
+        {
+            log.error("Failed to load TDLib: {}", e.getMessage());
+            throw new TelegramInitException(e);
+        }
+
         // Setup TDLib logging:
         if(debug)
         {
@@ -186,6 +142,7 @@ public class TelegramTDLibConnector implements AutoCloseable
         }
 
         // Authorization:
+        authorized = new CompletableFuture<>();
         client = Client.create(new UpdateHandler(), null, null);
         log.debug("Created client");
 
@@ -225,39 +182,19 @@ public class TelegramTDLibConnector implements AutoCloseable
             throw new TelegramInitException(e);
         }
 
-        return CompletableFuture.supplyAsync(() -> {
-            log.debug("Waiting for authorization...");
-            while(!haveAuthorization)
-            {
-                // await authorization
-                authorizationLock.lock();
-                try
-                {
-                    while(!haveAuthorization)
-                    {
-                        try
-                        {
-                            gotAuthorization.await();
-                        }
-                        catch(InterruptedException e)
-                        {
-                            throw new RuntimeException(e);
-                        }
-                    }
-                }
-                finally
-                {
-                    authorizationLock.unlock();
-                }
-            }
-            log.debug("Got authorization!");
-            return true;
-        });
+        // Completed by update handler, when authorization state becomes ready:
+        log.debug("Waiting for authorization...");
+        return authorized;
     }
 
     @Override
     public void close() throws Exception
     {
+        if(client == null)
+        {
+            // TDLib is not initialized — nothing to close:
+            return;
+        }
         needQuit = true;
         haveAuthorization = false;
         client.send(new TdApi.Close(), object -> {
@@ -279,95 +216,63 @@ public class TelegramTDLibConnector implements AutoCloseable
 
     public void loadChatList(final int limit)
     {
-        synchronized(mainChatList)
+        int countToLoad = chatStore.countToLoad(limit);
+        if(haveAuthorization && countToLoad > 0)
         {
-            if(haveAuthorization && !haveFullMainChatList && limit > mainChatList.size())
-            {
-                // Send LoadChats request if there are some unknown chats and have not enough
-                // known chats:
-                log.debug("Send TdApi.LoadChats message");
-                client.send(
-                        new TdApi.LoadChats(new TdApi.ChatListMain(), limit - mainChatList.size()),
-                        object -> {
-                            switch(object.getConstructor())
-                            {
-                                case TdApi.Error.CONSTRUCTOR ->
-                                {
-                                    log.debug("TdApi.LoadChats error");
-                                    if(((TdApi.Error)object).code == 404)
-                                    {
-                                        synchronized(mainChatList)
-                                        {
-                                            log.debug("Have full main chat list");
-                                            haveFullMainChatList = true;
-                                        }
-                                    }
-                                    else
-                                    {
-                                        log.error("Receive an error for LoadChats: {}", object);
-                                    }
-                                }
-                                case TdApi.Ok.CONSTRUCTOR ->
-                                {
-                                    log.debug("TdApi.LoadChats Ok");
-                                    // Chats already received through updates,
-                                    // let's retry request:
-                                    loadChatList(limit);
-                                }
-                                default ->
-                                        log.error("Receive wrong response from TDLib: {}", object);
-                            }
-                        });
-            }
+            // Send LoadChats request if there are some unknown chats and have not enough
+            // known chats:
+            log.debug("Send TdApi.LoadChats message");
+            client.send(new TdApi.LoadChats(new TdApi.ChatListMain(), countToLoad), object -> {
+                switch(object.getConstructor())
+                {
+                    case TdApi.Error.CONSTRUCTOR ->
+                    {
+                        log.debug("TdApi.LoadChats error");
+                        if(((TdApi.Error)object).code == 404)
+                        {
+                            log.debug("Have full main chat list");
+                            chatStore.setFullMainChatList();
+                        }
+                        else
+                        {
+                            log.error("Receive an error for LoadChats: {}", object);
+                        }
+                    }
+                    case TdApi.Ok.CONSTRUCTOR ->
+                    {
+                        log.debug("TdApi.LoadChats Ok");
+                        // Chats already received through updates, let's retry request:
+                        loadChatList(limit);
+                    }
+                    default -> log.error("Receive wrong response from TDLib: {}", object);
+                }
+            });
         }
     }
 
     public CompletableFuture<Boolean> isChatListLoaded(final int limit)
     {
-        return CompletableFuture.supplyAsync(() ->
+        if(!haveAuthorization)
         {
-            if(!haveAuthorization)
-            {
-                return false;
-            }
-            if(haveFullMainChatList)
-            {
-                return true;
-            }
-
-            int chatListSize = 0;
-            while(limit > chatListSize)
-            {
-                synchronized(mainChatList)
-                {
-                    chatListSize = mainChatList.size();
-                }
-                Thread.yield();
-            }
-            return true;
-        });
+            return CompletableFuture.completedFuture(false);
+        }
+        // Will be completed when enough chats are received via updates:
+        return chatStore.awaitLoaded(limit);
     }
 
     public CompletableFuture<Long> getSavedMessagesChatId(String chatName)
     {
         CompletableFuture<Long> result = new CompletableFuture<>();
 
-        synchronized(mainChatList)
+        ChatStore.Snapshot snapshot = chatStore.getSnapshot();
+        for(ChatStore.ChatEntry chat : snapshot.getChats())
         {
-            java.util.Iterator<OrderedChat> iter = mainChatList.iterator();
-            for(int i = 0; i < mainChatList.size(); i++)
+            if(chat.getTitle().equals(chatName) || chat.getTitle().equals(SAVED_MESSAGES_CHAT))
             {
-                long chatId = iter.next().chatId;
-                TdApi.Chat chat = chats.get(chatId);
-                synchronized(chat)
-                {
-                    if(chat.title.equals(chatName) || chat.title.equals(SAVED_MESSAGES_CHAT))
-                    {
-                        log.debug("Found chat: id={}, name={}", chatId, chat.title);
-                        result.complete(chatId);
-                        break;
-                    }
-                }
+                log.debug("Found chat: id={}, name={}, version of chat list={}", chat.getId(),
+                        chat.getTitle(), snapshot.getVersion());
+                result.complete(chat.getId());
+                break;
             }
         }
 
@@ -408,6 +313,7 @@ public class TelegramTDLibConnector implements AutoCloseable
     {
         CompletableFuture<Integer> result = new CompletableFuture<>();
         TdApi.FileType fileType;
+        long start = UPLOAD_TIME.start();
 
         switch(messageType)
         {
@@ -432,6 +338,10 @@ public class TelegramTDLibConnector implements AutoCloseable
                         {
                             TdApi.File uploadingFile = (TdApi.File)object;
                             fileUploadProgress.put(uploadingFile.id, 0.0f);
+                            if(start != 0)
+                            {
+                                uploadStarts.put(uploadingFile.id, start);
+                            }
                             log.debug("File {} uploading with id = {}", file.getAbsolutePath(),
                                     uploadingFile.id);
                             result.complete(uploadingFile.id);
@@ -457,6 +367,38 @@ public class TelegramTDLibConnector implements AutoCloseable
         return result;
     }
 
+    public CompletableFuture<Boolean> cancelUploadFile(int localFileId)
+    {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        cancelledUploads.add(localFileId);
+        fileUploadProgress.remove(localFileId);
+        uploadStarts.remove(localFileId);
+        client.send(new TdApi.CancelUploadFile(localFileId), object -> {
+            switch(object.getConstructor())
+            {
+                case TdApi.Ok.CONSTRUCTOR ->
+                {
+                    log.debug("Uploading of file with local ID = {} is cancelled", localFileId);
+                    result.complete(true);
+                }
+                case TdApi.Error.CONSTRUCTOR ->
+                {
+                    TdApi.Error error = (TdApi.Error)object;
+                    log.error("Failed to cancel uploading of file with local ID = {}",
+                            localFileId);
+                    log.error("Error code: {}. Message: {}", error.code, error.message);
+                    result.complete(false);
+                }
+                default ->
+                {
+                    log.error("Receive wrong response from TDLib: {}", object);
+                    result.complete(false);
+                }
+            }
+        });
+        return result;
+    }
+
     public float getUploadFileProgress(int localFileId) throws TelegramUploadFileException
     {
         Float progress = fileUploadProgress.get(localFileId);
@@ -497,8 +439,7 @@ public class TelegramTDLibConnector implements AutoCloseable
                     result.complete(ImmutablePair.of(MessageSenderState.FAIL, 0L));
                     return result;
                 }
-                content = new TdApi.InputMessageText(new TdApi.FormattedText(text, null), true,
-                        true);
+                content = new TdApi.InputMessageText(TextEntities.format(text), true, true);
             }
             case AUDIO ->
             {
@@ -509,10 +450,7 @@ public class TelegramTDLibConnector implements AutoCloseable
                     result.complete(ImmutablePair.of(MessageSenderState.FAIL, 0L));
                     return result;
                 }
-                TdApi.FormattedText audioCaption =
-                        additionalData.getLeft() != null ?
-                        new TdApi.FormattedText(additionalData.getLeft(), null) :
-                        null;
+                TdApi.FormattedText audioCaption = TextEntities.format(additionalData.getLeft());
                 int audioDuration = additionalData.getRight();
                 // TODO: send album cover thumbnail
                 content = new TdApi.InputMessageAudio(new TdApi.InputFileId(audioFileId), null,
@@ -527,10 +465,7 @@ public class TelegramTDLibConnector implements AutoCloseable
                     result.complete(ImmutablePair.of(MessageSenderState.FAIL, 0L));
                     return result;
                 }
-                TdApi.FormattedText videoCaption =
-                        additionalData.getLeft() != null ?
-                        new TdApi.FormattedText(additionalData.getLeft(), null) :
-                        null;
+                TdApi.FormattedText videoCaption = TextEntities.format(additionalData.getLeft());
                 int videoDuration = additionalData.getRight();
                 content = new TdApi.InputMessageVideo(new TdApi.InputFileId(videoFileId), null,
                         new int[]{}, videoDuration, 0, 0, true, videoCaption, 0);
@@ -566,6 +501,7 @@ public class TelegramTDLibConnector implements AutoCloseable
                     TdApi.MessageSendingStateFailed fail = (TdApi.MessageSendingStateFailed)state;
                     if(fail.canRetry)
                     {
+                        FLOOD_WAIT.observe(fail.retryAfter);
                         result.completeAsync(() -> {
                             try
                             {
@@ -613,35 +549,6 @@ public class TelegramTDLibConnector implements AutoCloseable
     }
 
 
-    private static void setChatPositions(TdApi.Chat chat, TdApi.ChatPosition[] positions)
-    {
-        synchronized(mainChatList)
-        {
-            synchronized(chat)
-            {
-                for(TdApi.ChatPosition position : chat.positions)
-                {
-                    if(position.list.getConstructor() == TdApi.ChatListMain.CONSTRUCTOR)
-                    {
-                        boolean isRemoved = mainChatList.remove(new OrderedChat(chat.id, position));
-                        assert isRemoved;
-                    }
-                }
-
-                chat.positions = positions;
-
-                for(TdApi.ChatPosition position : chat.positions)
-                {
-                    if(position.list.getConstructor() == TdApi.ChatListMain.CONSTRUCTOR)
-                    {
-                        boolean isAdded = mainChatList.add(new OrderedChat(chat.id, position));
-                        assert isAdded;
-                    }
-                }
-            }
-        }
-    }
-
     private void onAuthorizationStateUpdated(TdApi.AuthorizationState authorizationState)
     {
         if(authorizationState != null)
@@ -708,15 +615,8 @@ public class TelegramTDLibConnector implements AutoCloseable
             }
             case TdApi.AuthorizationStateReady.CONSTRUCTOR:
                 haveAuthorization = true;
-                authorizationLock.lock();
-                try
-                {
-                    gotAuthorization.signal();
-                }
-                finally
-                {
-                    authorizationLock.unlock();
-                }
+                log.debug("Got authorization!");
+                authorized.complete(true);
                 break;
             case TdApi.AuthorizationStateLoggingOut.CONSTRUCTOR:
                 haveAuthorization = false;
@@ -766,288 +666,113 @@ public class TelegramTDLibConnector implements AutoCloseable
         return str;
     }
 
-    private static class OrderedChat implements Comparable<OrderedChat>
+    /**
+     * Makes table of handlers of interesting updates. Handlers of authorization and chats work
+     * in the main handler lane of TDLib client — the only writer of {@code chatStore}.
+     *
+     * @param interests Groups of updates to handle.
+     *
+     * @return Table of handlers.
+     */
+    private UpdateDispatcher createUpdateDispatcher(Set<UpdateInterest> interests)
     {
-        final long chatId;
-        final TdApi.ChatPosition position;
+        UpdateDispatcher dispatcher = new UpdateDispatcher(UPDATE_HANDLERS_COUNT);
+        dispatcher.register(TdApi.UpdateAuthorizationState.CONSTRUCTOR,
+                object -> onAuthorizationStateUpdated(
+                        ((TdApi.UpdateAuthorizationState)object).authorizationState));
 
-        OrderedChat(long chatId, TdApi.ChatPosition position)
+        if(interests.contains(UpdateInterest.CHATS))
         {
-            this.chatId = chatId;
-            this.position = position;
+            dispatcher.register(TdApi.UpdateNewChat.CONSTRUCTOR,
+                    object -> chatStore.addChat(((TdApi.UpdateNewChat)object).chat));
+            dispatcher.register(TdApi.UpdateChatTitle.CONSTRUCTOR, object -> {
+                TdApi.UpdateChatTitle update = (TdApi.UpdateChatTitle)object;
+                chatStore.setChatTitle(update.chatId, update.title);
+            });
+            dispatcher.register(TdApi.UpdateChatPosition.CONSTRUCTOR, object -> {
+                TdApi.UpdateChatPosition update = (TdApi.UpdateChatPosition)object;
+                if(update.position.list.getConstructor() == TdApi.ChatListMain.CONSTRUCTOR)
+                {
+                    chatStore.setMainChatPosition(update.chatId, update.position);
+                }
+            });
+            // Only positions are taken from these updates:
+            dispatcher.register(TdApi.UpdateChatLastMessage.CONSTRUCTOR, object -> {
+                TdApi.UpdateChatLastMessage update = (TdApi.UpdateChatLastMessage)object;
+                chatStore.setChatPositions(update.chatId, update.positions);
+            });
+            dispatcher.register(TdApi.UpdateChatDraftMessage.CONSTRUCTOR, object -> {
+                TdApi.UpdateChatDraftMessage update = (TdApi.UpdateChatDraftMessage)object;
+                chatStore.setChatPositions(update.chatId, update.positions);
+            });
         }
 
-        @Override
-        public int compareTo(OrderedChat o)
+        if(interests.contains(UpdateInterest.FILES))
         {
-            if(this.position.order != o.position.order)
-            {
-                return o.position.order < this.position.order ? -1 : 1;
-            }
-            if(this.chatId != o.chatId)
-            {
-                return o.chatId < this.chatId ? -1 : 1;
-            }
-            return 0;
+            dispatcher.register(TdApi.UpdateFile.CONSTRUCTOR, object -> {
+                TdApi.UpdateFile update = (TdApi.UpdateFile)object;
+                if(!cancelledUploads.contains(update.file.id))
+                {
+                    Float progress = update.file.remote.uploadedSize /
+                                     (float)update.file.expectedSize * 100;
+                    fileUploadProgress.put(update.file.id, progress);
+                    if(update.file.remote.isUploadingCompleted)
+                    {
+                        Long start = uploadStarts.remove(update.file.id);
+                        if(start != null)
+                        {
+                            UPLOAD_TIME.record(start);
+                            UPLOADED_BYTES.add(update.file.remote.uploadedSize);
+                        }
+                    }
+                }
+            });
         }
 
-        @Override
-        public boolean equals(Object obj)
+        if(interests.contains(UpdateInterest.MESSAGES))
         {
-            if(!(obj instanceof OrderedChat o))
-            {
-                return false;
-            }
-            return this.chatId == o.chatId && this.position.order == o.position.order;
+            dispatcher.register(TdApi.UpdateMessageSendSucceeded.CONSTRUCTOR, object -> {
+                TdApi.UpdateMessageSendSucceeded succeeded =
+                        (TdApi.UpdateMessageSendSucceeded)object;
+                log.debug("Message with local ID {} and server ID {} successfully sent",
+                        succeeded.oldMessageId, succeeded.message.id);
+                CompletableFuture<Long> compl = sentMessageIds.get(succeeded.oldMessageId);
+                compl.complete(succeeded.message.id);
+            });
+            dispatcher.register(TdApi.UpdateMessageSendFailed.CONSTRUCTOR, object -> {
+                TdApi.UpdateMessageSendFailed failed = (TdApi.UpdateMessageSendFailed)object;
+                log.error("Failed to send message, local ID: {}, message: {}," +
+                          "error code = {}, error message = {}",
+                        failed.oldMessageId, failed.message.content.toString(),
+                        failed.errorCode, failed.errorMessage);
+            });
         }
+        return dispatcher;
     }
 
+    /**
+     * Handler of TDLib updates. Passes interesting updates to their handlers, other updates are
+     * dropped.
+     */
     private class UpdateHandler implements Client.ResultHandler
     {
         @Override
         public void onResult(TdApi.Object object)
         {
-            switch(object.getConstructor())
-            {
-                case TdApi.UpdateAuthorizationState.CONSTRUCTOR -> onAuthorizationStateUpdated(
-                        ((TdApi.UpdateAuthorizationState)object).authorizationState);
-                case TdApi.UpdateUser.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateUser updateUser = (TdApi.UpdateUser)object;
-                    users.put(updateUser.user.id, updateUser.user);
-                }
-                case TdApi.UpdateUserStatus.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateUserStatus updateUserStatus = (TdApi.UpdateUserStatus)object;
-                    TdApi.User user = users.get(updateUserStatus.userId);
-                    synchronized(user)
-                    {
-                        user.status = updateUserStatus.status;
-                    }
-                }
-                case TdApi.UpdateNewChat.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateNewChat updateNewChat = (TdApi.UpdateNewChat)object;
-                    TdApi.Chat chat = updateNewChat.chat;
-                    synchronized(chat)
-                    {
-                        chats.put(chat.id, chat);
-
-                        TdApi.ChatPosition[] positions = chat.positions;
-                        chat.positions = new TdApi.ChatPosition[0];
-                        setChatPositions(chat, positions);
-                    }
-                }
-                case TdApi.UpdateChatTitle.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatTitle updateChat = (TdApi.UpdateChatTitle)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.title = updateChat.title;
-                    }
-                }
-                case TdApi.UpdateChatPhoto.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatPhoto updateChat = (TdApi.UpdateChatPhoto)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.photo = updateChat.photo;
-                    }
-                }
-                case TdApi.UpdateChatLastMessage.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatLastMessage updateChat = (TdApi.UpdateChatLastMessage)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.lastMessage = updateChat.lastMessage;
-                        setChatPositions(chat, updateChat.positions);
-                    }
-                }
-                case TdApi.UpdateChatPosition.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatPosition updateChat = (TdApi.UpdateChatPosition)object;
-                    if(updateChat.position.list.getConstructor() != TdApi.ChatListMain.CONSTRUCTOR)
-                    {
-                        break;
-                    }
-
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        int i;
-                        for(i = 0; i < chat.positions.length; i++)
-                        {
-                            if(chat.positions[i].list.getConstructor() ==
-                               TdApi.ChatListMain.CONSTRUCTOR)
-                            {
-                                break;
-                            }
-                        }
-                        TdApi.ChatPosition[] new_positions = new TdApi.ChatPosition[
-                                chat.positions.length + (updateChat.position.order == 0 ? 0 : 1) -
-                                (i < chat.positions.length ? 1 : 0)];
-                        int pos = 0;
-                        if(updateChat.position.order != 0)
-                        {
-                            new_positions[pos++] = updateChat.position;
-                        }
-                        for(int j = 0; j < chat.positions.length; j++)
-                        {
-                            if(j != i)
-                            {
-                                new_positions[pos++] = chat.positions[j];
-                            }
-                        }
-                        assert pos == new_positions.length;
-
-                        setChatPositions(chat, new_positions);
-                    }
-                }
-                case TdApi.UpdateChatReadInbox.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatReadInbox updateChat = (TdApi.UpdateChatReadInbox)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.lastReadInboxMessageId = updateChat.lastReadInboxMessageId;
-                        chat.unreadCount = updateChat.unreadCount;
-                    }
-                }
-                case TdApi.UpdateChatReadOutbox.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatReadOutbox updateChat = (TdApi.UpdateChatReadOutbox)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.lastReadOutboxMessageId = updateChat.lastReadOutboxMessageId;
-                    }
-                }
-                case TdApi.UpdateChatUnreadMentionCount.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatUnreadMentionCount updateChat = (TdApi.UpdateChatUnreadMentionCount)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.unreadMentionCount = updateChat.unreadMentionCount;
-                    }
-                }
-                case TdApi.UpdateMessageMentionRead.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateMessageMentionRead updateChat = (TdApi.UpdateMessageMentionRead)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.unreadMentionCount = updateChat.unreadMentionCount;
-                    }
-                }
-                case TdApi.UpdateChatReplyMarkup.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatReplyMarkup updateChat = (TdApi.UpdateChatReplyMarkup)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.replyMarkupMessageId = updateChat.replyMarkupMessageId;
-                    }
-                }
-                case TdApi.UpdateChatDraftMessage.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatDraftMessage updateChat = (TdApi.UpdateChatDraftMessage)object;
-                    TdApi.Chat chat = chats.get(updateChat.chatId);
-                    synchronized(chat)
-                    {
-                        chat.draftMessage = updateChat.draftMessage;
-                        setChatPositions(chat, updateChat.positions);
-                    }
-                }
-                case TdApi.UpdateChatPermissions.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatPermissions update = (TdApi.UpdateChatPermissions)object;
-                    TdApi.Chat chat = chats.get(update.chatId);
-                    synchronized(chat)
-                    {
-                        chat.permissions = update.permissions;
-                    }
-                }
-                case TdApi.UpdateChatNotificationSettings.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatNotificationSettings update = (TdApi.UpdateChatNotificationSettings)object;
-                    TdApi.Chat chat = chats.get(update.chatId);
-                    synchronized(chat)
-                    {
-                        chat.notificationSettings = update.notificationSettings;
-                    }
-                }
-                case TdApi.UpdateChatDefaultDisableNotification.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatDefaultDisableNotification update = (TdApi.UpdateChatDefaultDisableNotification)object;
-                    TdApi.Chat chat = chats.get(update.chatId);
-                    synchronized(chat)
-                    {
-                        chat.defaultDisableNotification = update.defaultDisableNotification;
-                    }
-                }
-                case TdApi.UpdateChatIsMarkedAsUnread.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatIsMarkedAsUnread update = (TdApi.UpdateChatIsMarkedAsUnread)object;
-                    TdApi.Chat chat = chats.get(update.chatId);
-                    synchronized(chat)
-                    {
-                        chat.isMarkedAsUnread = update.isMarkedAsUnread;
-                    }
-                }
-                case TdApi.UpdateChatIsBlocked.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatIsBlocked update = (TdApi.UpdateChatIsBlocked)object;
-                    TdApi.Chat chat = chats.get(update.chatId);
-                    synchronized(chat)
-                    {
-                        chat.isBlocked = update.isBlocked;
-                    }
-                }
-                case TdApi.UpdateChatHasScheduledMessages.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateChatHasScheduledMessages update = (TdApi.UpdateChatHasScheduledMessages)object;
-                    TdApi.Chat chat = chats.get(update.chatId);
-                    synchronized(chat)
-                    {
-                        chat.hasScheduledMessages = update.hasScheduledMessages;
-                    }
-                }
-                case TdApi.UpdateFile.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateFile update = (TdApi.UpdateFile)object;
-                    Float progress = update.file.remote.uploadedSize /
-                                     (float)update.file.expectedSize * 100;
-                    fileUploadProgress.put(update.file.id, progress);
-                }
-                case TdApi.UpdateMessageSendSucceeded.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateMessageSendSucceeded succeeded =
-                            (TdApi.UpdateMessageSendSucceeded)object;
-                    log.debug("Message with local ID {} and server ID {} successfully sent",
-                            succeeded.oldMessageId, succeeded.message.id);
-                    CompletableFuture<Long> compl = sentMessageIds.get(succeeded.oldMessageId);
-                    compl.complete(succeeded.message.id);
-                }
-                case TdApi.UpdateMessageSendFailed.CONSTRUCTOR ->
-                {
-                    TdApi.UpdateMessageSendFailed failed = (TdApi.UpdateMessageSendFailed)object;
-                    log.error("Failed to send message, local ID: {}, message: {}," +
-                              "error code = {}, error message = {}",
-                            failed.oldMessageId, failed.message.content.toString(),
-                            failed.errorCode, failed.errorMessage);
-                }
-                default ->
-                {
-                    //logger.debug("Unsupported update: {}", object);
-                }
-            }
+            onUpdate(object);
         }
     }
 
+    /**
+     * Handles update from TDLib. Package-private for benchmarks of dispatching.
+     *
+     * @param object Update from TDLib.
+     */
+    void onUpdate(TdApi.Object object)
+    {
+        updateDispatcher.dispatch(object);
+    }
+
     private class AuthorizationRequestHandler implements Client.ResultHandler
     {
         @Override
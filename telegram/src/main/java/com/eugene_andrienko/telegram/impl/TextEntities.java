@@ -0,0 +1,131 @@
+package com.eugene_andrienko.telegram.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.drinkless.tdlib.TdApi;
+
+
+/**
+ * Finds links and time codes in text of message or caption and marks them as text entities.
+ *
+ * Time codes become media timestamps — in caption of audio or video and in replies to it
+ * Telegram rewinds the media to them on click. Offsets and lengths of entities are in UTF-16
+ * characters, as in Java strings.
+ */
+final class TextEntities
+{
+    /**
+     * Link: from scheme to the first whitespace.
+     */
+    private static final Pattern LINK = Pattern.compile("https?://\\S+");
+    /**
+     * Punctuation at the end of link, which is the part of sentence, not of link.
+     */
+    private static final String LINK_TRAILING_PUNCTUATION = ".,;:!?)]}>»\"'";
+    /**
+     * Time code: {@code 1:02:03}, {@code 12:34}, {@code 1:23}. Not a part of longer number with
+     * colons.
+     */
+    private static final Pattern TIME_CODE = Pattern.compile(
+            "(?<![\\d:])(?:(\\d{1,2}):)?(\\d{1,2}):(\\d{2})(?![\\d:])");
+
+    private TextEntities()
+    {
+    }
+
+    /**
+     * Makes formatted text with links and time codes.
+     *
+     * @param text Text of message or caption.
+     *
+     * @return Formatted text, {@code null} if text is {@code null}.
+     */
+    static TdApi.FormattedText format(String text)
+    {
+        if(text == null)
+        {
+            return null;
+        }
+        List<TdApi.TextEntity> entities = find(text);
+        return new TdApi.FormattedText(text,
+                entities.isEmpty() ? null : entities.toArray(new TdApi.TextEntity[0]));
+    }
+
+    /**
+     * Finds links and time codes in text.
+     *
+     * @param text Text of message or caption.
+     *
+     * @return Entities in order of offsets, they do not overlap.
+     */
+    static List<TdApi.TextEntity> find(String text)
+    {
+        List<TdApi.TextEntity> entities = new ArrayList<>();
+        Matcher link = LINK.matcher(text);
+        Matcher timeCode = TIME_CODE.matcher(text);
+        int position = 0;
+        boolean hasLink = link.find();
+        while(timeCode.find(position))
+        {
+            // Links before time code and link with time code inside:
+            while(hasLink && link.start() < timeCode.end())
+            {
+                int end = trimLink(text, link.start(), link.end());
+                entities.add(new TdApi.TextEntity(link.start(), end - link.start(),
+                        new TdApi.TextEntityTypeUrl()));
+                position = link.end();
+                hasLink = link.find();
+            }
+            if(timeCode.start() < position)
+            {
+                continue;
+            }
+            int seconds = toSeconds(timeCode);
+            if(seconds >= 0)
+            {
+                entities.add(new TdApi.TextEntity(timeCode.start(),
+                        timeCode.end() - timeCode.start(),
+                        new TdApi.TextEntityTypeMediaTimestamp(seconds)));
+            }
+            position = timeCode.end();
+        }
+        while(hasLink)
+        {
+            int end = trimLink(text, link.start(), link.end());
+            entities.add(new TdApi.TextEntity(link.start(), end - link.start(),
+                    new TdApi.TextEntityTypeUrl()));
+            hasLink = link.find();
+        }
+        return entities;
+    }
+
+    private static int trimLink(String text, int start, int end)
+    {
+        while(end > start + 1 && LINK_TRAILING_PUNCTUATION.indexOf(text.charAt(end - 1)) >= 0)
+        {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Converts found time code to seconds.
+     *
+     * @param matcher Matcher with found time code.
+     *
+     * @return Seconds from the start of media, -1 if minutes or seconds are out of range.
+     */
+    private static int toSeconds(Matcher matcher)
+    {
+        int hours = matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1));
+        int minutes = Integer.parseInt(matcher.group(2));
+        int seconds = Integer.parseInt(matcher.group(3));
+        if(seconds >= 60 || (matcher.group(1) != null && minutes >= 60))
+        {
+            return -1;
+        }
+        return hours * 3600 + minutes * 60 + seconds;
+    }
+}
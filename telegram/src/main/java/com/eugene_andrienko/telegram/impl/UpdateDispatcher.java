@@ -0,0 +1,102 @@
+package com.eugene_andrienko.telegram.impl;
+
+import java.util.function.Consumer;
+import org.drinkless.tdlib.TdApi;
+
+
+/**
+ * Table of handlers of TDLib objects by their constructor IDs.
+ *
+ * Handlers are registered once, before the first dispatch. Table is an open addressing hash
+ * table on arrays: dispatch of object without handler is a few array reads — without boxing of
+ * constructor ID and without allocations.
+ */
+final class UpdateDispatcher
+{
+    private final int[] constructors;
+    private final Consumer<TdApi.Object>[] handlers;
+    private final int mask;
+    private int size = 0;
+
+    /**
+     * Creates empty table.
+     *
+     * @param capacity Maximal count of handlers.
+     */
+    @SuppressWarnings("unchecked")
+    UpdateDispatcher(int capacity)
+    {
+        // Table is at most half full — probe sequences are short:
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1) << 1;
+        constructors = new int[tableSize];
+        handlers = new Consumer[tableSize];
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Registers handler of objects with given constructor ID.
+     *
+     * @param constructor Constructor ID, {@code CONSTRUCTOR} field of TDLib class.
+     * @param handler     Handler of objects. Replaces previous handler of this constructor ID.
+     *
+     * @throws IllegalStateException Table is full.
+     */
+    void register(int constructor, Consumer<TdApi.Object> handler)
+    {
+        int i = indexOf(constructor);
+        if(handlers[i] == null)
+        {
+            if(size * 2 >= handlers.length)
+            {
+                throw new IllegalStateException("Too many handlers of TDLib objects");
+            }
+            size++;
+        }
+        constructors[i] = constructor;
+        handlers[i] = handler;
+    }
+
+    /**
+     * Passes object to its handler.
+     *
+     * @param object TDLib object.
+     *
+     * @return {@code True} if object is handled, {@code false} if it has no handler and dropped.
+     */
+    boolean dispatch(TdApi.Object object)
+    {
+        Consumer<TdApi.Object> handler = handlers[indexOf(object.getConstructor())];
+        if(handler == null)
+        {
+            return false;
+        }
+        handler.accept(object);
+        return true;
+    }
+
+    /**
+     * Is there a handler of given constructor ID.
+     *
+     * @param constructor Constructor ID.
+     *
+     * @return {@code True} if handler is registered.
+     */
+    boolean isHandled(int constructor)
+    {
+        return handlers[indexOf(constructor)] != null;
+    }
+
+    /**
+     * Finds slot of constructor ID: slot with it or the first empty slot of its probe sequence.
+     */
+    private int indexOf(int constructor)
+    {
+        // Constructor IDs are CRC32 of TDLib schema lines, Fibonacci hashing mixes them well:
+        int i = (constructor * 0x9E3779B9) >>> 16 & mask;
+        while(handlers[i] != null && constructors[i] != constructor)
+        {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+}
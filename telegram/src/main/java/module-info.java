@@ -5,4 +5,5 @@ module telepodcast.telegram {
     requires org.apache.logging.log4j.core;
     requires lombok;
     requires org.apache.commons.lang3;
+    requires telepodcast.metrics;
 }
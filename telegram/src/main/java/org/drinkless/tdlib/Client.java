@@ -8,6 +8,8 @@
 
 package org.drinkless.tdlib;
 
+import com.eugene_andrienko.metrics.api.Metrics;
+import com.eugene_andrienko.telegram.impl.HandlerMetrics;
 import com.eugene_andrienko.telegram.impl.TelegramCleanerProvider;
 import java.lang.ref.Cleaner;
 import java.util.concurrent.ConcurrentHashMap;
@@ -169,27 +171,16 @@ public final class Client implements AutoCloseable
             Handler handler = id == 0 ? updateHandlers.get(clientId) : handlers.remove(id);
             if(handler != null)
             {
+                long receivedAt = System.nanoTime();
                 try
                 {
-                    handler.resultHandler.onResult(object);
+                    handlerLanes.execute(orderingKey(object),
+                            () -> runHandler(clientId, handler, object, receivedAt));
                 }
-                catch(Throwable cause)
+                catch(InterruptedException e)
                 {
-                    ExceptionHandler exceptionHandler = handler.exceptionHandler;
-                    if(exceptionHandler == null)
-                    {
-                        exceptionHandler = defaultExceptionHandlers.get(clientId);
-                    }
-                    if(exceptionHandler != null)
-                    {
-                        try
-                        {
-                            exceptionHandler.onException(cause);
-                        }
-                        catch(Throwable ignored)
-                        {
-                        }
-                    }
+                    // Receiver is never interrupted, but handler should not be lost:
+                    runHandler(clientId, handler, object, receivedAt);
                 }
             }
 
@@ -201,6 +192,36 @@ public final class Client implements AutoCloseable
             }
         }
 
+        private void runHandler(int clientId, Handler handler, TdApi.Object object,
+                long receivedAt)
+        {
+            long startedAt = System.nanoTime();
+            try
+            {
+                handler.resultHandler.onResult(object);
+            }
+            catch(Throwable cause)
+            {
+                ExceptionHandler exceptionHandler = handler.exceptionHandler;
+                if(exceptionHandler == null)
+                {
+                    exceptionHandler = defaultExceptionHandlers.get(clientId);
+                }
+                if(exceptionHandler != null)
+                {
+                    try
+                    {
+                        exceptionHandler.onException(cause);
+                    }
+                    catch(Throwable ignored)
+                    {
+                    }
+                }
+            }
+            HandlerMetrics.record(object.getClass(), startedAt - receivedAt,
+                    System.nanoTime() - startedAt);
+        }
+
         private static final int MAX_EVENTS = 1000;
         private final int[] clientIds = new int[MAX_EVENTS];
         private final long[] eventIds = new long[MAX_EVENTS];
@@ -217,6 +238,51 @@ public final class Client implements AutoCloseable
 
     private static final ResponseReceiver responseReceiver = new ResponseReceiver();
 
+    /**
+     * Count of threads for handlers of results, {@code -Dtelepodcast.tdlibHandlerThreads=N}.
+     */
+    private static final String HANDLER_THREADS_PROPERTY = "telepodcast.tdlibHandlerThreads";
+    private static final HandlerLanes handlerLanes = new HandlerLanes(
+            Integer.getInteger(HANDLER_THREADS_PROPERTY, 4), ResponseReceiver.MAX_EVENTS);
+
+    static
+    {
+        Metrics.gauge("telepodcast_tdlib_handler_queue_depth",
+                "Results of TDLib waiting for handler thread", handlerLanes::queued);
+    }
+
+    /**
+     * Returns ordering key of TDLib result: results with equal keys are handled in order of
+     * receiving, results with different keys — in parallel.
+     *
+     * Updates of a file and answers with it are ordered by file ID. Answers with messages and
+     * results of sending of messages are ordered by chat ID — so the answer is handled before
+     * the result of sending. All other results (authorization, chat list updates and answers to
+     * other requests) have key 0 and are handled in order of receiving, as by one thread.
+     *
+     * @param object Result from TDLib.
+     *
+     * @return Ordering key.
+     */
+    static long orderingKey(TdApi.Object object)
+    {
+        switch(object.getConstructor())
+        {
+            case TdApi.UpdateFile.CONSTRUCTOR:
+                return ((TdApi.UpdateFile)object).file.id;
+            case TdApi.File.CONSTRUCTOR:
+                return ((TdApi.File)object).id;
+            case TdApi.Message.CONSTRUCTOR:
+                return ((TdApi.Message)object).chatId;
+            case TdApi.UpdateMessageSendSucceeded.CONSTRUCTOR:
+                return ((TdApi.UpdateMessageSendSucceeded)object).message.chatId;
+            case TdApi.UpdateMessageSendFailed.CONSTRUCTOR:
+                return ((TdApi.UpdateMessageSendFailed)object).message.chatId;
+            default:
+                return 0;
+        }
+    }
+
     private final Cleaner.Cleanable cleanable;
 
     private static class Handler
@@ -0,0 +1,107 @@
+package org.drinkless.tdlib;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * Threads which execute handlers of TDLib results.
+ *
+ * Every lane is a thread with a bounded queue. Tasks with the same ordering key go to the same
+ * lane and are executed in order of submission, tasks with different keys are executed in
+ * parallel. If lane queue is full — submission waits, so slow handlers slow down receiving
+ * instead of unbounded growth of queue.
+ */
+final class HandlerLanes
+{
+    private final Lane[] lanes;
+
+    /**
+     * Starts lanes.
+     *
+     * @param count    Count of lanes.
+     * @param capacity Maximal count of waiting tasks in one lane.
+     */
+    HandlerLanes(int count, int capacity)
+    {
+        lanes = new Lane[Math.max(count, 1)];
+        for(int i = 0; i < lanes.length; i++)
+        {
+            lanes[i] = new Lane(capacity);
+            Thread thread = new Thread(lanes[i], "TDLib handlers-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Submits task to lane of given key.
+     *
+     * @param key  Ordering key: tasks with equal keys are executed one after another.
+     * @param task Task.
+     *
+     * @throws InterruptedException Interrupted while waiting for free space in lane.
+     */
+    void execute(long key, Runnable task) throws InterruptedException
+    {
+        lanes[laneOf(key)].queue.put(task);
+    }
+
+    /**
+     * Returns count of tasks waiting in all lanes.
+     *
+     * @return Count of tasks.
+     */
+    int queued()
+    {
+        int count = 0;
+        for(Lane lane : lanes)
+        {
+            count += lane.queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns lane of key. Key 0 always goes to lane 0.
+     *
+     * @param key Ordering key.
+     *
+     * @return Index of lane.
+     */
+    int laneOf(long key)
+    {
+        // Keys are IDs — mix bits so that sequential IDs are spread between lanes:
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int)Long.remainderUnsigned(mixed ^ (mixed >>> 32), lanes.length);
+    }
+
+    private static class Lane implements Runnable
+    {
+        final BlockingQueue<Runnable> queue;
+
+        Lane(int capacity)
+        {
+            queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run()
+        {
+            //noinspection InfiniteLoopStatement
+            while(true)
+            {
+                Runnable task;
+                try
+                {
+                    task = queue.take();
+                }
+                catch(InterruptedException e)
+                {
+                    continue;
+                }
+                task.run();
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 
@@ -172,6 +173,43 @@ public class TelegramApiTest
         assertThrows(TelegramUploadFileException.class, () -> forTest.getUploadingProgress(22));
     }
 
+    @Test
+    @DisplayName("Upload waits for the upload scheduler test")
+    @SneakyThrows
+    void uploadSchedulerTest()
+    {
+        Telegram mockedTelegram = mock(Telegram.class);
+        when(mockedTelegram.uploadVideo(any(File.class))).thenReturn(completableInteger);
+        UploadScheduler mockedScheduler = mock(UploadScheduler.class);
+        doNothing().doThrow(InterruptedException.class).when(mockedScheduler).acquire(anyLong());
+        TelegramApi forTest = new TelegramApi(mockedTelegram, 1, mockedScheduler);
+        File mockedFile = mock(File.class);
+        when(mockedFile.length()).thenReturn(42L);
+
+        assertEquals(MOCKED_ID, forTest.uploadVideo(mockedFile));
+        verify(mockedScheduler, times(1)).acquire(42L);
+        assertThrows(TelegramUploadFileException.class, () -> forTest.uploadVideo(mockedFile));
+        verify(mockedTelegram, times(1)).uploadVideo(mockedFile);
+        assertTrue(Thread.interrupted(), "Interrupt flag is not restored");
+    }
+
+    @Test
+    @DisplayName("Cancel upload test")
+    @SneakyThrows(TelegramUploadFileException.class)
+    void cancelUploadTest()
+    {
+        Telegram mockedTelegram = mock(Telegram.class);
+        when(mockedTelegram.cancelUpload(anyInt())).thenReturn(completableTrue)
+                                                   .thenReturn(completableFalse)
+                                                   .thenReturn(completableNeverBoolean);
+        TelegramApi forTest = new TelegramApi(mockedTelegram, 1);
+
+        forTest.cancelUpload(22);
+        verify(mockedTelegram, times(1)).cancelUpload(22);
+        assertThrows(TelegramUploadFileException.class, () -> forTest.cancelUpload(22));
+        assertThrows(TelegramUploadFileException.class, () -> forTest.cancelUpload(22));
+    }
+
 
     private CompletableFuture<Boolean> completableTrue;
     private CompletableFuture<Boolean> completableFalse;
@@ -0,0 +1,45 @@
+package com.eugene_andrienko.telegram.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class UploadSchedulerTest
+{
+    private static final long LIMIT = 1000;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("No limit test")
+    void noLimitTest()
+    {
+        UploadScheduler forTest = new UploadScheduler(0);
+        assertEquals(0, forTest.reserve(Long.MAX_VALUE / 2));
+        assertEquals(0, forTest.reserve(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    @DisplayName("Uploads are paced by the limit")
+    void pacingTest()
+    {
+        AtomicLong clock = new AtomicLong(0);
+        UploadScheduler forTest = new UploadScheduler(LIMIT, clock::get);
+
+        // The first upload starts at once, the next ones wait for bytes of previous ones:
+        assertEquals(0, forTest.reserve(5 * LIMIT));
+        assertEquals(4 * SECOND, forTest.reserve(LIMIT));
+        assertEquals(5 * SECOND, forTest.reserve(LIMIT));
+
+        clock.set(5 * SECOND);
+        assertEquals(SECOND, forTest.reserve(LIMIT));
+
+        // Idle time gives not more than one second of traffic:
+        clock.set(100 * SECOND);
+        assertEquals(0, forTest.reserve(LIMIT / 2));
+        assertEquals(0, forTest.reserve(LIMIT));
+        assertEquals(SECOND / 2, forTest.reserve(1));
+    }
+}
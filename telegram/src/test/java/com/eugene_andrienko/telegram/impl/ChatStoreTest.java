@@ -0,0 +1,117 @@
+package com.eugene_andrienko.telegram.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.drinkless.tdlib.TdApi;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ChatStoreTest
+{
+    @Test
+    @DisplayName("Snapshots follow the main chat list test")
+    void snapshotTest()
+    {
+        ChatStore forTest = new ChatStore();
+        ChatStore.Snapshot empty = forTest.getSnapshot();
+        assertEquals(0, empty.getChats().size());
+
+        forTest.addChat(chat(1, "First", 10));
+        forTest.addChat(chat(2, "Second", 20));
+        forTest.addChat(chat(3, "Archived", 0));
+        ChatStore.Snapshot snapshot = forTest.getSnapshot();
+        assertEquals(List.of(new ChatStore.ChatEntry(2, "Second"),
+                new ChatStore.ChatEntry(1, "First")), snapshot.getChats());
+        assertTrue(snapshot.getVersion() > empty.getVersion());
+        // Published snapshots are not changed:
+        assertEquals(0, empty.getChats().size());
+
+        forTest.setMainChatPosition(1, position(30));
+        forTest.setChatTitle(2, "Renamed");
+        assertEquals(List.of(new ChatStore.ChatEntry(1, "First"),
+                new ChatStore.ChatEntry(2, "Renamed")), forTest.getSnapshot().getChats());
+        assertEquals(2, snapshot.getChats().size());
+        assertEquals("Second", snapshot.getChats().get(0).getTitle());
+
+        // Chats out of the main chat list do not change it:
+        long version = forTest.getSnapshot().getVersion();
+        forTest.setChatTitle(3, "Still archived");
+        assertEquals(version, forTest.getSnapshot().getVersion());
+
+        forTest.setMainChatPosition(2, position(0));
+        assertEquals(List.of(new ChatStore.ChatEntry(1, "First")),
+                forTest.getSnapshot().getChats());
+
+        // Updates of unknown chats are ignored:
+        version = forTest.getSnapshot().getVersion();
+        forTest.setChatTitle(42, "Unknown");
+        assertEquals(version, forTest.getSnapshot().getVersion());
+    }
+
+    @Test
+    @DisplayName("Only private chats are kept test")
+    void privateChatsTest()
+    {
+        ChatStore forTest = new ChatStore();
+        forTest.addChat(chat(1, "Saved Messages", 10));
+        TdApi.Chat group = chat(2, "Group", 20);
+        group.type = new TdApi.ChatTypeBasicGroup(2);
+        forTest.addChat(group);
+
+        ChatStore.Snapshot snapshot = forTest.getSnapshot();
+        assertEquals(List.of(new ChatStore.ChatEntry(1, "Saved Messages")), snapshot.getChats());
+        // Other chats are counted:
+        assertEquals(2, snapshot.getSize());
+        assertTrue(forTest.awaitLoaded(2).isDone());
+
+        forTest.setChatTitle(2, "Renamed group");
+        assertEquals(snapshot.getVersion(), forTest.getSnapshot().getVersion());
+
+        forTest.setMainChatPosition(2, position(0));
+        assertEquals(1, forTest.getSnapshot().getSize());
+        forTest.setChatPositions(2, new TdApi.ChatPosition[]{position(30)});
+        assertEquals(2, forTest.getSnapshot().getSize());
+        assertEquals(1, forTest.getSnapshot().getChats().size());
+    }
+
+    @Test
+    @DisplayName("Waiters for loading of chat list test")
+    void awaitLoadedTest()
+    {
+        ChatStore forTest = new ChatStore();
+        forTest.addChat(chat(1, "First", 10));
+        assertTrue(forTest.awaitLoaded(1).isDone());
+        assertEquals(1, forTest.countToLoad(2));
+
+        CompletableFuture<Boolean> two = forTest.awaitLoaded(2);
+        CompletableFuture<Boolean> hundred = forTest.awaitLoaded(100);
+        assertFalse(two.isDone());
+
+        forTest.addChat(chat(2, "Second", 20));
+        assertTrue(two.join());
+        assertFalse(hundred.isDone());
+
+        forTest.setFullMainChatList();
+        assertTrue(hundred.join());
+        assertEquals(0, forTest.countToLoad(100));
+    }
+
+    private static TdApi.Chat chat(long id, String title, long order)
+    {
+        TdApi.Chat chat = new TdApi.Chat();
+        chat.id = id;
+        chat.title = title;
+        chat.type = new TdApi.ChatTypePrivate(id);
+        chat.positions = order == 0 ?
+                         new TdApi.ChatPosition[0] :
+                         new TdApi.ChatPosition[]{position(order)};
+        return chat;
+    }
+
+    private static TdApi.ChatPosition position(long order)
+    {
+        return new TdApi.ChatPosition(new TdApi.ChatListMain(), order, false, null);
+    }
+}
@@ -204,9 +204,15 @@ public class TelegramTest
     void isReadyOkTest()
     {
         TelegramTDLibConnector mockedTelegram = mock(TelegramTDLibConnector.class);
+        when(mockedTelegram.init()).thenReturn(CompletableFuture.completedFuture(true));
+        when(mockedTelegram.isChatListLoaded(anyInt())).thenReturn(
+                CompletableFuture.completedFuture(true));
+        when(mockedTelegram.getSavedMessagesChatName()).thenReturn(
+                CompletableFuture.completedFuture("Fake chat name"));
+        when(mockedTelegram.getSavedMessagesChatId("Fake chat name")).thenReturn(
+                CompletableFuture.completedFuture(12L));
         Telegram telegram = new Telegram(mockedTelegram, 1);
-        AtomicLong savedMessagesId = Objects.requireNonNull(getChatIdField(telegram));
-        savedMessagesId.set(12);
+        telegram.login();
 
 
         assertTrue(telegram.isReady().get(),
@@ -0,0 +1,51 @@
+package com.eugene_andrienko.telegram.impl;
+
+import java.util.List;
+import org.drinkless.tdlib.TdApi;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class TextEntitiesTest
+{
+    @Test
+    @DisplayName("Links and time codes are found test")
+    void findTest()
+    {
+        String text = "00:00 Вступление\n1:02:03 Итоги (https://example.com/?t=12:34).\n" +
+                      "Цена 100:00, счёт 1:2, 12:75";
+        List<TdApi.TextEntity> entities = TextEntities.find(text);
+        assertEquals(3, entities.size());
+
+        assertEntity(entities.get(0), text, "00:00");
+        assertEquals(0, ((TdApi.TextEntityTypeMediaTimestamp)entities.get(0).type).mediaTimestamp);
+        assertEntity(entities.get(1), text, "1:02:03");
+        assertEquals(3723,
+                ((TdApi.TextEntityTypeMediaTimestamp)entities.get(1).type).mediaTimestamp);
+        assertEntity(entities.get(2), text, "https://example.com/?t=12:34");
+        assertInstanceOf(TdApi.TextEntityTypeUrl.class, entities.get(2).type);
+    }
+
+    @Test
+    @DisplayName("Formatted text test")
+    void formatTest()
+    {
+        assertNull(TextEntities.format(null));
+        TdApi.FormattedText plain = TextEntities.format("Просто текст");
+        assertEquals("Просто текст", plain.text);
+        assertNull(plain.entities);
+
+        // Offsets are in UTF-16 characters:
+        TdApi.FormattedText withEmoji = TextEntities.format("😀 http://a.b 05:00");
+        assertEquals(2, withEmoji.entities.length);
+        assertEquals(3, withEmoji.entities[0].offset);
+        assertEquals(10, withEmoji.entities[0].length);
+        assertEquals(14, withEmoji.entities[1].offset);
+    }
+
+    private static void assertEntity(TdApi.TextEntity entity, String text, String expected)
+    {
+        assertEquals(expected, text.substring(entity.offset, entity.offset + entity.length));
+    }
+}
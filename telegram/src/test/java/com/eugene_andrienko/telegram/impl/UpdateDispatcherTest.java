@@ -0,0 +1,47 @@
+package com.eugene_andrienko.telegram.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.drinkless.tdlib.TdApi;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class UpdateDispatcherTest
+{
+    @Test
+    @DisplayName("Objects are passed to handlers of their constructors test")
+    void dispatchTest()
+    {
+        List<String> handled = new ArrayList<>();
+        UpdateDispatcher forTest = new UpdateDispatcher(3);
+        forTest.register(TdApi.UpdateFile.CONSTRUCTOR, object -> handled.add("file"));
+        forTest.register(TdApi.UpdateNewChat.CONSTRUCTOR, object -> handled.add("chat"));
+        forTest.register(TdApi.UpdateNewChat.CONSTRUCTOR, object -> handled.add("new chat"));
+
+        assertTrue(forTest.dispatch(new TdApi.UpdateFile()));
+        assertTrue(forTest.dispatch(new TdApi.UpdateNewChat()));
+        assertFalse(forTest.dispatch(new TdApi.UpdateChatPhoto()));
+        assertFalse(forTest.dispatch(new TdApi.UpdateUserStatus()));
+        assertEquals(List.of("file", "new chat"), handled);
+
+        assertTrue(forTest.isHandled(TdApi.UpdateFile.CONSTRUCTOR));
+        assertFalse(forTest.isHandled(TdApi.UpdateChatPhoto.CONSTRUCTOR));
+    }
+
+    @Test
+    @DisplayName("Table is not overfilled test")
+    void capacityTest()
+    {
+        UpdateDispatcher forTest = new UpdateDispatcher(2);
+        forTest.register(1, object -> {});
+        forTest.register(2, object -> {});
+        assertThrows(IllegalStateException.class, () -> forTest.register(3, object -> {}));
+        // Handler of registered constructor ID can be replaced:
+        forTest.register(2, object -> {});
+        assertTrue(forTest.isHandled(1));
+        assertTrue(forTest.isHandled(2));
+        assertFalse(forTest.isHandled(3));
+    }
+}
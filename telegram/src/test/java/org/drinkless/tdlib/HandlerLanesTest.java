@@ -0,0 +1,81 @@
+package org.drinkless.tdlib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class HandlerLanesTest
+{
+    @Test
+    @DisplayName("Tasks with the same key are executed in order test")
+    void orderTest() throws InterruptedException
+    {
+        HandlerLanes forTest = new HandlerLanes(4, 10);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(100);
+        for(int i = 0; i < 100; i++)
+        {
+            int number = i;
+            forTest.execute(42, () -> {
+                executed.add(number);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for(int i = 0; i < 100; i++)
+        {
+            assertEquals(i, executed.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Slow task does not stall other lanes test")
+    void parallelTest() throws InterruptedException
+    {
+        HandlerLanes forTest = new HandlerLanes(2, 10);
+        long otherKey = 1;
+        while(forTest.laneOf(otherKey) == forTest.laneOf(0))
+        {
+            otherKey++;
+        }
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        forTest.execute(0, () -> {
+            try
+            {
+                release.await();
+            }
+            catch(InterruptedException ignored)
+            {
+            }
+        });
+        forTest.execute(otherKey, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Ordering keys of TDLib results test")
+    void orderingKeyTest()
+    {
+        TdApi.File file = new TdApi.File();
+        file.id = 7;
+        TdApi.Message message = new TdApi.Message();
+        message.chatId = 100;
+
+        assertEquals(7, Client.orderingKey(file));
+        assertEquals(7, Client.orderingKey(new TdApi.UpdateFile(file)));
+        assertEquals(100, Client.orderingKey(message));
+        assertEquals(100, Client.orderingKey(new TdApi.UpdateMessageSendSucceeded(message, 1)));
+        assertEquals(0, Client.orderingKey(new TdApi.UpdateChatTitle(100, "title")));
+        assertEquals(0, Client.orderingKey(new TdApi.Ok()));
+        assertEquals(0, new HandlerLanes(3, 1).laneOf(0));
+    }
+}
@@ -8,14 +8,15 @@ import com.eugene_andrienko.youtubedl.impl.IYoutubeDl;
 import com.eugene_andrienko.youtubedl.impl.YoutubeDlGenerator;
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Value;
 import lombok.extern.log4j.Log4j2;
 
 
-// TODO: download comment with timecodes (if no in video description).
-
 /**
  * API for {@code youtubedl} library - for downloading video and audio from YouTube.
  *
@@ -29,7 +30,7 @@ public class YouTubeDlApi implements AutoCloseable
     /**
      * Initializes YouTube downloader.
      *
-     * @param countOfThreads Count of threads to download files from YouTube.
+     * @param countOfThreads Maximal count of simultaneous downloads from YouTube.
      *
      * @throws IOException Failed to initialize YouTube downloader.
      */
@@ -38,6 +39,45 @@ public class YouTubeDlApi implements AutoCloseable
         youtubeDl = YoutubeDlGenerator.getInstance().generate(countOfThreads);
     }
 
+    /**
+     * Initializes YouTube downloader with limited download bandwidth.
+     *
+     * Bandwidth is shared equally between running downloads and rebalanced as downloads start
+     * and finish.
+     *
+     * @param countOfThreads Maximal count of simultaneous downloads from YouTube.
+     * @param downloadLimit  Total rate of all downloads in bytes per second, {@code 0} for no
+     *                       limit.
+     *
+     * @throws IOException Failed to initialize YouTube downloader.
+     */
+    public YouTubeDlApi(int countOfThreads, long downloadLimit) throws IOException
+    {
+        youtubeDl = YoutubeDlGenerator.getInstance().generate(countOfThreads, downloadLimit);
+    }
+
+    /**
+     * Initializes YouTube downloader with limited download bandwidth and search of chapters in
+     * comments.
+     *
+     * Chapters of video are taken from its metadata. If video has no chapters, they are
+     * searched in the most popular comments — it takes one more request to YouTube.
+     *
+     * @param countOfThreads  Maximal count of simultaneous downloads from YouTube.
+     * @param downloadLimit   Total rate of all downloads in bytes per second, {@code 0} for no
+     *                        limit.
+     * @param chapterComments Count of the most popular comments to search for chapters,
+     *                        {@code 0} — do not search.
+     *
+     * @throws IOException Failed to initialize YouTube downloader.
+     */
+    public YouTubeDlApi(int countOfThreads, long downloadLimit, int chapterComments)
+            throws IOException
+    {
+        youtubeDl = YoutubeDlGenerator.getInstance().generate(countOfThreads, downloadLimit,
+                chapterComments);
+    }
+
     /**
      * Initializes YouTube downloader — for test.
      *
@@ -78,6 +118,44 @@ public class YouTubeDlApi implements AutoCloseable
         youtubeDl.downloadVideo(url);
     }
 
+    /**
+     * Cancel download and remove its files.
+     *
+     * Download can be started again later.
+     *
+     * @param url URL to cancel download
+     *
+     * @return {@code True} if download was cancelled, {@code false} if no download for URL.
+     */
+    public boolean cancelDownload(String url)
+    {
+        return youtubeDl.cancelDownload(url);
+    }
+
+    /**
+     * Pause download, keeping partially downloaded files.
+     *
+     * @param url URL to pause download
+     *
+     * @return {@code True} if download was paused, {@code false} if nothing is downloading now.
+     */
+    public boolean pauseDownload(String url)
+    {
+        return youtubeDl.pauseDownload(url);
+    }
+
+    /**
+     * Resume paused download from partially downloaded files.
+     *
+     * @param url URL to resume download
+     *
+     * @return {@code True} if download was resumed, {@code false} if download is not paused.
+     */
+    public boolean resumeDownload(String url)
+    {
+        return youtubeDl.resumeDownload(url);
+    }
+
     /**
      * Get title of YouTube video from given URL
      *
@@ -97,6 +175,52 @@ public class YouTubeDlApi implements AutoCloseable
         }
     }
 
+    /**
+     * Get title of YouTube video from given URL, waiting for it not longer than given timeout.
+     *
+     * @param url     YouTube URL
+     * @param timeout Maximal time to wait for title
+     *
+     * @return Video title or null if no data or timeout is reached.
+     */
+    public String getTitle(String url, Duration timeout)
+    {
+        try
+        {
+            return youtubeDl.getTitle(url, timeout);
+        }
+        catch(YouTubeNoDataException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Get IDs of new videos from YouTube channel.
+     *
+     * Video is new if it is not recorded in given archive. Works synchronously.
+     *
+     * @param channelUrl URL to YouTube channel or playlist
+     * @param archive    File in yt-dlp download archive format with already processed videos
+     * @param limit      Maximal count of videos to list
+     * @param dateAfter  List only videos uploaded on or after this date ({@code YYYYMMDD}).
+     *                   Can be {@code null}.
+     *
+     * @return List of video IDs, from the newest one to the oldest one, or null if no data.
+     */
+    public List<String> getNewVideoIds(String channelUrl, File archive, int limit,
+            String dateAfter)
+    {
+        try
+        {
+            return youtubeDl.getNewVideoIds(channelUrl, archive, limit, dateAfter);
+        }
+        catch(YouTubeNoDataException ex)
+        {
+            return null;
+        }
+    }
+
     /**
      * Get download progress for given URL
      *
@@ -162,7 +286,7 @@ public class YouTubeDlApi implements AutoCloseable
     public enum DownloadState
     {
         DOWNLOADING, DOWNLOADED, AUDIO_ENCODING, VIDEO_ENCODING, VOLUME_INCREASE, COMPLETE, FAIL,
-        NO_DATA
+        PAUSED, CANCELLED, NO_DATA
     }
 
     /**
@@ -196,6 +320,32 @@ public class YouTubeDlApi implements AutoCloseable
         @Getter
         private int durationSeconds;
 
+        /**
+         * Chapters of video, from the first one. Empty if video has no chapters.
+         */
+        @Getter
+        @NonNull
+        private List<Chapter> chapters;
+
+        public YoutubeData(@NonNull File file, String description,
+                @NonNull ContentType contentType, int durationSeconds)
+        {
+            this(file, description, contentType, durationSeconds, List.of());
+        }
+
+        /**
+         * Chapter of video.
+         */
+        @Value
+        public static class Chapter
+        {
+            /**
+             * Start of chapter from the start of video.
+             */
+            int startSeconds;
+            String title;
+        }
+
         /**
          * Deletes the file to free disk space
          *
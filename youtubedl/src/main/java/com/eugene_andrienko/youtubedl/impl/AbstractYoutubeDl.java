@@ -1,14 +1,19 @@
 package com.eugene_andrienko.youtubedl.impl;
 
+import com.eugene_andrienko.common.ExecutorFactory;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.DownloadState;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.log4j.Log4j2;
 
 
@@ -17,23 +22,44 @@ public abstract class AbstractYoutubeDl implements AutoCloseable, IYoutubeDl
 {
     File tempDirectory;
     final ConcurrentMap<String, YoutubeData> downloadsTable = new ConcurrentHashMap<>();
-    final ConcurrentMap<String, Float> downloadProgressTable = new ConcurrentHashMap<>();
+    /**
+     * Download progress in basis points (hundredths of percent).
+     */
+    final ConcurrentMap<String, AtomicInteger> downloadProgressTable = new ConcurrentHashMap<>();
     final ConcurrentMap<String, DownloadState> downloadStateTable = new ConcurrentHashMap<>();
+    final ConcurrentMap<String, DownloadTask> downloadTasks = new ConcurrentHashMap<>();
+    private final AtomicInteger jobCounter = new AtomicInteger(0);
+    final DownloadBandwidth bandwidth;
     ExecutorService executorService;
 
     /**
      * Initializes {@code AbstractYoutubeDl} object.
      *
-     * @param countOfThreads Count of threads to download data from YouTube.
+     * @param countOfThreads Maximal count of simultaneous downloads from YouTube.
      *
      * @throws IOException Fail create a temporary directory for downloaded YouTube data.
      */
     public AbstractYoutubeDl(int countOfThreads) throws IOException
+    {
+        this(countOfThreads, 0);
+    }
+
+    /**
+     * Initializes {@code AbstractYoutubeDl} object with limited download bandwidth.
+     *
+     * @param countOfThreads Maximal count of simultaneous downloads from YouTube.
+     * @param downloadLimit  Total rate of all downloads in bytes per second, {@code 0} for no
+     *                       limit.
+     *
+     * @throws IOException Fail create a temporary directory for downloaded YouTube data.
+     */
+    public AbstractYoutubeDl(int countOfThreads, long downloadLimit) throws IOException
     {
         createTemporaryDirectory();
-        log.debug("Starting new fixed thread pool ({} threads) for YouTube downloader",
-                countOfThreads);
-        executorService = Executors.newFixedThreadPool(countOfThreads);
+        log.debug("Starting executor ({} simultaneous downloads, virtual threads: {}) for " +
+                  "YouTube downloader", countOfThreads, ExecutorFactory.isVirtualThreadsUsed());
+        executorService = ExecutorFactory.newLimitedExecutor("youtube-dl", countOfThreads);
+        bandwidth = new DownloadBandwidth(downloadLimit);
     }
 
     /**
@@ -44,6 +70,7 @@ public abstract class AbstractYoutubeDl implements AutoCloseable, IYoutubeDl
     AbstractYoutubeDl(ExecutorService service)
     {
         this.executorService = service;
+        this.bandwidth = new DownloadBandwidth(0);
     }
 
     /**
@@ -72,7 +99,8 @@ public abstract class AbstractYoutubeDl implements AutoCloseable, IYoutubeDl
     /**
      * Gracefully stop object's services.
      *
-     * Stops executor service, removes downloaded files and temporary directory.
+     * Stops executor service, cancels running downloads, removes downloaded files and temporary
+     * directory.
      *
      * @throws Exception Fail gracefully stop all services.
      */
@@ -80,13 +108,18 @@ public abstract class AbstractYoutubeDl implements AutoCloseable, IYoutubeDl
     public void close() throws Exception
     {
         executorService.shutdown();
+        // Downloaded files are removed first — cancel of finished download removes its directory:
         for(YoutubeData file : downloadsTable.values())
         {
             file.close();
         }
+        for(DownloadTask task : downloadTasks.values())
+        {
+            task.cancel();
+        }
         if(tempDirectory != null)
         {
-            if(!tempDirectory.delete())
+            if(!deleteDirectory(tempDirectory))
             {
                 log.error("Failed to delete {} directory!", tempDirectory.getAbsolutePath());
                 throw new IOException("Failed to delete temporary directory");
@@ -95,6 +128,200 @@ public abstract class AbstractYoutubeDl implements AutoCloseable, IYoutubeDl
         }
     }
 
+    /**
+     * Registers new download of given URL.
+     *
+     * Previous download of the same URL is cancelled.
+     *
+     * @param url URL to download
+     *
+     * @return Download, working in its own subdirectory of the temporary directory.
+     */
+    DownloadTask registerDownload(String url)
+    {
+        DownloadTask task = new DownloadTask(
+                new File(tempDirectory, "job" + jobCounter.incrementAndGet()));
+        downloadTasks.compute(url, (key, previous) -> {
+            if(previous != null)
+            {
+                log.debug("Restarting download of {}", url);
+                previous.cancel();
+                discardDownloadedData(url);
+            }
+            downloadProgressTable.put(url, task.getProgress());
+            downloadStateTable.put(url, DownloadState.DOWNLOADING);
+            return task;
+        });
+        return task;
+    }
+
+    /**
+     * Queues registered download for execution.
+     *
+     * @param task Registered download
+     * @param job  Download itself — the same job is executed again on resume
+     */
+    void submitDownload(DownloadTask task, Runnable job)
+    {
+        task.submit(executorService, job);
+    }
+
+    /**
+     * Changes state of download, if download is not cancelled or restarted.
+     *
+     * @param url   URL
+     * @param task  Download
+     * @param state New state
+     */
+    void updateState(String url, DownloadTask task, DownloadState state)
+    {
+        downloadTasks.computeIfPresent(url, (key, current) -> {
+            if(current == task)
+            {
+                downloadStateTable.put(url, state);
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Saves downloaded data, if download is not cancelled or restarted.
+     *
+     * @param url  URL
+     * @param task Download
+     * @param data Downloaded data
+     *
+     * @return {@code False} if download is cancelled or restarted.
+     */
+    boolean completeDownload(String url, DownloadTask task, YoutubeData data)
+    {
+        DownloadTask current = downloadTasks.computeIfPresent(url, (key, value) -> {
+            if(value == task)
+            {
+                downloadsTable.put(url, data);
+                downloadStateTable.put(url, DownloadState.COMPLETE);
+            }
+            return value;
+        });
+        return current == task;
+    }
+
+    /**
+     * Cancels download of given URL and removes its files.
+     *
+     * @param url URL
+     *
+     * @return {@code True} if download was cancelled, {@code false} if no download for URL.
+     */
+    @Override
+    public boolean cancelDownload(String url)
+    {
+        DownloadTask task = downloadTasks.remove(url);
+        if(task == null)
+        {
+            return false;
+        }
+        log.info("Cancelling download of {}", url);
+        downloadStateTable.put(url, DownloadState.CANCELLED);
+        downloadProgressTable.remove(url);
+        task.cancel();
+        discardDownloadedData(url);
+        return true;
+    }
+
+    /**
+     * Pauses download of given URL. Partially downloaded files are kept.
+     *
+     * @param url URL
+     *
+     * @return {@code True} if download was paused, {@code false} if download is not in the
+     * {@code DOWNLOADING} state or is still queued.
+     */
+    @Override
+    public boolean pauseDownload(String url)
+    {
+        DownloadTask task = downloadTasks.get(url);
+        if(task == null || getDownloadState(url) != DownloadState.DOWNLOADING || !task.pause())
+        {
+            return false;
+        }
+        log.info("Pausing download of {}", url);
+        updateState(url, task, DownloadState.PAUSED);
+        return true;
+    }
+
+    /**
+     * Resumes paused download of given URL.
+     *
+     * @param url URL
+     *
+     * @return {@code True} if download was resumed, {@code false} if download is not paused.
+     */
+    @Override
+    public boolean resumeDownload(String url)
+    {
+        DownloadTask task = downloadTasks.get(url);
+        if(task == null || !task.isPaused())
+        {
+            return false;
+        }
+        log.info("Resuming download of {}", url);
+        updateState(url, task, DownloadState.DOWNLOADING);
+        return task.resume();
+    }
+
+    private void discardDownloadedData(String url)
+    {
+        YoutubeData data = downloadsTable.remove(url);
+        if(data != null)
+        {
+            try
+            {
+                data.close();
+            }
+            catch(Exception ex)
+            {
+                log.error("Failed to delete downloaded data of {}", url);
+                log.debug("Exception: ", ex);
+            }
+        }
+    }
+
+    /**
+     * Deletes directory with all its content.
+     *
+     * @param directory Directory to delete
+     *
+     * @return {@code True} if directory is deleted or not exists.
+     */
+    static boolean deleteDirectory(File directory)
+    {
+        Path path = directory.toPath();
+        if(!Files.exists(path))
+        {
+            return true;
+        }
+        try(var files = Files.walk(path))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try
+                {
+                    Files.delete(file);
+                }
+                catch(IOException ex)
+                {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            return true;
+        }
+        catch(IOException | UncheckedIOException ex)
+        {
+            log.error("Failed to delete {}: {}", directory.getAbsolutePath(), ex.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Returns download progress in percents for given url.
      *
@@ -105,8 +332,8 @@ public abstract class AbstractYoutubeDl implements AutoCloseable, IYoutubeDl
      */
     public float getDownloadProgress(String url)
     {
-        Float progress = downloadProgressTable.get(url);
-        return Objects.requireNonNullElse(progress, 0.0f);
+        AtomicInteger progress = downloadProgressTable.get(url);
+        return progress != null ? ProgressParser.toPercents(progress.get()) : 0.0f;
     }
 
     /**
@@ -0,0 +1,116 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Shares download bandwidth between running downloads.
+ *
+ * Every running download gets equal share of the limit, passed to yt-dlp as
+ * {@code --limit-rate}. yt-dlp cannot change its rate on the fly, so when downloads start or
+ * finish, downloads with rate too far from the new share are restarted — yt-dlp continues
+ * from partially downloaded files. Downloads hold their share only while data is downloaded,
+ * not while it is encoded.
+ */
+@Log4j2
+final class DownloadBandwidth
+{
+    /**
+     * Download is restarted if its rate differs from its share more than on this part.
+     */
+    static final double REBALANCE_TOLERANCE = 0.2;
+    /**
+     * Minimal rate of one download, bytes per second.
+     */
+    static final long MIN_RATE = 16 * 1024;
+
+    private final long limit;
+    private final Map<DownloadTask, Long> rates = new HashMap<>();
+
+    /**
+     * Creates bandwidth manager.
+     *
+     * @param limit Total rate of all downloads in bytes per second, {@code 0} for no limit.
+     */
+    DownloadBandwidth(long limit)
+    {
+        this.limit = Math.max(0, limit);
+    }
+
+    boolean isLimited()
+    {
+        return limit > 0;
+    }
+
+    /**
+     * Takes share of bandwidth for download, which starts now.
+     *
+     * Restarted download keeps its place, so its restart does not cause rebalancing.
+     *
+     * @param task Starting download
+     *
+     * @return Rate of download in bytes per second, {@code 0} if there is no limit.
+     */
+    synchronized long acquire(DownloadTask task)
+    {
+        if(!isLimited())
+        {
+            return 0;
+        }
+        rates.put(task, 0L);
+        rebalance(task);
+        return rates.get(task);
+    }
+
+    /**
+     * Returns share of bandwidth for download, which stops downloading data.
+     *
+     * @param task Download
+     */
+    synchronized void release(DownloadTask task)
+    {
+        if(rates.remove(task) != null)
+        {
+            rebalance(null);
+        }
+    }
+
+    /**
+     * Returns current rate of download.
+     *
+     * @param task Download
+     *
+     * @return Rate in bytes per second or {@code 0} if download does not hold share.
+     */
+    synchronized long getRate(DownloadTask task)
+    {
+        return rates.getOrDefault(task, 0L);
+    }
+
+    private void rebalance(DownloadTask started)
+    {
+        if(rates.isEmpty())
+        {
+            return;
+        }
+        long share = Math.max(MIN_RATE, limit / rates.size());
+        log.debug("Download bandwidth share: {} B/s for {} downloads", share, rates.size());
+        for(Map.Entry<DownloadTask, Long> entry : rates.entrySet())
+        {
+            DownloadTask task = entry.getKey();
+            if(task == started)
+            {
+                entry.setValue(share);
+                continue;
+            }
+            long rate = entry.getValue();
+            if(Math.abs(rate - share) > share * REBALANCE_TOLERANCE && task.restart())
+            {
+                // Restarted download acquires its share again:
+                entry.setValue(share);
+            }
+        }
+    }
+}
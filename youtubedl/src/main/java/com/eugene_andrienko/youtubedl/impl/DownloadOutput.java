@@ -0,0 +1,105 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Output of yt-dlp for one download: lines of progress and path to the downloaded file.
+ *
+ * Progress is published not more often than readers can see it. Output is read in two parts:
+ * till download reaches {@link #ENCODING_PROGRESS} and yt-dlp starts post-processing, and
+ * then till the end — so caller can switch state of download between them.
+ */
+final class DownloadOutput
+{
+    /**
+     * Progress of download after which encoding starts (99.9%).
+     */
+    static final int ENCODING_PROGRESS = 9990;
+    /**
+     * Minimal interval between publications of download progress.
+     */
+    static final long PROGRESS_PUBLISH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final LineReader lines;
+    private final AtomicInteger progressHolder;
+    private String downloadedFilePath = "";
+    private int publishedProgress = 0;
+    private long publishedAt = 0;
+
+    /**
+     * Creates reader of output.
+     *
+     * @param reader         Standard output of yt-dlp
+     * @param progressHolder Published progress of download in basis points
+     */
+    DownloadOutput(Reader reader, AtomicInteger progressHolder)
+    {
+        this.lines = new LineReader(reader);
+        this.progressHolder = progressHolder;
+    }
+
+    /**
+     * Reads output till download reaches {@link #ENCODING_PROGRESS}.
+     *
+     * @return {@code True} if encoding is started, {@code false} if output is ended before.
+     *
+     * @throws IOException Fail to read output.
+     */
+    boolean readTillEncoding() throws IOException
+    {
+        return read(true);
+    }
+
+    /**
+     * Reads output till the end.
+     *
+     * @throws IOException Fail to read output.
+     */
+    void readTillEnd() throws IOException
+    {
+        read(false);
+    }
+
+    /**
+     * Returns path to the downloaded file — the last line of output, which is not progress.
+     *
+     * @return Path or empty string if yt-dlp has not printed it.
+     */
+    String getDownloadedFilePath()
+    {
+        return downloadedFilePath;
+    }
+
+    private boolean read(boolean tillEncoding) throws IOException
+    {
+        int lineLength;
+        while((lineLength = lines.readLine()) >= 0)
+        {
+            int progress = ProgressParser.parseBasisPoints(lines.getLine(), lineLength);
+            if(progress == ProgressParser.NOT_PROGRESS)
+            {
+                downloadedFilePath = lines.getLineAsString();
+                continue;
+            }
+
+            // Publish progress not more often than readers can see it:
+            long now = System.nanoTime();
+            boolean publishTime = now - publishedAt >= PROGRESS_PUBLISH_INTERVAL;
+            if(progress != publishedProgress && (publishTime || progress >= ENCODING_PROGRESS))
+            {
+                progressHolder.setRelease(progress);
+                publishedProgress = progress;
+                publishedAt = now;
+            }
+            if(tillEncoding && progress >= ENCODING_PROGRESS)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,253 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import com.eugene_andrienko.metrics.api.Gauge;
+import com.eugene_andrienko.metrics.api.Metrics;
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * One download from YouTube.
+ *
+ * Every download works in its own directory, so files of cancelled download can be removed
+ * without touching other downloads. Download can be cancelled at any moment: queued download
+ * will not start, running external program will be destroyed, and the directory will be
+ * removed as soon as download is finished.
+ *
+ * Running download can be paused: external program is destroyed, but the directory with
+ * partially downloaded files is kept. Resumed download is started again in the same directory,
+ * so yt-dlp continues from the partial files.
+ *
+ * Running download also can be restarted in place — to change options of yt-dlp (for
+ * example rate limit) without loss of downloaded data.
+ */
+@Log4j2
+final class DownloadTask
+{
+    private static final Gauge QUEUED = Metrics.gauge("telepodcast_download_queue_depth",
+            "Downloads waiting for free slot");
+
+    private final File directory;
+    /**
+     * Download progress in basis points.
+     */
+    private final AtomicInteger progress = new AtomicInteger(0);
+    private ProcessRunner runner;
+    private Executor executor;
+    private Runnable job;
+    private boolean isCancelled = false;
+    private boolean isRunning = false;
+    private boolean isPaused = false;
+    private boolean isResumeRequested = false;
+    private boolean isRestarting = false;
+
+    DownloadTask(File directory)
+    {
+        this.directory = directory;
+    }
+
+    File getDirectory()
+    {
+        return directory;
+    }
+
+    AtomicInteger getProgress()
+    {
+        return progress;
+    }
+
+    synchronized boolean isCancelled()
+    {
+        return isCancelled;
+    }
+
+    synchronized boolean isPaused()
+    {
+        return isPaused;
+    }
+
+    /**
+     * Checks what external program is stopped because of restart or pause.
+     *
+     * @return {@code True} if external program is stopped not because of error.
+     */
+    synchronized boolean isInterrupted()
+    {
+        return isPaused || isRestarting;
+    }
+
+    /**
+     * Queues download for execution.
+     *
+     * @param executor Executor of downloads
+     * @param job      Download itself. Should call {@link #start()} and {@link #finish()}.
+     */
+    synchronized void submit(Executor executor, Runnable job)
+    {
+        this.executor = executor;
+        this.job = job;
+        enqueue();
+    }
+
+    /**
+     * Marks download as running. Should be called by download thread before download.
+     *
+     * @return {@code False} if download is cancelled or paused and should not be started.
+     */
+    synchronized boolean start()
+    {
+        QUEUED.dec();
+        if(isCancelled || isPaused)
+        {
+            return false;
+        }
+        isRunning = true;
+        return true;
+    }
+
+    /**
+     * Attaches started external program to download — it will be destroyed on cancel.
+     *
+     * @param runner Started external program
+     *
+     * @return {@code False} if download is already cancelled — program is destroyed.
+     */
+    synchronized boolean attach(ProcessRunner runner)
+    {
+        if(isCancelled)
+        {
+            runner.destroy();
+            return false;
+        }
+        this.runner = runner;
+        return true;
+    }
+
+    /**
+     * Cancels download.
+     */
+    synchronized void cancel()
+    {
+        if(isCancelled)
+        {
+            return;
+        }
+        log.debug("Cancelling download in {}", directory);
+        isCancelled = true;
+        if(runner != null)
+        {
+            runner.destroy();
+        }
+        if(!isRunning)
+        {
+            AbstractYoutubeDl.deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Pauses running download. Partially downloaded files are kept.
+     *
+     * @return {@code False} if download is not running now.
+     */
+    synchronized boolean pause()
+    {
+        if(isCancelled || isPaused || !isRunning || runner == null)
+        {
+            return false;
+        }
+        log.debug("Pausing download in {}", directory);
+        isPaused = true;
+        isResumeRequested = false;
+        runner.destroy();
+        return true;
+    }
+
+    /**
+     * Restarts running download: external program is destroyed and should be started again by
+     * the download thread, see {@link #takeRestart()}.
+     *
+     * @return {@code False} if download is not running now.
+     */
+    synchronized boolean restart()
+    {
+        if(isCancelled || isPaused || isRestarting || !isRunning || runner == null)
+        {
+            return false;
+        }
+        log.debug("Restarting download in {}", directory);
+        isRestarting = true;
+        runner.destroy();
+        return true;
+    }
+
+    /**
+     * Checks what download should be started again. Should be called by download thread after
+     * external program is finished.
+     *
+     * @return {@code True} if download was restarted and is not cancelled or paused since.
+     */
+    synchronized boolean takeRestart()
+    {
+        boolean result = isRestarting && !isCancelled && !isPaused;
+        isRestarting = false;
+        runner = null;
+        return result;
+    }
+
+    /**
+     * Resumes paused download.
+     *
+     * If paused download is still stopping — it will be resumed as soon as it is finished.
+     *
+     * @return {@code False} if download is not paused.
+     */
+    synchronized boolean resume()
+    {
+        if(isCancelled || !isPaused)
+        {
+            return false;
+        }
+        log.debug("Resuming download in {}", directory);
+        if(isRunning)
+        {
+            isResumeRequested = true;
+        }
+        else
+        {
+            isPaused = false;
+            enqueue();
+        }
+        return true;
+    }
+
+    /**
+     * Marks download as finished. Should be called by download thread in any case.
+     */
+    synchronized void finish()
+    {
+        isRunning = false;
+        isRestarting = false;
+        runner = null;
+        if(isCancelled)
+        {
+            AbstractYoutubeDl.deleteDirectory(directory);
+        }
+        else if(isPaused && isResumeRequested)
+        {
+            isPaused = false;
+            isResumeRequested = false;
+            enqueue();
+        }
+    }
+
+    /**
+     * Passes download to executor. Job is queued till {@link #start()}.
+     */
+    private void enqueue()
+    {
+        QUEUED.inc();
+        executor.execute(job);
+    }
+}
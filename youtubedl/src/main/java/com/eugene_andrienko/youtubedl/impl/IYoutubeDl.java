@@ -4,6 +4,9 @@ import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.DownloadState;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeCannotRunException;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeNoDataException;
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
 
 
 public interface IYoutubeDl
@@ -22,6 +25,36 @@ public interface IYoutubeDl
      */
     void downloadVideo(String url);
 
+    /**
+     * Cancels download of YouTube video and removes its files.
+     *
+     * @param url URL to YouTube video
+     *
+     * @return {@code True} if download was cancelled, {@code false} if there is no download
+     * for given URL.
+     */
+    boolean cancelDownload(String url);
+
+    /**
+     * Pauses download of YouTube video. Partially downloaded files are kept.
+     *
+     * @param url URL to YouTube video
+     *
+     * @return {@code True} if download was paused, {@code false} if nothing is downloading
+     * for given URL now.
+     */
+    boolean pauseDownload(String url);
+
+    /**
+     * Resumes paused download of YouTube video from partially downloaded files.
+     *
+     * @param url URL to YouTube video
+     *
+     * @return {@code True} if download was resumed, {@code false} if download for given URL
+     * is not paused.
+     */
+    boolean resumeDownload(String url);
+
     /**
      * Returns title of YouTube video.
      *
@@ -35,6 +68,40 @@ public interface IYoutubeDl
      */
     String getTitle(String url) throws YouTubeNoDataException;
 
+    /**
+     * Returns title of YouTube video.
+     *
+     * Works synchronously. If yt-dlp does not return the title in the given time — it is
+     * stopped.
+     *
+     * @param url     URL to YouTube video
+     * @param timeout Maximal time to wait for title
+     *
+     * @return Video title
+     *
+     * @throws YouTubeNoDataException Fail to get title from YouTube or timeout is reached
+     */
+    String getTitle(String url, Duration timeout) throws YouTubeNoDataException;
+
+    /**
+     * Returns IDs of channel videos, which are not recorded in the given archive.
+     *
+     * Works synchronously. Videos are listed from the newest one and listing stops at the
+     * first video, already recorded in the archive.
+     *
+     * @param channelUrl URL to YouTube channel or playlist
+     * @param archive    File in yt-dlp download archive format with already processed videos
+     * @param limit      Maximal count of videos to list
+     * @param dateAfter  List only videos uploaded on or after this date ({@code YYYYMMDD}).
+     *                   Can be {@code null}.
+     *
+     * @return List of video IDs, from the newest one to the oldest one
+     *
+     * @throws YouTubeNoDataException Fail to list channel videos
+     */
+    List<String> getNewVideoIds(String channelUrl, File archive, int limit, String dateAfter)
+            throws YouTubeNoDataException;
+
     /**
      * Returns download progress in percents.
      *
@@ -0,0 +1,115 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+
+/**
+ * Reads lines from the given reader into reused buffer.
+ *
+ * Unlike {@link java.io.BufferedReader#readLine()}, does not create new string for every
+ * line. Line is available via {@link #getLine()} until the next {@link #readLine()} call.
+ */
+final class LineReader
+{
+    private static final int BUFFER_SIZE = 8192;
+    private static final int LINE_SIZE = 256;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+    private boolean skipLineFeed = false;
+
+    private char[] line = new char[LINE_SIZE];
+    private int lineLength = 0;
+
+    LineReader(Reader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads next line.
+     *
+     * Line may be terminated by {@code \n}, {@code \r} or {@code \r\n}.
+     *
+     * @return Length of line without line terminator or {@code -1} if end of stream reached.
+     *
+     * @throws IOException Fail to read from the reader.
+     */
+    int readLine() throws IOException
+    {
+        lineLength = 0;
+        while(true)
+        {
+            if(bufferPosition >= bufferLength)
+            {
+                bufferLength = reader.read(buffer, 0, buffer.length);
+                bufferPosition = 0;
+                if(bufferLength <= 0)
+                {
+                    bufferLength = 0;
+                    skipLineFeed = false;
+                    return lineLength > 0 ? lineLength : -1;
+                }
+            }
+
+            char c = buffer[bufferPosition++];
+            if(skipLineFeed)
+            {
+                skipLineFeed = false;
+                if(c == '\n')
+                {
+                    continue;
+                }
+            }
+            if(c == '\n')
+            {
+                return lineLength;
+            }
+            if(c == '\r')
+            {
+                skipLineFeed = true;
+                return lineLength;
+            }
+
+            if(lineLength == line.length)
+            {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = c;
+        }
+    }
+
+    /**
+     * Returns buffer with the last read line.
+     *
+     * @return Buffer with line. Only first {@link #getLineLength()} characters are valid.
+     */
+    char[] getLine()
+    {
+        return line;
+    }
+
+    /**
+     * Returns length of the last read line.
+     *
+     * @return Length of line.
+     */
+    int getLineLength()
+    {
+        return lineLength;
+    }
+
+    /**
+     * Returns the last read line as string.
+     *
+     * @return New string with line.
+     */
+    String getLineAsString()
+    {
+        return new String(line, 0, lineLength);
+    }
+}
@@ -0,0 +1,210 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import com.eugene_andrienko.common.ExecutorFactory;
+import java.io.*;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Runs external program and drains its error stream in background.
+ *
+ * Standard output is read by the caller, standard error is read concurrently by the shared
+ * executor of drainers (virtual threads if available). So the child process never blocks on
+ * the full pipe buffer, even if it writes a lot of warnings. Only last
+ * {@link #STDERR_TAIL_LINES} lines of standard error are kept for diagnostics.
+ *
+ * Program can be limited in time with {@link #destroyAfter(Duration)}: it is destroyed by the
+ * shared watchdog, so the caller, blocked on reading of standard output, gets end of stream.
+ */
+@Log4j2
+final class ProcessRunner implements AutoCloseable
+{
+    static final int STDERR_TAIL_LINES = 50;
+    static final int STDERR_LINE_LENGTH = 512;
+
+    private static final ExecutorService STDERR_DRAINERS =
+            ExecutorFactory.newUnboundedExecutor("stderr-drainer");
+    private static final ScheduledExecutorService WATCHDOG =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "process-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final String name;
+    private final Process process;
+    private final Future<?> stderrDrainer;
+    private final Deque<String> stderrTail = new ArrayDeque<>();
+    private volatile Future<?> watchdog;
+    private volatile boolean isTimedOut = false;
+
+    private ProcessRunner(String name, Process process)
+    {
+        this.name = name;
+        this.process = process;
+        this.stderrDrainer = STDERR_DRAINERS.submit(this::drainStderr);
+    }
+
+    /**
+     * Starts external program.
+     *
+     * @param name           Name of program for logs
+     * @param processBuilder Initialized {@code ProcessBuilder} object
+     *
+     * @return Runner for started program.
+     *
+     * @throws IOException Fail to start program.
+     */
+    static ProcessRunner start(String name, ProcessBuilder processBuilder) throws IOException
+    {
+        processBuilder.redirectError(ProcessBuilder.Redirect.PIPE);
+        return new ProcessRunner(name, processBuilder.start());
+    }
+
+    /**
+     * Returns standard output of program.
+     *
+     * @return Standard output of program.
+     */
+    InputStream getInputStream()
+    {
+        return process.getInputStream();
+    }
+
+    /**
+     * Waits for program exit and for the end of its standard error.
+     *
+     * @return Exit code of program.
+     *
+     * @throws InterruptedException Waiting was interrupted.
+     */
+    int waitFor() throws InterruptedException
+    {
+        int exitCode = process.waitFor();
+        try
+        {
+            stderrDrainer.get();
+        }
+        catch(ExecutionException ex)
+        {
+            log.debug("Failed to read error stream of {}: ", name, ex.getCause());
+        }
+        return exitCode;
+    }
+
+    /**
+     * Destroys program, if it is still running after the given timeout.
+     *
+     * @param timeout Maximal time of program execution
+     */
+    void destroyAfter(Duration timeout)
+    {
+        watchdog = WATCHDOG.schedule(() -> {
+            if(process.isAlive())
+            {
+                log.error("{} is running longer than {} — destroying it", name, timeout);
+                isTimedOut = true;
+                destroy();
+            }
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks what program was destroyed because of timeout.
+     *
+     * @return {@code True} if program was destroyed by timeout.
+     */
+    boolean isTimedOut()
+    {
+        return isTimedOut;
+    }
+
+    /**
+     * Returns last lines of standard error of program.
+     *
+     * @return Last {@link #STDERR_TAIL_LINES} lines of standard error.
+     */
+    List<String> getStderrTail()
+    {
+        synchronized(stderrTail)
+        {
+            return new ArrayList<>(stderrTail);
+        }
+    }
+
+    /**
+     * Writes last lines of standard error of program to log.
+     */
+    void logStderrTail()
+    {
+        for(String line : getStderrTail())
+        {
+            log.error("External error ({}): {}", name, line);
+        }
+    }
+
+    /**
+     * Forcibly stops program with all its child processes.
+     *
+     * Children are collected before the program is stopped (orphans are not descendants
+     * anymore), but stopped after it — so the program cannot react on death of its child.
+     */
+    void destroy()
+    {
+        List<ProcessHandle> children = process.descendants().toList();
+        process.destroyForcibly();
+        children.forEach(ProcessHandle::destroyForcibly);
+    }
+
+    /**
+     * Stops program if it is still running.
+     */
+    @Override
+    public void close()
+    {
+        if(watchdog != null)
+        {
+            watchdog.cancel(false);
+        }
+        if(process.isAlive())
+        {
+            log.debug("{} is still running — destroying it", name);
+            destroy();
+        }
+    }
+
+    private void drainStderr()
+    {
+        try(BufferedReader errors = new BufferedReader(
+                new InputStreamReader(process.getErrorStream())))
+        {
+            String line;
+            while((line = errors.readLine()) != null)
+            {
+                log.debug("{}: {}", name, line);
+                if(line.length() > STDERR_LINE_LENGTH)
+                {
+                    line = line.substring(0, STDERR_LINE_LENGTH);
+                }
+                synchronized(stderrTail)
+                {
+                    if(stderrTail.size() == STDERR_TAIL_LINES)
+                    {
+                        stderrTail.removeFirst();
+                    }
+                    stderrTail.addLast(line);
+                }
+            }
+        }
+        catch(IOException ex)
+        {
+            log.debug("Error stream of {} is closed: {}", name, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+/**
+ * Parser for yt-dlp progress lines.
+ *
+ * yt-dlp prints progress as {@code %(progress._percent_str)s}, for example {@code " 42.3%"}.
+ * Parser works directly over characters of the line, without regular expressions and
+ * without creating new objects.
+ */
+final class ProgressParser
+{
+    /**
+     * Returned if given line is not a progress line.
+     */
+    static final int NOT_PROGRESS = -1;
+    /**
+     * Progress of completed download in basis points.
+     */
+    static final int COMPLETE = 10000;
+
+    private ProgressParser()
+    {
+    }
+
+    /**
+     * Parses progress from given line.
+     *
+     * Line should contain only optional leading whitespaces, number with optional fractional
+     * part and percent sign.
+     *
+     * @param line   Buffer with line
+     * @param length Length of line in buffer
+     *
+     * @return Progress in basis points (hundredths of percent) — from {@code 0} to
+     * {@link #COMPLETE}. Or {@link #NOT_PROGRESS} if given line is not a progress line.
+     */
+    static int parseBasisPoints(char[] line, int length)
+    {
+        int i = 0;
+        while(i < length && isWhitespace(line[i]))
+        {
+            i++;
+        }
+
+        int integer = 0;
+        int integerDigits = 0;
+        while(i < length && isDigit(line[i]))
+        {
+            if(++integerDigits > 3)
+            {
+                return NOT_PROGRESS;
+            }
+            integer = integer * 10 + (line[i] - '0');
+            i++;
+        }
+        if(integerDigits == 0)
+        {
+            return NOT_PROGRESS;
+        }
+
+        int fraction = 0;
+        int fractionDigits = 0;
+        if(i < length && line[i] == '.')
+        {
+            i++;
+            while(i < length && isDigit(line[i]))
+            {
+                if(fractionDigits < 2)
+                {
+                    fraction = fraction * 10 + (line[i] - '0');
+                }
+                fractionDigits++;
+                i++;
+            }
+            if(fractionDigits == 0)
+            {
+                return NOT_PROGRESS;
+            }
+            if(fractionDigits == 1)
+            {
+                fraction *= 10;
+            }
+        }
+
+        if(i != length - 1 || line[i] != '%')
+        {
+            return NOT_PROGRESS;
+        }
+        return Math.min(integer * 100 + fraction, COMPLETE);
+    }
+
+    /**
+     * Converts basis points to percents.
+     *
+     * @param basisPoints Progress in basis points
+     *
+     * @return Progress in percents
+     */
+    static float toPercents(int basisPoints)
+    {
+        return basisPoints / 100.0f;
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f' || c == 0x0B;
+    }
+}
@@ -0,0 +1,185 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.Chapter;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+
+/**
+ * Metadata of downloaded video from {@code .info.json} file of yt-dlp.
+ *
+ * Chapters are taken from {@code chapters} field, which yt-dlp fills from the description or
+ * from chapter markers of YouTube — so time codes are not searched in description again.
+ * Chapters can also be found in comments, if video has no chapters.
+ */
+@Log4j2
+final class VideoInfo
+{
+    /**
+     * Time code at the start of comment line: {@code 1:02:03 Title}, {@code 12:34 - Title}.
+     */
+    private static final Pattern CHAPTER_LINE = Pattern.compile(
+            "^\\s*(?:(\\d{1,2}):)?(\\d{1,2}):(\\d{2})\\s*[-—–:.)]?\\s*(\\S.*)$",
+            Pattern.MULTILINE);
+    /**
+     * Minimal count of time codes in comment to take chapters from it.
+     */
+    static final int MIN_COMMENT_CHAPTERS = 2;
+
+    @Getter
+    private final String description;
+    @Getter
+    private final int durationSeconds;
+    @Getter
+    private final List<Chapter> chapters;
+
+    private VideoInfo(String description, int durationSeconds, List<Chapter> chapters)
+    {
+        this.description = description;
+        this.durationSeconds = durationSeconds;
+        this.chapters = chapters;
+    }
+
+    /**
+     * Parses {@code .info.json} file.
+     *
+     * @param reader Reader of file.
+     *
+     * @return Metadata of video.
+     *
+     * @throws IOException Failed to read or parse file.
+     */
+    static VideoInfo parse(Reader reader) throws IOException
+    {
+        JsonObject info;
+        try
+        {
+            info = JsonParser.parseReader(reader).getAsJsonObject();
+        }
+        catch(JsonParseException | IllegalStateException ex)
+        {
+            log.error("Failed to parse video metadata");
+            throw new IOException(ex);
+        }
+
+        String description = getString(info, "description");
+        JsonElement duration = info.get("duration");
+        int durationSeconds = isNull(duration) ? 0 : (int)duration.getAsDouble();
+
+        List<Chapter> chapters = new ArrayList<>();
+        JsonElement chaptersElement = info.get("chapters");
+        if(!isNull(chaptersElement) && chaptersElement.isJsonArray())
+        {
+            for(JsonElement element : chaptersElement.getAsJsonArray())
+            {
+                JsonObject chapter = element.getAsJsonObject();
+                JsonElement start = chapter.get("start_time");
+                if(isNull(start))
+                {
+                    continue;
+                }
+                chapters.add(new Chapter((int)start.getAsDouble(), getString(chapter, "title")));
+            }
+        }
+        return new VideoInfo(description, durationSeconds, List.copyOf(chapters));
+    }
+
+    /**
+     * Finds chapters in comments of video.
+     *
+     * Chapters are taken from the first comment with at least {@link #MIN_COMMENT_CHAPTERS}
+     * lines started with time codes in ascending order.
+     *
+     * @param comments JSON array of comments from yt-dlp, the most popular first.
+     *
+     * @return Chapters, empty list if no one comment has them.
+     *
+     * @throws IOException Failed to parse comments.
+     */
+    static List<Chapter> findChaptersInComments(Reader comments) throws IOException
+    {
+        JsonArray array;
+        try
+        {
+            JsonElement element = JsonParser.parseReader(comments);
+            if(isNull(element))
+            {
+                return List.of();
+            }
+            array = element.getAsJsonArray();
+        }
+        catch(JsonParseException | IllegalStateException ex)
+        {
+            log.error("Failed to parse comments of video");
+            throw new IOException(ex);
+        }
+
+        for(JsonElement element : array)
+        {
+            if(!element.isJsonObject())
+            {
+                continue;
+            }
+            List<Chapter> chapters = parseChapters(getString(element.getAsJsonObject(), "text"));
+            if(chapters.size() >= MIN_COMMENT_CHAPTERS)
+            {
+                return chapters;
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Parses lines with time codes from text.
+     *
+     * @param text Text of comment.
+     *
+     * @return Chapters in order of lines. Empty list if time codes are not in ascending order.
+     */
+    static List<Chapter> parseChapters(String text)
+    {
+        List<Chapter> chapters = new ArrayList<>();
+        Matcher matcher = CHAPTER_LINE.matcher(text);
+        int previousStart = -1;
+        while(matcher.find())
+        {
+            int hours = matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1));
+            int minutes = Integer.parseInt(matcher.group(2));
+            int seconds = Integer.parseInt(matcher.group(3));
+            if(seconds >= 60 || (matcher.group(1) != null && minutes >= 60))
+            {
+                continue;
+            }
+            int start = hours * 3600 + minutes * 60 + seconds;
+            if(start <= previousStart)
+            {
+                return List.of();
+            }
+            previousStart = start;
+            chapters.add(new Chapter(start, matcher.group(4).strip()));
+        }
+        return chapters;
+    }
+
+    private static String getString(JsonObject object, String name)
+    {
+        JsonElement element = object.get(name);
+        return isNull(element) ? "" : element.getAsString();
+    }
+
+    private static boolean isNull(JsonElement element)
+    {
+        return element == null || element.isJsonNull();
+    }
+}
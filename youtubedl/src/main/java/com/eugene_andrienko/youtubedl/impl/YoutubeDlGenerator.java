@@ -26,6 +26,17 @@ public class YoutubeDlGenerator
         return new YtDlp(countOfThreads);
     }
 
+    public IYoutubeDl generate(int countOfThreads, long downloadLimit) throws IOException
+    {
+        return new YtDlp(countOfThreads, downloadLimit);
+    }
+
+    public IYoutubeDl generate(int countOfThreads, long downloadLimit, int chapterComments)
+            throws IOException
+    {
+        return new YtDlp(countOfThreads, downloadLimit, chapterComments);
+    }
+
     // For testing purposes:
     IYoutubeDl generate(ExecutorService service)
     {
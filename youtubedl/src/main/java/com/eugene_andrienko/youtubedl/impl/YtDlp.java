@@ -1,14 +1,24 @@
 package com.eugene_andrienko.youtubedl.impl;
 
+import com.eugene_andrienko.metrics.api.Counter;
+import com.eugene_andrienko.metrics.api.Metrics;
+import com.eugene_andrienko.metrics.api.Span;
+import com.eugene_andrienko.metrics.api.Timer;
+import com.eugene_andrienko.metrics.api.Tracing;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.DownloadState;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData;
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.Chapter;
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.ContentType;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeCannotRunException;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeNoDataException;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.log4j.Log4j2;
 
 
@@ -21,6 +31,31 @@ public final class YtDlp extends AbstractYoutubeDl
 
     private static final String FFMPEG = "ffmpeg";
 
+    private static final String INFO_JSON_EXTENSION = ".info.json";
+    /**
+     * Exit code of yt-dlp, when listing is stopped by {@code --break-on-existing} or
+     * {@code --break-on-reject}.
+     */
+    private static final int BREAK_EXIT_CODE = 101;
+
+    private static final String STAGE_SECONDS = "telepodcast_stage_seconds";
+    private static final String STAGE_HELP = "Duration of stages of jobs";
+    private static final Timer METADATA_TIME = Metrics.timer(STAGE_SECONDS, STAGE_HELP,
+            "stage", "metadata");
+    private static final Timer DOWNLOAD_TIME = Metrics.timer(STAGE_SECONDS, STAGE_HELP,
+            "stage", "download");
+    private static final Timer ENCODE_TIME = Metrics.timer(STAGE_SECONDS, STAGE_HELP,
+            "stage", "encode");
+    private static final Timer VOLUME_TIME = Metrics.timer(STAGE_SECONDS, STAGE_HELP,
+            "stage", "volume");
+    private static final Counter DOWNLOADED_BYTES = Metrics.counter(
+            "telepodcast_downloaded_bytes_total", "Size of downloaded files");
+
+    /**
+     * Count of the most popular comments to search for chapters, {@code 0} — do not search.
+     */
+    private final int chapterComments;
+
     /**
      * Initializes {@code YtDlp} object.
      *
@@ -31,6 +66,39 @@ public final class YtDlp extends AbstractYoutubeDl
     public YtDlp(int countOfThreads) throws IOException
     {
         super(countOfThreads);
+        this.chapterComments = 0;
+    }
+
+    /**
+     * Initializes {@code YtDlp} object with limited download bandwidth.
+     *
+     * @param countOfThreads Count of thread to download videos from YouTube.
+     * @param downloadLimit  Total rate of all downloads in bytes per second, {@code 0} for no
+     *                       limit.
+     *
+     * @throws IOException Fail initialize object.
+     */
+    public YtDlp(int countOfThreads, long downloadLimit) throws IOException
+    {
+        this(countOfThreads, downloadLimit, 0);
+    }
+
+    /**
+     * Initializes {@code YtDlp} object with limited download bandwidth and search of chapters
+     * in comments.
+     *
+     * @param countOfThreads  Count of thread to download videos from YouTube.
+     * @param downloadLimit   Total rate of all downloads in bytes per second, {@code 0} for no
+     *                        limit.
+     * @param chapterComments Count of the most popular comments to search for chapters, if
+     *                        video has no chapters. {@code 0} — do not search.
+     *
+     * @throws IOException Fail initialize object.
+     */
+    public YtDlp(int countOfThreads, long downloadLimit, int chapterComments) throws IOException
+    {
+        super(countOfThreads, downloadLimit);
+        this.chapterComments = Math.max(0, chapterComments);
     }
 
     /**
@@ -41,6 +109,7 @@ public final class YtDlp extends AbstractYoutubeDl
     YtDlp(ExecutorService service)
     {
         super(service);
+        this.chapterComments = 0;
     }
 
     @Override
@@ -52,6 +121,8 @@ public final class YtDlp extends AbstractYoutubeDl
             try
             {
                 ProcessBuilder processBuilder = new ProcessBuilder(cmd, "--help");
+                processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+                processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
                 Process process = processBuilder.start();
                 int exitValue = process.waitFor();
                 if(exitValue != 0)
@@ -78,14 +149,14 @@ public final class YtDlp extends AbstractYoutubeDl
     @Override
     public void downloadAudio(final String url)
     {
-        downloadProgressTable.put(url, 0.0f);
-        downloadStateTable.put(url, DownloadState.DOWNLOADING);
+        DownloadTask task = registerDownload(url);
 
-        executorService.execute(() -> {
+        submitDownload(task, () -> {
             log.info("Downloading {}", url);
 
             ProcessBuilder processBuilder = new ProcessBuilder(YT_DLP,
-                    "--write-description",
+                    "--write-info-json",
+                    "--continue",
                     "--extract-audio",
                     "--audio-format", "mp3",
                     "--embed-thumbnail",
@@ -98,7 +169,7 @@ public final class YtDlp extends AbstractYoutubeDl
                     "--print", "after_move:%(filepath)s",
                     "--output", "%(title)s.%(ext)s",
                     url);
-            download(url, processBuilder, ContentType.AUDIO);
+            download(url, task, processBuilder, ContentType.AUDIO);
         });
     }
 
@@ -110,14 +181,14 @@ public final class YtDlp extends AbstractYoutubeDl
     @Override
     public void downloadVideo(final String url)
     {
-        downloadProgressTable.put(url, 0.0f);
-        downloadStateTable.put(url, DownloadState.DOWNLOADING);
+        DownloadTask task = registerDownload(url);
 
-        executorService.execute(() -> {
+        submitDownload(task, () -> {
             log.info("Downloading {}", url);
 
             ProcessBuilder processBuilder = new ProcessBuilder(YT_DLP,
-                    "--write-description",
+                    "--write-info-json",
+                    "--continue",
                     "--embed-thumbnail",
                     "--recode-video", "mp4",
                     "--no-colors",
@@ -129,13 +200,13 @@ public final class YtDlp extends AbstractYoutubeDl
                     "--print", "after_move:%(filepath)s",
                     "--output", "%(title)s.%(ext)s",
                     url);
-            download(url, processBuilder, ContentType.VIDEO);
+            download(url, task, processBuilder, ContentType.VIDEO);
         });
     }
 
     private enum DataToGet
     {
-        TITLE, DURATION
+        TITLE
     }
 
     /**
@@ -150,34 +221,145 @@ public final class YtDlp extends AbstractYoutubeDl
     @Override
     public String getTitle(final String url) throws YouTubeNoDataException
     {
-        return getData(url, DataToGet.TITLE);
+        return getData(url, DataToGet.TITLE, null);
     }
 
     /**
-     * Returns duration for given YouTube video in seconds.
+     * Returns title for given YouTube video, waiting for it not longer than {@code timeout}.
      *
-     * Works synchronously.
+     * @param url     URL to YouTube video
+     * @param timeout Maximal time to wait for title
      *
-     * @param url URL to YouTube video
+     * @return Title for YouTube video
+     *
+     * @throws YouTubeNoDataException Fail to get title or timeout is reached
+     */
+    @Override
+    public String getTitle(final String url, final Duration timeout)
+            throws YouTubeNoDataException
+    {
+        return getData(url, DataToGet.TITLE, timeout);
+    }
+
+    /**
+     * Returns IDs of channel videos, which are not recorded in the given archive.
+     *
+     * Listing stops on the first video, recorded in {@code archive}
+     * ({@code --break-on-existing}), so polling of the channel with already processed
+     * videos finishes after the first page. Without date only the channel pages are requested
+     * from YouTube (flat playlist). With date every listed video is requested to get its
+     * upload date, and listing stops on the first video uploaded before the date.
+     *
+     * @param channelUrl URL to YouTube channel or playlist
+     * @param archive    File in yt-dlp download archive format with already processed videos
+     * @param limit      Maximal count of videos to list
+     * @param dateAfter  List only videos uploaded on or after this date ({@code YYYYMMDD}).
+     *                   Can be {@code null}.
      *
-     * @return Duration in seconds
+     * @return List of video IDs, from the newest one to the oldest one
      *
-     * @throws YouTubeNoDataException Fail to get duration
+     * @throws YouTubeNoDataException Fail to list channel videos
      */
-    private int getDuration(final String url) throws YouTubeNoDataException
+    @Override
+    public List<String> getNewVideoIds(final String channelUrl, final File archive,
+            final int limit, final String dateAfter) throws YouTubeNoDataException
     {
-        String durationStr = getData(url, DataToGet.DURATION);
-        try
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                newVideoIdsCommand(channelUrl, archive, limit, dateAfter));
+        try(ProcessRunner runner = ProcessRunner.start(YT_DLP, processBuilder))
+        {
+            List<String> result = readNewVideoIds(runner, channelUrl);
+            log.debug("Got {} new videos from {}", result.size(), channelUrl);
+            return result;
+        }
+        catch(InterruptedException ex)
         {
-            return Integer.parseInt(durationStr);
+            log.error("Interrupted when listing videos of {}", channelUrl);
+            Thread.currentThread().interrupt();
+            throw new YouTubeNoDataException(ex);
         }
-        catch(NumberFormatException ex)
+        catch(IOException ex)
         {
-            log.error("Failed to parse duration = {}", durationStr);
+            log.error("Got {} when listing videos of {}", ex, channelUrl);
             throw new YouTubeNoDataException(ex);
         }
     }
 
+    /**
+     * Returns yt-dlp command to list new videos of channel.
+     *
+     * Listing stops on the first video from the archive. Flat listing of channel is fast, but
+     * its entries have no upload date — so if date is given, entries are extracted fully and
+     * listing stops also on the first video uploaded before the date.
+     *
+     * @param channelUrl URL to YouTube channel or playlist
+     * @param archive    File in yt-dlp download archive format with already processed videos
+     * @param limit      Maximal count of videos to list
+     * @param dateAfter  List only videos uploaded on or after this date ({@code YYYYMMDD}).
+     *                   Can be {@code null}.
+     *
+     * @return Command.
+     */
+    static List<String> newVideoIdsCommand(String channelUrl, File archive, int limit,
+            String dateAfter)
+    {
+        List<String> command = new ArrayList<>(Arrays.asList(YT_DLP,
+                "--no-colors",
+                "--simulate",
+                "--quiet",
+                "--ignore-errors",
+                "--download-archive", archive.getAbsolutePath(),
+                "--break-on-existing",
+                "--playlist-end", String.valueOf(limit),
+                "--print", "%(id)s"));
+        if(dateAfter == null)
+        {
+            command.add("--flat-playlist");
+        }
+        else
+        {
+            command.addAll(List.of("--dateafter", dateAfter, "--break-on-reject"));
+        }
+        command.add(channelUrl);
+        return command;
+    }
+
+    /**
+     * Reads IDs of videos listed by yt-dlp and checks its exit code.
+     *
+     * @param runner     Started yt-dlp
+     * @param channelUrl URL to YouTube channel or playlist, for logs
+     *
+     * @return List of video IDs.
+     *
+     * @throws IOException            Fail to read output of yt-dlp.
+     * @throws InterruptedException   Waiting for yt-dlp is interrupted.
+     * @throws YouTubeNoDataException yt-dlp failed — channel is not listed.
+     */
+    static List<String> readNewVideoIds(ProcessRunner runner, String channelUrl)
+            throws IOException, InterruptedException, YouTubeNoDataException
+    {
+        BufferedReader br = new BufferedReader(new InputStreamReader(runner.getInputStream()));
+        List<String> result = new ArrayList<>();
+        String output;
+        while((output = br.readLine()) != null)
+        {
+            if(!output.isBlank())
+            {
+                result.add(output.strip());
+            }
+        }
+        int exitCode = runner.waitFor();
+        if(exitCode != 0 && exitCode != BREAK_EXIT_CODE)
+        {
+            log.error("yt-dlp exited with {} code when listing videos of {}", exitCode,
+                    channelUrl);
+            runner.logStderrTail();
+            throw new YouTubeNoDataException("Failed to list videos of " + channelUrl);
+        }
+        return result;
+    }
+
     /**
      * Returns asked data for given YouTube video.
      *
@@ -185,12 +367,14 @@ public final class YtDlp extends AbstractYoutubeDl
      *
      * @param url       URL to YouTube video
      * @param dataToGet Data to get from YouTube.
+     * @param timeout   Maximal time to wait for data, {@code null} to wait without limit
      *
      * @return Asked data as string
      *
      * @throws YouTubeNoDataException Fail get asked data
      */
-    private String getData(final String url, DataToGet dataToGet) throws YouTubeNoDataException
+    private String getData(final String url, DataToGet dataToGet, Duration timeout)
+            throws YouTubeNoDataException
     {
         String data;
         switch(dataToGet)
@@ -198,9 +382,6 @@ public final class YtDlp extends AbstractYoutubeDl
             case TITLE:
                 data = "%(title)s";
                 break;
-            case DURATION:
-                data = "%(duration)s";
-                break;
             default:
                 log.error("Got unknown request for YouTube data: {}", dataToGet);
                 throw new YouTubeNoDataException("Unknown request");
@@ -212,27 +393,45 @@ public final class YtDlp extends AbstractYoutubeDl
                 "--quiet",
                 "--print", data,
                 url);
-        try
+        long start = METADATA_TIME.start();
+        try(Span span = Tracing.span(url, "metadata");
+            ProcessRunner runner = ProcessRunner.start(YT_DLP, processBuilder))
         {
-            Process process = processBuilder.start();
-            InputStream is = process.getInputStream();
+            if(timeout != null)
+            {
+                runner.destroyAfter(timeout);
+            }
+            InputStream is = runner.getInputStream();
             InputStreamReader isr = new InputStreamReader(is);
             BufferedReader br = new BufferedReader(isr);
             String title = "", output;
 
             while((output = br.readLine()) != null)
             {
-                Thread.yield();
                 title = output;
             }
+            runner.waitFor();
+            if(runner.isTimedOut())
+            {
+                log.error("Timeout when obtain YouTube data ({}) from {}", dataToGet, url);
+                throw new YouTubeNoDataException("Timeout of yt-dlp");
+            }
             if(title.equals(""))
             {
                 log.error("Cannot read data ({}) from called yt-dlp for {}!", dataToGet, url);
+                runner.logStderrTail();
                 throw new YouTubeNoDataException("No data from yt-dlp");
             }
 
+            METADATA_TIME.record(start);
             return title;
         }
+        catch(InterruptedException ex)
+        {
+            log.error("Interrupted when obtain YouTube data ({}) from {}", dataToGet, url);
+            Thread.currentThread().interrupt();
+            throw new YouTubeNoDataException(ex);
+        }
         catch(IOException ex)
         {
             log.error("Got {} when obtain YouTube data ({}) from {}", ex, dataToGet, url);
@@ -243,102 +442,192 @@ public final class YtDlp extends AbstractYoutubeDl
     /**
      * Downloads data from YouTube.
      *
+     * Data is downloaded into the own directory of download. If download is cancelled — its
+     * state is not changed anymore and its files are removed. If download is paused — partial
+     * files are kept in the directory, and resumed download continues from them.
+     *
+     * If download bandwidth is limited, yt-dlp gets the current share of bandwidth. Download
+     * restarted because of change of share is started again in the same thread.
+     *
      * @param url            URL to YouTube video
+     * @param task           Registered download
      * @param processBuilder Initialized {@code ProcessBuilder} object.
      * @param contentType    Result type — see {@see #ContentType} values.
      */
-    private void download(String url, ProcessBuilder processBuilder, ContentType contentType)
+    private void download(String url, DownloadTask task, ProcessBuilder processBuilder,
+            ContentType contentType)
     {
-        processBuilder.directory(tempDirectory);
-        File file = null;
         try
         {
-            Process process = processBuilder.start();
-            InputStream is = process.getInputStream();
-            InputStream es = process.getErrorStream();
-            InputStreamReader isr = new InputStreamReader(is);
-            InputStreamReader esr = new InputStreamReader(es);
-            BufferedReader br = new BufferedReader(isr);
-            BufferedReader errors = new BufferedReader(esr);
-            String downloadedFilePath = "";
-            String output;
+            if(!task.start())
+            {
+                log.debug("Download of {} is cancelled or paused before start", url);
+                return;
+            }
+            File directory = task.getDirectory();
+            if(!directory.isDirectory() && !directory.mkdirs())
+            {
+                log.error("Failed to create {} directory", directory.getAbsolutePath());
+                updateState(url, task, DownloadState.FAIL);
+                return;
+            }
+            processBuilder.directory(directory);
+            List<String> command = new ArrayList<>(processBuilder.command());
+            // Restarts because of change of bandwidth are parts of the same download:
+            long start = DOWNLOAD_TIME.start();
+            try(Span span = Tracing.span(url, "download"))
+            {
+                do
+                {
+                    processBuilder.command(withRateLimit(command, bandwidth.acquire(task)));
+                    runDownload(url, task, processBuilder, contentType, task.getProgress(), start,
+                            span);
+                }
+                while(task.takeRestart());
+            }
+        }
+        finally
+        {
+            bandwidth.release(task);
+            task.finish();
+        }
+    }
 
-            while((output = br.readLine()) != null)
+    /**
+     * Adds rate limit to yt-dlp command.
+     *
+     * @param command yt-dlp command, URL is the last argument
+     * @param rate    Rate in bytes per second, {@code 0} for no limit
+     *
+     * @return New command.
+     */
+    static List<String> withRateLimit(List<String> command, long rate)
+    {
+        if(rate <= 0)
+        {
+            return command;
+        }
+        List<String> result = new ArrayList<>(command);
+        result.addAll(result.size() - 1, List.of("--limit-rate", String.valueOf(rate)));
+        return result;
+    }
+
+    private void runDownload(String url, DownloadTask task, ProcessBuilder processBuilder,
+            ContentType contentType, AtomicInteger progressHolder, long start, Span downloadSpan)
+    {
+        File file = null;
+        Span encodeSpan = null;
+        try(ProcessRunner runner = ProcessRunner.start(YT_DLP, processBuilder))
+        {
+            if(!task.attach(runner))
+            {
+                return;
+            }
+            DownloadOutput output = new DownloadOutput(
+                    new InputStreamReader(runner.getInputStream()), progressHolder);
+            long encodingStart = 0;
+            if(output.readTillEncoding())
             {
-                Thread.yield();
-                Pattern progressPattern = Pattern.compile("\\s*(\\d+\\.?\\d+)%");
-                Matcher matcher = progressPattern.matcher(output);
-                if(matcher.matches())
+                DOWNLOAD_TIME.record(start);
+                encodingStart = ENCODE_TIME.start();
+                downloadSpan.close();
+                encodeSpan = Tracing.span(url, "encode");
+                // Data is downloaded, bandwidth can be given to other downloads:
+                bandwidth.release(task);
+                if(contentType == ContentType.AUDIO)
+                {
+                    updateState(url, task, DownloadState.AUDIO_ENCODING);
+                }
+                else if(contentType == ContentType.VIDEO)
                 {
-                    float progress = Float.parseFloat(matcher.group(1));
-                    downloadProgressTable.put(url, progress);
-                    if(progress >= 99.9f)
-                    {
-                        if(contentType == ContentType.AUDIO)
-                        {
-                            downloadStateTable.put(url, DownloadState.AUDIO_ENCODING);
-                        }
-                        else if(contentType == ContentType.VIDEO)
-                        {
-                            downloadStateTable.put(url, DownloadState.VIDEO_ENCODING);
-                        }
-                        else
-                        {
-                            log.error("Unknown content type: {}", contentType);
-                        }
-                    }
+                    updateState(url, task, DownloadState.VIDEO_ENCODING);
                 }
                 else
                 {
-                    downloadedFilePath = output;
+                    log.error("Unknown content type: {}", contentType);
                 }
+                output.readTillEnd();
+            }
+            String downloadedFilePath = output.getDownloadedFilePath();
+            int exitCode = runner.waitFor();
+            if(task.isCancelled())
+            {
+                log.info("Download of {} is cancelled", url);
+                return;
+            }
+            if(task.isInterrupted())
+            {
+                log.info("Download of {} is paused or restarted", url);
+                return;
             }
             if(downloadedFilePath.equals(""))
             {
                 log.error("Cannot read data from called yt-dlp!");
-                while((output = errors.readLine()) != null)
-                {
-                    log.error("External error: {}", output);
-                }
-                downloadStateTable.put(url, DownloadState.FAIL);
+                log.debug("yt-dlp exit code: {}", exitCode);
+                runner.logStderrTail();
+                updateState(url, task, DownloadState.FAIL);
                 return;
             }
+            if(exitCode != 0)
+            {
+                log.warn("yt-dlp exited with {} code for {}", exitCode, url);
+            }
 
             log.debug("Downloaded file: {}", downloadedFilePath);
-            downloadStateTable.put(url, DownloadState.DOWNLOADED);
+            ENCODE_TIME.record(encodingStart);
+            if(encodeSpan != null)
+            {
+                encodeSpan.close();
+            }
+            if(Metrics.isEnabled())
+            {
+                DOWNLOADED_BYTES.add(new File(downloadedFilePath).length());
+            }
+            updateState(url, task, DownloadState.DOWNLOADED);
 
             if(contentType == ContentType.AUDIO)
             {
-                downloadStateTable.put(url, DownloadState.VOLUME_INCREASE);
-                increaseVolume(downloadedFilePath);
+                updateState(url, task, DownloadState.VOLUME_INCREASE);
+                long volumeStart = VOLUME_TIME.start();
+                try(Span span = Tracing.span(url, "volume"))
+                {
+                    increaseVolume(downloadedFilePath, task);
+                }
+                VOLUME_TIME.record(volumeStart);
             }
 
             // Composing data for YoutubeData object:
             file = new File(downloadedFilePath);
-            File descriptionFile = new File(downloadedFilePath.substring(
-                    0, downloadedFilePath.length() - 3) + "description");
-            BufferedReader descriptionReader = new BufferedReader(new FileReader(descriptionFile));
-            StringBuilder description = new StringBuilder();
-            while((output = descriptionReader.readLine()) != null)
+            VideoInfo info = readVideoInfo(downloadedFilePath);
+            List<Chapter> chapters = info.getChapters();
+            if(chapters.isEmpty() && chapterComments > 0)
             {
-                description.append(output).append(System.lineSeparator());
+                try(Span span = Tracing.span(url, "comments"))
+                {
+                    chapters = getCommentChapters(url, task);
+                }
             }
-            if(!descriptionFile.delete())
+
+            YoutubeData result = new YoutubeData(file, info.getDescription(), contentType,
+                    info.getDurationSeconds(), chapters);
+            if(!completeDownload(url, task, result))
             {
-                log.error("Failed to delete description file: {}",
-                        descriptionFile.getAbsolutePath());
+                log.info("Download of {} is cancelled after completion", url);
             }
-            int duration = getDuration(url);
-
-            YoutubeData result = new YoutubeData(file, description.toString(), contentType,
-                    duration);
-            downloadsTable.put(url, result);
-            downloadStateTable.put(url, DownloadState.COMPLETE);
         }
-        catch(IOException | YouTubeNoDataException ex)
+        catch(IOException | InterruptedException ex)
         {
+            if(ex instanceof InterruptedException)
+            {
+                Thread.currentThread().interrupt();
+            }
+            if(task.isCancelled() || task.isInterrupted())
+            {
+                log.info("Download of {} is cancelled, paused or restarted", url);
+                return;
+            }
             log.error("Failed to get data from YouTube (URL: {})", url);
-            downloadStateTable.put(url, DownloadState.FAIL);
+            updateState(url, task, DownloadState.FAIL);
             if(file != null)
             {
                 if(!file.delete())
@@ -347,6 +636,92 @@ public final class YtDlp extends AbstractYoutubeDl
                 }
             }
         }
+        finally
+        {
+            // Encoding, which is failed or cancelled:
+            if(encodeSpan != null)
+            {
+                encodeSpan.close();
+            }
+        }
+    }
+
+    /**
+     * Reads metadata of downloaded video, written by yt-dlp next to the file, and deletes it.
+     *
+     * @param downloadedFilePath Path to downloaded file
+     *
+     * @return Metadata of video.
+     *
+     * @throws IOException Fail to read metadata.
+     */
+    private VideoInfo readVideoInfo(String downloadedFilePath) throws IOException
+    {
+        int extension = downloadedFilePath.lastIndexOf('.');
+        File infoFile = new File((extension < 0 ? downloadedFilePath :
+                                  downloadedFilePath.substring(0, extension)) +
+                                 INFO_JSON_EXTENSION);
+        VideoInfo info;
+        try(Reader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(infoFile), StandardCharsets.UTF_8)))
+        {
+            info = VideoInfo.parse(reader);
+        }
+        if(!infoFile.delete())
+        {
+            log.error("Failed to delete metadata file: {}", infoFile.getAbsolutePath());
+        }
+        log.debug("Got {} chapters of {}", info.getChapters().size(), downloadedFilePath);
+        return info;
+    }
+
+    /**
+     * Searches chapters in the most popular comments of video.
+     *
+     * Chapters are optional, so any error is logged and empty list is returned.
+     *
+     * @param url  URL to YouTube video
+     * @param task Download of video — comments are not loaded, if it is cancelled
+     *
+     * @return Chapters from comments or empty list.
+     */
+    private List<Chapter> getCommentChapters(String url, DownloadTask task)
+    {
+        log.info("Searching chapters of {} in comments", url);
+        ProcessBuilder processBuilder = new ProcessBuilder(YT_DLP,
+                "--no-colors",
+                "--simulate",
+                "--quiet",
+                "--get-comments",
+                "--extractor-args", String.format("youtube:max_comments=%d,%d,0,0;" +
+                                                  "comment_sort=top", chapterComments,
+                        chapterComments),
+                "--print", "%(comments)j",
+                url);
+        try(ProcessRunner runner = ProcessRunner.start(YT_DLP, processBuilder))
+        {
+            if(!task.attach(runner))
+            {
+                return List.of();
+            }
+            List<Chapter> chapters = VideoInfo.findChaptersInComments(new BufferedReader(
+                    new InputStreamReader(runner.getInputStream(), StandardCharsets.UTF_8)));
+            runner.waitFor();
+            log.debug("Got {} chapters of {} from comments", chapters.size(), url);
+            return chapters;
+        }
+        catch(InterruptedException ex)
+        {
+            log.warn("Interrupted when searching chapters of {} in comments", url);
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+        catch(IOException ex)
+        {
+            log.warn("Failed to search chapters of {} in comments", url);
+            log.debug("Exception: ", ex);
+            return List.of();
+        }
     }
 
     /**
@@ -357,27 +732,29 @@ public final class YtDlp extends AbstractYoutubeDl
      * renamed to {@code filename.mp3}.
      *
      * @param audioPath Path to downloaded MP3 file
+     * @param task      Download of audio
      *
-     * @throws IOException Fail to increase volume.
+     * @throws IOException Fail to increase volume or download is cancelled.
      */
-    private void increaseVolume(String audioPath) throws IOException
+    private void increaseVolume(String audioPath, DownloadTask task) throws IOException
     {
         log.info("Increasing volume of {}", audioPath);
 
-        ProcessBuilder processBuilder;
-        try
+        ProcessBuilder processBuilder = new ProcessBuilder(LAME, "-S", "--scale", "3", audioPath);
+        processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        try(ProcessRunner runner = ProcessRunner.start(LAME, processBuilder))
         {
-            processBuilder = new ProcessBuilder(LAME, "-S", "--scale", "3", audioPath);
-            Process process = processBuilder.start();
-            InputStream is = process.getErrorStream();
-            InputStreamReader isr = new InputStreamReader(is);
-            BufferedReader br = new BufferedReader(isr);
-            String output;
-
+            if(!task.attach(runner))
+            {
+                throw new IOException("Download is cancelled");
+            }
             log.debug("Increasing {} volume with {}", audioPath, LAME);
-            while((output = br.readLine()) != null)
+            int exitCode = runner.waitFor();
+            if(exitCode != 0)
             {
-                log.debug("LAME: {}", output);
+                log.error("{} exited with {} code", LAME, exitCode);
+                runner.logStderrTail();
+                throw new IOException("Cannot increase volume");
             }
 
             File audioFile = new File(audioPath);
@@ -395,6 +772,12 @@ public final class YtDlp extends AbstractYoutubeDl
                 throw new IOException("Cannot rename file");
             }
         }
+        catch(InterruptedException ex)
+        {
+            log.error("Interrupted when increasing volume");
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
         catch(IOException ex)
         {
             log.error("Fail increase volume");
@@ -4,4 +4,7 @@ module telepodcast.youtubedl {
     requires org.apache.logging.log4j;
     requires org.apache.logging.log4j.core;
     requires lombok;
+    requires com.google.gson;
+    requires telepodcast.common;
+    requires telepodcast.metrics;
 }
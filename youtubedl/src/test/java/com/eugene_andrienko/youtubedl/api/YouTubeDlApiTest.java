@@ -7,6 +7,7 @@ import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeDownloadException;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeNoDataException;
 import com.eugene_andrienko.youtubedl.impl.AbstractYoutubeDl;
 import java.io.File;
+import java.time.Duration;
 import lombok.Cleanup;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.DisplayName;
@@ -93,6 +94,26 @@ public class YouTubeDlApiTest
         }
     }
 
+    @Test
+    @DisplayName("Get title with timeout test")
+    @SneakyThrows
+    void getTitleWithTimeoutTest()
+    {
+        @Cleanup
+        AbstractYoutubeDl mockedYoutube = mock(AbstractYoutubeDl.class);
+        @Cleanup
+        YouTubeDlApi forTest = new YouTubeDlApi(mockedYoutube);
+
+        final String TEST_TITLE = "TEST TITLE";
+        final String TEST_URL = "TEST URL";
+        final Duration TIMEOUT = Duration.ofSeconds(1);
+        when(mockedYoutube.getTitle(eq(TEST_URL), eq(TIMEOUT)))
+                .thenReturn(TEST_TITLE)
+                .thenThrow(YouTubeNoDataException.class);
+        assertEquals(TEST_TITLE, forTest.getTitle(TEST_URL, TIMEOUT), "Title not expected");
+        assertNull(forTest.getTitle(TEST_URL, TIMEOUT), "Title should be null");
+    }
+
     @Test
     @DisplayName("Get download progress test")
     @SneakyThrows
@@ -26,6 +26,7 @@ public class YoutubeDataTest
         assertEquals(mockedFile, forTest.getFile());
         assertEquals(TEST_DESCRIPTION, forTest.getDescription());
         assertEquals(duration, forTest.getDurationSeconds());
+        assertTrue(forTest.getChapters().isEmpty(), "Video without chapters has chapters");
     }
 
     @Test
@@ -6,13 +6,16 @@ import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.ContentType;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeCannotRunException;
 import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeNoDataException;
 import java.io.File;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Cleanup;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 
@@ -103,6 +106,127 @@ public class AbstractYoutubeDlTest
         when(mockedFile.delete()).thenReturn(true);
     }
 
+    @Test
+    @DisplayName("Cancel download test")
+    @SneakyThrows
+    void cancelDownloadTest(@TempDir File tempDirectory)
+    {
+        ExecutorService mockedService = mock(ExecutorService.class);
+        NonAbstractYoutubeDl forTest = new NonAbstractYoutubeDl(mockedService);
+        forTest.tempDirectory = tempDirectory;
+
+        final String TEST_URL = "TEST URL";
+        assertFalse(forTest.cancelDownload(TEST_URL), "Nothing to cancel");
+
+        DownloadTask task = forTest.registerDownload(TEST_URL);
+        assertEquals(DownloadState.DOWNLOADING, forTest.getDownloadState(TEST_URL));
+        assertTrue(task.start());
+        assertTrue(task.getDirectory().mkdirs());
+        assertTrue(new File(task.getDirectory(), "video.part").createNewFile());
+
+        assertTrue(forTest.cancelDownload(TEST_URL));
+        assertEquals(DownloadState.CANCELLED, forTest.getDownloadState(TEST_URL));
+        assertTrue(task.isCancelled());
+
+        // Cancelled download does not change state anymore:
+        forTest.updateState(TEST_URL, task, DownloadState.FAIL);
+        assertEquals(DownloadState.CANCELLED, forTest.getDownloadState(TEST_URL));
+
+        // Files are removed after download is finished:
+        assertTrue(task.getDirectory().exists());
+        task.finish();
+        assertFalse(task.getDirectory().exists(), "Directory of cancelled download exists");
+
+        forTest.close();
+        assertFalse(tempDirectory.exists(), "Temporary directory exists");
+    }
+
+    @Test
+    @DisplayName("Restart download test")
+    @SneakyThrows
+    void restartDownloadTest(@TempDir File tempDirectory)
+    {
+        ExecutorService mockedService = mock(ExecutorService.class);
+        @Cleanup
+        NonAbstractYoutubeDl forTest = new NonAbstractYoutubeDl(mockedService);
+        forTest.tempDirectory = tempDirectory;
+
+        final String TEST_URL = "TEST URL";
+        DownloadTask first = forTest.registerDownload(TEST_URL);
+        DownloadTask second = forTest.registerDownload(TEST_URL);
+        assertTrue(first.isCancelled(), "Previous download is not cancelled");
+        assertFalse(second.isCancelled());
+        assertNotEquals(first.getDirectory(), second.getDirectory());
+
+        File file = new File(tempDirectory, "file");
+        assertTrue(file.createNewFile());
+        YoutubeData data = new YoutubeData(file, "", ContentType.AUDIO, 1);
+        assertFalse(forTest.completeDownload(TEST_URL, first, data));
+        assertNull(forTest.getDownloadedData(TEST_URL));
+        assertTrue(forTest.completeDownload(TEST_URL, second, data));
+        assertEquals(DownloadState.COMPLETE, forTest.getDownloadState(TEST_URL));
+        assertEquals(data, forTest.getDownloadedData(TEST_URL));
+
+        // Downloaded file is removed on cancel:
+        assertTrue(forTest.cancelDownload(TEST_URL));
+        assertFalse(file.exists(), "Downloaded file exists");
+        assertNull(forTest.getDownloadedData(TEST_URL));
+    }
+
+    @Test
+    @DisplayName("Pause and resume download test")
+    @SneakyThrows
+    void pauseResumeDownloadTest(@TempDir File tempDirectory)
+    {
+        ExecutorService mockedService = mock(ExecutorService.class);
+        @Cleanup
+        NonAbstractYoutubeDl forTest = new NonAbstractYoutubeDl(mockedService);
+        forTest.tempDirectory = tempDirectory;
+
+        final String TEST_URL = "TEST URL";
+        DownloadTask task = forTest.registerDownload(TEST_URL);
+        Runnable job = mock(Runnable.class);
+        forTest.submitDownload(task, job);
+        verify(mockedService, times(1)).execute(job);
+        assertFalse(forTest.pauseDownload(TEST_URL), "Queued download is paused");
+
+        assertTrue(task.start());
+        ProcessRunner runner = mock(ProcessRunner.class);
+        assertTrue(task.attach(runner));
+        assertTrue(task.getDirectory().mkdirs());
+        assertTrue(forTest.pauseDownload(TEST_URL));
+        verify(runner, times(1)).destroy();
+        assertEquals(DownloadState.PAUSED, forTest.getDownloadState(TEST_URL));
+        assertFalse(forTest.pauseDownload(TEST_URL), "Download is paused twice");
+
+        // Resume of still stopping download waits for its finish:
+        assertTrue(forTest.resumeDownload(TEST_URL));
+        assertEquals(DownloadState.DOWNLOADING, forTest.getDownloadState(TEST_URL));
+        verify(mockedService, times(1)).execute(job);
+        task.finish();
+        verify(mockedService, times(2)).execute(job);
+        assertTrue(task.getDirectory().exists(), "Partial files of paused download are removed");
+        assertFalse(forTest.resumeDownload(TEST_URL), "Running download is resumed");
+
+        // Paused download is resumed immediately, if it is already finished:
+        assertTrue(task.start());
+        assertTrue(task.attach(runner));
+        assertTrue(forTest.pauseDownload(TEST_URL));
+        task.finish();
+        assertFalse(task.start(), "Paused download is started");
+        assertTrue(forTest.resumeDownload(TEST_URL));
+        verify(mockedService, times(3)).execute(job);
+
+        // Files of paused download are removed on cancel:
+        assertTrue(task.start());
+        assertTrue(task.attach(runner));
+        assertTrue(forTest.pauseDownload(TEST_URL));
+        task.finish();
+        assertTrue(forTest.cancelDownload(TEST_URL));
+        assertFalse(task.getDirectory().exists(), "Directory of cancelled download exists");
+        assertFalse(forTest.resumeDownload(TEST_URL), "Cancelled download is resumed");
+    }
+
 
     private static class NonAbstractYoutubeDl extends AbstractYoutubeDl
     {
@@ -127,6 +251,20 @@ public class AbstractYoutubeDlTest
             return null;
         }
 
+        @Override
+        public String getTitle(final String url, final Duration timeout)
+                throws YouTubeNoDataException
+        {
+            return null;
+        }
+
+        @Override
+        public List<String> getNewVideoIds(final String channelUrl, final File archive,
+                final int limit, final String dateAfter) throws YouTubeNoDataException
+        {
+            return null;
+        }
+
         @Override
         public void canRun() throws YouTubeCannotRunException
         {
@@ -134,7 +272,7 @@ public class AbstractYoutubeDlTest
 
         public void setDownloadProgress(String url, float progress)
         {
-            downloadProgressTable.put(url, progress);
+            downloadProgressTable.put(url, new AtomicInteger(Math.round(progress * 100)));
         }
 
         public void setDownloadState(String url, DownloadState state)
@@ -0,0 +1,66 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+public class DownloadBandwidthTest
+{
+    private static final long LIMIT = 900_000;
+
+    @Test
+    @DisplayName("No limit test")
+    void noLimitTest()
+    {
+        DownloadBandwidth forTest = new DownloadBandwidth(0);
+        DownloadTask task = mock(DownloadTask.class);
+        assertFalse(forTest.isLimited());
+        assertEquals(0, forTest.acquire(task));
+        verify(task, never()).restart();
+    }
+
+    @Test
+    @DisplayName("Bandwidth is rebalanced when downloads start and finish")
+    void rebalanceTest()
+    {
+        DownloadBandwidth forTest = new DownloadBandwidth(LIMIT);
+        DownloadTask first = mock(DownloadTask.class);
+        DownloadTask second = mock(DownloadTask.class);
+        DownloadTask third = mock(DownloadTask.class);
+        when(first.restart()).thenReturn(true);
+        when(second.restart()).thenReturn(false);
+
+        assertEquals(LIMIT, forTest.acquire(first));
+        assertEquals(LIMIT / 2, forTest.acquire(second));
+        verify(first, times(1)).restart();
+        assertEquals(LIMIT / 2, forTest.getRate(first));
+
+        // Second download cannot be restarted now — it keeps its rate:
+        assertEquals(LIMIT / 3, forTest.acquire(third));
+        verify(second, times(1)).restart();
+        assertEquals(LIMIT / 2, forTest.getRate(second));
+        assertEquals(LIMIT / 3, forTest.getRate(first));
+
+        // Restarted download acquires its share again:
+        assertEquals(LIMIT / 3, forTest.acquire(first));
+        verify(first, times(2)).restart();
+        verify(third, never()).restart();
+
+        forTest.release(third);
+        forTest.release(third);
+        verify(first, times(3)).restart();
+        assertEquals(LIMIT / 2, forTest.getRate(first));
+        assertEquals(0, forTest.getRate(third));
+    }
+
+    @Test
+    @DisplayName("Rate of download is not less than minimal")
+    void minimalRateTest()
+    {
+        DownloadBandwidth forTest = new DownloadBandwidth(DownloadBandwidth.MIN_RATE);
+        forTest.acquire(mock(DownloadTask.class));
+        assertEquals(DownloadBandwidth.MIN_RATE, forTest.acquire(mock(DownloadTask.class)));
+    }
+}
@@ -0,0 +1,44 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class DownloadOutputTest
+{
+    @Test
+    @DisplayName("Read output of download")
+    @SneakyThrows
+    void readTest()
+    {
+        AtomicInteger progress = new AtomicInteger();
+        DownloadOutput output = new DownloadOutput(new StringReader(
+                "  0.0%\n 42.3%\n100.0%\n  0.0%\n100.0%\n/tmp/Episode.m4a\n"), progress);
+
+        assertTrue(output.readTillEncoding());
+        assertEquals(10000, progress.get(), "Completed download is always published");
+        assertEquals("", output.getDownloadedFilePath());
+
+        output.readTillEnd();
+        assertEquals(10000, progress.get());
+        assertEquals("/tmp/Episode.m4a", output.getDownloadedFilePath());
+    }
+
+    @Test
+    @DisplayName("Output without completed download")
+    @SneakyThrows
+    void notCompletedTest()
+    {
+        AtomicInteger progress = new AtomicInteger();
+        DownloadOutput output = new DownloadOutput(new StringReader(" 42.3%\nERROR\n"),
+                progress);
+
+        assertFalse(output.readTillEncoding());
+        assertEquals(4230, progress.get());
+        assertEquals("ERROR", output.getDownloadedFilePath());
+    }
+}
@@ -0,0 +1,101 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.List;
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ProcessRunnerTest
+{
+    @Test
+    @DisplayName("Verbose error stream does not block the process")
+    @SneakyThrows
+    void verboseStderrTest()
+    {
+        // Writes ~1 MB to stderr before the only line of stdout:
+        ProcessBuilder processBuilder = new ProcessBuilder("sh", "-c",
+                "i=0; while [ $i -lt 10000 ]; do " +
+                "echo \"warning $i: $(printf '%0100d' 0)\" >&2; i=$((i+1)); done; " +
+                "echo result; exit 3");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            @Cleanup
+            ProcessRunner runner = ProcessRunner.start("sh", processBuilder);
+            BufferedReader br = new BufferedReader(
+                    new InputStreamReader(runner.getInputStream()));
+            assertEquals("result", br.readLine());
+            assertNull(br.readLine());
+            assertEquals(3, runner.waitFor());
+
+            List<String> tail = runner.getStderrTail();
+            assertEquals(ProcessRunner.STDERR_TAIL_LINES, tail.size(), "Tail is not bounded");
+            assertTrue(tail.get(tail.size() - 1).startsWith("warning 9999:"),
+                    "Tail does not contain last line");
+        });
+    }
+
+    @Test
+    @DisplayName("Long lines in error stream are truncated")
+    @SneakyThrows
+    void longStderrLineTest()
+    {
+        ProcessBuilder processBuilder = new ProcessBuilder("sh", "-c",
+                "printf '%02000d\\n' 0 >&2");
+        @Cleanup
+        ProcessRunner runner = ProcessRunner.start("sh", processBuilder);
+        assertEquals(0, runner.waitFor());
+
+        List<String> tail = runner.getStderrTail();
+        assertEquals(1, tail.size());
+        assertEquals(ProcessRunner.STDERR_LINE_LENGTH, tail.get(0).length());
+    }
+
+    @Test
+    @DisplayName("Close destroys running process")
+    @SneakyThrows
+    void closeTest()
+    {
+        ProcessRunner runner = ProcessRunner.start("sh",
+                new ProcessBuilder("sh", "-c", "sleep 60"));
+        runner.close();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertNotEquals(0,
+                runner.waitFor()));
+    }
+
+    @Test
+    @DisplayName("Process is destroyed after timeout")
+    @SneakyThrows
+    void destroyAfterTest()
+    {
+        @Cleanup
+        ProcessRunner runner = ProcessRunner.start("sh",
+                new ProcessBuilder("sh", "-c", "sleep 60; echo result"));
+        runner.destroyAfter(Duration.ofMillis(100));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            BufferedReader br = new BufferedReader(
+                    new InputStreamReader(runner.getInputStream()));
+            assertNull(br.readLine());
+            assertNotEquals(0, runner.waitFor());
+        });
+        assertTrue(runner.isTimedOut());
+    }
+
+    @Test
+    @DisplayName("Process is not destroyed before timeout")
+    @SneakyThrows
+    void notTimedOutTest()
+    {
+        @Cleanup
+        ProcessRunner runner = ProcessRunner.start("sh",
+                new ProcessBuilder("sh", "-c", "echo result"));
+        runner.destroyAfter(Duration.ofSeconds(60));
+        assertEquals(0, runner.waitFor());
+        assertFalse(runner.isTimedOut());
+    }
+}
@@ -0,0 +1,77 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import java.io.StringReader;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class ProgressParserTest
+{
+    @ParameterizedTest
+    @DisplayName("Parse progress line test")
+    @CsvSource(delimiter = '|', value = {
+            "'  0.0%'|0",
+            "' 42.3%'|4230",
+            "'42.37%'|4237",
+            "'42.379%'|4237",
+            "'99.9%'|9990",
+            "'100.0%'|10000",
+            "'100%'|10000",
+            "'7%'|700",
+            "'\t5.5%'|550"
+    })
+    void parseProgressTest(String line, int expected)
+    {
+        char[] chars = line.toCharArray();
+        assertEquals(expected, ProgressParser.parseBasisPoints(chars, chars.length));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Parse not progress line test")
+    @CsvSource(delimiter = '|', value = {
+            "''",
+            "'%'",
+            "'42.%'",
+            "'.5%'",
+            "'42.3'",
+            "'42.3% '",
+            "'1000%'",
+            "'/tmp/telepodcast/42%.mp3'",
+            "'/tmp/telepodcast/video.mp3'"
+    })
+    void parseNotProgressTest(String line)
+    {
+        char[] chars = line.toCharArray();
+        assertEquals(ProgressParser.NOT_PROGRESS,
+                ProgressParser.parseBasisPoints(chars, chars.length));
+    }
+
+    @Test
+    @DisplayName("Read lines test")
+    @SneakyThrows
+    void readLinesTest()
+    {
+        StringBuilder longLine = new StringBuilder();
+        longLine.append("x".repeat(1000));
+        LineReader reader = new LineReader(new StringReader(
+                " 1.0%\n 2.0%\r\n\n 3.0%\r" + longLine + "\nlast"));
+
+        assertEquals(5, reader.readLine());
+        assertEquals(" 1.0%", reader.getLineAsString());
+        assertEquals(5, reader.readLine());
+        assertEquals(" 2.0%", reader.getLineAsString());
+        assertEquals(0, reader.readLine());
+        assertEquals(5, reader.readLine());
+        assertEquals(" 3.0%", reader.getLineAsString());
+        assertEquals(1000, reader.readLine());
+        assertEquals(longLine.toString(), reader.getLineAsString());
+        assertEquals(4, reader.readLine());
+        assertEquals("last", reader.getLineAsString());
+        assertEquals(-1, reader.readLine());
+        assertEquals(-1, reader.readLine());
+    }
+}
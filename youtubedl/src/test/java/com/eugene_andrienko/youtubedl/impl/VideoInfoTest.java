@@ -0,0 +1,72 @@
+package com.eugene_andrienko.youtubedl.impl;
+
+import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.YoutubeData.Chapter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class VideoInfoTest
+{
+    @Test
+    @DisplayName("Parse metadata test")
+    @SneakyThrows
+    void parseTest()
+    {
+        VideoInfo info = VideoInfo.parse(new StringReader("{" +
+                "\"title\": \"Выпуск\", " +
+                "\"description\": \"Описание\\n00:00 Начало\", " +
+                "\"duration\": 3723.5, " +
+                "\"chapters\": [" +
+                "{\"start_time\": 0.0, \"end_time\": 90.0, \"title\": \"Начало\"}, " +
+                "{\"start_time\": 90.0, \"end_time\": 3723.5, \"title\": \"Новости\"}]}"));
+        assertEquals("Описание\n00:00 Начало", info.getDescription());
+        assertEquals(3723, info.getDurationSeconds());
+        assertEquals(List.of(new Chapter(0, "Начало"), new Chapter(90, "Новости")),
+                info.getChapters());
+
+        info = VideoInfo.parse(new StringReader(
+                "{\"description\": null, \"duration\": null, \"chapters\": null}"));
+        assertEquals("", info.getDescription());
+        assertEquals(0, info.getDurationSeconds());
+        assertTrue(info.getChapters().isEmpty());
+
+        assertThrows(IOException.class, () -> VideoInfo.parse(new StringReader("[1, 2")));
+    }
+
+    @Test
+    @DisplayName("Parse chapters from text test")
+    void parseChaptersTest()
+    {
+        assertEquals(List.of(new Chapter(0, "Начало"), new Chapter(75, "Новости"),
+                        new Chapter(3723, "Вопросы слушателей")),
+                VideoInfo.parseChapters("Таймкоды:\n00:00 Начало\n1:15 - Новости\r\n" +
+                                        "Не таймкод 12:34\n1:02:03 — Вопросы слушателей"));
+        assertTrue(VideoInfo.parseChapters("10:00 Конец\n00:00 Начало").isEmpty(),
+                "Time codes not in ascending order");
+        assertTrue(VideoInfo.parseChapters("Счёт 2:1\n00:99 Ошибка").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Find chapters in comments test")
+    @SneakyThrows
+    void findChaptersInCommentsTest()
+    {
+        String comments = "[" +
+                "{\"text\": \"Отличный выпуск!\", \"like_count\": 100}, " +
+                "{\"text\": \"05:00 Только один таймкод\", \"like_count\": 50}, " +
+                "{\"text\": \"00:00 Начало\\n05:00 Новости\", \"like_count\": 10}, " +
+                "{\"text\": \"00:00 Другие\\n07:00 Таймкоды\", \"like_count\": 5}]";
+        assertEquals(List.of(new Chapter(0, "Начало"), new Chapter(300, "Новости")),
+                VideoInfo.findChaptersInComments(new StringReader(comments)));
+
+        assertTrue(VideoInfo.findChaptersInComments(new StringReader("[]")).isEmpty());
+        assertTrue(VideoInfo.findChaptersInComments(new StringReader("null")).isEmpty());
+        assertThrows(IOException.class,
+                () -> VideoInfo.findChaptersInComments(new StringReader("{\"text\": 1}")));
+    }
+}
@@ -1,13 +1,16 @@
 package com.eugene_andrienko.youtubedl.impl;
 
 import com.eugene_andrienko.youtubedl.api.YouTubeDlApi.DownloadState;
+import com.eugene_andrienko.youtubedl.api.exceptions.YouTubeNoDataException;
+import java.io.File;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import lombok.Cleanup;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 
@@ -58,6 +61,66 @@ public class YtDlpTest
         assertEquals(DownloadState.DOWNLOADING, forTest.getDownloadState(TEST_URL));
     }
 
+    @Test
+    @DisplayName("Rate limit test")
+    void withRateLimitTest()
+    {
+        List<String> command = List.of("yt-dlp", "--quiet", "URL");
+        assertSame(command, YtDlp.withRateLimit(command, 0));
+        assertEquals(List.of("yt-dlp", "--quiet", "--limit-rate", "1024", "URL"),
+                YtDlp.withRateLimit(command, 1024));
+    }
+
+    @Test
+    @DisplayName("Command to list new videos")
+    void newVideoIdsCommandTest()
+    {
+        File archive = new File("/tmp/archive.txt");
+        List<String> flat = YtDlp.newVideoIdsCommand("URL", archive, 10, null);
+        assertTrue(flat.contains("--flat-playlist"));
+        assertTrue(flat.contains("--break-on-existing"));
+        assertFalse(flat.contains("--dateafter"));
+        assertEquals("URL", flat.get(flat.size() - 1));
+
+        // Flat entries have no upload date, so date filter needs full extraction:
+        List<String> dated = YtDlp.newVideoIdsCommand("URL", archive, 10, "20240101");
+        assertFalse(dated.contains("--flat-playlist"));
+        assertEquals("20240101", dated.get(dated.indexOf("--dateafter") + 1));
+        assertTrue(dated.contains("--break-on-reject"));
+        assertEquals("URL", dated.get(dated.size() - 1));
+    }
+
+    @Test
+    @DisplayName("New videos are read if yt-dlp stops on existing video")
+    @SneakyThrows
+    void readNewVideoIdsTest()
+    {
+        assertEquals(List.of("ccc", "bbb"), readNewVideoIds("echo ccc; echo; echo bbb"));
+        assertEquals(List.of("ccc"), readNewVideoIds("echo ccc; exit 101"));
+    }
+
+    @Test
+    @DisplayName("Failed yt-dlp is not taken as channel without new videos")
+    void readNewVideoIdsFailTest()
+    {
+        assertThrows(YouTubeNoDataException.class,
+                () -> readNewVideoIds("echo 'ERROR: Unable to download webpage' >&2; exit 1"));
+    }
+
+    /**
+     * Reads new videos from fake yt-dlp.
+     *
+     * @param script Shell script instead of yt-dlp
+     */
+    @SneakyThrows({java.io.IOException.class, InterruptedException.class})
+    private List<String> readNewVideoIds(String script) throws YouTubeNoDataException
+    {
+        @Cleanup
+        ProcessRunner runner = ProcessRunner.start("yt-dlp",
+                new ProcessBuilder("sh", "-c", script));
+        return YtDlp.readNewVideoIds(runner, "URL");
+    }
+
     @BeforeEach
     void initializeBeforeTest()
     {